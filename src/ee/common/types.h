@@ -456,7 +456,8 @@ inline bool tableStreamTypeIsStreamIndexing(TableStreamType streamType) {
 // ------------------------------------------------------------------
 enum StatisticsSelectorType {
     STATISTICS_SELECTOR_TYPE_TABLE,
-    STATISTICS_SELECTOR_TYPE_INDEX
+    STATISTICS_SELECTOR_TYPE_INDEX,
+    STATISTICS_SELECTOR_TYPE_GRAPHVIEW
 };
 
 // ------------------------------------------------------------------
@@ -474,6 +475,8 @@ enum TaskType {
     TASK_TYPE_INIT_DRID_TRACKER = 8,             // not supported in EE
     TASK_TYPE_RESET_DR_APPLIED_TRACKER_SINGLE = 9, // not supported in EE
     TASK_TYPE_ELASTIC_CHANGE = 10,                 // not supported in EE
+    TASK_TYPE_GET_GRAPH_TOPOLOGIES = 11,
+    TASK_TYPE_RESTORE_GRAPH_TOPOLOGIES = 12,
 };
 
 // ------------------------------------------------------------------
@@ -163,7 +163,7 @@ AbstractDRTupleStream* VoltDBEngine::s_drReplicatedStream = nullptr;
 
 VoltDBEngine::VoltDBEngine(Topend* topend, LogProxy* logProxy) : m_logManager(logProxy), m_topend(topend) {
     loadBuiltInJavaFunctions();
-    LogManager::GLog("VoltDBEngine", "Constructor", 171,
+    GLOG("VoltDBEngine", "Constructor", 171,
             "init VoltDBEngine with topend and logProxy"); // Added by LX
 }
 
@@ -183,7 +183,7 @@ VoltDBEngine::initialize(
     // Added by LX
     std::stringstream params;
     params << "clusterIndex = " << clusterIndex << ", siteId = " << siteId;
-    LogManager::GLog("VoltDBEngine", "initialize", 187, params.str());
+    GLOG("VoltDBEngine", "initialize", 187, params.str());
     // End LX
     m_clusterIndex = clusterIndex;
     m_siteId = siteId;
@@ -234,7 +234,7 @@ VoltDBEngine::~VoltDBEngine() {
     // greatly increases the risk of accidentally freeing the same
     // object multiple times.  Change at your own risk.
     // --izzy 8/19/2009
-    LogManager::GLog("VoltDBEngine", "Destructor", 262, "destructor"); // Added by LX
+    GLOG("VoltDBEngine", "Destructor", 262, "destructor"); // Added by LX
 
     // clean up execution plans
     m_plans.reset();
@@ -355,7 +355,7 @@ void VoltDBEngine::cleanup() {
 // OBJECT ACCESS FUNCTIONS
 // ------------------------------------------------------------------
 catalog::Catalog* VoltDBEngine::getCatalog() const {
-    LogManager::GLog("VoltDBEngine", "getCatalog", 302, "getting catalog"); // Added by LC
+    GLOG("VoltDBEngine", "getCatalog", 302, "getting catalog"); // Added by LC
     return m_catalog.get();
 }
 
@@ -407,7 +407,7 @@ catalog::GraphView* VoltDBEngine::getCatalogGraphView(const std::string& name) c
 void VoltDBEngine::serializeTable(int32_t tableId, SerializeOutput& out) const {
     std::stringstream params;
     params << "tableId = " << tableId;
-    LogManager::GLog("VoltDBEngine", "serializeTable", 340, params.str());
+    GLOG("VoltDBEngine", "serializeTable", 340, params.str());
     // Just look in our list of tables
     Table* table = getTableById(tableId);
     if (! table) {
@@ -468,7 +468,7 @@ int VoltDBEngine::executePlanFragments(
     std::stringstream paramsLX;
     paramsLX << "numFragments = " << numFragments;
 
-    LogManager::GLog("VoltDBEngine", "executePlanFragment(s)!", 410, paramsLX.str());
+    GLOG("VoltDBEngine", "executePlanFragment(s)!", 410, paramsLX.str());
     //End LX
     // count failures
     int failures = 0;
@@ -585,7 +585,7 @@ int VoltDBEngine::executePlanFragment(int64_t planfragmentId, int64_t inputDepen
     // Added by LX
     std::stringstream params;
     params << "planFragmentId = " << planfragmentId;
-    LogManager::GLog("VoltDBEngine", "executePlanFragment", 477, params.str());
+    GLOG("VoltDBEngine", "executePlanFragment", 477, params.str());
     //End LX
     vassert(planfragmentId != 0);
 
@@ -1021,7 +1021,7 @@ bool VoltDBEngine::loadCatalog(const int64_t timestamp, const std::string &catal
     std::stringstream params;
     //params << "catalogPayload = " << catalogPayload;
     params << "catalogPayload = " << "omitted by msaber for simplicity";
-    LogManager::GLog("VoltDBEngine", "loadCatalog", 610, params.str());
+    GLOG("VoltDBEngine", "loadCatalog", 610, params.str());
     // End LX
     vassert(m_executorContext != NULL);
     ExecutorContext* executorContext = ExecutorContext::getExecutorContext();
@@ -1329,7 +1329,7 @@ bool VoltDBEngine::processCatalogAdditions(int64_t timestamp, bool updateReplica
             //////////////////////////////////////////
             // add a completely new table
             //////////////////////////////////////////
-            LogManager::GLog("VoltDBEngine", "processCatalogAdditions", 802, "adding a completely new table for " + catalogTable->name());// Added by LX
+            GLOG("VoltDBEngine", "processCatalogAdditions", 802, "adding a completely new table for " + catalogTable->name());// Added by LX
             if (catalogTable->isreplicated()) {
                 if (updateReplicated) {
                     vassert(SynchronizedThreadLock::isLowestSiteContext());
@@ -1697,49 +1697,48 @@ bool VoltDBEngine::processCatalogAdditions(int64_t timestamp, bool updateReplica
 
     // Added by LX
     //handle the graph views
-    LogManager::GLog("VoltDBEngine", "processCatalogAdditions", 1104, "process catalog additions (graph views)");
+    GLOG("VoltDBEngine", "processCatalogAdditions", 1104, "process catalog additions (graph views)");
     // iterate over all of the graph views in the new catalog
     for (LabeledGraphView labeledGraphView: m_database->graphViews()){
         // get the catalog's table object
         catalog::GraphView *catalogGraphView = labeledGraphView.second;
+        // the graph views over replicated tables are added in the replicated pass, once
+        // their tables exist, and the others in the partitioned pass
+        bool isReplicated = catalogGraphView->VTable()->isreplicated() &&
+                catalogGraphView->ETable()->isreplicated();
+        if (isReplicated != updateReplicated) {
+            continue;
+        }
         // get the delegate for the table... add the table if it's null
         GraphViewCatalogDelegate* gcd = findInMapOrNull(catalogGraphView->path(), m_graphViewCatalogDelegates);
         if (!gcd) {
             VOLT_TRACE("add a completely new graph view or rebuild an empty graph view...");
-
-            //////////////////////////////////////////
-            // add a completely new graph view
-            //////////////////////////////////////////
-            LogManager::GLog("VoltDBEngine", "processCatalogAdditions", 1117, "adding a completely new graph view for " + catalogGraphView->name());
-            gcd = new GraphViewCatalogDelegate(catalogGraphView->signature(),
-                                           m_compactionThreshold);
-            // use the delegate to init the table and create indexes n' stuff
-            Table* vTable = findInMapOrNull(catalogGraphView->VTable()->path(), m_catalogDelegates)->getTable();
-            Table* eTable = findInMapOrNull(catalogGraphView->ETable()->path(), m_catalogDelegates)->getTable();
-            string pathsTableName = "TEMPPATHS";
-            if (vTable == NULL || eTable == NULL)
-            {
-                LogManager::GLog("VoltDBEngine", "processCatalogAdditions", 1125, "unable to get vTable or eTable or both");
-                continue;
+            if (updateReplicated) {
+                vassert(SynchronizedThreadLock::isLowestSiteContext());
+                // Only the lowest site runs this pass, so it adds a graph view to every site.
+                // The views of the sites share the topology of the replicated tables.
+                ExecuteWithAllSitesMemory execAllSites;
+                for (auto engineIt : execAllSites) {
+                    EngineLocals& curr = engineIt.second;
+                    VoltDBEngine* currEngine = curr.context->getContextEngine();
+                    SynchronizedThreadLock::assumeSpecificSiteContext(curr);
+                    currEngine->addGraphViewDelegate(catalogGraphView);
+                }
+            } else {
+                addGraphViewDelegate(catalogGraphView);
             }
-            LogManager::GLog("VoltDBEngine", "processCatalogAdditions", 1128, "before calling gcd.init");
-            //TODO: pTable is not used as we assume one path table schema. The parameter may allow varying the path schema according to the view definition in the future
-            Table* pTable = NULL;
-            gcd->init(*m_database, *catalogGraphView, vTable, eTable, pTable);
-            m_graphViewCatalogDelegates[catalogGraphView->path()] = gcd;
-            GraphView* graphView = gcd->getGraphView();
-            m_graphViewDelegatesByName[graphView->name()] = gcd;
-        }
-        else {
-            //msaber: nothing to do here for now
-            //GraphView *graphView = gcd->getGraphView();
-
-            //
-            // Same schema, but TUPLE_LIMIT may change.
-            // Because there is no table rebuilt work next, no special need to take care of
-            // the new tuple limit.
-            //
-            //persistentTable->setTupleLimit(catalogTable->tuplelimit());
+        }
+        else if (updateReplicated) {
+            // an empty vertex or edge table whose schema changed was rebuilt on every site
+            ExecuteWithAllSitesMemory execAllSites;
+            for (auto engineIt : execAllSites) {
+                EngineLocals& curr = engineIt.second;
+                VoltDBEngine* currEngine = curr.context->getContextEngine();
+                SynchronizedThreadLock::assumeSpecificSiteContext(curr);
+                currEngine->refreshGraphViewDelegate(catalogGraphView);
+            }
+        } else {
+            refreshGraphViewDelegate(catalogGraphView);
         }
     }
     // End LX
@@ -1797,6 +1796,57 @@ void VoltDBEngine::attachTupleStream(
  * current and the desired catalog. Execute those commands and create,
  * delete or modify the corresponding execution engine objects.
  */
+// Add LX
+/*
+ * Add a completely new graph view to this site, over the tables of its catalog delegates.
+ */
+void VoltDBEngine::addGraphViewDelegate(catalog::GraphView* catalogGraphView) {
+    GLOG("VoltDBEngine", "processCatalogAdditions", 1117, "adding a completely new graph view for " + catalogGraphView->name());
+    TableCatalogDelegate* vtcd = findInMapOrNull(catalogGraphView->VTable()->path(), m_catalogDelegates);
+    TableCatalogDelegate* etcd = findInMapOrNull(catalogGraphView->ETable()->path(), m_catalogDelegates);
+    Table* vTable = vtcd ? vtcd->getTable() : NULL;
+    Table* eTable = etcd ? etcd->getTable() : NULL;
+    if (vTable == NULL || eTable == NULL)
+    {
+        GLOG("VoltDBEngine", "processCatalogAdditions", 1125, "unable to get vTable or eTable or both");
+        return;
+    }
+    GraphViewCatalogDelegate* gcd = new GraphViewCatalogDelegate(catalogGraphView->signature(),
+                                   m_compactionThreshold);
+    GLOG("VoltDBEngine", "processCatalogAdditions", 1128, "before calling gcd.init");
+    //TODO: pTable is not used as we assume one path table schema. The parameter may allow varying the path schema according to the view definition in the future
+    Table* pTable = NULL;
+    // use the delegate to init the graph view and build its topology
+    gcd->init(*m_database, *catalogGraphView, vTable, eTable, pTable);
+    m_graphViewCatalogDelegates[catalogGraphView->path()] = gcd;
+    GraphView* graphView = gcd->getGraphView();
+    m_graphViewDelegatesByName[graphView->name()] = gcd;
+}
+
+/*
+ * An empty table whose schema changed is deleted and created again by the catalog update, the
+ * graph views over it still point to the deleted table. Drop such a graph view and add it again
+ * over the current tables, with the column positions of the new schema.
+ */
+void VoltDBEngine::refreshGraphViewDelegate(catalog::GraphView* catalogGraphView) {
+    GraphViewCatalogDelegate* gcd = findInMapOrNull(catalogGraphView->path(), m_graphViewCatalogDelegates);
+    TableCatalogDelegate* vtcd = findInMapOrNull(catalogGraphView->VTable()->path(), m_catalogDelegates);
+    TableCatalogDelegate* etcd = findInMapOrNull(catalogGraphView->ETable()->path(), m_catalogDelegates);
+    GraphView* graphView = gcd ? gcd->getGraphView() : NULL;
+    if (graphView != NULL && vtcd != NULL && etcd != NULL &&
+            graphView->getVertexTable() == vtcd->getTable() && graphView->getEdgeTable() == etcd->getTable()) {
+        return;
+    }
+    GLOG("VoltDBEngine", "processCatalogAdditions", 1130, "rebuilding the graph view " + catalogGraphView->name());
+    m_graphViewCatalogDelegates.erase(catalogGraphView->path());
+    if (graphView != NULL) {
+        m_graphViewDelegatesByName.erase(graphView->name());
+    }
+    delete gcd;
+    addGraphViewDelegate(catalogGraphView);
+}
+// End LX
+
 bool VoltDBEngine::updateCatalog(int64_t timestamp, bool isStreamUpdate, std::string const& catalogPayload) {
     // clean up execution plans when the tables underneath might change
     if (m_plans) {
@@ -1890,7 +1940,7 @@ bool VoltDBEngine::loadTable(int32_t tableId, ReferenceSerializeInputBE &seriali
     // Added LX
     std::stringstream params;
     params << "tableId = " << tableId;
-    LogManager::GLog("VoltDBEngine", "loadTable", 1167, params.str());
+    GLOG("VoltDBEngine", "loadTable", 1167, params.str());
     // End LX
     //Not going to thread the unique id through.
     //The spHandle and lastCommittedSpHandle aren't really used in load table
@@ -1958,6 +2008,13 @@ bool VoltDBEngine::loadTable(int32_t tableId, ReferenceSerializeInputBE &seriali
             LogManager::getThreadLogger(LOGGERID_HOST)->log(LOGLEVEL_INFO, msg);
             return true;
         }
+        // Added for graph views: loading into an empty vertex or edge table (snapshot restore,
+        // rejoin or a bulk load) rebuilds the topology once instead of maintaining it row by row
+        if (table->activeTupleCount() == 0) {
+            for (auto graphView : table->graphViews()) {
+                graphView->invalidateTopology();
+            }
+        }
         try {
             table->loadTuplesForLoadTable(serializeIn, NULL,
                     caller.returnConflictRows() ? &m_resultOutput : NULL, caller);
@@ -2059,7 +2116,7 @@ void VoltDBEngine::rebuildTableCollections(bool updateReplicated, bool fromScrat
             continue;
         }
         Table* localTable = tcd->getTable();
-        LogManager::GLog("VoltDBEngine", "rebuildTableCollections", 1128, "tableName = " + localTable->name()); // Add LX
+        GLOG("VoltDBEngine", "rebuildTableCollections", 1128, "tableName = " + localTable->name()); // Add LX
         vassert(localTable);
         if (! localTable) {
             VOLT_ERROR("DEBUG-NULL: %s", cd.first.c_str());
@@ -2072,7 +2129,7 @@ void VoltDBEngine::rebuildTableCollections(bool updateReplicated, bool fromScrat
         // Add LX
         std::stringstream params;
         params << "table name = " << catTable->name() << ", relative index = " << relativeIndexOfTable;
-        LogManager::GLog("VoltDBEngine", "rebuildTableCollections", 1317, params.str());
+        GLOG("VoltDBEngine", "rebuildTableCollections", 1317, params.str());
         // End LX
         if (catTable->isreplicated()) {
             if (updateReplicated) {
@@ -2166,6 +2223,20 @@ void VoltDBEngine::rebuildTableCollections(bool updateReplicated, bool fromScrat
         }
     }
     resetDRConflictStreamedTables();
+    // the graph views are added along with their tables, map them by relative index
+    // for the GRAPHVIEW statistics
+    if (updateReplicated) {
+        // the replicated pass added graph views to every site
+        ExecuteWithAllSitesMemory execAllSites;
+        for (auto engineIt : execAllSites) {
+            EngineLocals& curr = engineIt.second;
+            VoltDBEngine* currEngine = curr.context->getContextEngine();
+            SynchronizedThreadLock::assumeSpecificSiteContext(curr);
+            currEngine->rebuildGraphViewCollections();
+        }
+    } else {
+        rebuildGraphViewCollections();
+    }
 }
 
 // Add LX
@@ -2180,9 +2251,8 @@ void VoltDBEngine::rebuildGraphViewCollections()
     m_graphViewsByName.clear();
     //m_tablesBySignatureHash.clear();
 
-    // need to re-map all the table ids / indexes
-    //getStatsManager().unregisterStatsSource(STATISTICS_SELECTOR_TYPE_TABLE);
-    //getStatsManager().unregisterStatsSource(STATISTICS_SELECTOR_TYPE_INDEX);
+    // need to re-map all the graph view ids
+    getStatsManager().unregisterStatsSource(STATISTICS_SELECTOR_TYPE_GRAPHVIEW);
 
     // walk the table delegates and update local table collections
     BOOST_FOREACH (LabeledGVCD cd, m_graphViewCatalogDelegates) {
@@ -2199,7 +2269,7 @@ void VoltDBEngine::rebuildGraphViewCollections()
             std::cout << "DEBUG-NULL:" << cd.first << std::endl;
             continue;
         }
-        LogManager::GLog("VoltDBEngine", "rebuildGraphViewCollections", 1128, "graphViewName = " + localGraphView->name());
+        GLOG("VoltDBEngine", "rebuildGraphViewCollections", 1128, "graphViewName = " + localGraphView->name());
 
         assert(m_database);
         catalog::GraphView *catGraphView = m_database->graphViews().get(localGraphView->name());
@@ -2207,11 +2277,11 @@ void VoltDBEngine::rebuildGraphViewCollections()
         int32_t relativeIndexOfGraphView = catGraphView->relativeIndex();
         std::stringstream params;
         params << "graph view name = " << catGraphView->name() << ", relative index = " << relativeIndexOfGraphView;
-        LogManager::GLog("VoltDBEngine", "rebuildGraphViewCollections", 1384, params.str());
+        GLOG("VoltDBEngine", "rebuildGraphViewCollections", 1384, params.str());
         m_graphViews[relativeIndexOfGraphView] = localGraphView;
         m_graphViewsByName[gcd->getGraphView()->name()] = localGraphView;
-
-       //stats should be handled here later
+        getStatsManager().registerStatsSource(STATISTICS_SELECTOR_TYPE_GRAPHVIEW,
+                relativeIndexOfGraphView, localGraphView->getGraphViewStats());
     }
     resetDRConflictStreamedTables();
 }
@@ -2285,7 +2355,7 @@ void VoltDBEngine::setExecutorVectorForFragmentId(int64_t fragId) {
     // Add LX
     std::stringstream params;
     params << "fragId = " << fragId;
-    LogManager::GLog("VoltDBEngine", "setExecutorVectorForFragmentId", 1403, params.str());
+    GLOG("VoltDBEngine", "setExecutorVectorForFragmentId", 1403, params.str());
     // End LX
     if (m_plans) {
         PlanSet& existing_plans = *m_plans;
@@ -2368,7 +2438,7 @@ template<class TABLE> void VoltDBEngine::initMaterializedViews(catalog::Table* c
     // Add LX
     std::stringstream params;
     params << "catalogTable = " << catalogTable->name();
-    LogManager::GLog("VoltDBEngine", "initMaterializedViews", 1383, params.str());
+    GLOG("VoltDBEngine", "initMaterializedViews", 1383, params.str());
     // End LX
     // walk views
     VOLT_DEBUG("Processing views for table %s", storageTable->name().c_str());
@@ -2469,7 +2539,7 @@ const unsigned char* VoltDBEngine::getResultsBuffer() const {
 }
 
 int VoltDBEngine::getResultsSize() const {
-    LogManager::GLog("VoltDBEngine", "getResultSize", 1460, "get result size");// Add LX
+    GLOG("VoltDBEngine", "getResultSize", 1460, "get result size");// Add LX
     return static_cast<int>(m_resultOutput.size());
 }
 
@@ -2640,6 +2710,16 @@ int VoltDBEngine::getStats(int selector, int locators[], int numLocators,
 
     for (int ii = 0; ii < numLocators; ii++) {
         CatalogId locator = static_cast<CatalogId>(locators[ii]);
+        if (selector == STATISTICS_SELECTOR_TYPE_GRAPHVIEW) {
+            // graph view stats are located by the relative index of the graph view
+            if (m_graphViews.find(locator) == m_graphViews.end()) {
+                throwSerializableEEException(
+                        "getStats() called with selector %d, and an invalid locator %d that does not correspond to a graph view",
+                        selector, locator);
+            }
+            locatorIds.push_back(locator);
+            continue;
+        }
         Table* t = getTableById(locator);
         if (!t) {
             throwSerializableEEException(
@@ -2668,6 +2748,12 @@ int VoltDBEngine::getStats(int selector, int locators[], int numLocators,
                         m_siteId, m_partitionId,
                         locatorIds, interval, now);
                 break;
+            case STATISTICS_SELECTOR_TYPE_GRAPHVIEW:
+                resultTable = m_statsManager.getStats(
+                        (StatisticsSelectorType) selector,
+                        m_siteId, m_partitionId,
+                        locatorIds, interval, now);
+                break;
             default:
                 throwSerializableEEException(
                         "getStats() called with an unrecognized selector %d", selector);
@@ -3091,7 +3177,7 @@ void VoltDBEngine::executeTask(TaskType taskType, ReferenceSerializeInputBE &tas
     // Add LX
     std::stringstream params;
     params << "taskType = " << taskType;
-    LogManager::GLog("VoltDBEngine", "executeTask", 2006, params.str());
+    GLOG("VoltDBEngine", "executeTask", 2006, params.str());
     // End LX
     switch (taskType) {
     case TASK_TYPE_VALIDATE_PARTITIONING:
@@ -3147,11 +3233,96 @@ void VoltDBEngine::executeTask(TaskType taskType, ReferenceSerializeInputBE &tas
                         type, spHandle, uniqueId, payloads));
         break;
     }
+    case TASK_TYPE_GET_GRAPH_TOPOLOGIES:
+        collectGraphTopologyChunk();
+        break;
+    case TASK_TYPE_RESTORE_GRAPH_TOPOLOGIES:
+        restoreGraphTopologies(taskInfo);
+        break;
     default:
         throwFatalException("Unknown task type %d", taskType);
     }
 }
 
+// Add LX
+//bumped whenever the snapshot form of the graph view topologies changes, the topologies of
+//snapshots in another format are rebuilt from the tables
+static const int32_t GRAPH_TOPOLOGY_SNAPSHOT_VERSION = 1;
+//the topologies are passed between the EE and the snapshot files in chunks of this size
+static const size_t GRAPH_TOPOLOGY_CHUNK_BYTES = 8 * 1024 * 1024;
+
+void VoltDBEngine::collectGraphTopologyChunk() {
+    if (m_graphTopologies.empty()) {
+        // first call of a snapshot: serialize the topologies as of now, each one after the
+        // name of its graph view and its length so that the views dropped since can be skipped
+        size_t bytes = 2 * sizeof(int32_t);
+        int32_t numOfTopologies = 0;
+        for (auto& labeledView : m_graphViewsByName) {
+            size_t topologyBytes = labeledView.second->topologySnapshotSize();
+            if (topologyBytes > 0) {
+                bytes += sizeof(int32_t) + labeledView.first.size() + sizeof(int64_t) + topologyBytes;
+                numOfTopologies++;
+            }
+        }
+        if (numOfTopologies > 0) {
+            m_graphTopologies.resize(bytes);
+            ReferenceSerializeOutput out(m_graphTopologies.data(), bytes);
+            out.writeInt(GRAPH_TOPOLOGY_SNAPSHOT_VERSION);
+            out.writeInt(numOfTopologies);
+            for (auto& labeledView : m_graphViewsByName) {
+                size_t topologyBytes = labeledView.second->topologySnapshotSize();
+                if (topologyBytes > 0) {
+                    out.writeTextString(labeledView.first);
+                    out.writeLong(static_cast<int64_t>(topologyBytes));
+                    labeledView.second->serializeTopology(out);
+                }
+            }
+            vassert(out.position() == bytes);
+        }
+        m_graphTopologyOffset = 0;
+    }
+    // the empty chunk that follows the last one releases the buffer
+    size_t length = std::min(m_graphTopologies.size() - m_graphTopologyOffset, GRAPH_TOPOLOGY_CHUNK_BYTES);
+    m_resultOutput.writeInt(static_cast<int32_t>(length));
+    if (length > 0) {
+        m_resultOutput.writeBytes(m_graphTopologies.data() + m_graphTopologyOffset, length);
+        m_graphTopologyOffset += length;
+    } else {
+        std::vector<char>().swap(m_graphTopologies);
+        m_graphTopologyOffset = 0;
+    }
+}
+
+void VoltDBEngine::restoreGraphTopologies(ReferenceSerializeInputBE& taskInfo) {
+    bool lastChunk = taskInfo.readBool();
+    int32_t length = taskInfo.readInt();
+    const char* chunk = taskInfo.getRawPointer(length);
+    m_graphTopologies.insert(m_graphTopologies.end(), chunk, chunk + length);
+    int32_t numOfRestored = 0;
+    if (lastChunk) {
+        if (!m_graphTopologies.empty()) {
+            ReferenceSerializeInputBE in(m_graphTopologies.data(), m_graphTopologies.size());
+            if (in.readInt() == GRAPH_TOPOLOGY_SNAPSHOT_VERSION) {
+                int32_t numOfTopologies = in.readInt();
+                for (int32_t i = 0; i < numOfTopologies; i++) {
+                    std::string name = in.readTextString();
+                    int64_t topologyBytes = in.readLong();
+                    ReferenceSerializeInputBE topology(in.getRawPointer(topologyBytes), topologyBytes);
+                    // only the graph views whose tables were bulk loaded have a stale topology to restore
+                    GraphView* graphView = findInMapOrNull(name, m_graphViewsByName);
+                    if (graphView != NULL && graphView->restoreTopology(topology)) {
+                        numOfRestored++;
+                    }
+                }
+            }
+        }
+        std::vector<char>().swap(m_graphTopologies);
+    }
+    m_resultOutput.writeInt(static_cast<int32_t>(sizeof(int32_t)));
+    m_resultOutput.writeInt(numOfRestored);
+}
+// End LX
+
 void VoltDBEngine::executePurgeFragment(PersistentTable* table) {
     boost::shared_ptr<ExecutorVector> pev = table->getPurgeExecutorVector();
 
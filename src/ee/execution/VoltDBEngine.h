@@ -626,6 +626,12 @@ class __attribute__((visibility("default"))) VoltDBEngine {
 
         void collectDRTupleStreamStateInfo();
 
+        // Add LX
+        // the topologies of the graph views saved with a native snapshot are handed to Java
+        // (and back on restore) in chunks, see m_graphTopologies
+        void collectGraphTopologyChunk();
+        void restoreGraphTopologies(ReferenceSerializeInputBE& taskInfo);
+
         void setCurrentUndoQuantum(voltdb::UndoQuantum* undoQuantum);
 
         // -------------------------------------------------
@@ -645,6 +651,11 @@ class __attribute__((visibility("default"))) VoltDBEngine {
         template<class TABLE>
         void initMaterializedViews(catalog::Table* catalogTable, TABLE* storageTable, bool updateReplicated);
 
+        // Add LX
+        void addGraphViewDelegate(catalog::GraphView* catalogGraphView);
+        // builds the graph view again if its vertex or edge table was rebuilt
+        void refreshGraphViewDelegate(catalog::GraphView* catalogGraphView);
+
         bool updateCatalogDatabaseReference();
 
         void resetDRConflictStreamedTables();
@@ -746,6 +757,10 @@ class __attribute__((visibility("default"))) VoltDBEngine {
         // Add LX
         //msaber: map catalog graphview name to graphview pointers
         std::map<std::string, GraphView*> m_graphViewsByName;
+        //the serialized topologies of the graph views while they are passed to or from a snapshot
+        //file, and the offset of the next chunk handed to Java
+        std::vector<char> m_graphTopologies;
+        size_t m_graphTopologyOffset = 0;
         // End LX
         // This maps the function Ids to their corresponding UserDefinedFunctionInfo structures,
         // which stores the parameter types and the return type.
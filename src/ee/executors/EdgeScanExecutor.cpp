@@ -73,7 +73,7 @@ bool EdgeScanExecutor::p_init(AbstractPlanNode *abstractNode, const ExecutorVect
 				node->getChildren()[0]->getOutputTable()->name():
 				graphView->getEdgeTable()->name();
 		setTempOutputTable(executorVector, temp_name);
-		LogManager::GLog("EdgeScanExecutor", "p_init", 70,
+		GLOG("EdgeScanExecutor", "p_init", 70,
 					"after calling setTempOutputTable with temp table = " + temp_name);
 	}
 	//
@@ -86,7 +86,7 @@ bool EdgeScanExecutor::p_init(AbstractPlanNode *abstractNode, const ExecutorVect
 				 node->getChildren()[0]->getOutputTable() :
 				 graphView->getEdgeTable();
 		node->setOutputTable(temp_t);
-		LogManager::GLog("EdgeScanExecutor", "p_init", 83,
+		GLOG("EdgeScanExecutor", "p_init", 83,
 						"after calling setOutputTable with temp table name = " + temp_t->name());
 	}
 
@@ -109,6 +109,7 @@ bool EdgeScanExecutor::p_execute(const NValueArray &params)
 	}
 
 	GraphView* graphView = node->getTargetGraphView();
+	GraphOperatorTimer timer(&graphView->operatorCounters().edgeScanLatency);
 	Table* input_table = graphView->getEdgeTable();
 	assert(input_table);
 	//int vertexId = -1, fanIn = -1, fanOut = -1;
@@ -194,8 +195,29 @@ bool EdgeScanExecutor::p_execute(const NValueArray &params)
 			temp_tuple = m_tmpOutputTable->tempTuple();
 		}
 
-		while (postfilter.isUnderLimit() && iterator.next(tuple))
+		//an id lookup visits the edges found through the id index, without
+		//such an index it falls back to the full scan
+		AbstractExpression* lookupKey = node->getLookupKey();
+		std::vector<char*> lookupTuples;
+		size_t lookupPosition = 0;
+		if (lookupKey != NULL && !graphView->lookupEdgeTuples(lookupKey->eval(NULL, NULL), lookupTuples)) {
+			lookupKey = NULL;
+		}
+		auto nextTuple = [&]() -> bool {
+			if (lookupKey == NULL) {
+				return iterator.next(tuple);
+			}
+			if (lookupPosition >= lookupTuples.size()) {
+				return false;
+			}
+			tuple.move(lookupTuples[lookupPosition++]);
+			return true;
+		};
+
+		int64_t scannedTuples = 0;
+		while (postfilter.isUnderLimit() && nextTuple())
 		{
+			scannedTuples++;
 			VOLT_TRACE("INPUT TUPLE: %s, %d/%d\n",
 					   tuple.debug(input_table->name()).c_str(), tuple_ctr,
 					   (int)input_table->activeTupleCount());
@@ -230,6 +252,7 @@ bool EdgeScanExecutor::p_execute(const NValueArray &params)
 				pmp.countdownProgress();
 			}
 		}
+		graphView->operatorCounters().edgeScanTuples += scannedTuples;
 
 		if (m_aggExec != NULL) {
 			m_aggExec->p_execute_finish();
@@ -30,7 +30,7 @@ class EdgeScanExecutor : public AbstractExecutor {
 public:
 	EdgeScanExecutor(VoltDBEngine *engine, AbstractPlanNode* abstract_node) : AbstractExecutor(engine, abstract_node) {
             //output_table = NULL;
-            LogManager::GLog("EdgeScanExecutor", "Constructor", 28, abstract_node->debug());
+            GLOG("EdgeScanExecutor", "Constructor", 28, abstract_node->debug());
         }
         ~EdgeScanExecutor();
 
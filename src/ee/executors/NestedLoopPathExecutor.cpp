@@ -52,7 +52,7 @@ const static int8_t MATCHED_TUPLE(TableTupleFilter::ACTIVE_TUPLE + 1);
 
 bool NestedLoopPathExecutor::p_init(AbstractPlanNode* abstractNode, const ExecutorVector& executorVector)
 {
-	LogManager::GLog("NestedLoopPathExecutor", "p_init", 46, "");
+	GLOG("NestedLoopPathExecutor", "p_init", 46, "");
 
     VOLT_TRACE("init NLJ Executor");
     assert(executorVector.limits()); // LX
@@ -70,6 +70,7 @@ bool NestedLoopPathExecutor::p_init(AbstractPlanNode* abstractNode, const Execut
 
     graphView = NULL;
     pathScanNode = NULL;
+    pathProjection = NULL;
     startVertexColumnId = UNDEFINED;
     endVertexColumnId = UNDEFINED;
 
@@ -93,6 +94,13 @@ bool NestedLoopPathExecutor::p_init(AbstractPlanNode* abstractNode, const Execut
             }
         }
     }
+    if (graphView != NULL)
+    {
+    	m_traversal.reset(new PathTraversal(graphView));
+    	pathProjection = dynamic_cast<ProjectionPlanNode*>(pathScanNode->getInlinePlanNode(PlanNodeType::Projection));
+    	m_traversalFilter.setConditions(pathScanNode->getVertexFilters(), pathScanNode->getVertexFilterPositions(),
+    			pathScanNode->getEdgeFilters(), pathScanNode->getEdgeFilterPositions());
+    }
 
     return true;
 }
@@ -101,12 +109,13 @@ bool NestedLoopPathExecutor::p_execute(const NValueArray &params) {
 
 	if (graphView != NULL)
 	{
-		LogManager::GLog("NestedLoopPathExecutor", "p_execute", 67, graphView->name());
+		GLOG("NestedLoopPathExecutor", "p_execute", 67, graphView->name());
 	}
 	else
 	{
-		LogManager::GLog("NestedLoopPathExecutor", "p_execute", 67, "no graph view...");
+		GLOG("NestedLoopPathExecutor", "p_execute", 67, "no graph view...");
 	}
+	GraphOperatorTimer timer((graphView != NULL) ? &graphView->operatorCounters().pathJoinLatency : NULL);
 
     VOLT_DEBUG("executing NestLoop...");
 
@@ -134,8 +143,8 @@ bool NestedLoopPathExecutor::p_execute(const NValueArray &params) {
     assert(outer_table);   
     assert(inner_table);
 
-    LogManager::GLog("NestedLoopPathExecutor", "p_execute (Outer table)", 117, outer_table->name());
-    LogManager::GLog("NestedLoopPathExecutor", "p_execute (Inner table)", 118, inner_table->name());
+    GLOG("NestedLoopPathExecutor", "p_execute (Outer table)", 117, outer_table->name());
+    GLOG("NestedLoopPathExecutor", "p_execute (Inner table)", 118, inner_table->name());
 
     VOLT_TRACE ("input table left:\n %s", outer_table->debug().c_str());
     VOLT_TRACE ("input table right:\n %s", inner_table->debug().c_str());
@@ -207,25 +216,34 @@ bool NestedLoopPathExecutor::p_execute(const NValueArray &params) {
     	setStartAndEndVertexes(joinPredicate, inner_table, outer_table);
     	startVertexId = UNDEFINED;
     	endVertexId = UNDEFINED;
-    	graphView->pathLength = pathScanNode->getPathLength();
-    	graphView->spColumnIndexInEdgesTable = pathScanNode->getSPColumnIdInEdgesTable();
-    	graphView->topK = 1;
-    	graphView->queryType = getQueryType();
+    	m_traversal->pathLength = pathScanNode->getPathLength();
+    	m_traversal->spColumnIndexInEdgesTable = pathScanNode->getSPColumnIdInEdgesTable();
+    	m_traversal->topK = 1;
+    	m_traversal->queryType = getQueryType();
+    	if (pathProjection != NULL) {
+    		inner_tuple = inner_table->tempTuple();
+    	}
+
 
+    	GLOG("NestedLoopPathExecutor", "p_execute", 224, "startVertexColumnId = " << startVertexColumnId
+    			<< ", endVertexColumnId = " << endVertexColumnId << ", length = " << m_traversal->pathLength
+    			<< ", spColumnIndexInEdgesTable = " << m_traversal->spColumnIndexInEdgesTable << ", queryType = " << m_traversal->queryType);
+    }
 
-    	std::stringstream debugParams;
-    	debugParams << "startVertexColumnId = " << startVertexColumnId << ", endVertexColumnId = " << endVertexColumnId << ", length = " << graphView->pathLength
-    			<< ", spColumnIndexInEdgesTable = " << graphView->spColumnIndexInEdgesTable << ", queryType = " << graphView->queryType;
-    	LogManager::GLog("NestedLoopPathExecutor", "p_execute", 224, debugParams.str());
+    bool batchedPathJoin = isBatchedPathJoin();
+    if (batchedPathJoin) {
+        executeBatchedPathJoin(outer_table, inner_table, preJoinPredicate, postfilter, join_tuple, pmp);
     }
 
-    while (postfilter.isUnderLimit() && iterator0.next(outer_tuple)) {
+    while (!batchedPathJoin && postfilter.isUnderLimit() && iterator0.next(outer_tuple)) {
         pmp.countdownProgress();
 
         // populate output table's temp tuple with outer table's values
         // probably have to do this at least once - avoid doing it many
         // times per outer tuple
-        join_tuple.setNValues(0, outer_tuple, 0, outer_cols);
+        if (graphView == NULL || !isGraphInner) {
+            join_tuple.setNValues(0, outer_tuple, 0, outer_cols);
+        }
 
         // did this loop body find at least one match for this tuple?
         bool outerMatch = false;
@@ -236,7 +254,7 @@ bool NestedLoopPathExecutor::p_execute(const NValueArray &params) {
 
         	if (graphView == NULL)
         	{
-                LogManager::GLog("NestedLoopPathExecutor", "p_execute", 222, "inner isn't graph");
+                GLOG("NestedLoopPathExecutor", "p_execute", 222, "inner isn't graph");
 				// By default, the delete as we go flag is false.
 				TableIterator iterator1 = inner_table->iterator();
 				while (postfilter.isUnderLimit() && iterator1.next(inner_tuple)) {
@@ -261,26 +279,31 @@ bool NestedLoopPathExecutor::p_execute(const NValueArray &params) {
         	}
         	else //the inner is a graph view
         	{
-                LogManager::GLog("NestedLoopPathExecutor", "p_execute", 246, "inner is graph");
-                LogManager::GLog("NestedLoopPathExecutor", "p_execute", 248, outer_tuple.debug(outer_table->name()).c_str());
+                GLOG("NestedLoopPathExecutor", "p_execute", 246, "inner is graph");
+                GLOG("NestedLoopPathExecutor", "p_execute", 248, outer_tuple.debug(outer_table->name()).c_str());
         		if (startVertexColumnId != UNDEFINED)
         		{
-        			startVertexId = ValuePeeker::peekAsInteger(outer_tuple.getNValue(startVertexColumnId));
+        			startVertexId = graphView->vertexKey(outer_tuple.getNValue(startVertexColumnId));
         		}
 
         		if (endVertexColumnId != UNDEFINED)
         		{
-        			endVertexId = ValuePeeker::peekAsInteger(outer_tuple.getNValue(endVertexColumnId));
+        			endVertexId = graphView->vertexKey(outer_tuple.getNValue(endVertexColumnId));
         		}
 
-        		graphView->fromVertexId = startVertexId;
-        		graphView->toVertexId = endVertexId;
+        		m_traversal->fromVertexId = startVertexId;
+        		m_traversal->toVertexId = endVertexId;
 
-        		PathIterator pathIterator = graphView->iteratorDeletingAsWeGo();
+        		PathIterator& pathIterator = m_traversal->iterator(&m_traversalFilter);
+        		TableTuple path_tuple(m_traversal->getPathTable()->schema());
 
-        		while (postfilter.isUnderLimit() && pathIterator.next(inner_tuple)) {
+        		while (postfilter.isUnderLimit() && pathIterator.next(path_tuple)) {
 					pmp.countdownProgress();
-                    LogManager::GLog("NestedLoopPathExecutor", "p_execute", 281, inner_tuple.debug(inner_table->name()).c_str());
+					if (!acceptsPath(path_tuple)) {
+						continue;
+					}
+					projectPathTuple(path_tuple, inner_tuple);
+                    GLOG("NestedLoopPathExecutor", "p_execute", 281, inner_tuple.debug(inner_table->name()).c_str());
                     
 					// Apply join filter to produce matches for each outer that has them,
 					// then pad unmatched outers, then filter them all
@@ -293,17 +316,9 @@ bool NestedLoopPathExecutor::p_execute(const NValueArray &params) {
 						innerTableFilter.updateTuple(inner_tuple, MATCHED_TUPLE);
 					}
 					// Filter the joined tuple
-					if (postfilter.eval(&outer_tuple, &inner_tuple)) {
-						// Matched! Complete the joined tuple with the inner column values.
-						// join_tuple.setNValues(outer_cols, inner_tuple, 0, inner_cols);
-                        // Modified by LX: inner and outer are swapped
-                        if (isGraphInner) {
-                            join_tuple.setNValues(inner_cols, outer_tuple, 0, outer_cols);    
-                        }
-                        else {
-                            join_tuple.setNValues(outer_cols, inner_tuple, 0, inner_cols);
-                        }
-                        
+					if (evalPathPostfilter(postfilter, outer_tuple, inner_tuple)) {
+						// Matched! Complete the joined tuple with the path column values.
+						setPathJoinTuple(join_tuple, outer_tuple, inner_tuple, outer_cols, inner_cols);
 						outputTuple(postfilter, join_tuple, pmp);
 					}
                     break;   
@@ -362,6 +377,154 @@ bool NestedLoopPathExecutor::p_execute(const NValueArray &params) {
 }
 
 
+bool NestedLoopPathExecutor::isBatchedPathJoin()
+{
+	//only with HINT(BATCHED): the sources of a batch share one frontier, ordered by the first
+	//discovery over all of them, so among the vertexes (paths) of equal depth a row may get
+	//another one than its own BFS would find first. The shortest path queries still run one
+	//traversal per outer row, and so do the joins with a residual path predicate, which may
+	//reject the path the batch finds for a row
+	return graphView != NULL && pathScanNode->isBatched() && startVertexColumnId != UNDEFINED &&
+			pathScanNode->getPredicate() == NULL &&
+			(m_traversal->queryType == 1 || m_traversal->queryType == 3) &&
+			(m_joinType == JOIN_TYPE_INNER || m_joinType == JOIN_TYPE_LEFT);
+}
+
+void NestedLoopPathExecutor::executeBatchedPathJoin(Table* outer_table, Table* inner_table, AbstractExpression* preJoinPredicate,
+		CountingPostfilter& postfilter, TableTuple& join_tuple, ProgressMonitorProxy& pmp)
+{
+	int outer_cols = outer_table->columnCount();
+	int inner_cols = inner_table->columnCount();
+	TableTuple outer_tuple(outer_table->schema());
+	TableTuple inner_tuple = (pathProjection != NULL) ? inner_table->tempTuple() : TableTuple(inner_table->schema());
+	TableTuple path_tuple(m_traversal->getPathTable()->schema());
+	const TableTuple& null_inner_tuple = m_null_inner_tuple.tuple();
+	bool byDestination = (m_traversal->queryType == 3);
+
+	//the rows of a batch are revisited after the traversal, so the outer table
+	//must not release its blocks while it is being iterated
+	TableIterator iterator0 = outer_table->iterator();
+	vector<char*> batchRows;
+	//index into the traversal sources, or -1 for rows that failed the pre join predicate
+	vector<int> batchSources;
+	vector<int64_t> startVertexIds, endVertexIds, foundVertexIds;
+	vector<int> lengths;
+	batchRows.reserve(PathTraversal::MSBFSBatchSize);
+	batchSources.reserve(PathTraversal::MSBFSBatchSize);
+
+	bool moreRows = true;
+	while (moreRows && postfilter.isUnderLimit()) {
+		batchRows.clear();
+		batchSources.clear();
+		startVertexIds.clear();
+		endVertexIds.clear();
+		while ((int)batchRows.size() < PathTraversal::MSBFSBatchSize) {
+			if (!iterator0.next(outer_tuple)) {
+				moreRows = false;
+				break;
+			}
+			pmp.countdownProgress();
+			batchRows.push_back(outer_tuple.address());
+			if (preJoinPredicate == NULL || preJoinPredicate->eval(&outer_tuple, NULL).isTrue()) {
+				batchSources.push_back((int)startVertexIds.size());
+				startVertexIds.push_back(graphView->vertexKey(outer_tuple.getNValue(startVertexColumnId)));
+				if (byDestination) {
+					endVertexIds.push_back(graphView->vertexKey(outer_tuple.getNValue(endVertexColumnId)));
+				}
+			}
+			else {
+				batchSources.push_back(UNDEFINED);
+			}
+		}
+		if (batchRows.empty()) {
+			break;
+		}
+
+		GLOG("NestedLoopPathExecutor", "executeBatchedPathJoin", 420, "batch of " << batchRows.size()
+				<< " outer rows, " << startVertexIds.size() << " traversal sources");
+
+		m_traversal->multiSourceBFS(startVertexIds, byDestination ? &endVertexIds : NULL, m_traversal->pathLength,
+				lengths, foundVertexIds, &m_traversalFilter);
+
+		//emit in the order of the outer rows as the per row traversals do, every row gets a path
+		//of the same length as its own traversal, the end vertex and the path may be others
+		for (size_t row = 0; row < batchRows.size() && postfilter.isUnderLimit(); row++) {
+			outer_tuple.move(batchRows[row]);
+			if (!isGraphInner) {
+				join_tuple.setNValues(0, outer_tuple, 0, outer_cols);
+			}
+
+			bool outerMatch = false;
+			int source = batchSources[row];
+			if (source != UNDEFINED && lengths[source] >= 0) {
+				outerMatch = true;
+				graphView->operatorCounters().pathsProduced++;
+				m_traversal->pathTuple(startVertexIds[source], foundVertexIds[source],
+						lengths[source], (double)lengths[source],
+						m_traversal->multiSourcePathSteps(source, foundVertexIds[source]), path_tuple);
+				projectPathTuple(path_tuple, inner_tuple);
+				if (evalPathPostfilter(postfilter, outer_tuple, inner_tuple)) {
+					setPathJoinTuple(join_tuple, outer_tuple, inner_tuple, outer_cols, inner_cols);
+					outputTuple(postfilter, join_tuple, pmp);
+				}
+			}
+
+			//
+			// Left Outer Join
+			//
+			if (m_joinType != JOIN_TYPE_INNER && !outerMatch && postfilter.isUnderLimit()) {
+				if (postfilter.eval(&outer_tuple, &null_inner_tuple)) {
+					join_tuple.setNValues(outer_cols, null_inner_tuple, 0, inner_cols);
+					outputTuple(postfilter, join_tuple, pmp);
+				}
+			}
+		}
+	}
+}
+
+bool NestedLoopPathExecutor::acceptsPath(const TableTuple& path_tuple)
+{
+	AbstractExpression* predicate = pathScanNode->getPredicate();
+	return predicate == NULL || predicate->eval(&path_tuple, NULL).isTrue();
+}
+
+void NestedLoopPathExecutor::projectPathTuple(const TableTuple& path_tuple, TableTuple& inner_tuple)
+{
+	if (pathProjection == NULL) {
+		inner_tuple.move(path_tuple.address());
+		return;
+	}
+	const std::vector<AbstractExpression*>& columns = pathProjection->getOutputColumnExpressions();
+	for (int ctr = 0; ctr < (int)columns.size(); ctr++) {
+		//the PROP columns of the catalog paths table are not filled by the traversals
+		const TupleValueExpression* column = dynamic_cast<const TupleValueExpression*>(columns[ctr]);
+		if (column != NULL && column->getColumnId() >= path_tuple.columnCount()) {
+			inner_tuple.setNValue(ctr, NValue::getNullValue(column->getValueType()));
+		}
+		else {
+			inner_tuple.setNValue(ctr, columns[ctr]->eval(&path_tuple, NULL));
+		}
+	}
+}
+
+bool NestedLoopPathExecutor::evalPathPostfilter(CountingPostfilter& postfilter, const TableTuple& outer_tuple,
+		const TableTuple& inner_tuple)
+{
+	return isGraphInner ? postfilter.eval(&inner_tuple, &outer_tuple) : postfilter.eval(&outer_tuple, &inner_tuple);
+}
+
+void NestedLoopPathExecutor::setPathJoinTuple(TableTuple& join_tuple, const TableTuple& outer_tuple,
+		const TableTuple& inner_tuple, int outer_cols, int inner_cols)
+{
+	if (isGraphInner) {
+		join_tuple.setNValues(0, inner_tuple, 0, inner_cols);
+		join_tuple.setNValues(inner_cols, outer_tuple, 0, outer_cols);
+	}
+	else {
+		join_tuple.setNValues(outer_cols, inner_tuple, 0, inner_cols);
+	}
+}
+
 void NestedLoopPathExecutor::setStartAndEndVertexes(const AbstractExpression* joinExpression, const Table* inner, const Table* outer)
 {
 	if (joinExpression == NULL)
@@ -380,16 +543,18 @@ void NestedLoopPathExecutor::setStartAndEndVertexes(const AbstractExpression* jo
 	const TupleValueExpression* right = dynamic_cast<const TupleValueExpression*>(singlePredicate->getRight());
 	if (left != NULL && right != NULL)
 	{
-		//make sure that left* points to the inner (i.e., graph view) and that right* points to the outer
-		if (left->getTableId() == 0)
+		//make sure that left* points to the inner (i.e., graph view) and that right* points to the outer,
+		//the tuple index of the graph view is the position of the path scan among the children
+		int graphTableId = isGraphInner ? 0 : 1;
+		if (left->getTableId() != graphTableId)
 		{
 			const TupleValueExpression* temp = left;
 			left = right;
 			right = temp;
 		}
 
-		assert(left->getTableId() == 1);
-		assert(right->getTableId() == 0);
+		assert(left->getTableId() == graphTableId);
+		assert(right->getTableId() != graphTableId);
 
 		if (inner->columnName(left->getColumnId()) == StartVertexLiteral)
 		{
@@ -8,21 +8,25 @@
 #ifndef SRC_EE_EXECUTORS_NESTEDLOOPPATHEXECUTOR_H_
 #define SRC_EE_EXECUTORS_NESTEDLOOPPATHEXECUTOR_H_
 
+#include <memory>
 #include "common/common.h"
 #include "common/valuevector.h"
 #include "executors/abstractjoinexecutor.h"
 #include "expressions/comparisonexpression.h"
+#include "graph/PathTraversal.h"
+#include "graph/TraversalFilter.h"
 
 namespace voltdb {
 
 class GraphView;
 class PathScanPlanNode;
+class ProjectionPlanNode;
 
 class NestedLoopPathExecutor : public AbstractJoinExecutor {
 public:
 	NestedLoopPathExecutor(VoltDBEngine *engine, AbstractPlanNode* abstract_node) :
             AbstractJoinExecutor(engine, abstract_node) {
-        	LogManager::GLog("NestedLoopPathExecutor", "Constructor", 22, abstract_node->debug());
+        	GLOG("NestedLoopPathExecutor", "Constructor", 22, abstract_node->debug());
         }
 
     // modified by LX
@@ -34,12 +38,31 @@ public:
         bool p_execute(const NValueArray &params);
         void setStartAndEndVertexes(const AbstractExpression* joinExpression, const Table* inner, const Table* outer);
         int getQueryType();
+        //reachability joins (query types 1 and 3) resolve the paths of a batch of outer rows
+        //with one multi-source BFS instead of a traversal per outer row
+        bool isBatchedPathJoin();
+        void executeBatchedPathJoin(Table* outer_table, Table* inner_table, AbstractExpression* preJoinPredicate,
+                CountingPostfilter& postfilter, TableTuple& join_tuple, ProgressMonitorProxy& pmp);
+        //the residual predicate of the path scan, evaluated on the tuples of the paths table
+        bool acceptsPath(const TableTuple& path_tuple);
+        //the traversal fills tuples of the paths table, the join reads them with the output schema of the path scan
+        void projectPathTuple(const TableTuple& path_tuple, TableTuple& inner_tuple);
+        //the join tuple and the predicates follow the order of the plan node children, the path
+        //scan comes first when isGraphInner is set although the graph is iterated as the inner side
+        bool evalPathPostfilter(CountingPostfilter& postfilter, const TableTuple& outer_tuple, const TableTuple& inner_tuple);
+        void setPathJoinTuple(TableTuple& join_tuple, const TableTuple& outer_tuple, const TableTuple& inner_tuple,
+                int outer_cols, int inner_cols);
 
         GraphView* graphView;
+        //the traversals of the path join, independent of the other path operations over the graph view
+        std::unique_ptr<PathTraversal> m_traversal;
+        //the vertex and edge conditions pushed down into the path scan
+        TraversalFilter m_traversalFilter;
         PathScanPlanNode* pathScanNode;
+        ProjectionPlanNode* pathProjection;
         const int UNDEFINED = -1;
         int startVertexColumnId = UNDEFINED, endVertexColumnId = UNDEFINED;
-        int startVertexId, endVertexId;
+        int64_t startVertexId, endVertexId;
         const string StartVertexLiteral = "STARTVERTEXID";
         const string EndVertexLiteral = "ENDVERTEXID";
         // LX: find graph is inner or outer table
@@ -48,13 +48,17 @@ bool PathScanExecutor::p_init(AbstractPlanNode *abstractNode, const ExecutorVect
 	assert(isSubquery || node->getTargetGraphView());
 	assert((! isSubquery) || (node->getChildren().size() == 1));
 	graphView = node->getTargetGraphView();
-	graphView->fromVertexId = node->getStartVertexId();
-	graphView->toVertexId = node->getEndVertexId();
-	graphView->queryType = node->getQType();
-	graphView->pathLength = node->getPathLength();
-	graphView->topK = node->getTopK();
-	graphView->vSelectivity = node->getVertexSelectivity();
-	graphView->eSelectivity = node->getEdgeSelectivity();
+	m_traversal.reset(new PathTraversal(graphView));
+	m_traversal->fromVertexId = node->getStartVertexId();
+	m_traversal->toVertexId = node->getEndVertexId();
+	m_traversal->queryType = node->getQType();
+	m_traversal->pathLength = node->getPathLength();
+	m_traversal->topK = node->getTopK();
+	m_traversal->vSelectivity = node->getVertexSelectivity();
+	m_traversal->eSelectivity = node->getEdgeSelectivity();
+	m_traversal->spColumnIndexInEdgesTable = node->getSPColumnIdInEdgesTable();
+	m_traversalFilter.setConditions(node->getVertexFilters(), node->getVertexFilterPositions(),
+			node->getEdgeFilters(), node->getEdgeFilterPositions());
 
 	//
 	// OPTIMIZATION: If there is no predicate for this SeqScan,
@@ -73,7 +77,7 @@ bool PathScanExecutor::p_init(AbstractPlanNode *abstractNode, const ExecutorVect
 		// setTempOutputTable(limits, temp_name);
 		setTempOutputTable(executorVector, temp_name);
 
-		LogManager::GLog("PathScanExecutor", "p_init", 70, "after calling setTempOutputTable with temp table = " + temp_name);
+		GLOG("PathScanExecutor", "p_init", 70, "after calling setTempOutputTable with temp table = " + temp_name);
 	}
 	//
 	// Otherwise create a new temp table that mirrors the
@@ -83,10 +87,10 @@ bool PathScanExecutor::p_init(AbstractPlanNode *abstractNode, const ExecutorVect
 	else {
 		Table* temp_t = isSubquery ?
 				 node->getChildren()[0]->getOutputTable() :
-				 graphView->getPathTable();
+				 m_traversal->getPathTable();
 		//Table* temp_t = setTempOutputTable(limits, PathScanPlanNode::pathsTableName);
 		node->setOutputTable(temp_t);
-		LogManager::GLog("PathScanExecutor", "p_init", 83, "after calling setOutputTable with temp table name = " + temp_t->name());
+		GLOG("PathScanExecutor", "p_init", 83, "after calling setOutputTable with temp table name = " + temp_t->name());
 	}
 
 	//node->setOutputTable(node->getTargetGraphView()->getVertexTable());
@@ -110,9 +114,10 @@ bool PathScanExecutor::p_execute(const NValueArray &params)
 	*/
 
 	GraphView* graphView = node->getTargetGraphView();
+	GraphOperatorTimer timer(&graphView->operatorCounters().pathScanLatency);
 	Table* input_table = (node->isSubQuery()) ?
 			node->getChildren()[0]->getOutputTable():
-			graphView->getPathTable();
+			m_traversal->getPathTable();
 
 
 	//Table* output_table = dynamic_cast<TempTable*>(node->getOutputTable());
@@ -161,7 +166,7 @@ bool PathScanExecutor::p_execute(const NValueArray &params)
 		//
 		TableTuple tuple(input_table->schema());
 		//TableIterator iterator =  input_table->iteratorDeletingAsWeGo();
-		PathIterator iterator =  graphView->iteratorDeletingAsWeGo(GraphOperationType::ShortestPath);
+		PathIterator& iterator = m_traversal->iterator(&m_traversalFilter);
 		AbstractExpression *predicate = node->getPredicate();
 
 		if (predicate)
@@ -176,6 +181,9 @@ bool PathScanExecutor::p_execute(const NValueArray &params)
 			// limit_node->getLimitAndOffsetByReference(params, limit, offset);
 		}
 		// Initialize the postfilter
+		// The vertex and edge conditions of the WHERE clause are checked by the traversal
+		// (m_traversalFilter) and the planner drops the traversal parameters, the rest of
+		// the predicate is evaluated on the path rows
 		CountingPostfilter postfilter(m_tmpOutputTable, predicate, limit, offset);
 
 		ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
@@ -200,10 +208,10 @@ bool PathScanExecutor::p_execute(const NValueArray &params)
 			pmp.countdownProgress();
 
 			//
-			// For each tuple we need to evaluate it against our predicate and limit/offset
+			// For each tuple we need to evaluate it against our limit/offset.
+			// Paths are produced on demand, so reaching the limit also ends the traversal
 			//
-			//TODO: uncomment after fixing the path filter FE and EE code
-			//if (postfilter.eval(&tuple, NULL))
+			if (postfilter.eval(&tuple, NULL))
 			{
 				//
 				// Nested Projection
@@ -234,6 +242,19 @@ bool PathScanExecutor::p_execute(const NValueArray &params)
 			m_aggExec->p_execute_finish();
 		}
 	}
+	else if (!node->isSubQuery())
+	{
+		// Without inline nodes the paths table itself is the output table,
+		// so every path of the traversal has to be materialized into it
+		TableTuple tuple(input_table->schema());
+		PathIterator& iterator = m_traversal->iterator(&m_traversalFilter);
+		ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
+		while (iterator.next(tuple))
+		{
+			pmp.countdownProgress();
+			m_traversal->getPathTable()->insertTuple(tuple);
+		}
+	}
 	//* for debug */std::cout << "SeqScanExecutor: node id " << node->getPlanNodeId() <<
 	//* for debug */    " output table " << (void*)output_table <<
 	//* for debug */    " put " << output_table->activeTupleCount() << " tuples " << std::endl;
@@ -8,12 +8,15 @@
 #ifndef SRC_EE_EXECUTORS_PATHSCANEXECUTOR_H_
 #define SRC_EE_EXECUTORS_PATHSCANEXECUTOR_H_
 
+#include <memory>
 #include <vector>
 #include "boost/shared_array.hpp"
 #include "common/common.h"
 #include "common/valuevector.h"
 #include "common/tabletuple.h"
 #include "executors/abstractexecutor.h"
+#include "graph/PathTraversal.h"
+#include "graph/TraversalFilter.h"
 
 namespace voltdb {
 
@@ -29,7 +32,7 @@ class PathScanExecutor : public AbstractExecutor {
 public:
 	PathScanExecutor(VoltDBEngine *engine, AbstractPlanNode* abstract_node) : AbstractExecutor(engine, abstract_node) {
             //output_table = NULL;
-            LogManager::GLog("PathScanExecutor", "Constructor", 31, abstract_node->debug());
+            GLOG("PathScanExecutor", "Constructor", 31, abstract_node->debug());
         }
         ~PathScanExecutor();
     // modified by LX
@@ -44,6 +47,11 @@ public:
         void outputTuple(CountingPostfilter& postfilter, TableTuple& tuple);
         AggregateExecutorBase* m_aggExec;
         GraphView* graphView;
+        //the traversal state and path table of this scan, independent of the other path
+        //operations over the same graph view
+        std::unique_ptr<PathTraversal> m_traversal;
+        //the vertex and edge conditions pushed down into the traversal
+        TraversalFilter m_traversalFilter;
 };
 
 }
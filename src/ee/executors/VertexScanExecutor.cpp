@@ -12,12 +12,14 @@
 #include "common/tabletuple.h"
 #include "expressions/abstractexpression.h"
 #include "expressions/expressionutil.h"
+#include "expressions/tuplevalueexpression.h"
 #include "plannodes/projectionnode.h"
 #include "storage/table.h"
 #include "storage/tableiterator.h"
 #include "storage/tablefactory.h"
 #include "storage/temptable.h"
 #include "logging/LogManager.h"
+#include "common/SerializableEEException.h"
 #include "graph/GraphView.h"
 #include "graph/Vertex.h"
 #include "plannodes/VertexScanNode.h"
@@ -68,7 +70,7 @@ bool VertexScanExecutor::p_init(AbstractPlanNode *abstractNode, const ExecutorVe
 				graphView->getVertexTable()->name();
 		// setTempOutputTable(limits, temp_name);
         setTempOutputTable(executorVector, temp_name);
-		LogManager::GLog("VertexScanExecutor", "p_init", 70,
+		GLOG("VertexScanExecutor", "p_init", 70,
 				"after calling setTempOutputTable with temp table = " + temp_name);
 	}
 	//
@@ -81,7 +83,7 @@ bool VertexScanExecutor::p_init(AbstractPlanNode *abstractNode, const ExecutorVe
 				 node->getChildren()[0]->getOutputTable() :
 				 graphView->getVertexTable();
 		node->setOutputTable(temp_t);
-		LogManager::GLog("VertexScanExecutor", "p_init", 83,
+		GLOG("VertexScanExecutor", "p_init", 83,
 						"after calling setOutputTable with temp table name = " + temp_t->name());
 	}
 
@@ -89,13 +91,75 @@ bool VertexScanExecutor::p_init(AbstractPlanNode *abstractNode, const ExecutorVe
 	// Inline aggregation can be serial, partial or hash
 	// m_aggExec = voltdb::getInlineAggregateExecutor(node);
 
+	if (graphView != NULL) {
+		resolveDegreeColumns(node);
+	}
+
     return true;
 }
 
+void VertexScanExecutor::resolveDegreeColumns(VertexScanPlanNode* node)
+{
+	m_storedOutputs.clear();
+	m_degreeOutputs.clear();
+	ProjectionPlanNode* projectionNode = dynamic_cast<ProjectionPlanNode*>(node->getInlinePlanNode(PlanNodeType::Projection));
+	if (projectionNode != NULL) {
+		const std::vector<AbstractExpression*>& expressions = projectionNode->getOutputColumnExpressions();
+		for (int ctr = 0; ctr < (int)expressions.size(); ctr++) {
+			//the planner resolves the columns to the position of the attribute in the graph view,
+			//FANOUT and FANIN have no column in the vertex table
+			const TupleValueExpression* tve = dynamic_cast<const TupleValueExpression*>(expressions[ctr]);
+			if (tve != NULL && refersToDegrees(tve)) {
+				m_degreeOutputs.push_back(std::make_pair(ctr, graphView->getColumnIdInVertexTable(tve->getColumnId())));
+			}
+			else if (refersToDegrees(expressions[ctr])) {
+				throwSerializableEEException("Vertex scan of graph view %s: FANOUT and FANIN can only be selected as they are",
+						graphView->name().c_str());
+			}
+			else {
+				m_storedOutputs.push_back(ctr);
+			}
+		}
+	}
+
+	m_filterByDegree = refersToDegrees(node->getPredicate());
+	if (m_filterByDegree) {
+		std::vector<AbstractExpression*> conditions(1, node->getPredicate());
+		std::vector<int> positions(1, TraversalFilter::EVERY_POSITION);
+		m_degreeFilter.setConditions(conditions, positions,
+				std::vector<AbstractExpression*>(), std::vector<int>());
+	}
+}
+
+bool VertexScanExecutor::refersToDegrees(const AbstractExpression* expr)
+{
+	if (expr == NULL) {
+		return false;
+	}
+	const TupleValueExpression* tve = dynamic_cast<const TupleValueExpression*>(expr);
+	if (tve != NULL) {
+		if (tve->getColumnId() >= graphView->numOfVertexAttributes()) {
+			return false;
+		}
+		int column = graphView->getColumnIdInVertexTable(tve->getColumnId());
+		return column == GraphView::FanOutColumn || column == GraphView::FanInColumn;
+	}
+	if (refersToDegrees(expr->getLeft()) || refersToDegrees(expr->getRight())) {
+		return true;
+	}
+	const std::vector<AbstractExpression*>& args = expr->getArgs();
+	for (size_t i = 0; i < args.size(); i++) {
+		if (refersToDegrees(args[i])) {
+			return true;
+		}
+	}
+	return false;
+}
+
 bool VertexScanExecutor::p_execute(const NValueArray &params) {
     VertexScanPlanNode* node = dynamic_cast<VertexScanPlanNode*>(m_abstractNode);
     vassert(node);
-    LogManager::GLog("VertexScanExecutor", "p_execute", 96,
+    GLOG("VertexScanExecutor", "p_execute", 96,
                 "begin execute");
 
     // Short-circuit an empty scan
@@ -110,19 +174,19 @@ bool VertexScanExecutor::p_execute(const NValueArray &params) {
             node->getTargetTable();
 	*/
     GraphView* graphView = node->getTargetGraphView();
+    GraphOperatorTimer timer(&graphView->operatorCounters().vertexScanLatency);
     Table* input_table = graphView->getVertexTable();
-    LogManager::GLog("VertexScanExecutor", "p_execute", 112,
+    GLOG("VertexScanExecutor", "p_execute", 112,
                 input_table->getColumnNames()[0]);
-    // LogManager::GLog("VertexScanExecutor", "p_execute", 112,
+    // GLOG("VertexScanExecutor", "p_execute", 112,
     //             input_table->getColumnNames()[1]);
-    // LogManager::GLog("VertexScanExecutor", "p_execute", 112,
+    // GLOG("VertexScanExecutor", "p_execute", 112,
     //             input_table->getColumnNames()[2]);
-    // LogManager::GLog("VertexScanExecutor", "p_execute", 112,
+    // GLOG("VertexScanExecutor", "p_execute", 112,
     //             input_table->getColumnNames()[3]);
-    // LogManager::GLog("VertexScanExecutor", "p_execute", 112,
+    // GLOG("VertexScanExecutor", "p_execute", 112,
     //             input_table->getColumnNames()[4]);
     vassert(input_table);
-    int vertexId = -1, fanIn = -1, fanOut = -1;
 
     //* for debug */std::cout << "SeqScanExecutor: node id " << node->getPlanNodeId() <<
     //* for debug */    " input table " << (void*)input_table <<
@@ -148,9 +212,9 @@ bool VertexScanExecutor::p_execute(const NValueArray &params) {
     ProjectionPlanNode* projectionNode = dynamic_cast<ProjectionPlanNode*>(node->getInlinePlanNode(PlanNodeType::Projection));
     if (projectionNode != NULL) {
         num_of_columns = static_cast<int> (projectionNode->getOutputColumnExpressions().size());
-        LogManager::GLog("VertexScanExecutor", "p_execute:151", num_of_columns, "num_of_columns" );
+        GLOG("VertexScanExecutor", "p_execute:151", num_of_columns, "num_of_columns" );
     }
-    LogManager::GLog("VertexScanExecutor", "p_execute:153", num_of_columns, "num_of_columns"  );
+    GLOG("VertexScanExecutor", "p_execute:153", num_of_columns, "num_of_columns"  );
     //
     // OPTIMIZATION: NESTED LIMIT
     // How nice! We can also cut off our scanning with a nested limit!
@@ -186,19 +250,19 @@ bool VertexScanExecutor::p_execute(const NValueArray &params) {
 
         int limit = CountingPostfilter::NO_LIMIT;
         int offset = CountingPostfilter::NO_OFFSET;
-        LogManager::GLog("VertexScanExecutor", "p_execute:189", offset, "offset");
+        GLOG("VertexScanExecutor", "p_execute:189", offset, "offset");
         if (limit_node) {
             std::tie(limit, offset) = limit_node->getLimitAndOffset(params);
             // limit_node->getLimitAndOffsetByReference(params, limit, offset);
         }
-        // Initialize the postfilter
-        CountingPostfilter postfilter(m_tmpOutputTable, predicate, limit, offset);
+        // Initialize the postfilter, a predicate on the degrees is checked by m_degreeFilter instead
+        CountingPostfilter postfilter(m_tmpOutputTable, m_filterByDegree ? NULL : predicate, limit, offset);
 
         ProgressMonitorProxy pmp(m_engine->getExecutorContext(), this);
         TableTuple temp_tuple;
         vassert(m_tmpOutputTable);
         if (m_aggExec != NULL){//} || m_insertExec != NULL) {
-            LogManager::GLog("VertexScanExecutor", "p_execute", 206, "1");
+            GLOG("VertexScanExecutor", "p_execute", 206, "1");
             const TupleSchema * inputSchema = input_table->schema();
             if (projectionNode != NULL) {
                 inputSchema = projectionNode->getOutputTable()->schema();
@@ -214,12 +278,56 @@ bool VertexScanExecutor::p_execute(const NValueArray &params) {
                 // vassert(projectionNode != NULL ? (temp_tuple.getSchema()->columnCount() == projectionNode->getOutputColumnExpressions().size()) : true);
             // }
         } else {
-            LogManager::GLog("VertexScanExecutor", "p_execute", 206, "2");
+            GLOG("VertexScanExecutor", "p_execute", 206, "2");
             temp_tuple = m_tmpOutputTable->tempTuple();
         }
         
-        while (postfilter.isUnderLimit() && iterator.next(tuple))
+        //an id lookup visits the vertex with the key instead of the whole table
+        AbstractExpression* lookupKey = node->getLookupKey();
+        std::vector<char*> lookupTuples;
+        size_t lookupPosition = 0;
+        if (lookupKey != NULL) {
+            graphView->lookupVertexTuples(lookupKey->eval(NULL, NULL), lookupTuples);
+        }
+        //a predicate on the degrees walks the topology, the vertex rows are only read for
+        //the vertexes whose degrees pass it
+        const CSRTopology* topology = NULL;
+        int nextIndex = 0;
+        int vertexIndex = -1;
+        if (m_filterByDegree) {
+            topology = &graphView->currentTopology();
+            m_degreeFilter.bind(graphView);
+        }
+        auto nextTuple = [&]() -> bool {
+            vertexIndex = -1;
+            if (lookupKey != NULL) {
+                if (lookupPosition >= lookupTuples.size()) {
+                    return false;
+                }
+                tuple.move(lookupTuples[lookupPosition++]);
+                return true;
+            }
+            if (topology == NULL) {
+                return iterator.next(tuple);
+            }
+            while (nextIndex < topology->vertexIndexLimit() && !topology->isVertexActive(nextIndex)) {
+                nextIndex++;
+            }
+            if (nextIndex >= topology->vertexIndexLimit()) {
+                return false;
+            }
+            vertexIndex = nextIndex++;
+            tuple.move(topology->vertexTuple(vertexIndex));
+            return true;
+        };
+
+        m_batchTuples.clear();
+        m_batchIndexes.clear();
+        int idColumn = graphView->getVertexIdColumnIndex();
+        int64_t scannedTuples = 0;
+        while (postfilter.isUnderLimit() && nextTuple())
         {
+            scannedTuples++;
 #if   defined(VOLT_TRACE_ENABLED)
             int tuple_ctr = 0;
 #endif
@@ -227,7 +335,15 @@ bool VertexScanExecutor::p_execute(const NValueArray &params) {
                        tuple.debug(input_table->name()).c_str(), tuple_ctr,
                        (int)input_table->activeTupleCount());
             pmp.countdownProgress();
-            LogManager::GLog("VertexScanExecutor", "p_execute", 230, tuple.debug(input_table->name()).c_str());
+            GLOG("VertexScanExecutor", "p_execute", 230, tuple.debug(input_table->name()).c_str());
+            if (m_filterByDegree) {
+                if (vertexIndex < 0) {
+                    vertexIndex = topology->vertexIndex(graphView->elementKey(tuple.getNValue(idColumn)));
+                }
+                if (vertexIndex < 0 || !m_degreeFilter.acceptsVertex(vertexIndex, TraversalFilter::EVERY_POSITION)) {
+                    continue;
+                }
+            }
             //
             // For each tuple we need to evaluate it against our predicate and limit/offset
             //
@@ -239,29 +355,12 @@ bool VertexScanExecutor::p_execute(const NValueArray &params) {
                 //
                 if (projectionNode != NULL)
                 {
-                    LogManager::GLog("VertexScanExecutor", "p_execute", 243, "243");
-
-                    VOLT_TRACE("inline projection...");
-                    //get the vertex id
-                    vertexId = ValuePeeker::peekInteger(tuple.getNValue(0));
-                    fanOut = graphView->getVertex(vertexId)->fanOut();
-                    fanIn = graphView->getVertex(vertexId)->fanIn();
-                    // LX: this is buggy. Hassan assumes that vertexScan always
-                    // return the whole table including fanin and fanout
-                    // so he hard-coded this in the for-loop
-                    // but actually we need to support a more flexible vertexScan
-                    for (int ctr = 0; ctr < num_of_columns - 2; ctr++) {
-                    	//msaber: todo, need to check the projection operator construction
-                    	//and modify it to allow selecting graph vertex attributes
-                        NValue value = projectionNode->getOutputColumnExpressions()[ctr]->eval(&tuple, NULL);
-                        temp_tuple.setNValue(ctr, value);
-                        LogManager::GLog("VertexScanExecutor", "p_execute", 254, projectionNode->getOutputColumnExpressions()[ctr]->debug(true).c_str());
+                    //the rows are projected in batches, the degree columns of a batch are filled together
+                    m_batchTuples.push_back(tuple.address());
+                    m_batchIndexes.push_back(vertexIndex);
+                    if ((int)m_batchTuples.size() == DegreeBatchSize) {
+                        flushBatch(projectionNode, tuple, temp_tuple);
                     }
-
-                    temp_tuple.setNValue(num_of_columns - 2, ValueFactory::getIntegerValue(fanOut));
-                    temp_tuple.setNValue(num_of_columns - 1, ValueFactory::getIntegerValue(fanIn));
-
-                    outputTuple(temp_tuple);
                 }
                 else
                 {
@@ -270,6 +369,10 @@ bool VertexScanExecutor::p_execute(const NValueArray &params) {
                 pmp.countdownProgress();
             }
         }
+        if (projectionNode != NULL) {
+            flushBatch(projectionNode, tuple, temp_tuple);
+        }
+        graphView->operatorCounters().vertexScanTuples += scannedTuples;
 
         if (m_aggExec != NULL) {
             m_aggExec->p_execute_finish();
@@ -293,7 +396,7 @@ bool VertexScanExecutor::p_execute(const NValueArray &params) {
 
 void VertexScanExecutor::setTempOutputTable(TempTableLimits* limits, const string tempTableName) {
 
-	LogManager::GLog("VertexScanExecutor", "setTempOutputTable", 255,
+	GLOG("VertexScanExecutor", "setTempOutputTable", 255,
 							"setTempOutputTable in VertexScanExecutor called with tempTableName = " + tempTableName);
 
     assert(limits);
@@ -316,6 +419,44 @@ void VertexScanExecutor::setTempOutputTable(TempTableLimits* limits, const strin
 }
  */
 
+void VertexScanExecutor::flushBatch(ProjectionPlanNode* projectionNode, TableTuple& tuple, TableTuple& temp_tuple)
+{
+    int count = (int)m_batchTuples.size();
+    if (count == 0) {
+        return;
+    }
+    if (!m_degreeOutputs.empty()) {
+        const CSRTopology& topology = graphView->currentTopology();
+        int idColumn = graphView->getVertexIdColumnIndex();
+        for (int i = 0; i < count; i++) {
+            if (m_batchIndexes[i] < 0) {
+                tuple.move(m_batchTuples[i]);
+                m_batchIndexes[i] = topology.vertexIndex(graphView->elementKey(tuple.getNValue(idColumn)));
+            }
+        }
+        m_batchFanOuts.resize(count);
+        m_batchFanIns.resize(count);
+        topology.fillDegrees(&m_batchIndexes[0], count, &m_batchFanOuts[0], &m_batchFanIns[0]);
+    }
+
+    VOLT_TRACE("inline projection...");
+    const std::vector<AbstractExpression*>& expressions = projectionNode->getOutputColumnExpressions();
+    for (int i = 0; i < count; i++) {
+        tuple.move(m_batchTuples[i]);
+        for (size_t c = 0; c < m_storedOutputs.size(); c++) {
+            int ctr = m_storedOutputs[c];
+            temp_tuple.setNValue(ctr, expressions[ctr]->eval(&tuple, NULL));
+        }
+        for (size_t c = 0; c < m_degreeOutputs.size(); c++) {
+            int32_t degree = (m_degreeOutputs[c].second == GraphView::FanOutColumn) ? m_batchFanOuts[i] : m_batchFanIns[i];
+            temp_tuple.setNValue(m_degreeOutputs[c].first, ValueFactory::getIntegerValue(degree));
+        }
+        outputTuple(temp_tuple);
+    }
+    m_batchTuples.clear();
+    m_batchIndexes.clear();
+}
+
 void VertexScanExecutor::outputTuple(TableTuple& tuple)
 {
     if (m_aggExec != NULL) {
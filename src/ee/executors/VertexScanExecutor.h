@@ -15,6 +15,7 @@
 #include "common/tabletuple.h"
 #include "executors/abstractexecutor.h"
 #include "execution/VoltDBEngine.h"
+#include "graph/TraversalFilter.h"
 
 namespace voltdb {
 
@@ -25,6 +26,8 @@ class Table;
 class AggregateExecutorBase;
 class GraphView;
 class CountingPostfilter; // modified LX
+class ProjectionPlanNode;
+class VertexScanPlanNode;
 
 class VertexScanExecutor : public AbstractExecutor {
 
@@ -32,9 +35,11 @@ public:
 	VertexScanExecutor(VoltDBEngine *engine, AbstractPlanNode* abstract_node)
 		: AbstractExecutor(engine, abstract_node)
 		  , m_aggExec(NULL)
+		  , graphView(NULL)
+		  , m_filterByDegree(false)
 	{
          //output_table = NULL;
-         LogManager::GLog("VertexScanExecutor", "Constructor", 32, abstract_node->debug());
+         GLOG("VertexScanExecutor", "Constructor", 32, abstract_node->debug());
     }
         ~VertexScanExecutor();
 
@@ -49,9 +54,33 @@ public:
 
     private:
         void outputTuple(TableTuple& tuple);
+        //splits the inline projection into the columns evaluated on the vertex rows and the
+        //degree columns, and decides whether the predicate is checked against the topology
+        void resolveDegreeColumns(VertexScanPlanNode* node);
+        //true if expr uses the FANOUT or FANIN attribute
+        bool refersToDegrees(const AbstractExpression* expr);
+        //projects and outputs the rows of the current batch, their degrees are read in one pass
+        void flushBatch(ProjectionPlanNode* projectionNode, TableTuple& tuple, TableTuple& temp_tuple);
         AggregateExecutorBase* m_aggExec;
         GraphView* graphView;
 
+        //output columns of the inline projection computed from the vertex rows, and the
+        //(output column, GraphView::FanOutColumn or FanInColumn) pairs of the degree columns
+        std::vector<int> m_storedOutputs;
+        std::vector<std::pair<int, int> > m_degreeOutputs;
+        //a predicate on the degrees is checked by the filter against the topology, so the scan
+        //visits the vertexes in dense index order and only touches the rows that pass it
+        bool m_filterByDegree;
+        TraversalFilter m_degreeFilter;
+
+        //rows that passed the predicate and wait for their projection, with their dense vertex
+        //indexes (-1 until resolved) and degrees
+        static const int DegreeBatchSize = 1024;
+        std::vector<char*> m_batchTuples;
+        std::vector<int> m_batchIndexes;
+        std::vector<int32_t> m_batchFanOuts;
+        std::vector<int32_t> m_batchFanIns;
+
 
 };
 
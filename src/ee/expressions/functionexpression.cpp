@@ -511,6 +511,15 @@ AbstractExpression* functionFactory(int functionId, const std::vector<AbstractEx
          case FUNC_INET6_ATON:
             ret = new UnaryFunctionExpression<FUNC_INET6_ATON>(arguments[0]);
             break;
+         case FUNC_VOLT_PATH_LENGTH:
+            ret = new UnaryFunctionExpression<FUNC_VOLT_PATH_LENGTH>(arguments[0]);
+            break;
+         case FUNC_VOLT_PATH_FIRST:
+            ret = new UnaryFunctionExpression<FUNC_VOLT_PATH_FIRST>(arguments[0]);
+            break;
+         case FUNC_VOLT_PATH_LAST:
+            ret = new UnaryFunctionExpression<FUNC_VOLT_PATH_LAST>(arguments[0]);
+            break;
          case FUNC_DEGREES:
             ret = new UnaryFunctionExpression<FUNC_DEGREES>(arguments[0]);
             break;
@@ -580,6 +589,12 @@ AbstractExpression* functionFactory(int functionId, const std::vector<AbstractEx
          case FUNC_VOLT_BIT_SHIFT_LEFT:
             ret = new GeneralFunctionExpression<FUNC_VOLT_BIT_SHIFT_LEFT>(arguments);
             break;
+         case FUNC_VOLT_PATH_VERTEX:
+            ret = new GeneralFunctionExpression<FUNC_VOLT_PATH_VERTEX>(arguments);
+            break;
+         case FUNC_VOLT_PATH_EDGE:
+            ret = new GeneralFunctionExpression<FUNC_VOLT_PATH_EDGE>(arguments);
+            break;
          case FUNC_VOLT_BIT_SHIFT_RIGHT:
             ret = new GeneralFunctionExpression<FUNC_VOLT_BIT_SHIFT_RIGHT>(arguments);
             break;
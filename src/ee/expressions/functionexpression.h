@@ -266,6 +266,13 @@ namespace voltdb {
    static const int FUNC_INET6_NTOA                       = 20046;
    static const int FUNC_INET6_ATON                       = 20047;
 
+   // Graph view path functions
+   static const int FUNC_VOLT_PATH_LENGTH                 = 20048;
+   static const int FUNC_VOLT_PATH_FIRST                  = 20049;
+   static const int FUNC_VOLT_PATH_LAST                   = 20050;
+   static const int FUNC_VOLT_PATH_VERTEX                 = 20051;
+   static const int FUNC_VOLT_PATH_EDGE                   = 20052;
+
    // Geospatial functions
    static const int FUNC_VOLT_POINTFROMTEXT               = 21000;
    static const int FUNC_VOLT_POLYGONFROMTEXT             = 21001;
@@ -315,4 +322,5 @@ namespace voltdb {
 #include "stringfunctions.h"
 #include "logicfunctions.h"
 #include "jsonfunctions.h"
+#include "pathfunctions.h"
 
@@ -0,0 +1,202 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Accessors of the PATH column of graph view paths. A path holds the ids of its
+ * vertexes and edges: v0, e0, v1, e1, ..., vn, so a path of length n holds
+ * 2n + 1 ids. Vertexes are numbered from 0 (the start vertex) to n and edges
+ * from 0 to n - 1; out of range positions give NULL.
+ *
+ * When the vertex and edge ids of the graph view are integers the path is a
+ * VARBINARY of 8 byte little endian ids. Otherwise every id starts with a tag
+ * byte, PATH_TAG_BIGINT followed by the 8 byte little endian id or
+ * PATH_TAG_VARCHAR followed by the 4 byte little endian length and the bytes
+ * of the id. A tagged path never takes a multiple of 8 bytes, a trailing
+ * PATH_TAG_PADDING byte is added when it would, so the length tells the two
+ * encodings apart.
+ */
+
+#pragma once
+
+#include <sstream>
+#include "common/NValue.hpp"
+#include "common/ValueFactory.hpp"
+
+namespace voltdb {
+
+static const int32_t PATH_ID_BYTES = 8;
+static const int32_t PATH_LENGTH_BYTES = 4;
+static const char PATH_TAG_BIGINT = 0;
+static const char PATH_TAG_VARCHAR = 1;
+static const char PATH_TAG_PADDING = (char)0xFF;
+
+static inline void throwNotAPath(int32_t pathBytes, const char* functionName) {
+    std::stringstream sb;
+    sb << "VARBINARY value of " << pathBytes << " bytes is not a path, in SQL " << functionName << " function";
+    throw SQLException(SQLException::data_exception_invalid_parameter, sb.str().c_str());
+}
+
+static inline bool isTaggedPath(int32_t pathBytes) {
+    return pathBytes % PATH_ID_BYTES != 0;
+}
+
+static inline uint64_t pathLittleEndianAt(const char* bytes, int32_t numOfBytes) {
+    const unsigned char* data = reinterpret_cast<const unsigned char*>(bytes);
+    uint64_t value = 0;
+    for (int b = numOfBytes - 1; b >= 0; b--) {
+        value = (value << 8) | data[b];
+    }
+    return value;
+}
+
+/** offset of the id that follows the one at the given offset of a tagged path, throws if the id is cut short */
+static inline int32_t taggedPathNext(const char* path, int32_t pathBytes, int32_t offset, const char* functionName) {
+    int64_t next = 0;
+    if (path[offset] == PATH_TAG_BIGINT) {
+        next = (int64_t)offset + 1 + PATH_ID_BYTES;
+    } else if (path[offset] == PATH_TAG_VARCHAR && offset + 1 + PATH_LENGTH_BYTES <= pathBytes) {
+        next = (int64_t)offset + 1 + PATH_LENGTH_BYTES +
+                (uint32_t)pathLittleEndianAt(path + offset + 1, PATH_LENGTH_BYTES);
+    } else {
+        throwNotAPath(pathBytes, functionName);
+    }
+    if (next > pathBytes) {
+        throwNotAPath(pathBytes, functionName);
+    }
+    return (int32_t)next;
+}
+
+/** number of ids in a path, throws if the value does not hold a path */
+static inline int32_t pathNumOfIds(const char* path, int32_t pathBytes, const char* functionName) {
+    int32_t numOfIds = 0;
+    if (isTaggedPath(pathBytes)) {
+        for (int32_t offset = 0; offset < pathBytes; numOfIds++) {
+            if (offset == pathBytes - 1 && path[offset] == PATH_TAG_PADDING) {
+                break;
+            }
+            offset = taggedPathNext(path, pathBytes, offset, functionName);
+        }
+    } else {
+        numOfIds = pathBytes / PATH_ID_BYTES;
+    }
+    if (numOfIds % 2 == 0) {
+        throwNotAPath(pathBytes, functionName);
+    }
+    return numOfIds;
+}
+
+/** the id at the given position of a path, a BIGINT or a VARCHAR */
+static inline NValue pathIdAt(const char* path, int32_t pathBytes, int32_t position, const char* functionName) {
+    if (!isTaggedPath(pathBytes)) {
+        return ValueFactory::getBigIntValue((int64_t)pathLittleEndianAt(path + position * PATH_ID_BYTES, PATH_ID_BYTES));
+    }
+    int32_t offset = 0;
+    for (int32_t i = 0; i < position; i++) {
+        offset = taggedPathNext(path, pathBytes, offset, functionName);
+    }
+    if (path[offset] == PATH_TAG_BIGINT) {
+        return ValueFactory::getBigIntValue((int64_t)pathLittleEndianAt(path + offset + 1, PATH_ID_BYTES));
+    }
+    int32_t length = (int32_t)pathLittleEndianAt(path + offset + 1, PATH_LENGTH_BYTES);
+    return ValueFactory::getTempStringValue(path + offset + 1 + PATH_LENGTH_BYTES, length);
+}
+
+/** NULL id of a path, the VARCHAR ids are in tagged paths */
+static inline NValue pathNullId(int32_t pathBytes) {
+    return isTaggedPath(pathBytes) ? ValueFactory::getNullStringValue() : NValue::getNullValue(ValueType::tBIGINT);
+}
+
+template<> inline NValue NValue::callUnary<FUNC_VOLT_PATH_LENGTH>() const {
+    if (getValueType() != ValueType::tVARBINARY) {
+        throw SQLException(SQLException::dynamic_sql_error, "Unsupported non-VARBINARY type for SQL PATH_LENGTH function");
+    }
+    if (isNull()) {
+        return getNullValue(ValueType::tINTEGER);
+    }
+    int32_t pathBytes;
+    const char* path = getObject_withoutNull(pathBytes);
+    return getIntegerValue((pathNumOfIds(path, pathBytes, "PATH_LENGTH") - 1) / 2);
+}
+
+template<> inline NValue NValue::callUnary<FUNC_VOLT_PATH_FIRST>() const {
+    if (getValueType() != ValueType::tVARBINARY) {
+        throw SQLException(SQLException::dynamic_sql_error, "Unsupported non-VARBINARY type for SQL PATH_FIRST function");
+    }
+    if (isNull()) {
+        return getNullValue(ValueType::tBIGINT);
+    }
+    int32_t pathBytes;
+    const char* path = getObject_withoutNull(pathBytes);
+    pathNumOfIds(path, pathBytes, "PATH_FIRST");
+    return pathIdAt(path, pathBytes, 0, "PATH_FIRST");
+}
+
+template<> inline NValue NValue::callUnary<FUNC_VOLT_PATH_LAST>() const {
+    if (getValueType() != ValueType::tVARBINARY) {
+        throw SQLException(SQLException::dynamic_sql_error, "Unsupported non-VARBINARY type for SQL PATH_LAST function");
+    }
+    if (isNull()) {
+        return getNullValue(ValueType::tBIGINT);
+    }
+    int32_t pathBytes;
+    const char* path = getObject_withoutNull(pathBytes);
+    return pathIdAt(path, pathBytes, pathNumOfIds(path, pathBytes, "PATH_LAST") - 1, "PATH_LAST");
+}
+
+/** the vertex at the given position, PATH_VERTEX(path, PATH_LENGTH(path)) is the last vertex */
+template<> inline NValue NValue::call<FUNC_VOLT_PATH_VERTEX>(const std::vector<NValue>& arguments) {
+    vassert(arguments.size() == 2);
+    const NValue& pathValue = arguments[0];
+    if (pathValue.getValueType() != ValueType::tVARBINARY) {
+        throw SQLException(SQLException::dynamic_sql_error, "Unsupported non-VARBINARY type for SQL PATH_VERTEX function");
+    }
+    const NValue& positionValue = arguments[1];
+    if (pathValue.isNull() || positionValue.isNull()) {
+        return getNullValue(ValueType::tBIGINT);
+    }
+    int32_t pathBytes;
+    const char* path = pathValue.getObject_withoutNull(pathBytes);
+    int32_t numOfVertexes = (pathNumOfIds(path, pathBytes, "PATH_VERTEX") + 1) / 2;
+    int64_t position = positionValue.castAsBigIntAndGetValue();
+    if (position < 0 || position >= numOfVertexes) {
+        return pathNullId(pathBytes);
+    }
+    return pathIdAt(path, pathBytes, (int32_t)position * 2, "PATH_VERTEX");
+}
+
+/** the edge at the given position, edge n connects vertex n to vertex n + 1 */
+template<> inline NValue NValue::call<FUNC_VOLT_PATH_EDGE>(const std::vector<NValue>& arguments) {
+    vassert(arguments.size() == 2);
+    const NValue& pathValue = arguments[0];
+    if (pathValue.getValueType() != ValueType::tVARBINARY) {
+        throw SQLException(SQLException::dynamic_sql_error, "Unsupported non-VARBINARY type for SQL PATH_EDGE function");
+    }
+    const NValue& positionValue = arguments[1];
+    if (pathValue.isNull() || positionValue.isNull()) {
+        return getNullValue(ValueType::tBIGINT);
+    }
+    int32_t pathBytes;
+    const char* path = pathValue.getObject_withoutNull(pathBytes);
+    int32_t numOfEdges = (pathNumOfIds(path, pathBytes, "PATH_EDGE") - 1) / 2;
+    int64_t position = positionValue.castAsBigIntAndGetValue();
+    if (position < 0 || position >= numOfEdges) {
+        return pathNullId(pathBytes);
+    }
+    return pathIdAt(path, pathBytes, (int32_t)position * 2 + 1, "PATH_EDGE");
+}
+
+}
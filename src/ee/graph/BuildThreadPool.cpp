@@ -0,0 +1,126 @@
+#include "BuildThreadPool.h"
+#include <exception>
+#include <system_error>
+
+using namespace std;
+
+namespace voltdb {
+
+static size_t maxThreads()
+{
+	return std::min((size_t)std::max(std::thread::hardware_concurrency(), 1u), BuildThreadPool::MAX_THREADS);
+}
+
+BuildThreadPool::BuildThreadPool(void)
+{
+	//the calling thread runs a chunk of every build itself
+	for (size_t t = 1; t < maxThreads(); t++)
+	{
+		try
+		{
+			m_workers.push_back(std::thread(&BuildThreadPool::workerLoop, this));
+		}
+		catch (const std::system_error&)
+		{
+			//no more threads could be started, the callers run the chunks left to them
+			break;
+		}
+	}
+	for (size_t t = 0; t < m_workers.size(); t++)
+	{
+		m_workers[t].detach();
+	}
+}
+
+BuildThreadPool& BuildThreadPool::instance()
+{
+	static BuildThreadPool* pool = new BuildThreadPool();
+	return *pool;
+}
+
+size_t BuildThreadPool::numOfChunks(size_t count)
+{
+	return std::max(std::min(maxThreads(), count / ROWS_PER_THREAD), (size_t)1);
+}
+
+bool BuildThreadPool::runQueued(unique_lock<mutex>& lock)
+{
+	if (m_queue.empty())
+	{
+		return false;
+	}
+	Task task = m_queue.front();
+	m_queue.pop_front();
+	lock.unlock();
+	task.run();
+	lock.lock();
+	(*task.pending)--;
+	m_done.notify_all();
+	return true;
+}
+
+void BuildThreadPool::workerLoop()
+{
+	unique_lock<mutex> lock(m_mutex);
+	while (true)
+	{
+		if (!runQueued(lock))
+		{
+			m_queued.wait(lock);
+		}
+	}
+}
+
+void BuildThreadPool::run(size_t numOfChunks, const function<void(size_t)>& work)
+{
+	if (numOfChunks <= 1)
+	{
+		work(0);
+		return;
+	}
+	vector<exception_ptr> errors(numOfChunks);
+	auto runChunk = [&work, &errors](size_t c) {
+		try
+		{
+			work(c);
+		}
+		catch (...)
+		{
+			errors[c] = std::current_exception();
+		}
+	};
+	BuildThreadPool& pool = instance();
+	size_t pending = numOfChunks - 1;
+	{
+		lock_guard<mutex> lock(pool.m_mutex);
+		for (size_t c = 1; c < numOfChunks; c++)
+		{
+			Task task;
+			task.run = [&runChunk, c]() { runChunk(c); };
+			task.pending = &pending;
+			pool.m_queue.push_back(task);
+		}
+	}
+	pool.m_queued.notify_all();
+	runChunk(0);
+	{
+		//help with the queued chunks (of this or another build) until the own ones are done
+		unique_lock<mutex> lock(pool.m_mutex);
+		while (pending != 0)
+		{
+			if (!pool.runQueued(lock))
+			{
+				pool.m_done.wait(lock);
+			}
+		}
+	}
+	for (size_t c = 0; c < numOfChunks; c++)
+	{
+		if (errors[c])
+		{
+			std::rethrow_exception(errors[c]);
+		}
+	}
+}
+
+}
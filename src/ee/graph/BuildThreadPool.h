@@ -0,0 +1,76 @@
+/*
+ * BuildThreadPool.h
+ *
+ * Worker threads for the bulk topology builds of the graph views. The threads
+ * are started once and shared by the builds of all the sites of the process,
+ * a build splits its rows into chunks and runs them on the pool and on its
+ * own (site) thread. Inputs below ROWS_PER_THREAD rows per chunk are handled
+ * by the calling thread alone.
+ */
+
+#ifndef BUILDTHREADPOOL_H_
+#define BUILDTHREADPOOL_H_
+
+#include <algorithm>
+#include <condition_variable>
+#include <cstddef>
+#include <deque>
+#include <functional>
+#include <mutex>
+#include <thread>
+#include <vector>
+
+namespace voltdb {
+
+class BuildThreadPool
+{
+public:
+	//rows handled by each chunk of a build
+	static const size_t ROWS_PER_THREAD = 1 << 16;
+	//the other sites keep running while a graph view is rebuilt
+	static const size_t MAX_THREADS = 8;
+
+	//the number of chunks count rows are split into, 1 for the builds that stay on the calling thread
+	static size_t numOfChunks(size_t count);
+	//runs work(chunk) for every chunk of [0, numOfChunks), chunk 0 on the calling thread. The calling
+	//thread also runs the queued chunks while it waits, so the build completes without any worker.
+	//An exception thrown by a chunk is caught on its thread, once all the chunks are done the first
+	//one (in chunk order) is rethrown on the calling thread, the site thread
+	static void run(size_t numOfChunks, const std::function<void(size_t)>& work);
+	//splits [0, count) into numOfChunks(count) ranges and runs work(begin, end) on them
+	template<typename Work>
+	static void parallelFor(size_t count, const Work& work)
+	{
+		size_t chunks = numOfChunks(count);
+		size_t chunk = (count + chunks - 1) / chunks;
+		run(chunks, [&work, chunk, count](size_t c) {
+			work(c * chunk, std::min(count, (c + 1) * chunk));
+		});
+	}
+
+private:
+	BuildThreadPool(void);
+	//the pool lives as long as the process, its threads are never joined
+	static BuildThreadPool& instance();
+	void workerLoop();
+	//pops and runs one queued chunk, returns false if the queue is empty
+	bool runQueued(std::unique_lock<std::mutex>& lock);
+
+	std::mutex m_mutex;
+	//signaled when chunks are queued
+	std::condition_variable m_queued;
+	//signaled when a chunk is done
+	std::condition_variable m_done;
+	//a queued chunk, pending counts the chunks of its build that are not done yet
+	struct Task
+	{
+		std::function<void()> run;
+		size_t* pending;
+	};
+	std::deque<Task> m_queue;
+	std::vector<std::thread> m_workers;
+};
+
+}
+
+#endif /* BUILDTHREADPOOL_H_ */
@@ -0,0 +1,664 @@
+#include "CSRTopology.h"
+#include <algorithm>
+#include <unordered_set>
+
+using namespace std;
+
+namespace voltdb {
+
+CSRTopology::CSRTopology(void)
+{
+	m_isDirected = true;
+	clear();
+}
+
+void CSRTopology::clearRanges(SlotRanges& ranges)
+{
+	ranges.begin.clear();
+	ranges.end.clear();
+	ranges.capacity.clear();
+	ranges.neighbors.clear();
+	ranges.edges.clear();
+	ranges.garbage = 0;
+}
+
+void CSRTopology::clear()
+{
+	m_vertexIdToIndex.clear();
+	m_vertexIds.clear();
+	m_vertexTuples.clear();
+	m_vProps.clear();
+	m_vertexActive.clear();
+	m_freeVertexes.clear();
+	clearRanges(m_out);
+	clearRanges(m_in);
+	m_edgeIds.clear();
+	m_edgeTuples.clear();
+	m_eProps.clear();
+	m_freeEdges.clear();
+	m_numOfEdges = 0;
+}
+
+void CSRTopology::addEmptyRange(SlotRanges& ranges, int index)
+{
+	int tail = (int)ranges.neighbors.size();
+	if (index == (int)ranges.begin.size())
+	{
+		ranges.begin.push_back(tail);
+		ranges.end.push_back(tail);
+		ranges.capacity.push_back(tail);
+	}
+	else
+	{
+		ranges.begin[index] = tail;
+		ranges.end[index] = tail;
+		ranges.capacity[index] = tail;
+	}
+}
+
+void CSRTopology::reserveVertexes(int numOfVertexes)
+{
+	m_vertexIdToIndex.reserve(numOfVertexes);
+	m_vertexIds.reserve(numOfVertexes);
+	m_vertexTuples.reserve(numOfVertexes);
+	m_vProps.reserve(numOfVertexes);
+	m_vertexActive.reserve(numOfVertexes);
+	m_out.begin.reserve(numOfVertexes);
+	m_out.end.reserve(numOfVertexes);
+	m_out.capacity.reserve(numOfVertexes);
+	m_in.begin.reserve(numOfVertexes);
+	m_in.end.reserve(numOfVertexes);
+	m_in.capacity.reserve(numOfVertexes);
+}
+
+int CSRTopology::addVertex(int64_t id, char* tupleData, int vProp)
+{
+	std::unordered_map<int64_t, int>::iterator it = m_vertexIdToIndex.find(id);
+	if (it != m_vertexIdToIndex.end())
+	{
+		//the latest tuple wins, same as re-adding the vertex to the id map
+		updateVertex(it->second, tupleData, vProp);
+		return it->second;
+	}
+	int index;
+	if (m_freeVertexes.empty())
+	{
+		index = (int)m_vertexIds.size();
+		m_vertexIds.push_back(id);
+		m_vertexTuples.push_back(tupleData);
+		m_vProps.push_back(vProp);
+		m_vertexActive.push_back(1);
+	}
+	else
+	{
+		index = m_freeVertexes.back();
+		m_freeVertexes.pop_back();
+		m_vertexIds[index] = id;
+		m_vertexTuples[index] = tupleData;
+		m_vProps[index] = vProp;
+		m_vertexActive[index] = 1;
+	}
+	addEmptyRange(m_out, index);
+	addEmptyRange(m_in, index);
+	m_vertexIdToIndex[id] = index;
+	return index;
+}
+
+void CSRTopology::updateVertex(int index, char* tupleData, int vProp)
+{
+	m_vertexTuples[index] = tupleData;
+	m_vProps[index] = vProp;
+}
+
+//per chunk degree counters of a build, the edges are split into fewer chunks for the graphs
+//with many vertexes
+static const size_t MAX_DEGREE_COUNTERS = 1 << 24;
+
+void CSRTopology::build(const vector<EdgeEntry>& edges, bool isDirected, size_t numOfChunks)
+{
+	int n = vertexIndexLimit();
+	int numOfEdges = (int)edges.size();
+	m_isDirected = isDirected;
+	m_numOfEdges = numOfEdges;
+
+	//every chunk of edges counts (and later places) its own edges, within the range of a vertex the
+	//slots of a chunk follow those of the previous chunks, so the slots are in edge order as if a
+	//single thread placed them
+	if (numOfChunks == 0)
+	{
+		numOfChunks = std::min(BuildThreadPool::numOfChunks(numOfEdges),
+				std::max(MAX_DEGREE_COUNTERS / (2 * ((size_t)n + 1)), (size_t)1));
+	}
+	size_t chunk = (numOfEdges + numOfChunks - 1) / numOfChunks;
+	vector<vector<int> > outCounts(numOfChunks);
+	vector<vector<int> > inCounts(numOfChunks);
+	BuildThreadPool::run(numOfChunks, [&](size_t c) {
+		vector<int>& outCount = outCounts[c];
+		vector<int>& inCount = inCounts[c];
+		outCount.assign(n, 0);
+		inCount.assign(n, 0);
+		int end = (int)std::min((size_t)numOfEdges, (c + 1) * chunk);
+		for (int i = (int)(c * chunk); i < end; i++)
+		{
+			const EdgeEntry& e = edges[i];
+			outCount[e.from]++;
+			inCount[e.to]++;
+			if (!isDirected && e.from != e.to)
+			{
+				outCount[e.to]++;
+				inCount[e.from]++;
+			}
+		}
+	});
+
+	//the degree of every vertex, the prefix sums turn them into slot offsets
+	vector<int> outOffsets(n + 1, 0);
+	vector<int> inOffsets(n + 1, 0);
+	BuildThreadPool::parallelFor(n, [&](size_t begin, size_t end) {
+		for (size_t v = begin; v < end; v++)
+		{
+			for (size_t c = 0; c < numOfChunks; c++)
+			{
+				outOffsets[v + 1] += outCounts[c][v];
+				inOffsets[v + 1] += inCounts[c][v];
+			}
+		}
+	});
+	for (int i = 0; i < n; i++)
+	{
+		outOffsets[i + 1] += outOffsets[i];
+		inOffsets[i + 1] += inOffsets[i];
+	}
+	//the counters become the first slot of every chunk in the range of the vertex
+	BuildThreadPool::parallelFor(n, [&](size_t begin, size_t end) {
+		for (size_t v = begin; v < end; v++)
+		{
+			int outSlot = outOffsets[v];
+			int inSlot = inOffsets[v];
+			for (size_t c = 0; c < numOfChunks; c++)
+			{
+				int count = outCounts[c][v];
+				outCounts[c][v] = outSlot;
+				outSlot += count;
+				count = inCounts[c][v];
+				inCounts[c][v] = inSlot;
+				inSlot += count;
+			}
+		}
+	});
+
+	m_out.begin.assign(outOffsets.begin(), outOffsets.end() - 1);
+	m_out.end.assign(outOffsets.begin() + 1, outOffsets.end());
+	m_out.capacity.assign(outOffsets.begin() + 1, outOffsets.end());
+	m_out.neighbors.resize(outOffsets[n]);
+	m_out.edges.resize(outOffsets[n]);
+	m_out.garbage = 0;
+	m_in.begin.assign(inOffsets.begin(), inOffsets.end() - 1);
+	m_in.end.assign(inOffsets.begin() + 1, inOffsets.end());
+	m_in.capacity.assign(inOffsets.begin() + 1, inOffsets.end());
+	m_in.neighbors.resize(inOffsets[n]);
+	m_in.edges.resize(inOffsets[n]);
+	m_in.garbage = 0;
+
+	m_edgeIds.resize(numOfEdges);
+	m_edgeTuples.resize(numOfEdges);
+	m_eProps.resize(numOfEdges);
+	m_freeEdges.clear();
+
+	BuildThreadPool::run(numOfChunks, [&](size_t c) {
+		vector<int>& outSlots = outCounts[c];
+		vector<int>& inSlots = inCounts[c];
+		int end = (int)std::min((size_t)numOfEdges, (c + 1) * chunk);
+		int slot;
+		for (int i = (int)(c * chunk); i < end; i++)
+		{
+			const EdgeEntry& e = edges[i];
+			m_edgeIds[i] = e.id;
+			m_edgeTuples[i] = e.tupleData;
+			m_eProps[i] = e.eProp;
+			slot = outSlots[e.from]++;
+			m_out.neighbors[slot] = e.to;
+			m_out.edges[slot] = i;
+			slot = inSlots[e.to]++;
+			m_in.neighbors[slot] = e.from;
+			m_in.edges[slot] = i;
+
+			if (!isDirected && e.from != e.to)
+			{
+				slot = outSlots[e.to]++;
+				m_out.neighbors[slot] = e.from;
+				m_out.edges[slot] = i;
+				slot = inSlots[e.from]++;
+				m_in.neighbors[slot] = e.to;
+				m_in.edges[slot] = i;
+			}
+		}
+	});
+}
+
+void CSRTopology::appendSlot(SlotRanges& ranges, int index, int neighbor, int edge)
+{
+	if (ranges.end[index] == ranges.capacity[index])
+	{
+		//no room left, move the range to the tail with twice the capacity
+		int begin = ranges.begin[index];
+		int length = ranges.end[index] - begin;
+		int newCapacity = (length < 2) ? 4 : 2 * length;
+		int newBegin = (int)ranges.neighbors.size();
+		ranges.neighbors.resize(newBegin + newCapacity);
+		ranges.edges.resize(newBegin + newCapacity);
+		for (int i = 0; i < length; i++)
+		{
+			ranges.neighbors[newBegin + i] = ranges.neighbors[begin + i];
+			ranges.edges[newBegin + i] = ranges.edges[begin + i];
+		}
+		ranges.garbage += ranges.capacity[index] - begin;
+		ranges.begin[index] = newBegin;
+		ranges.end[index] = newBegin + length;
+		ranges.capacity[index] = newBegin + newCapacity;
+	}
+	int slot = ranges.end[index]++;
+	ranges.neighbors[slot] = neighbor;
+	ranges.edges[slot] = edge;
+
+	if (ranges.garbage > 1024 && ranges.garbage > (int)ranges.neighbors.size() / 2)
+	{
+		compactRanges(ranges);
+	}
+}
+
+bool CSRTopology::removeSlot(SlotRanges& ranges, int index, int edge)
+{
+	int last = ranges.end[index] - 1;
+	for (int slot = ranges.begin[index]; slot <= last; slot++)
+	{
+		if (ranges.edges[slot] == edge)
+		{
+			//order within a range does not matter, fill the hole with the last slot
+			ranges.neighbors[slot] = ranges.neighbors[last];
+			ranges.edges[slot] = ranges.edges[last];
+			ranges.end[index] = last;
+			return true;
+		}
+	}
+	return false;
+}
+
+void CSRTopology::compactRanges(SlotRanges& ranges)
+{
+	int n = (int)ranges.begin.size();
+	int numOfSlots = 0;
+	for (int i = 0; i < n; i++)
+	{
+		int length = ranges.end[i] - ranges.begin[i];
+		numOfSlots += length + (length >> 2);
+	}
+	vector<int> neighbors(numOfSlots);
+	vector<int> edges(numOfSlots);
+	int next = 0;
+	for (int i = 0; i < n; i++)
+	{
+		int begin = ranges.begin[i];
+		int length = ranges.end[i] - begin;
+		for (int j = 0; j < length; j++)
+		{
+			neighbors[next + j] = ranges.neighbors[begin + j];
+			edges[next + j] = ranges.edges[begin + j];
+		}
+		ranges.begin[i] = next;
+		ranges.end[i] = next + length;
+		//keep a quarter of spare room for vertexes that keep growing
+		next += length + (length >> 2);
+		ranges.capacity[i] = next;
+	}
+	ranges.neighbors.swap(neighbors);
+	ranges.edges.swap(edges);
+	ranges.garbage = 0;
+}
+
+int CSRTopology::allocateEdge(const EdgeEntry& edge)
+{
+	int e;
+	if (m_freeEdges.empty())
+	{
+		e = (int)m_edgeIds.size();
+		m_edgeIds.push_back(edge.id);
+		m_edgeTuples.push_back(edge.tupleData);
+		m_eProps.push_back(edge.eProp);
+	}
+	else
+	{
+		e = m_freeEdges.back();
+		m_freeEdges.pop_back();
+		m_edgeIds[e] = edge.id;
+		m_edgeTuples[e] = edge.tupleData;
+		m_eProps[e] = edge.eProp;
+	}
+	return e;
+}
+
+void CSRTopology::addEdge(const EdgeEntry& edge)
+{
+	int e = allocateEdge(edge);
+	appendSlot(m_out, edge.from, edge.to, e);
+	appendSlot(m_in, edge.to, edge.from, e);
+	if (!m_isDirected && edge.from != edge.to)
+	{
+		appendSlot(m_out, edge.to, edge.from, e);
+		appendSlot(m_in, edge.from, edge.to, e);
+	}
+	m_numOfEdges++;
+}
+
+int CSRTopology::findOutEdge(int64_t edgeId, int from, int to) const
+{
+	int endSlot = m_out.end[from];
+	for (int slot = m_out.begin[from]; slot < endSlot; slot++)
+	{
+		if (m_out.neighbors[slot] == to && m_edgeIds[m_out.edges[slot]] == edgeId)
+		{
+			return m_out.edges[slot];
+		}
+	}
+	return -1;
+}
+
+bool CSRTopology::removeEdge(int64_t edgeId, int from, int to)
+{
+	int e = findOutEdge(edgeId, from, to);
+	if (e < 0)
+	{
+		return false;
+	}
+	removeSlot(m_out, from, e);
+	removeSlot(m_in, to, e);
+	if (!m_isDirected && from != to)
+	{
+		removeSlot(m_out, to, e);
+		removeSlot(m_in, from, e);
+	}
+	m_edgeTuples[e] = NULL;
+	m_freeEdges.push_back(e);
+	m_numOfEdges--;
+	return true;
+}
+
+bool CSRTopology::updateEdge(int64_t edgeId, int from, int to, char* tupleData, int eProp)
+{
+	int e = findOutEdge(edgeId, from, to);
+	if (e < 0)
+	{
+		return false;
+	}
+	m_edgeTuples[e] = tupleData;
+	m_eProps[e] = eProp;
+	return true;
+}
+
+void CSRTopology::removeVertex(int index, vector<EdgeEntry>& detachedEdges)
+{
+	int64_t vertexId = m_vertexIds[index];
+	std::unordered_set<int> seen;
+	EdgeEntry entry;
+	int e, neighbor;
+
+	//for undirected graphs every incident edge shows up in both ranges, hence the seen set
+	for (int pass = 0; pass < 2; pass++)
+	{
+		SlotRanges& ranges = (pass == 0) ? m_out : m_in;
+		for (int slot = ranges.begin[index]; slot < ranges.end[index]; slot++)
+		{
+			e = ranges.edges[slot];
+			if (!seen.insert(e).second)
+			{
+				continue;
+			}
+			neighbor = ranges.neighbors[slot];
+			entry.id = m_edgeIds[e];
+			entry.tupleData = m_edgeTuples[e];
+			entry.eProp = m_eProps[e];
+			entry.from = (pass == 0 || !m_isDirected) ? vertexId : m_vertexIds[neighbor];
+			entry.to = (pass == 0 || !m_isDirected) ? m_vertexIds[neighbor] : vertexId;
+			detachedEdges.push_back(entry);
+
+			if (neighbor != index)
+			{
+				if (!m_isDirected)
+				{
+					removeSlot(m_out, neighbor, e);
+					removeSlot(m_in, neighbor, e);
+				}
+				else if (pass == 0)
+				{
+					removeSlot(m_in, neighbor, e);
+				}
+				else
+				{
+					removeSlot(m_out, neighbor, e);
+				}
+			}
+			m_edgeTuples[e] = NULL;
+			m_freeEdges.push_back(e);
+			m_numOfEdges--;
+		}
+	}
+
+	m_out.garbage += m_out.capacity[index] - m_out.begin[index];
+	m_in.garbage += m_in.capacity[index] - m_in.begin[index];
+	m_out.begin[index] = m_out.end[index] = m_out.capacity[index];
+	m_in.begin[index] = m_in.end[index] = m_in.capacity[index];
+
+	m_vertexIdToIndex.erase(vertexId);
+	m_vertexTuples[index] = NULL;
+	m_vertexActive[index] = 0;
+	m_freeVertexes.push_back(index);
+}
+
+void CSRTopology::fillDegrees(const int* indexes, int count, int32_t* fanOuts, int32_t* fanIns) const
+{
+	const int* outBegin = m_out.begin.data();
+	const int* outEnd = m_out.end.data();
+	const int* inBegin = m_in.begin.data();
+	const int* inEnd = m_in.end.data();
+	for (int i = 0; i < count; i++)
+	{
+		int index = indexes[i];
+		fanOuts[i] = (index < 0) ? 0 : outEnd[index] - outBegin[index];
+		fanIns[i] = (index < 0) ? 0 : inEnd[index] - inBegin[index];
+	}
+}
+
+size_t CSRTopology::memoryFootprint() const
+{
+	size_t bytes = 0;
+	bytes += m_vertexIds.capacity() * sizeof(int64_t);
+	bytes += m_vertexTuples.capacity() * sizeof(char*);
+	bytes += m_vProps.capacity() * sizeof(int);
+	bytes += m_vertexActive.capacity() * sizeof(char);
+	//bucket array plus one node (key, value, next pointer) per vertex
+	bytes += m_vertexIdToIndex.bucket_count() * sizeof(void*);
+	bytes += m_vertexIdToIndex.size() * (sizeof(int64_t) + sizeof(int) + sizeof(void*));
+	const SlotRanges* directions[] = { &m_out, &m_in };
+	for (int i = 0; i < 2; i++)
+	{
+		bytes += directions[i]->begin.capacity() * sizeof(int) * 3;
+		bytes += directions[i]->neighbors.capacity() * sizeof(int);
+		bytes += directions[i]->edges.capacity() * sizeof(int);
+	}
+	bytes += m_edgeIds.capacity() * sizeof(int64_t);
+	bytes += m_edgeTuples.capacity() * sizeof(char*);
+	bytes += m_eProps.capacity() * sizeof(int);
+	return bytes;
+}
+
+//the arrays are copied in bulk, a count of elements followed by their bytes
+template<typename T>
+static void writeArray(SerializeOutput& out, const vector<T>& values)
+{
+	out.writeInt((int32_t)values.size());
+	if (!values.empty())
+	{
+		out.writeBytes(values.data(), values.size() * sizeof(T));
+	}
+}
+
+template<typename T>
+static bool readArray(SerializeInputBE& in, vector<T>& values)
+{
+	int32_t size = in.readInt();
+	if (size < 0)
+	{
+		return false;
+	}
+	values.resize(size);
+	if (size > 0)
+	{
+		in.readBytes(values.data(), size * sizeof(T));
+	}
+	return true;
+}
+
+template<typename T>
+static size_t arraySize(const vector<T>& values)
+{
+	return sizeof(int32_t) + values.size() * sizeof(T);
+}
+
+void CSRTopology::serialize(SerializeOutput& out) const
+{
+	out.writeBool(m_isDirected);
+	out.writeInt(m_numOfEdges);
+	writeArray(out, m_vertexIds);
+	writeArray(out, m_vProps);
+	writeArray(out, m_vertexActive);
+	writeArray(out, m_freeVertexes);
+	const SlotRanges* directions[] = { &m_out, &m_in };
+	for (int i = 0; i < 2; i++)
+	{
+		writeArray(out, directions[i]->begin);
+		writeArray(out, directions[i]->end);
+		writeArray(out, directions[i]->capacity);
+		writeArray(out, directions[i]->neighbors);
+		writeArray(out, directions[i]->edges);
+		out.writeInt(directions[i]->garbage);
+	}
+	writeArray(out, m_edgeIds);
+	writeArray(out, m_eProps);
+	writeArray(out, m_freeEdges);
+}
+
+size_t CSRTopology::serializedSize() const
+{
+	size_t bytes = sizeof(int8_t) + sizeof(int32_t);
+	bytes += arraySize(m_vertexIds) + arraySize(m_vProps) + arraySize(m_vertexActive) + arraySize(m_freeVertexes);
+	const SlotRanges* directions[] = { &m_out, &m_in };
+	for (int i = 0; i < 2; i++)
+	{
+		bytes += arraySize(directions[i]->begin) + arraySize(directions[i]->end) + arraySize(directions[i]->capacity);
+		bytes += arraySize(directions[i]->neighbors) + arraySize(directions[i]->edges) + sizeof(int32_t);
+	}
+	bytes += arraySize(m_edgeIds) + arraySize(m_eProps) + arraySize(m_freeEdges);
+	return bytes;
+}
+
+bool CSRTopology::deserialize(SerializeInputBE& in)
+{
+	clear();
+	m_isDirected = in.readBool();
+	m_numOfEdges = in.readInt();
+	bool valid = readArray(in, m_vertexIds) && readArray(in, m_vProps) && readArray(in, m_vertexActive) &&
+			readArray(in, m_freeVertexes);
+	SlotRanges* directions[] = { &m_out, &m_in };
+	for (int i = 0; valid && i < 2; i++)
+	{
+		valid = readArray(in, directions[i]->begin) && readArray(in, directions[i]->end) &&
+				readArray(in, directions[i]->capacity) && readArray(in, directions[i]->neighbors) &&
+				readArray(in, directions[i]->edges);
+		if (valid)
+		{
+			directions[i]->garbage = in.readInt();
+		}
+	}
+	valid = valid && readArray(in, m_edgeIds) && readArray(in, m_eProps) && readArray(in, m_freeEdges);
+
+	//every slot of an active vertex must refer to an existing vertex and edge index
+	size_t n = m_vertexIds.size();
+	size_t numOfEdgeIndexes = m_edgeIds.size();
+	valid = valid && m_vProps.size() == n && m_vertexActive.size() == n && m_eProps.size() == numOfEdgeIndexes;
+	for (int i = 0; valid && i < 2; i++)
+	{
+		const SlotRanges& ranges = *directions[i];
+		int numOfSlots = (int)ranges.neighbors.size();
+		valid = ranges.begin.size() == n && ranges.end.size() == n && ranges.capacity.size() == n &&
+				ranges.edges.size() == ranges.neighbors.size();
+		for (size_t v = 0; valid && v < n; v++)
+		{
+			if (!m_vertexActive[v])
+			{
+				continue;
+			}
+			valid = ranges.begin[v] >= 0 && ranges.begin[v] <= ranges.end[v] &&
+					ranges.end[v] <= ranges.capacity[v] && ranges.capacity[v] <= numOfSlots;
+			for (int slot = ranges.begin[v]; valid && slot < ranges.end[v]; slot++)
+			{
+				valid = ranges.neighbors[slot] >= 0 && ranges.neighbors[slot] < (int)n &&
+						m_vertexActive[ranges.neighbors[slot]] &&
+						ranges.edges[slot] >= 0 && ranges.edges[slot] < (int)numOfEdgeIndexes;
+			}
+		}
+	}
+	if (valid)
+	{
+		m_vertexIdToIndex.reserve(n);
+		m_vertexTuples.assign(n, NULL);
+		m_edgeTuples.assign(numOfEdgeIndexes, NULL);
+		for (size_t v = 0; valid && v < n; v++)
+		{
+			if (m_vertexActive[v])
+			{
+				valid = m_vertexIdToIndex.insert(std::make_pair(m_vertexIds[v], (int)v)).second;
+			}
+		}
+	}
+	if (!valid)
+	{
+		clear();
+	}
+	return valid;
+}
+
+void CSRTopology::edgeEndPoints(vector<int>& from, vector<int>& to) const
+{
+	int numOfEdgeIndexes = edgeIndexLimit();
+	from.assign(numOfEdgeIndexes, -1);
+	to.assign(numOfEdgeIndexes, -1);
+	int n = vertexIndexLimit();
+	for (int v = 0; v < n; v++)
+	{
+		if (!m_vertexActive[v])
+		{
+			continue;
+		}
+		for (int slot = m_out.begin[v]; slot < m_out.end[v]; slot++)
+		{
+			int e = m_out.edges[slot];
+			if (from[e] < 0)
+			{
+				from[e] = v;
+				to[e] = m_out.neighbors[slot];
+			}
+		}
+	}
+}
+
+void CSRTopology::updateEdgeOfIndex(int edge, char* tupleData, int eProp)
+{
+	m_edgeTuples[edge] = tupleData;
+	m_eProps[edge] = eProp;
+}
+
+CSRTopology::~CSRTopology(void)
+{
+}
+
+}
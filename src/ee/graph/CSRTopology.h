@@ -0,0 +1,210 @@
+/*
+ * CSRTopology.h
+ *
+ * Compressed sparse row (CSR) representation of a graph view topology.
+ * Vertexes are addressed by a dense index, the 64 bit vertex keys (the
+ * vertex id column, or the dictionary code of a VARCHAR id) are mapped to
+ * it by a dictionary. The out (and in) edges of a
+ * vertex occupy a contiguous range of slots. Every range keeps some spare
+ * capacity so that edges can be added and removed incrementally; a range
+ * that runs out of capacity is relocated to the tail of the slot arrays and
+ * the abandoned slots are reclaimed by compaction.
+ */
+
+#ifndef CSRTOPOLOGY_H_
+#define CSRTOPOLOGY_H_
+
+#include <vector>
+#include <unordered_map>
+#include <stdint.h>
+#include <cstddef>
+#include "common/serializeio.h"
+#include "graph/BuildThreadPool.h"
+
+namespace voltdb {
+
+class CSRTopology
+{
+public:
+	//an edge as scanned from the edges table, before being placed into the CSR slots
+	struct EdgeEntry
+	{
+		int64_t id;
+		//dense indexes of the end points, vertex keys for edges that are not (or no longer) in the topology
+		int64_t from;
+		int64_t to;
+		char* tupleData;
+		int eProp;
+	};
+
+	CSRTopology(void);
+	~CSRTopology(void);
+
+	void clear();
+	//sizes the vertex arrays and the id dictionary for a bulk build of numOfVertexes vertexes
+	void reserveVertexes(int numOfVertexes);
+	//registers a vertex and returns its dense index
+	int addVertex(int64_t id, char* tupleData, int vProp);
+	//places the edges into the CSR slots using a counting sort on the start (end) vertex, the edges
+	//are counted and placed in chunks on the build threads, 0 chunks picks their number by the size
+	void build(const std::vector<EdgeEntry>& edges, bool isDirected, size_t numOfChunks = 0);
+
+	//incremental maintenance, valid after build()
+	void addEdge(const EdgeEntry& edge);
+	//returns false if no edge with this id connects the two vertexes
+	bool removeEdge(int64_t edgeId, int from, int to);
+	//changes the payload of an existing edge, returns false if the edge was not found
+	bool updateEdge(int64_t edgeId, int from, int to, char* tupleData, int eProp);
+	void updateVertex(int index, char* tupleData, int vProp);
+	//removes the vertex and all its incident edges, the detached edges are returned
+	//with their end points given as vertex keys (not dense indexes)
+	void removeVertex(int index, std::vector<EdgeEntry>& detachedEdges);
+
+	//returns -1 if the vertex id does not exist
+	inline int vertexIndex(int64_t id) const
+	{
+		std::unordered_map<int64_t, int>::const_iterator it = m_vertexIdToIndex.find(id);
+		return (it == m_vertexIdToIndex.end()) ? -1 : it->second;
+	}
+	inline int64_t vertexId(int index) const { return m_vertexIds[index]; }
+	inline char* vertexTuple(int index) const { return m_vertexTuples[index]; }
+	inline int vProp(int index) const { return m_vProps[index]; }
+	//dense indexes of removed vertexes are recycled, skip them when iterating over all the indexes
+	inline bool isVertexActive(int index) const { return m_vertexActive[index] != 0; }
+	//upper bound (exclusive) of the dense vertex indexes
+	inline int vertexIndexLimit() const { return (int)m_vertexIds.size(); }
+
+	inline int numOfVertexes() const { return (int)m_vertexIdToIndex.size(); }
+	inline bool isDirected() const { return m_isDirected; }
+	//number of distinct edges, an undirected edge occupies two out slots
+	inline int numOfEdges() const { return m_numOfEdges; }
+
+	inline int outBegin(int index) const { return m_out.begin[index]; }
+	inline int outEnd(int index) const { return m_out.end[index]; }
+	inline int inBegin(int index) const { return m_in.begin[index]; }
+	inline int inEnd(int index) const { return m_in.end[index]; }
+	inline int fanOut(int index) const { return m_out.end[index] - m_out.begin[index]; }
+	inline int fanIn(int index) const { return m_in.end[index] - m_in.begin[index]; }
+	//degrees of a batch of vertexes, straight from the slot ranges: fanOuts[i] and fanIns[i]
+	//get the degrees of vertex indexes[i], 0 for an index of -1 (no such vertex)
+	void fillDegrees(const int* indexes, int count, int32_t* fanOuts, int32_t* fanIns) const;
+
+	//out slot accessors
+	inline int outNeighbor(int slot) const { return m_out.neighbors[slot]; }
+	inline int64_t edgeId(int slot) const { return m_edgeIds[m_out.edges[slot]]; }
+	//dense index of the edge, the same in all the slots of the edge
+	inline int edgeIndex(int slot) const { return m_out.edges[slot]; }
+	inline char* edgeTuple(int slot) const { return m_edgeTuples[m_out.edges[slot]]; }
+	inline int eProp(int slot) const { return m_eProps[m_out.edges[slot]]; }
+
+	//in slot accessors
+	inline int inNeighbor(int slot) const { return m_in.neighbors[slot]; }
+	inline int64_t inEdgeId(int slot) const { return m_edgeIds[m_in.edges[slot]]; }
+	inline int inEdgeIndex(int slot) const { return m_in.edges[slot]; }
+	inline char* inEdgeTuple(int slot) const { return m_edgeTuples[m_in.edges[slot]]; }
+	inline int inEProp(int slot) const { return m_eProps[m_in.edges[slot]]; }
+
+	//id and row of the edge with the given dense index
+	inline int64_t edgeIdOfIndex(int edge) const { return m_edgeIds[edge]; }
+	inline char* edgeTupleOfIndex(int edge) const { return m_edgeTuples[edge]; }
+	//upper bound (exclusive) of the dense edge indexes, freed indexes are not referenced by any slot
+	inline int edgeIndexLimit() const { return (int)m_edgeIds.size(); }
+
+	//approximate number of bytes held by the topology arrays
+	size_t memoryFootprint() const;
+
+	//snapshot form of the topology: the dense arrays are written as they are (in the byte order of
+	//the host), the row addresses are left out as the rows move when the tables are restored
+	void serialize(SerializeOutput& out) const;
+	//number of bytes serialize() writes
+	size_t serializedSize() const;
+	//reads what serialize() wrote, all the row addresses are NULL until they are set through
+	//updateVertex and updateEdgeOfIndex. Returns false (and leaves the topology cleared) if the
+	//arrays do not describe a consistent topology
+	bool deserialize(SerializeInputBE& in);
+	//end points (dense vertex indexes) of every edge index as seen from the out slots, -1 for the
+	//free edge indexes. An undirected edge is given in one of its two orientations
+	void edgeEndPoints(std::vector<int>& from, std::vector<int>& to) const;
+	//changes the payload of the edge with the given dense index
+	void updateEdgeOfIndex(int edge, char* tupleData, int eProp);
+
+private:
+	//the slot ranges of one direction (out or in)
+	struct SlotRanges
+	{
+		std::vector<int> begin;
+		std::vector<int> end;
+		std::vector<int> capacity; //first slot after the reserved range
+		std::vector<int> neighbors;
+		std::vector<int> edges; //edge (payload) index of every slot
+		int garbage; //slots abandoned by relocated ranges
+	};
+
+	void clearRanges(SlotRanges& ranges);
+	void addEmptyRange(SlotRanges& ranges, int index);
+	void appendSlot(SlotRanges& ranges, int index, int neighbor, int edge);
+	bool removeSlot(SlotRanges& ranges, int index, int edge);
+	void compactRanges(SlotRanges& ranges);
+	int findOutEdge(int64_t edgeId, int from, int to) const;
+	int allocateEdge(const EdgeEntry& edge);
+
+	std::unordered_map<int64_t, int> m_vertexIdToIndex;
+	std::vector<int64_t> m_vertexIds;
+	std::vector<char*> m_vertexTuples;
+	std::vector<int> m_vProps;
+	std::vector<char> m_vertexActive;
+	std::vector<int> m_freeVertexes;
+
+	SlotRanges m_out;
+	SlotRanges m_in;
+
+	//edge payload, indexed by the edge index stored in the slots
+	std::vector<int64_t> m_edgeIds;
+	std::vector<char*> m_edgeTuples;
+	std::vector<int> m_eProps;
+	std::vector<int> m_freeEdges;
+
+	bool m_isDirected;
+	int m_numOfEdges;
+};
+
+//per vertex marks that are reset in O(1) between traversals by bumping an epoch
+class VertexMarks
+{
+public:
+	VertexMarks(void) : m_epoch(0) {}
+
+	void reset(int numOfVertexes)
+	{
+		if ((int)m_epochs.size() != numOfVertexes)
+		{
+			m_epochs.assign(numOfVertexes, 0);
+			m_values.resize(numOfVertexes);
+			m_epoch = 0;
+		}
+		m_epoch++;
+		if (m_epoch == 0)
+		{
+			//wrapped around, clear the stale stamps
+			m_epochs.assign(numOfVertexes, 0);
+			m_epoch = 1;
+		}
+	}
+
+	inline bool isMarked(int index) const { return m_epochs[index] == m_epoch; }
+	inline void mark(int index, int value)
+	{
+		m_epochs[index] = m_epoch;
+		m_values[index] = value;
+	}
+	inline int value(int index) const { return m_values[index]; }
+
+private:
+	std::vector<uint32_t> m_epochs;
+	std::vector<int> m_values;
+	uint32_t m_epoch;
+};
+
+}
+
+#endif /* CSRTOPOLOGY_H_ */
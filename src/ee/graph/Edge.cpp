@@ -11,12 +11,12 @@ Edge::Edge(void)
 {
 }
 
-int Edge::getStartVertexId()
+int64_t Edge::getStartVertexId()
 {
 	return m_startVertexId;
 }
 	
-int Edge::getEndVertexId()
+int64_t Edge::getEndVertexId()
 {
 	return m_endVertexId;
 }
@@ -41,12 +41,12 @@ string Edge::toString()
 	return stream.str();
 }
 
-void Edge::setStartVertexId(int id)
+void Edge::setStartVertexId(int64_t id)
 {
 	this->m_startVertexId = id;
 }
 
-void Edge::setEndVertexId(int id)
+void Edge::setEndVertexId(int64_t id)
 {
 	this->m_endVertexId = id;
 }
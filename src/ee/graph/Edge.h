@@ -10,17 +10,17 @@ class Edge
 	class GraphView;
 	friend class GraphView;
 protected:
-	int m_startVertexId;
-	int m_endVertexId;
+	int64_t m_startVertexId;
+	int64_t m_endVertexId;
 
 public:
 	Edge(void);
 	~Edge(void);
 
-	int getStartVertexId();
-	int getEndVertexId();
-	void setStartVertexId(int id);
-	void setEndVertexId(int id);
+	int64_t getStartVertexId();
+	int64_t getEndVertexId();
+	void setStartVertexId(int64_t id);
+	void setEndVertexId(int64_t id);
 	Vertex* getStartVertex();
 	Vertex* getEndVertex();
 	string toString();
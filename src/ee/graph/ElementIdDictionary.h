@@ -0,0 +1,58 @@
+/*
+ * ElementIdDictionary.h
+ *
+ * Maps the VARCHAR vertex and edge ids of a graph view to the 64 bit keys
+ * of its topology. Every distinct id value gets the next code on first
+ * sight, so distinct ids never share a key, and the code gives the id value
+ * back when the paths are written out. Codes are not recycled, the
+ * dictionary only shrinks when the topology is rebuilt from the tables.
+ */
+
+#ifndef ELEMENTIDDICTIONARY_H_
+#define ELEMENTIDDICTIONARY_H_
+
+#include <string>
+#include <vector>
+#include <unordered_map>
+#include <stdint.h>
+
+namespace voltdb {
+
+class ElementIdDictionary
+{
+public:
+	//the code of the id, a new one if the id was never seen
+	inline int64_t keyOf(const char* data, int32_t length)
+	{
+		std::pair<std::unordered_map<std::string, int64_t>::iterator, bool> inserted =
+				m_keys.insert(std::make_pair(std::string(data, length), (int64_t)m_ids.size()));
+		if (inserted.second)
+		{
+			m_ids.push_back(&inserted.first->first);
+		}
+		return inserted.first->second;
+	}
+	//the code of the id, -1 if the id was never seen. Does not change the dictionary, so the
+	//readers of a topology may call it concurrently
+	inline int64_t findKey(const char* data, int32_t length) const
+	{
+		std::unordered_map<std::string, int64_t>::const_iterator it = m_keys.find(std::string(data, length));
+		return (it == m_keys.end()) ? -1 : it->second;
+	}
+	inline const std::string& idOf(int64_t key) const { return *m_ids[key]; }
+	inline size_t size() const { return m_ids.size(); }
+	inline void clear()
+	{
+		m_keys.clear();
+		m_ids.clear();
+	}
+
+private:
+	std::unordered_map<std::string, int64_t> m_keys;
+	//the id of every code, points to the keys of m_keys (the nodes of an unordered_map do not move)
+	std::vector<const std::string*> m_ids;
+};
+
+}
+
+#endif /* ELEMENTIDDICTIONARY_H_ */
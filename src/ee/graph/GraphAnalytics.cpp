@@ -0,0 +1,362 @@
+#include "GraphAnalytics.h"
+#include <algorithm>
+#include <cmath>
+#include "graph/TraversalFilter.h"
+
+using namespace std;
+
+namespace voltdb {
+
+GraphAnalytics::GraphAnalytics(const CSRTopology& topology, GraphOperatorCounters& counters)
+	: m_topology(topology), m_counters(counters), m_filter(NULL), m_numOfVertexes(0)
+{
+}
+
+GraphAnalytics::~GraphAnalytics(void)
+{
+}
+
+void GraphAnalytics::selectSubgraph(TraversalFilter* filter)
+{
+	m_filter = filter;
+	int limit = m_topology.vertexIndexLimit();
+	m_vertexBits.assign((limit + 63) / 64, 0);
+	m_numOfVertexes = 0;
+	for (int v = 0; v < limit; v++)
+	{
+		if (m_topology.isVertexActive(v) &&
+				(m_filter == NULL || m_filter->acceptsVertex(v, TraversalFilter::EVERY_POSITION)))
+		{
+			setBit(m_vertexBits, v);
+			m_numOfVertexes++;
+		}
+	}
+	int edgeWords = (m_topology.edgeIndexLimit() + 63) / 64;
+	m_edgeBits.assign(edgeWords, 0);
+	m_edgeCheckedBits.assign(edgeWords, 0);
+}
+
+bool GraphAnalytics::usesEdge(int edgeIndex)
+{
+	if (m_filter == NULL)
+	{
+		return true;
+	}
+	if (!testBit(m_edgeCheckedBits, edgeIndex))
+	{
+		setBit(m_edgeCheckedBits, edgeIndex);
+		if (m_filter->acceptsEdge(edgeIndex, TraversalFilter::EVERY_POSITION))
+		{
+			setBit(m_edgeBits, edgeIndex);
+		}
+	}
+	return testBit(m_edgeBits, edgeIndex);
+}
+
+bool GraphAnalytics::usesOutSlot(int slot)
+{
+	return usesVertex(m_topology.outNeighbor(slot)) && usesEdge(m_topology.edgeIndex(slot));
+}
+
+bool GraphAnalytics::usesInSlot(int slot)
+{
+	return usesVertex(m_topology.inNeighbor(slot)) && usesEdge(m_topology.inEdgeIndex(slot));
+}
+
+int GraphAnalytics::pageRank(double damping, double threshold, int maxIterations, vector<double>& ranks)
+{
+	int limit = m_topology.vertexIndexLimit();
+	ranks.assign(limit, 0.0);
+	if (m_numOfVertexes == 0)
+	{
+		return 0;
+	}
+	//pull based: every vertex sums the contributions of its in neighbors,
+	//the out degrees only count the edges of the subgraph
+	vector<int> outDegrees(limit, 0);
+	double numOfVertexes = (double)m_numOfVertexes;
+	for (int v = 0; v < limit; v++)
+	{
+		if (!usesVertex(v))
+		{
+			continue;
+		}
+		for (int slot = m_topology.outBegin(v); slot < m_topology.outEnd(v); slot++)
+		{
+			if (usesOutSlot(slot))
+			{
+				outDegrees[v]++;
+			}
+		}
+		ranks[v] = 1.0 / numOfVertexes;
+	}
+
+	vector<double> contributions(limit, 0.0);
+	vector<double> nextRanks(limit, 0.0);
+	int iterations = 0;
+	while (iterations < maxIterations)
+	{
+		iterations++;
+		double danglingRank = 0;
+		for (int v = 0; v < limit; v++)
+		{
+			if (!usesVertex(v))
+			{
+				continue;
+			}
+			if (outDegrees[v] == 0)
+			{
+				danglingRank += ranks[v];
+				contributions[v] = 0;
+			}
+			else
+			{
+				contributions[v] = ranks[v] / outDegrees[v];
+			}
+		}
+		double base = (1.0 - damping) / numOfVertexes + damping * danglingRank / numOfVertexes;
+		double delta = 0;
+		for (int v = 0; v < limit; v++)
+		{
+			if (!usesVertex(v))
+			{
+				continue;
+			}
+			double sum = 0;
+			int endSlot = m_topology.inEnd(v);
+			for (int slot = m_topology.inBegin(v); slot < endSlot; slot++)
+			{
+				if (usesInSlot(slot))
+				{
+					sum += contributions[m_topology.inNeighbor(slot)];
+				}
+			}
+			m_counters.edgesScanned += endSlot - m_topology.inBegin(v);
+			nextRanks[v] = base + damping * sum;
+			delta += fabs(nextRanks[v] - ranks[v]);
+		}
+		m_counters.vertexesExpanded += m_numOfVertexes;
+		ranks.swap(nextRanks);
+		if (delta < threshold)
+		{
+			break;
+		}
+	}
+	return iterations;
+}
+
+int GraphAnalytics::weaklyConnectedComponents(vector<int>& components)
+{
+	//a BFS from every vertex not reached yet, the vertexes are visited in index
+	//order so the root of a component is its smallest index
+	int limit = m_topology.vertexIndexLimit();
+	components.assign(limit, -1);
+	vector<int> frontier;
+	int numOfComponents = 0;
+	for (int root = 0; root < limit; root++)
+	{
+		if (!usesVertex(root) || components[root] >= 0)
+		{
+			continue;
+		}
+		numOfComponents++;
+		components[root] = root;
+		frontier.clear();
+		frontier.push_back(root);
+		for (size_t i = 0; i < frontier.size(); i++)
+		{
+			int v = frontier[i];
+			m_counters.vertexesExpanded++;
+			m_counters.edgesScanned += m_topology.fanOut(v) + m_topology.fanIn(v);
+			for (int slot = m_topology.outBegin(v); slot < m_topology.outEnd(v); slot++)
+			{
+				int w = m_topology.outNeighbor(slot);
+				if (components[w] < 0 && usesOutSlot(slot))
+				{
+					components[w] = root;
+					frontier.push_back(w);
+				}
+			}
+			for (int slot = m_topology.inBegin(v); slot < m_topology.inEnd(v); slot++)
+			{
+				int w = m_topology.inNeighbor(slot);
+				if (components[w] < 0 && usesInSlot(slot))
+				{
+					components[w] = root;
+					frontier.push_back(w);
+				}
+			}
+		}
+		m_counters.updateFrontierSize(frontier.size());
+	}
+	return numOfComponents;
+}
+
+int GraphAnalytics::stronglyConnectedComponents(vector<int>& components)
+{
+	//Tarjan's algorithm with an explicit stack of (vertex, next out slot) frames,
+	//a vertex that has an order but no component yet is on the vertex stack
+	int limit = m_topology.vertexIndexLimit();
+	components.assign(limit, -1);
+	vector<int> order(limit, -1);
+	vector<int> lowLink(limit, 0);
+	vector<int> vertexStack;
+	vector<pair<int, int> > frames;
+	int nextOrder = 0;
+	int numOfComponents = 0;
+	for (int root = 0; root < limit; root++)
+	{
+		if (!usesVertex(root) || order[root] >= 0)
+		{
+			continue;
+		}
+		order[root] = lowLink[root] = nextOrder++;
+		vertexStack.push_back(root);
+		frames.push_back(make_pair(root, m_topology.outBegin(root)));
+		while (!frames.empty())
+		{
+			int v = frames.back().first;
+			int slot = frames.back().second;
+			if (slot < m_topology.outEnd(v))
+			{
+				frames.back().second++;
+				if (!usesOutSlot(slot))
+				{
+					continue;
+				}
+				int w = m_topology.outNeighbor(slot);
+				if (order[w] < 0)
+				{
+					order[w] = lowLink[w] = nextOrder++;
+					vertexStack.push_back(w);
+					frames.push_back(make_pair(w, m_topology.outBegin(w)));
+				}
+				else if (components[w] < 0)
+				{
+					lowLink[v] = min(lowLink[v], order[w]);
+				}
+				continue;
+			}
+
+			//all the out edges of v are done
+			frames.pop_back();
+			m_counters.vertexesExpanded++;
+			m_counters.edgesScanned += m_topology.fanOut(v);
+			if (!frames.empty())
+			{
+				int parent = frames.back().first;
+				lowLink[parent] = min(lowLink[parent], lowLink[v]);
+			}
+			if (lowLink[v] == order[v])
+			{
+				//v is the first vertex of its component, the ones above it on the stack belong to it
+				size_t first = vertexStack.size();
+				int smallest = v;
+				do
+				{
+					first--;
+					smallest = min(smallest, vertexStack[first]);
+				} while (vertexStack[first] != v);
+				for (size_t i = first; i < vertexStack.size(); i++)
+				{
+					components[vertexStack[i]] = smallest;
+				}
+				vertexStack.resize(first);
+				numOfComponents++;
+			}
+		}
+		m_counters.updateFrontierSize(nextOrder);
+	}
+	return numOfComponents;
+}
+
+int64_t GraphAnalytics::countTriangles(vector<int64_t>& triangles, vector<int>& degrees)
+{
+	int limit = m_topology.vertexIndexLimit();
+	triangles.assign(limit, 0);
+	degrees.assign(limit, 0);
+
+	//distinct neighbors of every vertex, ignoring the edge directions and the self loops
+	vector<int> offsets(limit + 1, 0);
+	vector<int> neighbors;
+	for (int v = 0; v < limit; v++)
+	{
+		offsets[v] = (int)neighbors.size();
+		if (!usesVertex(v))
+		{
+			continue;
+		}
+		for (int slot = m_topology.outBegin(v); slot < m_topology.outEnd(v); slot++)
+		{
+			if (m_topology.outNeighbor(slot) != v && usesOutSlot(slot))
+			{
+				neighbors.push_back(m_topology.outNeighbor(slot));
+			}
+		}
+		for (int slot = m_topology.inBegin(v); slot < m_topology.inEnd(v); slot++)
+		{
+			if (m_topology.inNeighbor(slot) != v && usesInSlot(slot))
+			{
+				neighbors.push_back(m_topology.inNeighbor(slot));
+			}
+		}
+		sort(neighbors.begin() + offsets[v], neighbors.end());
+		neighbors.erase(unique(neighbors.begin() + offsets[v], neighbors.end()), neighbors.end());
+		degrees[v] = (int)neighbors.size() - offsets[v];
+		m_counters.edgesScanned += m_topology.fanOut(v) + m_topology.fanIn(v);
+	}
+	offsets[limit] = (int)neighbors.size();
+
+	//orient every edge from the lower to the higher (degree, index) end point and keep only
+	//the forward neighbors at the front of each range, so every triangle is found once and
+	//the lists scanned for high degree vertexes stay short
+	vector<int> forwardEnds(limit, 0);
+	for (int v = 0; v < limit; v++)
+	{
+		int end = offsets[v];
+		for (int i = offsets[v]; i < offsets[v + 1]; i++)
+		{
+			int w = neighbors[i];
+			if (degrees[w] > degrees[v] || (degrees[w] == degrees[v] && w > v))
+			{
+				neighbors[end++] = w;
+			}
+		}
+		forwardEnds[v] = end;
+	}
+
+	//intersect the forward neighbors of v with the ones of each of its forward neighbors
+	VertexMarks marks;
+	int64_t numOfTriangles = 0;
+	for (int v = 0; v < limit; v++)
+	{
+		if (offsets[v] == forwardEnds[v])
+		{
+			continue;
+		}
+		marks.reset(limit);
+		for (int i = offsets[v]; i < forwardEnds[v]; i++)
+		{
+			marks.mark(neighbors[i], 0);
+		}
+		for (int i = offsets[v]; i < forwardEnds[v]; i++)
+		{
+			int u = neighbors[i];
+			for (int j = offsets[u]; j < forwardEnds[u]; j++)
+			{
+				int w = neighbors[j];
+				if (marks.isMarked(w))
+				{
+					triangles[v]++;
+					triangles[u]++;
+					triangles[w]++;
+					numOfTriangles++;
+				}
+			}
+		}
+		m_counters.vertexesExpanded++;
+	}
+	return numOfTriangles;
+}
+
+}
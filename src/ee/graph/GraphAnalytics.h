@@ -0,0 +1,76 @@
+/*
+ * GraphAnalytics.h
+ *
+ * Whole graph operators that run over the CSR topology of a graph view:
+ * PageRank, weakly and strongly connected components, and triangle counting
+ * with the local clustering coefficient. Every operator computes one value
+ * per vertex index in a single call, the path scan reports the values as
+ * one row per vertex. The operators can be restricted to the subgraph of the
+ * vertexes and edges that pass the conditions a traversal filter applies to
+ * every position.
+ */
+
+#ifndef GRAPHANALYTICS_H_
+#define GRAPHANALYTICS_H_
+
+#include <vector>
+#include <stdint.h>
+#include "graph/CSRTopology.h"
+#include "graph/GraphViewStats.h"
+
+namespace voltdb {
+
+class TraversalFilter;
+
+class GraphAnalytics
+{
+public:
+	GraphAnalytics(const CSRTopology& topology, GraphOperatorCounters& counters);
+	~GraphAnalytics(void);
+
+	//selects the vertexes and edges the operators run on, all the active ones for a NULL filter.
+	//Has to be called again once the topology changed
+	void selectSubgraph(TraversalFilter* filter);
+	inline bool usesVertex(int index) const { return testBit(m_vertexBits, index); }
+
+	//ranks[v] gets the PageRank of vertex index v (0 for the vertexes not used), the ranks of the
+	//used vertexes add up to 1. The rank of the vertexes without out edges is spread over all
+	//the vertexes. Iterates until the L1 distance of two iterations drops below threshold or
+	//maxIterations is reached, returns the number of iterations
+	int pageRank(double damping, double threshold, int maxIterations, std::vector<double>& ranks);
+	//components[v] gets the smallest vertex index of the component of v (-1 for the vertexes
+	//not used), returns the number of components
+	int weaklyConnectedComponents(std::vector<int>& components);
+	int stronglyConnectedComponents(std::vector<int>& components);
+	//triangles[v] gets the number of triangles through v, degrees[v] the number of distinct
+	//neighbors of v. Edge directions, self loops and parallel edges are ignored. Returns the
+	//number of triangles of the graph
+	int64_t countTriangles(std::vector<int64_t>& triangles, std::vector<int>& degrees);
+
+private:
+	static inline bool testBit(const std::vector<uint64_t>& bits, int index)
+	{
+		return (bits[index >> 6] >> (index & 63)) & 1;
+	}
+	static inline void setBit(std::vector<uint64_t>& bits, int index)
+	{
+		bits[index >> 6] |= (uint64_t)1 << (index & 63);
+	}
+	//the edge in the out (in) slot is used if the edge and the vertex it leads to are used
+	bool usesOutSlot(int slot);
+	bool usesInSlot(int slot);
+	bool usesEdge(int edgeIndex);
+
+	const CSRTopology& m_topology;
+	GraphOperatorCounters& m_counters;
+	TraversalFilter* m_filter;
+	std::vector<uint64_t> m_vertexBits;
+	//the edges are checked against the filter when first met
+	std::vector<uint64_t> m_edgeBits;
+	std::vector<uint64_t> m_edgeCheckedBits;
+	int m_numOfVertexes;
+};
+
+}
+
+#endif /* GRAPHANALYTICS_H_ */
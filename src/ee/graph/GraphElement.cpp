@@ -3,7 +3,7 @@
 
 namespace voltdb {
 
-GraphElement::GraphElement(int id, char* tupleData, GraphView* graphView, bool remote)
+GraphElement::GraphElement(int64_t id, char* tupleData, GraphView* graphView, bool remote)
 {
 	this->m_id = id;
 	this->m_tupleData = tupleData;
@@ -26,12 +26,12 @@ bool GraphElement::isRemote()
 }
 
 
-void GraphElement::setId(int id)
+void GraphElement::setId(int64_t id)
 {
 	this->m_id = id;
 }
 
-int GraphElement::getId()
+int64_t GraphElement::getId()
 {
 	return this->m_id;
 }
@@ -21,17 +21,17 @@ namespace voltdb {
 class GraphElement
 {
 protected:
-	int m_id;
+	int64_t m_id;
 	char* m_tupleData;
 	GraphView* m_gview;
 	bool m_isRemote;
 public:
 	GraphElement(void);
-	GraphElement(int id, char* tupleData, GraphView* graphView, bool remote);
+	GraphElement(int64_t id, char* tupleData, GraphView* graphView, bool remote);
 	~GraphElement(void);
 
-	void setId(int id);
-	int getId();
+	void setId(int64_t id);
+	int64_t getId();
 	void setTupleData(char* tupleData);
 	void setGraphView(GraphView* gView);
 	char* getTupleData();
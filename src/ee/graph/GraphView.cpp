@@ -10,9 +10,22 @@
 #include "PathIterator.h"
 #include "Vertex.h"
 #include "Edge.h"
+#include "GraphViewUndoAction.h"
+#include "TraversalFilter.h"
+#include "common/executorcontext.hpp"
+#include "common/SynchronizedThreadLock.h"
+#include "common/UndoQuantum.h"
+#include "storage/persistenttable.h"
+#include "common/SerializableEEException.h"
+#include "common/SQLException.h"
+#include "indexes/tableindex.h"
+#include "BuildThreadPool.h"
 #include <string>
 #include <map>
 #include <unordered_set>
+#include <limits>
+#include <algorithm>
+#include <cmath>
 
 #include <queue>
 using namespace std;
@@ -20,34 +33,74 @@ using namespace std;
 namespace voltdb
 {
 
-GraphView::GraphView(void) //: m_pathIterator(this)
+GraphView::GraphView(void) : GraphView(std::make_shared<SharedTopology>())
 {
-	m_pathIterator = new PathIterator(this);
 }
 
-float GraphView::shortestPath(int source, int destination, int costColumnId)
+GraphView::GraphView(const std::shared_ptr<SharedTopology>& topology) :
+		m_sharedTopology(topology), m_topology(topology->topology), m_idDictionary(topology->ids),
+		m_landmarks(m_topology, m_counters, 10000, 16, 8),
+		m_danglingEdges(topology->danglingEdges), m_topologyVersion(topology->version),
+		m_rowVersion(topology->rowVersion), m_topologyStale(topology->stale), m_stats(this) //: m_pathIterator(this)
 {
-	//TODO: write real shortest path code that consults the edges table using costColumnId
-	return (float)source * destination;
+	{
+		std::lock_guard<std::mutex> lock(m_sharedTopology->rebuildMutex);
+		if (m_sharedTopology->maintainer == NULL)
+		{
+			m_sharedTopology->maintainer = this;
+		}
+		m_sharedTopology->views.push_back(this);
+	}
+	m_lastRebuildTimestamp = 0;
+	m_lastRebuildMicros = 0;
+	m_pathSchema = NULL;
+	m_edgeWeightVersion = -1;
+	m_edgeWeightColumn = -1;
+	m_pathCacheTopologyVersion = -1;
+	m_pathCacheRowVersion = -1;
 }
 
-Vertex* GraphView::getVertex(int id)
+Vertex* GraphView::getVertex(int64_t id)
 {
 	return this->m_vertexes[id];
 }
 
-TableTuple* GraphView::getVertexTuple(int id)
+TableTuple* GraphView::getVertexTuple(int64_t id)
 {
-	Vertex* v = this->getVertex(id);
-	return new TableTuple(v->getTupleData(), this->m_vertexTable->schema());
+	int index = m_topology.vertexIndex(id);
+	if (index < 0)
+	{
+		return NULL;
+	}
+	return new TableTuple(m_topology.vertexTuple(index), this->m_vertexTable->schema());
 }
 
-Edge* GraphView::getEdge(int id)
+bool GraphView::hasVertex(int64_t id)
+{
+	refreshTopology();
+	return m_topology.vertexIndex(id) >= 0;
+}
+
+int GraphView::fanOut(int64_t vertexId)
+{
+	refreshTopology();
+	int index = m_topology.vertexIndex(vertexId);
+	return (index < 0) ? 0 : m_topology.fanOut(index);
+}
+
+int GraphView::fanIn(int64_t vertexId)
+{
+	refreshTopology();
+	int index = m_topology.vertexIndex(vertexId);
+	return (index < 0) ? 0 : m_topology.fanIn(index);
+}
+
+Edge* GraphView::getEdge(int64_t id)
 {
 	return this->m_edges[id];
 }
 
-TableTuple* GraphView::getEdgeTuple(int id)
+TableTuple* GraphView::getEdgeTuple(int64_t id)
 {
 	Edge* e = this->getEdge(id);
 	return new TableTuple(e->getTupleData(), this->m_edgeTable->schema());
@@ -58,16 +111,149 @@ TableTuple* GraphView::getEdgeTuple(char* data)
 	return new TableTuple(data, this->m_edgeTable->schema());
 }
 
-void GraphView::addVertex(int id, Vertex* vertex)
+void GraphView::addVertex(int64_t id, Vertex* vertex)
 {
 	this->m_vertexes[id] = vertex;
 }
 	
-void GraphView::addEdge(int id, Edge* edge)
+void GraphView::addEdge(int64_t id, Edge* edge)
 {
 	this->m_edges[id] = edge;
 }
 
+int64_t GraphView::elementKey(const NValue& value) const
+{
+	if (ValuePeeker::peekValueType(value) != ValueType::tVARCHAR)
+	{
+		return ValuePeeker::peekAsBigInt(value);
+	}
+	if (value.isNull())
+	{
+		return INT64_NULL;
+	}
+	int32_t length;
+	const char* data = ValuePeeker::peekObject_withoutNull(value, &length);
+	return m_idDictionary.findKey(data, length);
+}
+
+int64_t GraphView::assignElementKey(const NValue& value)
+{
+	if (ValuePeeker::peekValueType(value) != ValueType::tVARCHAR || value.isNull())
+	{
+		return elementKey(value);
+	}
+	int32_t length;
+	const char* data = ValuePeeker::peekObject_withoutNull(value, &length);
+	return m_idDictionary.keyOf(data, length);
+}
+
+int64_t GraphView::vertexKey(const NValue& id) const
+{
+	if (id.isNull())
+	{
+		return INT64_NULL;
+	}
+	bool varcharIds = (m_vertexTable->schema()->columnType(m_vertexIdColumnIndex) == ValueType::tVARCHAR);
+	if (varcharIds != (ValuePeeker::peekValueType(id) == ValueType::tVARCHAR))
+	{
+		//the codes of VARCHAR ids are small integers, an integer must not be taken for one
+		return INT64_NULL;
+	}
+	if (varcharIds)
+	{
+		return elementKey(id);
+	}
+	try
+	{
+		return elementKey(id.castAs(ValueType::tBIGINT));
+	}
+	catch (const SQLException& e)
+	{
+		//values out of the BIGINT range match no vertex
+		if ((e.getInternalFlags() & (SQLException::TYPE_OVERFLOW | SQLException::TYPE_UNDERFLOW)) == 0)
+		{
+			throw;
+		}
+		return INT64_NULL;
+	}
+}
+
+void GraphView::lookupVertexTuples(const NValue& id, vector<char*>& tuples)
+{
+	refreshTopology();
+	tuples.clear();
+	if (id.isNull())
+	{
+		return;
+	}
+	int index = m_topology.vertexIndex(vertexKey(id));
+	if (index >= 0)
+	{
+		tuples.push_back(m_topology.vertexTuple(index));
+	}
+}
+
+bool GraphView::lookupEdgeTuples(const NValue& id, vector<char*>& tuples)
+{
+	tuples.clear();
+	TableIndex* index = edgeIdIndex();
+	if (index == NULL)
+	{
+		return false;
+	}
+	if (id.isNull())
+	{
+		return true;
+	}
+	vector<char> keyStorage(index->getKeySchema()->tupleLength());
+	TableTuple searchKey(index->getKeySchema());
+	searchKey.moveNoHeader(&keyStorage[0]);
+	try
+	{
+		searchKey.setNValue(0, id);
+	}
+	catch (const SQLException& e)
+	{
+		//values that do not fit the id column match no edge
+		if ((e.getInternalFlags() & (SQLException::TYPE_OVERFLOW | SQLException::TYPE_UNDERFLOW |
+				SQLException::TYPE_VAR_LENGTH_MISMATCH)) == 0)
+		{
+			throw;
+		}
+		return true;
+	}
+	IndexCursor cursor(index->getTupleSchema());
+	index->moveToKey(&searchKey, cursor);
+	for (TableTuple tuple = index->nextValueAtKey(cursor); !tuple.isNullTuple(); tuple = index->nextValueAtKey(cursor))
+	{
+		tuples.push_back(tuple.address());
+	}
+	return true;
+}
+
+TableIndex* GraphView::edgeIdIndex()
+{
+	//indexes come and go with the catalog, so look them up every time, the primary key first
+	PersistentTable* edgeTable = dynamic_cast<PersistentTable*>(m_edgeTable);
+	if (edgeTable == NULL)
+	{
+		return NULL;
+	}
+	vector<TableIndex*> candidates;
+	candidates.push_back(edgeTable->primaryKeyIndex());
+	candidates.insert(candidates.end(), edgeTable->allIndexes().begin(), edgeTable->allIndexes().end());
+	for (size_t i = 0; i < candidates.size(); i++)
+	{
+		TableIndex* index = candidates[i];
+		if (index != NULL && !index->isPartialIndex() && index->getIndexedExpressions().empty()
+				&& index->getColumnIndices().size() == 1 && index->getColumnIndices()[0] == m_edgeIdColumnIndex)
+		{
+			return index;
+		}
+	}
+	return NULL;
+}
+
 Table* GraphView::getVertexTable()
 {
 	return this->m_vertexTable;
@@ -78,14 +264,10 @@ Table* GraphView::getEdgeTable()
 	return this->m_edgeTable;
 }
 
-Table* GraphView::getPathTable()
-{
-	return this->m_pathTable;
-}
-
 int GraphView::numOfVertexes()
 {
-	return this->m_vertexes.size();
+	refreshTopology();
+	return m_topology.numOfVertexes();
 }
 
 TupleSchema* GraphView::getVertexSchema()
@@ -120,7 +302,8 @@ void GraphView::setPathSchema(TupleSchema* s)
 	
 int GraphView::numOfEdges()
 {
-	return this->m_edges.size();
+	refreshTopology();
+	return m_topology.numOfEdges();
 }
 
 string GraphView::name()
@@ -183,11 +366,11 @@ void GraphView::constructPathSchema()
 {
 	//
 	//Path tuple will contain 5 attributes
-	//0: StartVertex, Integer
-	//1: EndVertex, Integer
+	//0: StartVertex, type of the vertex id column
+	//1: EndVertex, type of the vertex id column
 	//2: Length, Integer
 	//3: Cost, Float
-	//4: Path: Varchar(256)
+	//4: Path, VARBINARY of the packed vertex and edge ids (see encodePath)
 	//add the column names
 	m_pathColumnNames.clear();
 	m_pathColumnNames.push_back("STARTVERTEXID");
@@ -201,895 +384,864 @@ void GraphView::constructPathSchema()
 	TupleSchemaBuilder schemaBuilder(numOfPathColumns,
 									 needsDRTimestamp ? 1 : 0); // number of hidden columns
 
-	schemaBuilder.setColumnAtIndex (0, ValueType::tINTEGER, 4, false, false); //StartVertex
-	schemaBuilder.setColumnAtIndex(1, ValueType::tINTEGER, 4, false, false); //EndVertex
+	const TupleSchema* vertexSchema = m_vertexTable->schema();
+	const TupleSchema::ColumnInfo* idColumn = vertexSchema->getColumnInfo(m_vertexIdColumnIndex);
+	schemaBuilder.setColumnAtIndex(0, idColumn->getVoltType(), idColumn->length, false, idColumn->inBytes); //StartVertex
+	schemaBuilder.setColumnAtIndex(1, idColumn->getVoltType(), idColumn->length, false, idColumn->inBytes); //EndVertex
 	schemaBuilder.setColumnAtIndex(2, ValueType::tINTEGER, 4, false, false); //Length
 	schemaBuilder.setColumnAtIndex(3, ValueType::tDOUBLE, 8, true, false); //Cost
-	schemaBuilder.setColumnAtIndex(4, ValueType::tVARCHAR, 1024, true, false); //Path
+	schemaBuilder.setColumnAtIndex(4, ValueType::tVARBINARY, 1048576, true, true); //Path, up to VoltType.MAX_VALUE_LENGTH
 
 	m_pathSchema = schemaBuilder.build();
 }
 
-void GraphView::constructPathTempTable()
+std::shared_ptr<const std::vector<double> > GraphView::edgeWeights(int weightColumn)
 {
-	m_pathTable = TableFactory::buildTempTable(m_pathTableName, m_pathSchema, m_pathColumnNames, NULL);
+	if (weightColumn < 0)
+	{
+		return std::shared_ptr<const std::vector<double> >();
+	}
+	//every change of an edge row changes the topology version, so the costs stay valid until then
+	if (m_edgeWeights && m_edgeWeightVersion == m_topologyVersion && m_edgeWeightColumn == weightColumn)
+	{
+		return m_edgeWeights;
+	}
+	const TupleSchema* schema = m_edgeTable->schema();
+	ValueType type = schema->columnType(weightColumn);
+	if (!isNumeric(type))
+	{
+		throwSerializableEEException("The cost column %s of graph view %s has the non numeric type %s",
+				m_edgeTable->getColumnNames()[weightColumn].c_str(), m_name.c_str(), getTypeName(type).c_str());
+	}
+	int edgeLimit = m_topology.edgeIndexLimit();
+	std::shared_ptr<std::vector<double> > weights =
+			std::make_shared<std::vector<double> >(edgeLimit, numeric_limits<double>::infinity());
+	TableTuple tuple(schema);
+	for (int e = 0; e < edgeLimit; e++)
+	{
+		char* tupleData = m_topology.edgeTupleOfIndex(e);
+		if (tupleData == NULL)
+		{
+			continue;
+		}
+		tuple.move(tupleData);
+		NValue cost = tuple.getNValue(weightColumn);
+		if (!cost.isNull())
+		{
+			(*weights)[e] = (type == ValueType::tDOUBLE) ? ValuePeeker::peekDouble(cost) :
+					ValuePeeker::peekDouble(cost.castAs(ValueType::tDOUBLE));
+		}
+	}
+	m_edgeWeights = weights;
+	m_edgeWeightVersion = m_topologyVersion;
+	m_edgeWeightColumn = weightColumn;
+	return m_edgeWeights;
 }
 
-PathIterator& GraphView::iteratorDeletingAsWeGo(GraphOperationType opType)
+std::shared_ptr<const ShortestPathSearch::Landmarks> GraphView::landmarks(int weightColumn)
 {
-	//empty the paths table, which is the staging memory for the paths to be explored
-	dummyPathExapansionState = 0;
-	executeTraversal = true;
-	m_pathTable->deleteAllTempTupleDeepCopies();
-	//set the iterator for the temp table
-	//create new tuple in the paths temp table
-	//m_pathTableIterator = &(m_pathTable->iteratorDeletingAsWeGo());
-	m_pathTableIterator = NULL;
-	return *m_pathIterator;
+	if (m_landmarks.countQuery(m_topologyVersion, weightColumn))
+	{
+		m_landmarks.build(edgeWeights(weightColumn));
+		GLOG("GraphView", "landmarks", 510, "landmarks built, bytes = " << m_landmarks.memoryFootprint());
+	}
+	return m_landmarks.landmarks();
 }
 
-PathIterator& GraphView::iteratorDeletingAsWeGo()
+const GraphView::CachedPaths* GraphView::findCachedPaths(const PathTraversal::QueryKey& key)
 {
-	//empty the paths table, which is the staging memory for the paths to be explored
-	dummyPathExapansionState = 0;
-	executeTraversal = true;
-	m_pathTable->deleteAllTempTupleDeepCopies();
-	//set the iterator for the temp table
-	//create new tuple in the paths temp table
-	//m_pathTableIterator = &(m_pathTable->iteratorDeletingAsWeGo());
-	m_pathTableIterator = NULL;
-	return *m_pathIterator;
+	if (m_pathCacheTopologyVersion != m_topologyVersion || m_pathCacheRowVersion != m_rowVersion)
+	{
+		m_pathCache.clear();
+		m_pathCacheIndex.clear();
+		m_pathCacheTopologyVersion = m_topologyVersion;
+		m_pathCacheRowVersion = m_rowVersion;
+	}
+	map<PathTraversal::QueryKey, list<CachedPaths>::iterator>::iterator it = m_pathCacheIndex.find(key);
+	if (it == m_pathCacheIndex.end())
+	{
+		m_counters.pathCacheMisses++;
+		return NULL;
+	}
+	m_counters.pathCacheHits++;
+	m_pathCache.splice(m_pathCache.begin(), m_pathCache, it->second);
+	return &m_pathCache.front();
 }
 
-void GraphView::expandCurrentPathOperation()
+void GraphView::cachePaths(const PathTraversal::QueryKey& key, int64_t topologyVersion, int64_t rowVersion,
+		vector<PathTraversal::PathRow>& rows, const vector<PathTraversal::PathStep>& pathSteps)
 {
-	//Check the current path operation type, and
-	//advance the paths exploration accordingly
-	//new entries should be added to the paths temp table
-	//adding no new entries means that the exploration is completely done
-	//and the iterator will have hasNext evaluated to false
-	//std::stringstream paramsToPrint;
-	/*
-	if(dummyPathExapansionState < 6)
+	if (pathSteps.size() > (size_t)MaxCachedPathSteps)
 	{
-		//create new tuple in the paths temp table
-		TableTuple temp_tuple = m_pathTable->tempTuple();
-		//start vertex, end vertex, length, cost, path
-		temp_tuple.setNValue(0, ValueFactory::getIntegerValue(dummyPathExapansionState + 6));
-		temp_tuple.setNValue(1, ValueFactory::getIntegerValue(dummyPathExapansionState + 11));
-		temp_tuple.setNValue(2, ValueFactory::getIntegerValue(dummyPathExapansionState + 16));
-		temp_tuple.setNValue(3, ValueFactory::getDoubleValue((double)(dummyPathExapansionState + 21)));
-		temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-		m_pathTable->insertTempTuple(temp_tuple);
-		paramsToPrint << "current tuple count in m_pathTable = " << m_pathTable->activeTupleCount();
-		LogManager::GLog("GraphView", "expandCurrentPathOperation", 242,
-									paramsToPrint.str());
-		paramsToPrint.clear();
-		dummyPathExapansionState++;
+		return;
 	}
-	*/
-	if(executeTraversal)
+	if (topologyVersion != m_topologyVersion || rowVersion != m_rowVersion ||
+			m_pathCacheTopologyVersion != m_topologyVersion || m_pathCacheRowVersion != m_rowVersion)
 	{
-		switch(this->queryType)
-		{
-		//reachability, BFS,...
-		case 1: //reachability BFS without selectivity
-			this->BFS_Reachability_ByDepth(this->fromVertexId, this->pathLength);
-			break;
-		case 2: //reachaility BFS with edge selectivity
-			this->BFS_Reachability_ByDepth_eSelectivity(this->fromVertexId, this->pathLength, this->eSelectivity);
-			break;
-		case 3: //reachability BFS with start and end
-			this->BFS_Reachability_ByDestination(this->fromVertexId, this->toVertexId);
-			break;
-		//topological queries
-		case 11: //vOnly selectivity
-			this->SubGraphLoop(this->pathLength, this->vSelectivity, 100);
-			break;
-		case 12: //eOnly selectivity
-			this->SubGraphLoop(this->pathLength, 100, this->eSelectivity);
-					break;
-		case 13: //vertex and edge selectivity
-			this->SubGraphLoop(this->pathLength, this->vSelectivity, this->eSelectivity);
-			break;
-		case 14: //start from a specific vertex and allow vertex and edge selectivity
-			this->SubGraphLoopFromStartVertex(this->fromVertexId, this->pathLength, this->vSelectivity, this->eSelectivity);
-			break;
-		//shortest paths
-		case 21: //top k shortest paths
-			this->SP_TopK(this->fromVertexId, this->toVertexId, this->topK);
-			break;
-		case 22: //top 1 shortest path with edge selectivity
-			this->SP_EdgeSelectivity(this->fromVertexId, this->toVertexId, this->eSelectivity);
-			break;
-		case 23: //Single source to all vertexes shortest paths
-			this->SP_ToAllVertexes_EdgeSelectivity(this->fromVertexId, this->eSelectivity);
-			break;
-		}
-		executeTraversal = false;
+		//the paths were found on a graph that changed since
+		return;
 	}
+	if (m_pathCacheIndex.count(key) > 0)
+	{
+		//another traversal of the same query finished first
+		return;
+	}
+	if ((int)m_pathCache.size() >= MaxCachedPathQueries)
+	{
+		m_pathCacheIndex.erase(m_pathCache.back().key);
+		m_pathCache.pop_back();
+	}
+	m_pathCache.push_front(CachedPaths());
+	CachedPaths& cached = m_pathCache.front();
+	cached.key = key;
+	cached.rows.swap(rows);
+	cached.pathSteps = pathSteps;
+	m_pathCacheIndex[key] = m_pathCache.begin();
 }
 
-void GraphView::SP_TopK(int src, int dest, int k)
+void GraphView::fillGraphFromRelationalTables()
 {
-	double minCost = DBL_MAX;
-	int foundPathsSoFar = 0;
-	//PQEntryWithLength.first is the cost, PQEntryWithLength.second.first is the vertexId, PQEntryWithLength.second.second is the path length
-	priority_queue<PQEntryWithLength, vector<PQEntryWithLength>, std::greater<PQEntryWithLength>> pq;
-	//map<int, int> costMap;
-	//costMap[src] = 0;
-	pq.push(make_pair(0, make_pair(src, 0))); //zero cost to reach Vertex from
-	Vertex* v = NULL;
-	Edge* e = NULL;
-	int currVId, fanOut = -1, candVertexId = -1;
-	
-	//upper-bound to avoid loops (considering an average fan-out of 10
-	int maxPQOperations = this->numOfVertexes() * 10;
-	int iterationNum = 0;
-	TableTuple* edgeTuple;
-	int length;
-
-	while(!pq.empty())
-	{
-		//select next vertex to explore
-		currVId = ((pair<int, int >)( pq.top().second)).first;
-		length = ((pair<int, int >)( pq.top().second)).second;
-		minCost = pq.top().first;
-		if(currVId == dest)
+	std::chrono::steady_clock::time_point rebuildStart = std::chrono::steady_clock::now();
+	//the topology is kept in CSR form only, Vertex and Edge objects are not materialized
+	this->m_vertexes.clear();
+	this->m_edges.clear();
+	this->m_topology.clear();
+	this->m_idDictionary.clear();
+	this->m_danglingEdges.clear();
+	//fill the vertex collection
+	this->m_topology.reserveVertexes((int)this->m_vertexTable->activeTupleCount());
+	TableIterator iter = this->m_vertexTable->iterator();
+	const TupleSchema* schema = this->m_vertexTable->schema();
+	TableTuple tuple(schema);
+
+
+	if (VOLT_GRAPH_TRACE_ENABLED)
+	{
+		std::stringstream paramsToPrint;
+		paramsToPrint << " vertex column names = ";
+		for(size_t i = 0; i < m_vertexColumnNames.size(); i++)
+		{
+			paramsToPrint << m_vertexColumnNames[i] << ", ";
+		}
+		paramsToPrint << " ### vertexTable ColIDs= ";
+		for(size_t i = 0; i < m_columnIDsInVertexTable.size(); i++)
 		{
-			foundPathsSoFar++;
-
-			//add a tuple here
-			TableTuple temp_tuple = m_pathTable->tempTuple();
-			//start vertex, end vertex, length, cost, path
-			temp_tuple.setNValue(0, ValueFactory::getIntegerValue(src));
-			temp_tuple.setNValue(1, ValueFactory::getIntegerValue(dest));
-			temp_tuple.setNValue(2, ValueFactory::getIntegerValue(length));
-			temp_tuple.setNValue(3, ValueFactory::getDoubleValue(minCost));
-			//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-			if(m_pathTable->activeTupleCount() <= 1000)
-			m_pathTable->insertTempTuple(temp_tuple);
+			paramsToPrint << m_columnIDsInVertexTable[i] << ", ";
 		}
-		iterationNum++;
 
-		if(foundPathsSoFar == k || iterationNum == maxPQOperations)
+		paramsToPrint << " ### edge column names = ";
+		for(size_t i = 0; i < m_edgeColumnNames.size(); i++)
 		{
-			break;
-		} 
-		pq.pop();
-
-		//explore the outgoing vertexes
-		v = this->getVertex(currVId);
-		fanOut = v->fanOut();
-		double edgeCost = 1;
-		for(int i = 0; i < fanOut; i++)
+			paramsToPrint << m_edgeColumnNames[i] << ", ";
+		}
+		paramsToPrint << " ### edgeTable ColIDs= ";
+		for(size_t i = 0; i < m_columnIDsInEdgeTable.size(); i++)
 		{
-			e = v->getOutEdge(i);
-			candVertexId = e->getEndVertex()->getId();
-
-			if (spColumnIndexInEdgesTable >= 0)
-			{
-				edgeTuple = this->getEdgeTuple(e->getTupleData());
-				edgeCost = ValuePeeker::peekDouble(edgeTuple->getNValue(spColumnIndexInEdgesTable));
-			}
-
+			paramsToPrint << m_columnIDsInEdgeTable[i] << ", ";
+		}
 
-			//these lines are commented to allow top k search
-			//if ( (costMap.find(candVertexId) == costMap.end()) ||
-			//	 (costMap[candVertexId] > minCost + 1) )
-			{
-				//costMap[candVertexId] = minCost + 1;
-				pq.push(make_pair(minCost + edgeCost, make_pair(candVertexId, length+1)));
-			}
+		paramsToPrint << " ##### vertexId= " << m_vertexIdColumnIndex << ", edgeId= " << m_edgeIdColumnIndex
+				<< "from = " << m_edgeFromColumnIndex << ", to = " << m_edgeToColumnIndex
+				<< "vPropColIndex = " << m_vPropColumnIndex << ", ePropColIndex = " << m_ePropColumnIndex;
 
-		}
+		GLOG("GraphView", "fill", 785, paramsToPrint.str());
 	}
 
-	std::stringstream paramsToPrint;
-	paramsToPrint << "TopK SP: from = " << src << ", to = " << dest
-			<< ", k = " << k
-			<< ", foundPaths = " << foundPathsSoFar
-			<< ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	LogManager::GLog("GraphView", "TopK_SP", 334, paramsToPrint.str());
-}
+	assert(m_vertexIdColumnIndex >= 0 && m_edgeIdColumnIndex >= 0 && m_edgeFromColumnIndex >= 0 && m_edgeToColumnIndex >=0);
 
-void GraphView::SP_ToAllVertexes_EdgeSelectivity(int src, int edgeSelectivity)
-{
-	int minCost = INT_MAX;
-	priority_queue<PQEntry, vector<PQEntry>, std::greater<PQEntry>> pq;
-	map<int, int> costMap;
-	costMap[src] = 0;
-	pq.push(make_pair(0, src)); //zero cost to reach Vertex from
-	Vertex* v = NULL;
-	Edge* e = NULL;
-	int currVId, fanOut = -1, candVertexId = -1;
+	bool vPropExists = (m_vPropColumnIndex >= 0);
+	bool ePropExists = (m_ePropColumnIndex >= 0);
 
-	while(!pq.empty())
+	//one pass over each table collects the rows, the key columns are then read on the build
+	//threads, and so are the edges counted and placed into the CSR slots. The VARCHAR id codes
+	//and the dictionary inserts stay on the site thread
+	vector<char*> rows;
+	rows.reserve(this->m_vertexTable->activeTupleCount());
+	while (this->m_vertexTable->activeTupleCount() != 0 && iter.next(tuple))
 	{
-		//select next vertex to explore
-		currVId = pq.top().second;
-		minCost = pq.top().first;
-		/*
-		if(currVId == dest)
+		if (tuple.isActive())
 		{
-			//add a tuple here
-			TableTuple temp_tuple = m_pathTable->tempTuple();
-			//start vertex, end vertex, length, cost, path
-			temp_tuple.setNValue(0, ValueFactory::getIntegerValue(src));
-			temp_tuple.setNValue(1, ValueFactory::getIntegerValue(dest));
-			temp_tuple.setNValue(2, ValueFactory::getIntegerValue(minCost));
-			temp_tuple.setNValue(3, ValueFactory::getDoubleValue(minCost));
-			//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-			if(m_pathTable->activeTupleCount() <= 100)
-			m_pathTable->insertTempTuple(temp_tuple);
-			break;
+			rows.push_back(tuple.address());
 		}
-		*/
-		pq.pop();
-
-		//explore the outgoing vertexes
-		v = this->getVertex(currVId);
-		fanOut = v->fanOut();
-		for(int i = 0; i < fanOut; i++)
+	}
+	bool varcharVertexIds = (schema->columnType(m_vertexIdColumnIndex) == ValueType::tVARCHAR);
+	vector<int64_t> ids(rows.size());
+	vector<int> props(rows.size(), 0);
+	BuildThreadPool::parallelFor(rows.size(), [&](size_t begin, size_t end) {
+		TableTuple row(schema);
+		for (size_t i = begin; i < end; i++)
 		{
-			e = v->getOutEdge(i);
-			candVertexId = e->getEndVertex()->getId();
-
-			if(e->eProp > eSelectivity)
+			row.move(rows[i]);
+			if (!varcharVertexIds)
 			{
-				continue;
+				ids[i] = elementKey(row.getNValue(m_vertexIdColumnIndex));
 			}
-
-			if ( (costMap.find(candVertexId) == costMap.end()) ||
-				 (costMap[candVertexId] > minCost + 1) )
+			if (vPropExists)
 			{
-				costMap[candVertexId] = minCost + 1;
-				pq.push(make_pair(minCost + 1, candVertexId));
+				props[i] = ValuePeeker::peekInteger(row.getNValue(m_vPropColumnIndex));
 			}
-
 		}
+	});
+	for (size_t i = 0; i < rows.size(); i++)
+	{
+		if (varcharVertexIds)
+		{
+			tuple.move(rows[i]);
+			ids[i] = assignElementKey(tuple.getNValue(m_vertexIdColumnIndex));
+		}
+		m_topology.addVertex(ids[i], rows[i], props[i]);
 	}
 
-	std::stringstream paramsToPrint;
-	paramsToPrint << "SSSP with eSelectivity: from = "
-			<< ", eSelectivity = " << edgeSelectivity
-			<< ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	LogManager::GLog("GraphView", "SP_eSelectivity", 398, paramsToPrint.str());
-}
-
-
-void GraphView::SP_EdgeSelectivity(int src, int dest, int edgeSelectivity)
-{
-	int minCost = INT_MAX;
-	priority_queue<PQEntry, vector<PQEntry>, std::greater<PQEntry>> pq;
-	map<int, int> costMap;
-	costMap[src] = 0;
-	pq.push(make_pair(0, src)); //zero cost to reach Vertex from
-	Vertex* v = NULL;
-	Edge* e = NULL;
-	int currVId, fanOut = -1, candVertexId = -1;
-
-	while(!pq.empty())
+	//fill the edge collection
+	iter = this->m_edgeTable->iterator();
+	schema = this->m_edgeTable->schema();
+	TableTuple edgeTuple(schema);
+	rows.clear();
+	rows.reserve(this->m_edgeTable->activeTupleCount());
+	while (this->m_edgeTable->activeTupleCount() != 0 && iter.next(edgeTuple))
 	{
-		//select next vertex to explore
-		currVId = pq.top().second;
-		minCost = pq.top().first;
-		if(currVId == dest)
+		if (edgeTuple.isActive())
 		{
-			//add a tuple here
-			TableTuple temp_tuple = m_pathTable->tempTuple();
-			//start vertex, end vertex, length, cost, path
-			temp_tuple.setNValue(0, ValueFactory::getIntegerValue(src));
-			temp_tuple.setNValue(1, ValueFactory::getIntegerValue(dest));
-			temp_tuple.setNValue(2, ValueFactory::getIntegerValue(minCost));
-			temp_tuple.setNValue(3, ValueFactory::getDoubleValue(minCost));
-			//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-			if(m_pathTable->activeTupleCount() <= 100)
-				m_pathTable->insertTempTuple(temp_tuple);
-			break;
+			rows.push_back(edgeTuple.address());
 		}
-		pq.pop();
-
-		//explore the outgoing vertexes
-		v = this->getVertex(currVId);
-		fanOut = v->fanOut();
-		for(int i = 0; i < fanOut; i++)
+	}
+	//the vertex dictionary is only read by the threads, the VARCHAR edge ids and the missing
+	//end points of the dangling edges get their codes afterwards
+	bool varcharEdgeIds = (schema->columnType(m_edgeIdColumnIndex) == ValueType::tVARCHAR);
+	bool varcharEndPoints = (schema->columnType(m_edgeFromColumnIndex) == ValueType::tVARCHAR ||
+			schema->columnType(m_edgeToColumnIndex) == ValueType::tVARCHAR);
+	vector<CSRTopology::EdgeEntry> edgeEntries(rows.size());
+	BuildThreadPool::parallelFor(rows.size(), [&](size_t begin, size_t end) {
+		TableTuple row(schema);
+		for (size_t i = begin; i < end; i++)
 		{
-			e = v->getOutEdge(i);
-			candVertexId = e->getEndVertex()->getId();
-
-			if(e->eProp > eSelectivity)
+			row.move(rows[i]);
+			CSRTopology::EdgeEntry& entry = edgeEntries[i];
+			entry.id = elementKey(row.getNValue(m_edgeIdColumnIndex));
+			entry.from = elementKey(row.getNValue(m_edgeFromColumnIndex));
+			entry.to = elementKey(row.getNValue(m_edgeToColumnIndex));
+			entry.tupleData = rows[i];
+			entry.eProp = ePropExists ? ValuePeeker::peekInteger(row.getNValue(m_ePropColumnIndex)) : 0;
+			int fromIndex = m_topology.vertexIndex(entry.from);
+			int toIndex = m_topology.vertexIndex(entry.to);
+			//dangling edges keep their vertex keys, they are sorted out below
+			if (fromIndex >= 0 && toIndex >= 0)
 			{
-				continue;
+				entry.from = fromIndex;
+				entry.to = toIndex;
 			}
-
-			if ( (costMap.find(candVertexId) == costMap.end()) ||
-				 (costMap[candVertexId] > minCost + 1) )
+			else
 			{
-				costMap[candVertexId] = minCost + 1;
-				pq.push(make_pair(minCost + 1, candVertexId));
+				entry.tupleData = NULL;
 			}
-
 		}
+	});
+	size_t numOfEntries = 0;
+	for (size_t i = 0; i < edgeEntries.size(); i++)
+	{
+		CSRTopology::EdgeEntry& entry = edgeEntries[i];
+		if (varcharEdgeIds)
+		{
+			edgeTuple.move(rows[i]);
+			entry.id = assignElementKey(edgeTuple.getNValue(m_edgeIdColumnIndex));
+		}
+		if (entry.tupleData == NULL)
+		{
+			//dangling edges cannot be traversed, keep them until their vertexes show up
+			entry.tupleData = rows[i];
+			if (varcharEndPoints)
+			{
+				edgeTuple.move(rows[i]);
+				entry.from = assignElementKey(edgeTuple.getNValue(m_edgeFromColumnIndex));
+				entry.to = assignElementKey(edgeTuple.getNValue(m_edgeToColumnIndex));
+			}
+			int64_t missingVertexId = (m_topology.vertexIndex(entry.from) < 0) ? entry.from : entry.to;
+			m_danglingEdges.insert(make_pair(missingVertexId, entry));
+			continue;
+		}
+		edgeEntries[numOfEntries++] = entry;
 	}
+	edgeEntries.resize(numOfEntries);
+	m_topology.build(edgeEntries, this->isDirected());
+	m_topologyVersion++;
+	m_topologyStale = false;
+	m_lastRebuildMicros = std::chrono::duration_cast<std::chrono::microseconds>(
+			std::chrono::steady_clock::now() - rebuildStart).count();
+	m_lastRebuildTimestamp = std::chrono::duration_cast<std::chrono::milliseconds>(
+			std::chrono::system_clock::now().time_since_epoch()).count();
+	GLOG("GraphView", "fillGraphFromRelationalTables", 975, "rebuilt " << m_name << " in "
+			<< m_lastRebuildMicros << " us, bytes = " << m_topology.memoryFootprint());
+	// GLOG("GraphView", "fillGraphFromRelationalTables", 159, "graph: " + this->debug());
+	//GLOG("GraphView", "fillGraphFromRelationalTables", 73, "vTable: " + this->m_vertexTable->debug());
+	//GLOG("GraphView", "fillGraphFromRelationalTables", 73, "eTable: " + this->m_edgeTable->debug());
 
-	std::stringstream paramsToPrint;
-	paramsToPrint << "SP with eSelectivity: from = " << src << ", to = " << dest
-			<< ", eSelectivity = " << edgeSelectivity
-			<< ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	LogManager::GLog("GraphView", "SP_eSelectivity", 398, paramsToPrint.str());
 }
 
-void GraphView::BFS_Reachability_ByDepth_eSelectivity(int startVertexId, int depth, int eSelectivity)
+void GraphView::invalidateTopology()
 {
-	queue<Vertex*> q;
-	Vertex* currentVertex = this->m_vertexes[startVertexId];
-	if(NULL != currentVertex)
+	if (m_topologyStale)
 	{
-		currentVertex->Level = 0;
-		q.push(currentVertex);
-		int fanOut;
-		Edge* outEdge = NULL;
-		Vertex* outVertex = NULL;
-		while(!q.empty() && currentVertex->Level < depth)
-		{
-			currentVertex = q.front();
-			q.pop();
-			fanOut = currentVertex->fanOut();
-			for(int i = 0; i < fanOut; i++)
-			{
-				outEdge = currentVertex->getOutEdge(i);
-				if(outEdge->eProp > eSelectivity)
-				{
-					continue;
-				}
-				outVertex = outEdge->getEndVertex();
-				outVertex->Level = currentVertex->Level + 1;
-				if( (depth > 0 && outVertex->Level == depth))
-				{
-					//Now, we reached the destination vertexes, where we should add tuples into the output table
-					TableTuple temp_tuple = m_pathTable->tempTuple();
-					//start vertex, end vertex, length, cost, path
-					temp_tuple.setNValue(0, ValueFactory::getIntegerValue(startVertexId));
-					temp_tuple.setNValue(1, ValueFactory::getIntegerValue(outVertex->getId()));
-					temp_tuple.setNValue(2, ValueFactory::getIntegerValue(outVertex->Level));
-					temp_tuple.setNValue(3, ValueFactory::getDoubleValue((double)(outVertex->Level + 1)));
-					//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-					if(m_pathTable->activeTupleCount() <= 100)
-						m_pathTable->insertTempTuple(temp_tuple);
-				}
-				else
-				{
-					//add to the queue, as currentDepth is less than depth
-					q.push(outVertex);
-				}
-			}
-		}
+		return;
 	}
+	GLOG("GraphView", "invalidateTopology", 927, "topology of " << m_name << " is rebuilt after the bulk load");
+	m_topologyStale = true;
+	//release the topology now, the tuple addresses it holds are not maintained anymore
+	m_topology.clear();
+	m_danglingEdges.clear();
+	m_topologyVersion++;
+}
 
-	std::stringstream paramsToPrint;
-	paramsToPrint << "BFS_ByDepth: from = " << startVertexId << ", depth = " << depth << ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	
-	LogManager::GLog("GraphView", "BFS_ByDepth", 575, paramsToPrint.str());
+void GraphView::refreshTopology()
+{
+	std::lock_guard<std::mutex> lock(m_sharedTopology->rebuildMutex);
+	//a detached table leaves the topology empty
+	if (m_topologyStale && m_vertexTable != NULL && m_edgeTable != NULL)
+	{
+		fillGraphFromRelationalTables();
+	}
+}
+
+size_t GraphView::topologySnapshotSize()
+{
+	if (m_topologyStale || !maintainsTopology())
+	{
+		return 0;
+	}
+	size_t bytes = 2 * sizeof(int64_t) + sizeof(int32_t) + m_topology.serializedSize();
+	for (size_t code = 0; code < m_idDictionary.size(); code++)
+	{
+		bytes += sizeof(int32_t) + m_idDictionary.idOf(code).size();
+	}
+	bytes += sizeof(int32_t) + m_danglingEdges.size() * (4 * sizeof(int64_t) + sizeof(int32_t));
+	return bytes;
 }
 
-void GraphView::BFS_Reachability_ByDepth(int startVertexId, int depth)
+void GraphView::serializeTopology(SerializeOutput& out)
 {
-	queue<Vertex*> q;
-	Vertex* currentVertex = this->m_vertexes[startVertexId];
-	std::map<int, int> vertexToLevel;
-	std::unordered_set<int> visited;
-	if(NULL != currentVertex)
+	//the row counts are checked before the rows are matched on restore
+	out.writeLong(m_vertexTable->activeTupleCount());
+	out.writeLong(m_edgeTable->activeTupleCount());
+	out.writeInt((int32_t)m_idDictionary.size());
+	for (size_t code = 0; code < m_idDictionary.size(); code++)
+	{
+		out.writeTextString(m_idDictionary.idOf(code));
+	}
+	m_topology.serialize(out);
+	out.writeInt((int32_t)m_danglingEdges.size());
+	for (std::multimap<int64_t, CSRTopology::EdgeEntry>::const_iterator it = m_danglingEdges.begin();
+			it != m_danglingEdges.end(); ++it)
 	{
-		vertexToLevel[currentVertex->getId()] = 0;
-		q.push(currentVertex);
-		int fanOut;
-		Edge* outEdge = NULL;
-		Vertex* outVertex = NULL;
+		out.writeLong(it->first);
+		out.writeLong(it->second.id);
+		out.writeLong(it->second.from);
+		out.writeLong(it->second.to);
+		out.writeInt(it->second.eProp);
+	}
+}
 
-		while(!q.empty() && vertexToLevel[currentVertex->getId()] < depth)
+bool GraphView::restoreTopology(SerializeInputBE& in)
+{
+	std::lock_guard<std::mutex> lock(m_sharedTopology->rebuildMutex);
+	if (!m_topologyStale || !maintainsTopology())
+	{
+		//the topology was maintained through the load, or is restored by the view that maintains it
+		return false;
+	}
+	std::chrono::steady_clock::time_point restoreStart = std::chrono::steady_clock::now();
+	int64_t numOfVertexRows = in.readLong();
+	int64_t numOfEdgeRows = in.readLong();
+	bool restored = (numOfVertexRows == m_vertexTable->activeTupleCount() &&
+			numOfEdgeRows == m_edgeTable->activeTupleCount());
+	if (restored)
+	{
+		m_idDictionary.clear();
+		int32_t numOfCodes = in.readInt();
+		for (int32_t code = 0; code < numOfCodes; code++)
+		{
+			std::string id = in.readTextString();
+			m_idDictionary.keyOf(id.data(), (int32_t)id.size());
+		}
+		restored = ((int32_t)m_idDictionary.size() == numOfCodes) && m_topology.deserialize(in) &&
+				m_topology.isDirected() == isDirected();
+	}
+	vector<CSRTopology::EdgeEntry*> danglingEdges;
+	if (restored)
+	{
+		m_danglingEdges.clear();
+		int32_t numOfDanglingEdges = in.readInt();
+		CSRTopology::EdgeEntry entry;
+		entry.tupleData = NULL;
+		for (int32_t i = 0; i < numOfDanglingEdges; i++)
 		{
-			currentVertex = q.front();
-			q.pop();
+			int64_t missingVertexId = in.readLong();
+			entry.id = in.readLong();
+			entry.from = in.readLong();
+			entry.to = in.readLong();
+			entry.eProp = in.readInt();
+			danglingEdges.push_back(&m_danglingEdges.insert(make_pair(missingVertexId, entry))->second);
+		}
+	}
 
-			if (visited.find(currentVertex->getId()) == visited.end())
-			{
-				visited.insert(currentVertex->getId());
-			}
-			else
+	//every vertex row takes the place of the saved vertex with its id
+	TableTuple tuple(m_vertexTable->schema());
+	int64_t numOfMatchedRows = 0;
+	if (restored)
+	{
+		TableIterator iter = m_vertexTable->iterator();
+		while (restored && m_vertexTable->activeTupleCount() != 0 && iter.next(tuple))
+		{
+			if (!tuple.isActive())
 			{
 				continue;
 			}
-
-			fanOut = currentVertex->fanOut();
-			for(int i = 0; i < fanOut; i++)
+			int index = m_topology.vertexIndex(elementKey(tuple.getNValue(m_vertexIdColumnIndex)));
+			restored = (index >= 0 && m_topology.vertexTuple(index) == NULL);
+			if (restored)
 			{
-				outEdge = currentVertex->getOutEdge(i);
-				outVertex = outEdge->getEndVertex();
-
-				if (visited.find(outVertex->getId()) != visited.end())
-				{
-					continue;
-				}
-
-				//outVertex->Level = currentVertex->Level + 1;
-				vertexToLevel[outVertex->getId()] = vertexToLevel[currentVertex->getId()] + 1;
-				if( (depth > 0 && vertexToLevel[outVertex->getId()] == depth))
-				{
-					//Now, we reached the destination vertexes, where we should add tuples into the output table
-					TableTuple temp_tuple = m_pathTable->tempTuple();
-					//start vertex, end vertex, length, cost, path
-					temp_tuple.setNValue(0, ValueFactory::getIntegerValue(startVertexId));
-					temp_tuple.setNValue(1, ValueFactory::getIntegerValue(outVertex->getId()));
-					temp_tuple.setNValue(2, ValueFactory::getIntegerValue(vertexToLevel[outVertex->getId()]));
-					temp_tuple.setNValue(3, ValueFactory::getDoubleValue((double)(vertexToLevel[outVertex->getId()])));
-					//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-					if(m_pathTable->activeTupleCount() <= 1000)
-					m_pathTable->insertTempTuple(temp_tuple);
-					LogManager::GLog("GraphView", "BFS_ByDepth", 629, temp_tuple.debug(m_pathTable->name()).c_str());
-
-				}
-				else
-				{
-					//add to the queue, as currentDepth is less than depth
-					q.push(outVertex);
-				}
+				m_topology.updateVertex(index, tuple.address(),
+						(m_vPropColumnIndex >= 0) ? ValuePeeker::peekInteger(tuple.getNValue(m_vPropColumnIndex)) : 0);
+				numOfMatchedRows++;
 			}
 		}
+		restored = restored && (numOfMatchedRows == m_topology.numOfVertexes());
 	}
 
-	std::stringstream paramsToPrint;
-	paramsToPrint << "BFS_ByDepth: from = " << startVertexId << ", depth = " << depth << ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	LogManager::GLog("GraphView", "BFS_ByDepth", 643, paramsToPrint.str());
-}
-
-void GraphView::BFS_Reachability_ByDestination(int startVertexId, int destVerexId)
-{
-	queue<Vertex*> q;
-	Vertex* currentVertex = this->m_vertexes[startVertexId];
-	std::map<int, int> vertexToLevel;
-	std::unordered_set<int> visited;
-
-	if(NULL != currentVertex)
+	//and every edge row the place of the saved edge (or dangling edge) with its id, whose end
+	//points must still be the ones of the row
+	if (restored)
 	{
-		vertexToLevel[currentVertex->getId()] = 0;
-		q.push(currentVertex);
-		int fanOut;
-		Edge* outEdge = NULL;
-		Vertex* outVertex = NULL;
-		bool found = false;
-		int level;
-		while(!q.empty() && !found)
+		vector<int> from, to;
+		m_topology.edgeEndPoints(from, to);
+		std::unordered_map<int64_t, int> edgeIndexes;
+		edgeIndexes.reserve(m_topology.numOfEdges() + danglingEdges.size());
+		for (int e = 0; restored && e < m_topology.edgeIndexLimit(); e++)
 		{
-			currentVertex = q.front();
-			q.pop();
-
-			if (visited.find(currentVertex->getId()) == visited.end())
+			if (from[e] >= 0)
 			{
-				visited.insert(currentVertex->getId());
+				restored = edgeIndexes.insert(make_pair(m_topology.edgeIdOfIndex(e), e)).second;
 			}
-			else
+		}
+		//dangling edges are given by -1 - their position
+		for (int i = 0; restored && i < (int)danglingEdges.size(); i++)
+		{
+			restored = edgeIndexes.insert(make_pair(danglingEdges[i]->id, -1 - i)).second;
+		}
+		//as no saved edge takes two rows, all of them are matched when their number is the row count
+		restored = restored && ((int64_t)edgeIndexes.size() == numOfEdgeRows);
+
+		TableTuple edgeTuple(m_edgeTable->schema());
+		TableIterator iter = m_edgeTable->iterator();
+		while (restored && m_edgeTable->activeTupleCount() != 0 && iter.next(edgeTuple))
+		{
+			if (!edgeTuple.isActive())
 			{
 				continue;
 			}
-
-			fanOut = currentVertex->fanOut();
-			for(int i = 0; i < fanOut; i++)
+			std::unordered_map<int64_t, int>::iterator it = edgeIndexes.find(elementKey(edgeTuple.getNValue(m_edgeIdColumnIndex)));
+			if (it == edgeIndexes.end())
 			{
-				outEdge = currentVertex->getOutEdge(i);
-				outVertex = outEdge->getEndVertex();
-
-				if (visited.find(outVertex->getId()) != visited.end())
-				{
-					continue;
-				}
-
-				vertexToLevel[outVertex->getId()] = vertexToLevel[currentVertex->getId()] + 1;
-				if(outVertex->getId() == destVerexId)
-				{
-					level = vertexToLevel[outVertex->getId()] + 1;
-					//Now, we reached the destination vertexes, where we should add tuples into the output table
-					TableTuple temp_tuple = m_pathTable->tempTuple();
-					//start vertex, end vertex, length, cost, path
-					temp_tuple.setNValue(0, ValueFactory::getIntegerValue(startVertexId));
-					temp_tuple.setNValue(1, ValueFactory::getIntegerValue(outVertex->getId()));
-					temp_tuple.setNValue(2, ValueFactory::getIntegerValue(level));
-					temp_tuple.setNValue(3, ValueFactory::getDoubleValue((double)level));
-					temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-					if(m_pathTable->activeTupleCount() <= 1000)
-					m_pathTable->insertTempTuple(temp_tuple);
-
-					//outVertex->Level = outVertex->Level + 1;
-					vertexToLevel[outVertex->getId()] = level;
-					found = true;
-					break;
-				}
-				else
+				restored = false;
+				break;
+			}
+			int64_t fromKey = elementKey(edgeTuple.getNValue(m_edgeFromColumnIndex));
+			int64_t toKey = elementKey(edgeTuple.getNValue(m_edgeToColumnIndex));
+			int eProp = (m_ePropColumnIndex >= 0) ? ValuePeeker::peekInteger(edgeTuple.getNValue(m_ePropColumnIndex)) : 0;
+			if (it->second >= 0)
+			{
+				int e = it->second;
+				int64_t savedFrom = m_topology.vertexId(from[e]);
+				int64_t savedTo = m_topology.vertexId(to[e]);
+				restored = m_topology.edgeTupleOfIndex(e) == NULL &&
+						((savedFrom == fromKey && savedTo == toKey) ||
+						(!isDirected() && savedFrom == toKey && savedTo == fromKey));
+				if (restored)
 				{
-					//add to the queue, as currentDepth is less than depth
-					q.push(outVertex);
+					m_topology.updateEdgeOfIndex(e, edgeTuple.address(), eProp);
 				}
 			}
+			else
+			{
+				CSRTopology::EdgeEntry* entry = danglingEdges[-1 - it->second];
+				restored = entry->tupleData == NULL && entry->from == fromKey && entry->to == toKey;
+				entry->tupleData = edgeTuple.address();
+				entry->eProp = eProp;
+			}
 		}
 	}
-	executeTraversal = false;
 
-	std::stringstream paramsToPrint;
-	paramsToPrint << "BFS_Reachability_ByDestination: from = " << startVertexId << ", to = " << destVerexId << ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	LogManager::GLog("GraphView", "BFS_Reachability", 513, paramsToPrint.str());
+	if (!restored)
+	{
+		GLOG("GraphView", "restoreTopology", 1227, "the rows of " << m_name
+				<< " do not match the saved topology, it is rebuilt from the tables");
+		m_topology.clear();
+		m_idDictionary.clear();
+		m_danglingEdges.clear();
+		return false;
+	}
+	m_topologyStale = false;
+	m_topologyVersion++;
+	GLOG("GraphView", "restoreTopology", 1236, "restored " << m_name << " in " <<
+			std::chrono::duration_cast<std::chrono::microseconds>(std::chrono::steady_clock::now() - restoreStart).count()
+			<< " us, bytes = " << m_topology.memoryFootprint());
+	return true;
 }
 
-void GraphView::SubGraphLoopFromStartVertex(int startVertexId, int length, int vSelectivity, int eSelectivity)
+void GraphView::buildTopologyFromElements()
 {
-	queue<Vertex*> q;
-	Vertex* currentVertex = NULL;
-	//for(std::map<int, Vertex*>::iterator it = m_vertexes.begin(); it != m_vertexes.end(); ++it)
+	m_topology.clear();
+	for (std::map<int64_t, Vertex*>::iterator it = m_vertexes.begin(); it != m_vertexes.end(); ++it)
 	{
-		currentVertex = this->getVertex(startVertexId);
-
-		currentVertex->Level = 0;
-		q.push(currentVertex);
-		int fanOut;
-		Edge* outEdge = NULL;
-		Vertex* outVertex = NULL;
-		while(!q.empty() && currentVertex->Level < length)
-		{
-			currentVertex = q.front();
-			q.pop();
-			fanOut = currentVertex->fanOut();
-			for(int i = 0; i < fanOut; i++)
-			{
-				outEdge = currentVertex->getOutEdge(i);
-
-				if(outEdge->eProp > eSelectivity)
-				{
-					continue;
-				}
-
-				outVertex = outEdge->getEndVertex();
-
-				if(outVertex->vProp > vSelectivity)
-				{
-					continue;
-				}
-
-				outVertex->Level = currentVertex->Level + 1;
-				if(outVertex->Level == length)
-				{
-					//we found a loop of the desired length
-					if(outVertex->getId() == startVertexId)
-					{
-						//Now, we reached the destination vertexes, where we should add tuples into the output table
-						TableTuple temp_tuple = m_pathTable->tempTuple();
-						//start vertex, end vertex, length, cost, path
-						//set the start vertex to the vertex having an edge that closes the loop (for debugging purposes)
-						temp_tuple.setNValue(0, ValueFactory::getIntegerValue(outEdge->getStartVertex()->getId()));
-						temp_tuple.setNValue(1, ValueFactory::getIntegerValue(startVertexId));
-						temp_tuple.setNValue(2, ValueFactory::getIntegerValue(outVertex->Level));
-						temp_tuple.setNValue(3, ValueFactory::getDoubleValue((double)outVertex->Level));
-						//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-						if(m_pathTable->activeTupleCount() <= 1000)
-						m_pathTable->insertTempTuple(temp_tuple);
-					}
-				}
-				else
-				{
-					//add to the queue, as currentDepth is less than depth
-					q.push(outVertex);
-				}
-			}
-		}
-
-		//empty the queue
-		while(!q.empty())
+		m_topology.addVertex(it->first, it->second->getTupleData(), it->second->vProp);
+	}
+	vector<CSRTopology::EdgeEntry> edgeEntries;
+	edgeEntries.reserve(m_edges.size());
+	CSRTopology::EdgeEntry entry;
+	for (std::map<int64_t, Edge*>::iterator it = m_edges.begin(); it != m_edges.end(); ++it)
+	{
+		entry.id = it->first;
+		entry.from = m_topology.vertexIndex(it->second->getStartVertexId());
+		entry.to = m_topology.vertexIndex(it->second->getEndVertexId());
+		entry.tupleData = it->second->getTupleData();
+		entry.eProp = it->second->eProp;
+		if (entry.from < 0 || entry.to < 0)
 		{
-			q.pop();
+			continue;
 		}
+		edgeEntries.push_back(entry);
 	}
+	m_topology.build(edgeEntries, this->isDirected());
+}
 
-	std::stringstream paramsToPrint;
-	paramsToPrint << "SubGraphLoop from a specific vertex: length = " << length << ", vSelectivity = " << vSelectivity
-			<< ", eSelectivity = " << eSelectivity
-			<< ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	LogManager::GLog("GraphView", "SubGraphLoop", 703, paramsToPrint.str());
+void GraphView::extractElementValues(bool isVertex, const TableTuple& tuple, char* tupleData, ElementValues& values,
+		bool assignKeys)
+{
+	if (isVertex)
+	{
+		NValue id = tuple.getNValue(m_vertexIdColumnIndex);
+		values.id = assignKeys ? assignElementKey(id) : elementKey(id);
+		values.from = -1;
+		values.to = -1;
+		values.prop = (m_vPropColumnIndex >= 0) ? ValuePeeker::peekInteger(tuple.getNValue(m_vPropColumnIndex)) : 0;
+	}
+	else
+	{
+		NValue id = tuple.getNValue(m_edgeIdColumnIndex);
+		NValue from = tuple.getNValue(m_edgeFromColumnIndex);
+		NValue to = tuple.getNValue(m_edgeToColumnIndex);
+		values.id = assignKeys ? assignElementKey(id) : elementKey(id);
+		values.from = assignKeys ? assignElementKey(from) : elementKey(from);
+		values.to = assignKeys ? assignElementKey(to) : elementKey(to);
+		values.prop = (m_ePropColumnIndex >= 0) ? ValuePeeker::peekInteger(tuple.getNValue(m_ePropColumnIndex)) : 0;
+	}
+	values.tupleData = tupleData;
 }
 
+void GraphView::processTupleInsert(PersistentTable* table, const TableTuple& tuple, bool fallible)
+{
+	if (m_topologyStale || !maintainsTopology())
+	{
+		//the rebuild picks the rows up from the tables, a shared topology is updated by its maintainer
+		return;
+	}
+	bool isVertex = (table == m_vertexTable);
+	ElementValues inserted;
+	extractElementValues(isVertex, tuple, tuple.address(), inserted, true);
+	recordTopologyChange(table, isVertex, NULL, &inserted, fallible);
+}
 
-void GraphView::SubGraphLoop(int length, int vSelectivity, int eSelectivity)
+void GraphView::processTupleDelete(PersistentTable* table, const TableTuple& tuple, bool fallible)
 {
-	queue<Vertex*> q;
-	Vertex* currentVertex = NULL;
-	int startVertexId = -1;
-	for(std::map<int, Vertex*>::iterator it = m_vertexes.begin(); it != m_vertexes.end(); ++it)
+	if (m_topologyStale || !maintainsTopology())
 	{
-		currentVertex = it->second;
-		if(currentVertex->vProp > vSelectivity)
-		{
-			continue;
-		}
-		startVertexId = currentVertex->getId();
-		currentVertex->Level = 0;
-		q.push(currentVertex);
-		int fanOut;
-		Edge* outEdge = NULL;
-		Vertex* outVertex = NULL;
-		while(!q.empty() && currentVertex->Level < length)
-		{
-			currentVertex = q.front();
-			q.pop();
-			fanOut = currentVertex->fanOut();
-			for(int i = 0; i < fanOut; i++)
-			{
-				outEdge = currentVertex->getOutEdge(i);
+		//the rebuild picks the rows up from the tables, a shared topology is updated by its maintainer
+		return;
+	}
+	bool isVertex = (table == m_vertexTable);
+	ElementValues removed;
+	extractElementValues(isVertex, tuple, tuple.address(), removed, false);
+	recordTopologyChange(table, isVertex, &removed, NULL, fallible);
+}
 
-				if(outEdge->eProp > eSelectivity)
-				{
-					continue;
-				}
+void GraphView::processTupleUpdate(PersistentTable* table, const TableTuple& target, const TableTuple& newValues, bool fallible)
+{
+	if (m_topologyStale || !maintainsTopology())
+	{
+		//the rebuild picks the rows up from the tables, a shared topology is updated by its maintainer
+		return;
+	}
+	bool isVertex = (table == m_vertexTable);
+	ElementValues removed, inserted;
+	extractElementValues(isVertex, target, target.address(), removed, false);
+	//the new values are copied into the target, so the row keeps its address
+	extractElementValues(isVertex, newValues, target.address(), inserted, true);
+	//when none of the topology columns of a vertex changed only the row version is bumped (the
+	//pushed down conditions may read the other columns). Edge updates always bump the topology
+	//version as their other columns (e.g. the shortest path cost) feed the traversals
+	recordTopologyChange(table, isVertex, &removed, &inserted, fallible);
+}
 
-				outVertex = outEdge->getEndVertex();
-				outVertex->Level = currentVertex->Level + 1;
-				if(outVertex->Level == length)
-				{
-					//we found a loop of the desired length
-					if(outVertex->getId() == startVertexId)
-					{
-						//Now, we reached the destination vertexes, where we should add tuples into the output table
-						TableTuple temp_tuple = m_pathTable->tempTuple();
-						//start vertex, end vertex, length, cost, path
-						//set the start vertex to the vertex having an edge that closes the loop (for debugging purposes)
-						temp_tuple.setNValue(0, ValueFactory::getIntegerValue(outEdge->getStartVertex()->getId()));
-						temp_tuple.setNValue(1, ValueFactory::getIntegerValue(startVertexId));
-						temp_tuple.setNValue(2, ValueFactory::getIntegerValue(outVertex->Level));
-						temp_tuple.setNValue(3, ValueFactory::getDoubleValue((double)outVertex->Level));
-						//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-						if(m_pathTable->activeTupleCount() <= 100)
-						m_pathTable->insertTempTuple(temp_tuple);
-					}
-				}
-				else
-				{
-					//add to the queue, as currentDepth is less than depth
-					q.push(outVertex);
-				}
-			}
-		}
+void GraphView::recordTopologyChange(PersistentTable* table, bool isVertex, const ElementValues* removed,
+		const ElementValues* inserted, bool fallible)
+{
+	applyTopologyChange(isVertex, removed, inserted);
 
-		//empty the queue
-		while(!q.empty())
-		{
-			q.pop();
-		}
+	UndoQuantum* uq = ExecutorContext::currentUndoQuantum();
+	if (fallible && uq != NULL)
+	{
+		UndoReleaseAction* undoAction = createInstanceFromPool<GraphViewUndoAction>(
+				*uq->getPool(), this, isVertex, removed, inserted);
+		SynchronizedThreadLock::addUndoAction(table->isReplicatedTable(), uq, undoAction);
 	}
-
-	std::stringstream paramsToPrint;
-	paramsToPrint << "SubGraphLoop: length = " << length << ", vSelectivity = " << vSelectivity
-			<< ", eSelectivity = " << eSelectivity
-			<< ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	LogManager::GLog("GraphView", "SubGraphLoop", 625, paramsToPrint.str());
 }
 
-void GraphView::SubGraphLoop(int startVertexId, int length)
+void GraphView::applyTopologyChange(bool isVertex, const ElementValues* removed, const ElementValues* inserted)
 {
-	queue<Vertex*> q;
-	Vertex* currentVertex = NULL;
-	if(startVertexId >= 0)
+	if (m_topologyStale)
 	{
-		currentVertex = this->m_vertexes[startVertexId];
+		//the rebuild picks the rows up from the tables
+		return;
 	}
-	if(NULL != currentVertex)
+	if (isVertex)
 	{
-		currentVertex->Level = 0;
-		q.push(currentVertex);
-		int fanOut;
-		Edge* outEdge = NULL;
-		Vertex* outVertex = NULL;
-		while(!q.empty() && currentVertex->Level < length)
+		if (removed && inserted && removed->id == inserted->id)
 		{
-			currentVertex = q.front();
-			q.pop();
-			fanOut = currentVertex->fanOut();
-			for(int i = 0; i < fanOut; i++)
+			//same vertex, only the payload changed, keep its edges in place
+			int index = m_topology.vertexIndex(removed->id);
+			if (index >= 0 && m_topology.vertexTuple(index) == removed->tupleData)
 			{
-				outEdge = currentVertex->getOutEdge(i);
-				outVertex = outEdge->getEndVertex();
-				outVertex->Level = currentVertex->Level + 1;
-				if(outVertex->Level == length)
-				{
-					//we found a loop of the desired length
-					if(outVertex->getId() == startVertexId)
-					{
-						//Now, we reached the destination vertexes, where we should add tuples into the output table
-						TableTuple temp_tuple = m_pathTable->tempTuple();
-						//start vertex, end vertex, length, cost, path
-						temp_tuple.setNValue(0, ValueFactory::getIntegerValue(startVertexId));
-						temp_tuple.setNValue(1, ValueFactory::getIntegerValue(outVertex->getId()));
-						temp_tuple.setNValue(2, ValueFactory::getIntegerValue(outVertex->Level));
-						temp_tuple.setNValue(3, ValueFactory::getDoubleValue((double)outVertex->Level));
-						//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-						if(m_pathTable->activeTupleCount() <= 100)
-						m_pathTable->insertTempTuple(temp_tuple);
-					}
-				}
-				else
-				{
-					//add to the queue, as currentDepth is less than depth
-					q.push(outVertex);
-				}
+				m_topology.updateVertex(index, inserted->tupleData, inserted->prop);
+			}
+		}
+		else
+		{
+			if (removed)
+			{
+				removeVertex(*removed);
+			}
+			if (inserted)
+			{
+				insertVertex(*inserted);
 			}
 		}
 	}
 	else
 	{
-		for (std::map<int, Vertex*>::iterator it = m_vertexes.begin(); it != m_vertexes.end(); ++it)
+		CSRTopology::EdgeEntry edge;
+		if (removed && inserted && removed->id == inserted->id
+				&& removed->from == inserted->from && removed->to == inserted->to)
 		{
-			currentVertex = it->second;
-			currentVertex->Level = 0;
-			q.push(currentVertex);
-			int fanOut;
-			Edge* outEdge = NULL;
-			Vertex* outVertex = NULL;
-			while(!q.empty() && currentVertex->Level < length)
+			int from = m_topology.vertexIndex(removed->from);
+			int to = m_topology.vertexIndex(removed->to);
+			if (from < 0 || to < 0 ||
+					!m_topology.updateEdge(removed->id, from, to, inserted->tupleData, inserted->prop))
 			{
-				currentVertex = q.front();
-				q.pop();
-				fanOut = currentVertex->fanOut();
-				for(int i = 0; i < fanOut; i++)
-				{
-					outEdge = currentVertex->getOutEdge(i);
-					outVertex = outEdge->getEndVertex();
-					outVertex->Level = currentVertex->Level + 1;
-					if(outVertex->Level == length)
-					{
-						//we found a loop of the desired length
-						if(outVertex->getId() == startVertexId)
-						{
-							//Now, we reached the destination vertexes, where we should add tuples into the output table
-							TableTuple temp_tuple = m_pathTable->tempTuple();
-							//start vertex, end vertex, length, cost, path
-							temp_tuple.setNValue(0, ValueFactory::getIntegerValue(startVertexId));
-							temp_tuple.setNValue(1, ValueFactory::getIntegerValue(outVertex->getId()));
-							temp_tuple.setNValue(2, ValueFactory::getIntegerValue(outVertex->Level));
-							temp_tuple.setNValue(3, ValueFactory::getDoubleValue((double)outVertex->Level));
-							//temp_tuple.setNValue(4, ValueFactory::getStringValue("Test", NULL) );
-							if(m_pathTable->activeTupleCount() <= 100)
-							m_pathTable->insertTempTuple(temp_tuple);
-						}
-					}
-					else
-					{
-						//add to the queue, as currentDepth is less than depth
-						q.push(outVertex);
-					}
-				}
+				//a dangling edge, replace the stored entry
+				edge.id = removed->id;
+				edge.from = removed->from;
+				edge.to = removed->to;
+				edge.tupleData = removed->tupleData;
+				edge.eProp = removed->prop;
+				removeEdge(edge);
+				edge.tupleData = inserted->tupleData;
+				edge.eProp = inserted->prop;
+				insertEdge(edge);
 			}
-			//empty the queue
-			while(!q.empty())
+		}
+		else
+		{
+			if (removed)
 			{
-				q.pop();
+				edge.id = removed->id;
+				edge.from = removed->from;
+				edge.to = removed->to;
+				edge.tupleData = removed->tupleData;
+				edge.eProp = removed->prop;
+				removeEdge(edge);
+			}
+			if (inserted)
+			{
+				edge.id = inserted->id;
+				edge.from = inserted->from;
+				edge.to = inserted->to;
+				edge.tupleData = inserted->tupleData;
+				edge.eProp = inserted->prop;
+				insertEdge(edge);
 			}
 		}
 	}
-	executeTraversal = false;
-
-	std::stringstream paramsToPrint;
-	paramsToPrint << "SubGraphLoop: from = " << startVertexId << ", length = " << length << ", numOfRowsAdded = " << m_pathTable->activeTupleCount();
-	LogManager::GLog("GraphView", "BFS", 302, paramsToPrint.str());
+	m_rowVersion++;
+	if (!isVertex || !removed || !inserted || removed->id != inserted->id || removed->prop != inserted->prop)
+	{
+		m_topologyVersion++;
+	}
 }
 
-void GraphView::fillGraphFromRelationalTables()
+void GraphView::insertVertex(const ElementValues& vertex)
 {
+	bool isNew = (m_topology.vertexIndex(vertex.id) < 0);
+	//as when filling the graph, the latest row with a given id wins
+	m_topology.addVertex(vertex.id, vertex.tupleData, vertex.prop);
+	if (!isNew)
+	{
+		return;
+	}
 
-	this->m_vertexes.clear();
-	this->m_edges.clear();
-	//fill the vertex collection
-	TableIterator iter = this->m_vertexTable->iterator();
-	const TupleSchema* schema = this->m_vertexTable->schema();
-	TableTuple tuple(schema);
-	int id, from, to;
-	from = -1;
-	to = -1;
-	Vertex* vertex = NULL;
-	Edge* edge = NULL;
-
-
-	std::stringstream paramsToPrint;
-	paramsToPrint << " vertex column names = ";
-	for(int i = 0; i < m_vertexColumnNames.size(); i++)
+	//link the dangling edges that were waiting for this vertex
+	std::pair<std::multimap<int64_t, CSRTopology::EdgeEntry>::iterator,
+		std::multimap<int64_t, CSRTopology::EdgeEntry>::iterator> range = m_danglingEdges.equal_range(vertex.id);
+	vector<CSRTopology::EdgeEntry> waitingEdges;
+	for (std::multimap<int64_t, CSRTopology::EdgeEntry>::iterator it = range.first; it != range.second; ++it)
 	{
-		paramsToPrint << m_vertexColumnNames[i] << ", ";
+		waitingEdges.push_back(it->second);
 	}
-	paramsToPrint << " ### vertexTable ColIDs= ";
-	for(int i = 0; i < m_columnIDsInVertexTable.size(); i++)
+	m_danglingEdges.erase(range.first, range.second);
+	for (size_t i = 0; i < waitingEdges.size(); i++)
 	{
-		paramsToPrint << m_columnIDsInVertexTable[i] << ", ";
+		insertEdge(waitingEdges[i]);
 	}
+}
 
-	paramsToPrint << " ### edge column names = ";
-	for(int i = 0; i < m_edgeColumnNames.size(); i++)
+void GraphView::removeVertex(const ElementValues& vertex)
+{
+	int index = m_topology.vertexIndex(vertex.id);
+	//a row whose id was taken over by a later row is not part of the topology
+	if (index < 0 || m_topology.vertexTuple(index) != vertex.tupleData)
 	{
-		paramsToPrint << m_edgeColumnNames[i] << ", ";
+		return;
 	}
-	paramsToPrint << " ### edgeTable ColIDs= ";
-	for(int i = 0; i < m_columnIDsInEdgeTable.size(); i++)
+	vector<CSRTopology::EdgeEntry> detachedEdges;
+	m_topology.removeVertex(index, detachedEdges);
+	for (size_t i = 0; i < detachedEdges.size(); i++)
 	{
-		paramsToPrint << m_columnIDsInEdgeTable[i] << ", ";
+		m_danglingEdges.insert(make_pair(vertex.id, detachedEdges[i]));
 	}
+}
 
-	paramsToPrint << " ##### vertexId= " << m_vertexIdColumnIndex << ", edgeId= " << m_edgeIdColumnIndex
-			<< "from = " << m_edgeFromColumnIndex << ", to = " << m_edgeToColumnIndex
-			<< "vPropColIndex = " << m_vPropColumnIndex << ", ePropColIndex = " << m_ePropColumnIndex;
+void GraphView::insertEdge(const CSRTopology::EdgeEntry& edge)
+{
+	CSRTopology::EdgeEntry entry = edge;
+	entry.from = m_topology.vertexIndex(edge.from);
+	entry.to = m_topology.vertexIndex(edge.to);
+	if (entry.from < 0 || entry.to < 0)
+	{
+		m_danglingEdges.insert(make_pair((entry.from < 0) ? edge.from : edge.to, edge));
+		return;
+	}
+	m_topology.addEdge(entry);
+}
 
-	LogManager::GLog("GraphView", "fill", 785, paramsToPrint.str());
+void GraphView::removeEdge(const CSRTopology::EdgeEntry& edge)
+{
+	int from = m_topology.vertexIndex(edge.from);
+	int to = m_topology.vertexIndex(edge.to);
+	if (from >= 0 && to >= 0 && m_topology.removeEdge(edge.id, from, to))
+	{
+		return;
+	}
+	//the edge is dangling, it is keyed by one of its missing vertexes
+	if (!removeDanglingEdge(edge.from, edge))
+	{
+		removeDanglingEdge(edge.to, edge);
+	}
+}
 
-	assert(m_vertexIdColumnIndex >= 0 && m_edgeIdColumnIndex >= 0 && m_edgeFromColumnIndex >= 0 && m_edgeToColumnIndex >=0);
+bool GraphView::removeDanglingEdge(int64_t key, const CSRTopology::EdgeEntry& edge)
+{
+	std::pair<std::multimap<int64_t, CSRTopology::EdgeEntry>::iterator,
+		std::multimap<int64_t, CSRTopology::EdgeEntry>::iterator> range = m_danglingEdges.equal_range(key);
+	for (std::multimap<int64_t, CSRTopology::EdgeEntry>::iterator it = range.first; it != range.second; ++it)
+	{
+		if (it->second.id == edge.id && it->second.from == edge.from && it->second.to == edge.to)
+		{
+			m_danglingEdges.erase(it);
+			return true;
+		}
+	}
+	return false;
+}
 
-	bool vPropExists = (m_vPropColumnIndex >= 0);
-	bool ePropExists = (m_ePropColumnIndex >= 0);
+void GraphView::notifyTupleMovement(PersistentTable* table, const TableTuple& original, const TableTuple& destination)
+{
+	if (m_topologyStale || !maintainsTopology())
+	{
+		//the rebuild picks the rows up from the tables, a shared topology is updated by its maintainer
+		return;
+	}
+	bool isVertex = (table == m_vertexTable);
+	ElementValues values;
+	extractElementValues(isVertex, destination, destination.address(), values, false);
+	if (isVertex)
+	{
+		int index = m_topology.vertexIndex(values.id);
+		if (index >= 0 && m_topology.vertexTuple(index) == original.address())
+		{
+			m_topology.updateVertex(index, values.tupleData, values.prop);
+		}
+		return;
+	}
 
-	if (this->m_vertexTable->activeTupleCount() != 0)
+	int from = m_topology.vertexIndex(values.from);
+	int to = m_topology.vertexIndex(values.to);
+	if (from >= 0 && to >= 0 && m_topology.updateEdge(values.id, from, to, values.tupleData, values.prop))
+	{
+		return;
+	}
+	for (std::multimap<int64_t, CSRTopology::EdgeEntry>::iterator it = m_danglingEdges.begin(); it != m_danglingEdges.end(); ++it)
 	{
-		while (iter.next(tuple))
+		if (it->second.tupleData == original.address())
 		{
-			if (tuple.isActive())
-			{
-				id = ValuePeeker::peekInteger(tuple.getNValue(m_vertexIdColumnIndex));
-				vertex = new Vertex();
-				vertex->setGraphView(this);
-				vertex->setId(id);
-				vertex->setTupleData(tuple.address());
-				if(vPropExists)
-				{
-					vertex->vProp = ValuePeeker::peekInteger(tuple.getNValue(m_vPropColumnIndex));
-				}
-				this->addVertex(id, vertex);
-				//LogManager::GLog("GraphView", "fillGraphFromRelationalTables", 77, "vertex: " + vertex->toString());
-			}
+			it->second.tupleData = values.tupleData;
+			return;
 		}
 	}
-	//fill the edge collection
-	iter = this->m_edgeTable->iterator();
-	schema = this->m_edgeTable->schema();
-	TableTuple edgeTuple(schema);
-	Vertex* vFrom = NULL;
-	Vertex* vTo = NULL;
-	if (this->m_edgeTable->activeTupleCount() != 0)
+}
+
+void GraphView::attachToTables()
+{
+	Table* tables[] = { m_vertexTable, m_edgeTable };
+	for (int i = 0; i < 2; i++)
 	{
-		while (iter.next(edgeTuple))
+		PersistentTable* persistentTable = dynamic_cast<PersistentTable*>(tables[i]);
+		if (persistentTable == NULL ||
+				std::find(m_attachedTables.begin(), m_attachedTables.end(), persistentTable) != m_attachedTables.end())
 		{
-			if (edgeTuple.isActive())
-			{
-				id = ValuePeeker::peekInteger(edgeTuple.getNValue(m_edgeIdColumnIndex));
-				from = ValuePeeker::peekInteger(edgeTuple.getNValue(m_edgeFromColumnIndex));
-				to = ValuePeeker::peekInteger(edgeTuple.getNValue(m_edgeToColumnIndex));
-				edge = new Edge();
-				edge->setGraphView(this);
-				edge->setId(id);
-				edge->setTupleData(edgeTuple.address());
-				edge->setStartVertexId(from);
-				edge->setEndVertexId(to);
-				if(ePropExists)
-				{
-					edge->eProp = ValuePeeker::peekInteger(edgeTuple.getNValue(m_ePropColumnIndex));
-				}
-				//update the endpoint vertexes in and out lists
-				vFrom = edge->getStartVertex();
-				vTo = edge->getEndVertex();
-				vFrom->addOutEdge(edge);
-				vTo->addInEdge(edge);
-				if(!this->isDirected())
-				{
-					vTo->addOutEdge(edge);
-					vFrom->addInEdge(edge);
-				}
-				this->addEdge(id, edge);
-			}
+			continue;
 		}
+		persistentTable->addGraphView(this);
+		m_attachedTables.push_back(persistentTable);
+	}
+}
+
+void GraphView::detachFromTables()
+{
+	for (size_t i = 0; i < m_attachedTables.size(); i++)
+	{
+		m_attachedTables[i]->dropGraphView(this);
 	}
-	// LogManager::GLog("GraphView", "fillGraphFromRelationalTables", 159, "graph: " + this->debug());
-	//LogManager::GLog("GraphView", "fillGraphFromRelationalTables", 73, "vTable: " + this->m_vertexTable->debug());
-	//LogManager::GLog("GraphView", "fillGraphFromRelationalTables", 73, "eTable: " + this->m_edgeTable->debug());
+	m_attachedTables.clear();
+}
 
+void GraphView::detachTable(Table* table)
+{
+	std::vector<PersistentTable*>::iterator it = std::find(m_attachedTables.begin(), m_attachedTables.end(), table);
+	if (it == m_attachedTables.end())
+	{
+		return;
+	}
+	m_attachedTables.erase(it);
+	//the rows are about to be freed, drop every pointer into them and to the table,
+	//the catalog update that deletes it builds the graph view again over its replacement
+	m_topology.clear();
+	m_danglingEdges.clear();
+	m_topologyVersion++;
+	if (table == m_vertexTable)
+	{
+		m_vertexTable = NULL;
+	}
+	if (table == m_edgeTable)
+	{
+		m_edgeTable = NULL;
+	}
 }
 
 string GraphView::debug()
@@ -1102,21 +1254,33 @@ string GraphView::debug()
 	eCount = this->numOfEdges();
 	output << "#Vertexes = " << vCount << endl;
 	output << "#Edges = " << eCount << endl;
+	output << "Topology bytes = " << m_topology.memoryFootprint() << endl;
 	output << "Vertexes" << endl;
-	Vertex* currentVertex;
-	for (std::map<int,Vertex* >::iterator it= this->m_vertexes.begin(); it != this->m_vertexes.end(); ++it)
+	int slot, endSlot;
+	int indexLimit = m_topology.vertexIndexLimit();
+	for (int i = 0; i < indexLimit; i++)
 	{
-		currentVertex = it->second;
-		output << "\t" << currentVertex->toString() << endl;
+		if (!m_topology.isVertexActive(i))
+		{
+			continue;
+		}
+		output << "\t" << "(id = " << m_topology.vertexId(i)
+				<< ", vProp = " << m_topology.vProp(i)
+				<< ", fanOut = " << m_topology.fanOut(i) << ", fanIn = " << m_topology.fanIn(i) << ")" << endl;
 		output << "\t\t" << "out: " << endl;
-		for(int j = 0; j < currentVertex->fanOut(); j++)
+		endSlot = m_topology.outEnd(i);
+		for(slot = m_topology.outBegin(i); slot < endSlot; slot++)
 		{
-			output << "\t\t\t" << currentVertex->getOutEdge(j)->toString() << endl;
+			output << "\t\t\t" << "(id = " << m_topology.edgeId(slot)
+					<< ", eProp = " << m_topology.eProp(slot)
+					<< ", to = " << m_topology.vertexId(m_topology.outNeighbor(slot)) << ")" << endl;
 		}
 		output << "\t\t" << "in: " << endl;
-		for(int j = 0; j < currentVertex->fanIn(); j++)
+		endSlot = m_topology.inEnd(i);
+		for(slot = m_topology.inBegin(i); slot < endSlot; slot++)
 		{
-			output << "\t\t\t" << currentVertex->getInEdge(j)->toString() << endl;
+			output << "\t\t\t" << "(id = " << m_topology.inEdgeId(slot)
+					<< ", from = " << m_topology.vertexId(m_topology.inNeighbor(slot)) << ")" << endl;
 		}
 	}
 	return output.str();
@@ -1124,6 +1288,18 @@ string GraphView::debug()
 
 GraphView::~GraphView(void)
 {
+	if (m_pathSchema != NULL)
+	{
+		TupleSchema::freeTupleSchema(m_pathSchema);
+	}
+	//hand the maintenance of a shared topology over to one of the remaining views
+	std::lock_guard<std::mutex> lock(m_sharedTopology->rebuildMutex);
+	std::vector<GraphView*>& views = m_sharedTopology->views;
+	views.erase(std::remove(views.begin(), views.end(), this), views.end());
+	if (m_sharedTopology->maintainer == this)
+	{
+		m_sharedTopology->maintainer = views.empty() ? NULL : views.front();
+	}
 }
 
 }
@@ -1,7 +1,9 @@
 #ifndef GRAPHVIEW_H
 #define GRAPHVIEW_H
 
+#include <list>
 #include <map>
+#include <memory>
 #include <string>
 #include <ctime>
 #include <sys/time.h>
@@ -9,6 +11,11 @@
 #include "storage/table.h"
 #include "storage/temptable.h"
 #include "graph/GraphTypes.h"
+#include "graph/CSRTopology.h"
+#include "graph/ShortestPathSearch.h"
+#include "graph/PathTraversal.h"
+#include "graph/SharedTopology.h"
+#include "graph/GraphViewStats.h"
 
 #include "common/NValue.hpp"
 #include "common/ValuePeeker.hpp"
@@ -21,20 +28,21 @@ namespace voltdb {
 //#include "vertex.h"
 class Vertex;
 class Edge;
-class PathIterator;
+class PersistentTable;
+class TableIndex;
+class TraversalFilter;
 
 class GraphView
 {
-	friend class PathIterator;
+	friend class PathTraversal;
 	friend class TableIterator;
 	friend class GraphViewFactory;
+	friend class GraphViewStats;
+	friend class TraversalFilter;
 	friend class Vertex;
 	friend class Edge;
 
 public:
-	//PQEntryWithLength.first is the cost, PQEntryWithLength.second.first is the vertexId, PQEntryWithLength.second.second is the path length
-	typedef pair<double, pair<int, int> > PQEntryWithLength;
-	typedef pair<int, int > PQEntry;
 	~GraphView(void);
 
 	/*
@@ -58,22 +66,90 @@ public:
 	}
 
 
-	float shortestPath(int source, int destination, int costColumnId);
-	Vertex* getVertex(int id);
-	TableTuple* getVertexTuple(int id);
-	Edge* getEdge(int id);
-	TableTuple* getEdgeTuple(int id);
+	Vertex* getVertex(int64_t id);
+	TableTuple* getVertexTuple(int64_t id);
+	bool hasVertex(int64_t id);
+	int fanOut(int64_t vertexId);
+	int fanIn(int64_t vertexId);
+	Edge* getEdge(int64_t id);
+	TableTuple* getEdgeTuple(int64_t id);
 	TableTuple* getEdgeTuple(char* data);
-	void addVertex(int id, Vertex* vertex);
-	void addEdge(int id, Edge* edge);
+	void addVertex(int64_t id, Vertex* vertex);
+	void addEdge(int64_t id, Edge* edge);
+	//vertex and edge ids are 64 bit keys: the value of an integer id column, or the code of a
+	//VARCHAR id in the id dictionary (the topology maps the keys to dense indexes). VARCHAR ids
+	//that were never seen give -1, which is no key, elementKey does not change the dictionary
+	int64_t elementKey(const NValue& value) const;
+	//the key of a vertex id given by a value from outside the graph view, e.g. a column of the
+	//outer table of a path join, INT64_NULL if the value cannot be the id of a vertex
+	int64_t vertexKey(const NValue& id) const;
+	//rebuilds the CSR topology from the Vertex and Edge objects added through addVertex and addEdge
+	void buildTopologyFromElements();
+	//id lookups of the vertex and edge scans, tuples gets the rows whose id may equal the given
+	//value (the scan predicate still compares the ids).
+	//Vertexes are found through the topology, edges through an index of the edges table on
+	//the edge id column; lookupEdgeTuples returns false if the edges table has no such index
+	void lookupVertexTuples(const NValue& id, std::vector<char*>& tuples);
+	bool lookupEdgeTuples(const NValue& id, std::vector<char*>& tuples);
+
+	//the topology relevant values of a vertex or edge row
+	struct ElementValues
+	{
+		int64_t id;
+		int64_t from; //edges only
+		int64_t to; //edges only
+		int prop; //vProp or eProp
+		char* tupleData;
+	};
+
+	//incremental maintenance of the topology, called by the vertex and edge tables
+	//for every row they insert, update or delete. The change is rolled back through
+	//the undo log when fallible is set and an undo quantum is active
+	void processTupleInsert(PersistentTable* table, const TableTuple& tuple, bool fallible);
+	void processTupleDelete(PersistentTable* table, const TableTuple& tuple, bool fallible);
+	//target still holds the values before the update, newValues holds the values
+	//that are about to be copied into target
+	void processTupleUpdate(PersistentTable* table, const TableTuple& target, const TableTuple& newValues, bool fallible);
+	//compaction moved a row to another address
+	void notifyTupleMovement(PersistentTable* table, const TableTuple& original, const TableTuple& destination);
+	//registers the graph view with its vertex and edge tables so they report their changes
+	void attachToTables();
+	void detachFromTables();
+	//the table is being deleted, the tuple addresses held by the topology become invalid
+	void detachTable(Table* table);
+	//removes the element described by removed (if any) and adds the one described by inserted (if any)
+	void applyTopologyChange(bool isVertex, const ElementValues* removed, const ElementValues* inserted);
+	//bumped on every change of the topology
+	int64_t topologyVersion() { return m_topologyVersion; }
+	//bulk loads (snapshot restore, rejoin, loading an empty vertex or edge table) skip the row by
+	//row maintenance: the topology is marked stale and the next operation that reads it rebuilds
+	//it from the tables in a single pass
+	void invalidateTopology();
+	bool isTopologyStale() { return m_topologyStale; }
+	//snapshot of the topology taken along with the tables: the CSR arrays, the id dictionary and
+	//the dangling edges, without the row addresses. topologySnapshotSize() gives the number of bytes
+	//serializeTopology writes, 0 when there is nothing to save: a stale topology or a shared one
+	//maintained by another view
+	size_t topologySnapshotSize();
+	void serializeTopology(SerializeOutput& out);
+	//restores the stale topology of a bulk loaded graph view from what serializeTopology wrote,
+	//the row addresses are remapped by one pass over each table that matches the rows to the
+	//saved vertexes and edges by their ids. Returns false if the rows do not match the snapshot,
+	//the topology then stays stale and is rebuilt from the tables on first use
+	bool restoreTopology(SerializeInputBE& in);
+	//statistics of the graph view, the executors add the work they do to the operator counters
+	GraphViewStats* getGraphViewStats() { return &m_stats; }
+	GraphOperatorCounters& operatorCounters() { return m_counters; }
 	int numOfVertexes();
 	int numOfEdges();
+	//the up to date topology, for the scans that visit the vertexes in dense index order or
+	//read their degrees (a vertex's FANOUT and FANIN are the sizes of its slot ranges)
+	const CSRTopology& currentTopology() { refreshTopology(); return m_topology; }
 	string name();
 	string debug();
 	bool isDirected();
 	Table* getVertexTable();
 	Table* getEdgeTable();
-	Table* getPathTable();
 	TupleSchema* getVertexSchema();
 	TupleSchema* getEdgeSchema();
 	TupleSchema* getPathSchema();
@@ -86,47 +162,107 @@ public:
 	int getEdgeIdColumnIndex();
 	int getEdgeFromColumnIndex();
 	int getEdgeToColumnIndex();
+	//vertex attributes that are not stored in the vertex table but computed from the topology,
+	//getColumnIdInVertexTable() returns these for the FANOUT and FANIN attributes
+	static const int FanOutColumn = -1;
+	static const int FanInColumn = -2;
+	//and this for the other attributes without a column
+	static const int NoColumn = -3;
 	int getColumnIdInVertexTable(int vertexAttributeId);
+	int numOfVertexAttributes() { return (int)m_columnIDsInVertexTable.size(); }
 	int getColumnIdInEdgeTable(int edgeAttributeId);
 	string getVertexAttributeName(int vertexAttributeId);
 	string getEdgeAttributeName(int edgeAttributeId);
 
-	//path related members
-	//Notice that VoltDB allows one operation or query / one thread per time
-	//Hence, we assume that a single path traversal query is active at any point in time
-	PathIterator& iteratorDeletingAsWeGo(GraphOperationType opType);
-	PathIterator& iteratorDeletingAsWeGo();
-
-	void expandCurrentPathOperation();
+	//Path operations run on PathTraversal objects created over the graph view, each with its own
+	//traversal state and path table. Their paths are cached by the graph view (see findCachedPaths)
 
-	//Queries
-	void BFS_Reachability_ByDepth(int startVertexId, int depth);
-	void BFS_Reachability_ByDestination(int startVertexId, int endVertex);
-	void BFS_Reachability_ByDepth_eSelectivity(int startVertexId, int depth, int eSelectivity);
-	void SP_TopK(int src, int dest, int k);
-	void SP_EdgeSelectivity(int src, int dest, int edgeSelectivity);
-	void SP_ToAllVertexes_EdgeSelectivity(int src, int edgeSelectivity);
-	int fromVertexId, toVertexId, queryType, pathLength, topK, vSelectivity, eSelectivity, spColumnIndexInEdgesTable;
+	//result cache of the path traversals: the paths of the last MaxCachedPathQueries traversals that
+	//ran to the end, evicted in LRU order. The cached paths are valid as long as neither the
+	//topology nor the vertex and edge rows changed, the whole cache is dropped otherwise
+	static const int MaxCachedPathQueries = 64;
+	static const int MaxCachedPathRows = 1024;
+	static const int MaxCachedPathSteps = 16384;
+	struct CachedPaths
+	{
+		PathTraversal::QueryKey key;
+		std::vector<PathTraversal::PathRow> rows;
+		std::vector<PathTraversal::PathStep> pathSteps;
+	};
+	//the cached paths of the given query, NULL on a miss
+	const CachedPaths* findCachedPaths(const PathTraversal::QueryKey& key);
+	//caches the paths (taking the rows) a traversal found on the given versions of the graph
+	void cachePaths(const PathTraversal::QueryKey& key, int64_t topologyVersion, int64_t rowVersion,
+			std::vector<PathTraversal::PathRow>& rows, const std::vector<PathTraversal::PathStep>& pathSteps);
 
-	//Topology query, i.e., connected sub-graph of
-
-	//to select all vertexes, set vSelectivty to 100, same for the edges
-	void SubGraphLoop(int length, int vSelectivity, int eSelectivity);
-	void SubGraphLoopFromStartVertex(int startVertexId, int length, int vSelectivity, int eSelectivity); //14
-	void SubGraphLoop(int startVertexId, int length); //startVertexId of -1 means to try all the vertexes as the start of the loop
+	//costs of the edges by dense edge index, read from the given numeric column of the edges table
+	//(NULL costs are infinite, the searches skip such edges). NULL for a column of -1 (unit costs).
+	//The array is rebuilt in a single pass by the first search after the topology changed
+	std::shared_ptr<const std::vector<double> > edgeWeights(int weightColumn);
 
+	//landmarks of the shortest path searches with the given edge weights, NULL until enough
+	//queries ran against the same topology, they are dropped once the topology changes
+	std::shared_ptr<const ShortestPathSearch::Landmarks> landmarks(int weightColumn);
 
 protected:
 	void fillGraphFromRelationalTables();
+	//rebuilds the topology if a bulk load left it stale
+	void refreshTopology();
 	void constructPathSchema(); //constucts m_pathColumnNames and m_pathSchema
-	void constructPathTempTable();
-	std::map<int, Vertex* > m_vertexes;
-	std::map<int, Edge* > m_edges;
+	//assignKeys gives the VARCHAR ids that were never seen a code, the rows being removed are known
+	void extractElementValues(bool isVertex, const TableTuple& tuple, char* tupleData, ElementValues& values,
+			bool assignKeys);
+	//like elementKey, but adds the VARCHAR ids that were never seen to the dictionary. Only the
+	//maintainer of the topology may call it
+	int64_t assignElementKey(const NValue& value);
+	void insertVertex(const ElementValues& vertex);
+	void removeVertex(const ElementValues& vertex);
+	//edges are given with vertex ids, edges with a missing end point are kept as dangling
+	void insertEdge(const CSRTopology::EdgeEntry& edge);
+	void removeEdge(const CSRTopology::EdgeEntry& edge);
+	bool removeDanglingEdge(int64_t key, const CSRTopology::EdgeEntry& edge);
+	void recordTopologyChange(PersistentTable* table, bool isVertex, const ElementValues* removed,
+			const ElementValues* inserted, bool fallible);
+	//an index of the edges table keyed by the edge id column alone, NULL if there is none
+	TableIndex* edgeIdIndex();
+	//element objects, only populated for graphs loaded through GraphViewFactory::loadGraph
+	std::map<int64_t, Vertex* > m_vertexes;
+	std::map<int64_t, Edge* > m_edges;
+	//flat topology used by all the traversals. m_topology, m_idDictionary, m_danglingEdges,
+	//m_topologyVersion and m_topologyStale refer to the (possibly shared) state in m_sharedTopology
+	std::shared_ptr<SharedTopology> m_sharedTopology;
+	CSRTopology& m_topology;
+	ElementIdDictionary& m_idDictionary;
+	//landmark distances of the ALT bounds, shared by the searches of all the traversals. 8 landmarks
+	//are built on graphs of 10000 vertexes or more, after 16 queries on a topology version
+	LandmarkCache m_landmarks;
+	//edge costs of the last weight column asked for and the topology version they were read on
+	std::shared_ptr<const std::vector<double> > m_edgeWeights;
+	int64_t m_edgeWeightVersion;
+	int m_edgeWeightColumn;
+	//edges whose start or end vertex does not exist (yet), keyed by the id of a missing vertex
+	std::multimap<int64_t, CSRTopology::EdgeEntry>& m_danglingEdges;
+	int64_t& m_topologyVersion;
+	int64_t& m_rowVersion;
+	//set while a bulk load bypasses the topology maintenance, see invalidateTopology()
+	bool& m_topologyStale;
+	//wall clock time (ms since the epoch) and duration of the last fillGraphFromRelationalTables()
+	int64_t m_lastRebuildTimestamp;
+	int64_t m_lastRebuildMicros;
+	GraphOperatorCounters m_counters;
+	GraphViewStats m_stats;
+
+	//most recently used first
+	std::list<CachedPaths> m_pathCache;
+	std::map<PathTraversal::QueryKey, std::list<CachedPaths>::iterator> m_pathCacheIndex;
+	//versions the cached paths belong to
+	int64_t m_pathCacheTopologyVersion;
+	int64_t m_pathCacheRowVersion;
+
+	//the tables that currently report their changes to this graph view
+	std::vector<PersistentTable*> m_attachedTables;
 	Table* m_vertexTable;
 	Table* m_edgeTable;
-	TempTable* m_pathTable;
-	TableIterator* m_pathTableIterator;
-	PathIterator* m_pathIterator;
 	TupleSchema* m_vertexSchema; //will contain fanIn and fanOut as additional attributes
 	TupleSchema* m_edgeSchema; //will contain startVertexId and endVertexId as additional attributes
 	TupleSchema* m_pathSchema; //will contain startVertexId, endVertexId, and cost for now
@@ -143,10 +279,7 @@ protected:
 	int m_vPropColumnIndex, m_ePropColumnIndex;
 	string m_pathTableName = "PATHS_TEMP_TABLE";
 	GraphOperationType currentPathOperationType;
-	//TODO: this should be removed
-	int dummyPathExapansionState = 0;
 	//bool traverseBFS = false;
-	bool executeTraversal = false;
 	// identity information
 	CatalogId m_databaseId;
 	std::string m_name;
@@ -174,6 +307,10 @@ protected:
 	bool m_isDirected;
 
 	GraphView(void);
+	//a view over replicated tables that shares the topology of the same view on another site
+	explicit GraphView(const std::shared_ptr<SharedTopology>& topology);
+	//true for the view that applies the changes of the tables to a shared topology
+	bool maintainsTopology() { return m_sharedTopology->maintainer == this; }
 
 private:
     int32_t m_refcount;
@@ -38,6 +38,7 @@ GraphViewCatalogDelegate::~GraphViewCatalogDelegate()
 {
 	if (m_graphView)
 	{
+		m_graphView->detachFromTables();
 		m_graphView->decrementRefcount();
 	}
 }
@@ -64,6 +65,8 @@ void GraphViewCatalogDelegate::init(catalog::Database const &catalogDatabase,
 	      persistenttable->configureIndexStats();
 	}
 	*/
+	//keep the topology in sync with the DML on the vertex and edge tables
+	m_graphView->attachToTables();
 	m_graphView->incrementRefcount();
 }
 
@@ -71,29 +74,38 @@ GraphView *GraphViewCatalogDelegate::constructGraphViewFromCatalog(catalog::Data
 	                                     catalog::GraphView const &catalogGraphView,
 	                                     Table* vTable, Table* eTable, Table* pTable)
 {
-	LogManager::GLog("GraphViewCatalogDelegate", "constructGraphViewFromCatalog", 71, "graphViewName = " + catalogGraphView.name());
+	GLOG("GraphViewCatalogDelegate", "constructGraphViewFromCatalog", 71, "graphViewName = " + catalogGraphView.name());
 	// Create a persistent graph view for this table in our catalog
 	int32_t graphView_id = catalogGraphView.relativeIndex();
 	std::stringstream params;
 	params << " graphView_id (relative index) = " << graphView_id;
-	LogManager::GLog("GraphViewCatalogDelegate", "GraphViewCatalogDelegate", 68, params.str());
+	GLOG("GraphViewCatalogDelegate", "GraphViewCatalogDelegate", 68, params.str());
 
 	// get an array of the vertex column names
 	int numColumns = catalogGraphView.VertexProps().size();
 	map<string, catalog::Column*>::const_iterator col_iterator;
 	vector<string> columnNamesVertex(numColumns);
-	vector<int> columnIdsInVertexTable(catalogGraphView.VTable()->columns().size());
+	//the attributes are placed by their index in the graph view (the column ids of the plans),
+	//FANOUT and FANIN have no column in the vertex table
+	vector<int> columnIdsInVertexTable(numColumns, GraphView::NoColumn);
 	int colIndex = 0;
 	for (col_iterator = catalogGraphView.VertexProps().begin();
 		 col_iterator != catalogGraphView.VertexProps().end();
 		 col_iterator++)
 	{
 		const catalog::Column *catalog_column = col_iterator->second;
+		colIndex = catalog_column->index();
+		columnNamesVertex[colIndex] = catalog_column->name();
+		if (catalog_column->name() == "FANOUT")
+		{
+			columnIdsInVertexTable[colIndex] = GraphView::FanOutColumn;
+		}
+		else if (catalog_column->name() == "FANIN")
+		{
+			columnIdsInVertexTable[colIndex] = GraphView::FanInColumn;
+		}
 		if(catalog_column->matviewsource())
 		{
-			//colIndex = catalog_column->index();
-			columnNamesVertex[colIndex] = catalog_column->name();
-
 			std::stringstream params;
 			params << "Graph vCol Index = " << colIndex
 					<< ", Graph vCol Name = " << catalog_column->name();
@@ -105,8 +117,7 @@ GraphView *GraphViewCatalogDelegate::constructGraphViewFromCatalog(catalog::Data
 			params << ", VertexTable Column Index = " << catalog_column->matviewsource()->index();
 
 
-			LogManager::GLog("GraphViewCatalogDelegate", "constructGraphViewFromCatalog", 108, params.str());
-			colIndex++;
+			GLOG("GraphViewCatalogDelegate", "constructGraphViewFromCatalog", 108, params.str());
 		}
 	}
 
@@ -114,17 +125,16 @@ GraphView *GraphViewCatalogDelegate::constructGraphViewFromCatalog(catalog::Data
 	colIndex = 0;
 	numColumns = catalogGraphView.EdgeProps().size();
 	vector<string> columnNamesEdge(numColumns);
-	vector<int> columnIdsInEdgeTable(catalogGraphView.ETable()->columns().size());
+	vector<int> columnIdsInEdgeTable(numColumns, GraphView::NoColumn);
 	for (col_iterator = catalogGraphView.EdgeProps().begin();
 			 col_iterator != catalogGraphView.EdgeProps().end();
 			 col_iterator++)
 	{
 		const catalog::Column *catalog_column = col_iterator->second;
+		colIndex = catalog_column->index();
+		columnNamesEdge[colIndex] = catalog_column->name();
 		if(catalog_column->matviewsource())
 		{
-			//colIndex = catalog_column->index();
-			columnNamesEdge[colIndex] = catalog_column->name();
-
 			std::stringstream params;
 			params << "Graph eCol Index = " << colIndex
 					<< ", Graph eCol Name = " << catalog_column->name();
@@ -136,8 +146,7 @@ GraphView *GraphViewCatalogDelegate::constructGraphViewFromCatalog(catalog::Data
 			params << ", EdgeTable Column Index = " << catalog_column->matviewsource()->index();
 
 
-			LogManager::GLog("GraphViewCatalogDelegate", "constructGraphViewFromCatalog", 139, params.str());
-			colIndex++;
+			GLOG("GraphViewCatalogDelegate", "constructGraphViewFromCatalog", 139, params.str());
 		}
 	}
 
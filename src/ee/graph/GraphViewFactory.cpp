@@ -2,12 +2,16 @@
 #include "catalog/graphview.h"
 #include "GraphView.h"
 #include "logging/LogManager.h"
+#include "storage/persistenttable.h"
 #include <iostream>
 
 using namespace std;
 
 namespace voltdb {
 
+GraphViewFactory::SharedTopologyMap GraphViewFactory::s_sharedTopologies;
+std::mutex GraphViewFactory::s_sharedTopologiesMutex;
+
 GraphViewFactory::GraphViewFactory(){};
 
 GraphView* GraphViewFactory::createGraphView(string graphViewName, bool isDirected)
@@ -25,15 +29,45 @@ GraphView* GraphViewFactory::createGraphView(const std::string &graphViewName, c
 		   vector<int> columnIdsInVertexTable, vector<int> columnIdsInEdgeTable,
            voltdb::CatalogId databaseId, char *signature)
 {
-	GraphView* vw = new GraphView();
+	//the views of all the sites over the same replicated tables share the topology built by the first one
+	PersistentTable* persistentVTable = dynamic_cast<PersistentTable*>(vTable);
+	PersistentTable* persistentETable = dynamic_cast<PersistentTable*>(eTable);
+	bool isReplicated = persistentVTable != NULL && persistentVTable->isReplicatedTable() &&
+			persistentETable != NULL && persistentETable->isReplicatedTable();
+	std::unique_lock<std::mutex> sharedTopologiesLock(s_sharedTopologiesMutex, std::defer_lock);
+	SharedTopologyKey key(graphViewName, vTable, eTable);
+	std::shared_ptr<SharedTopology> topology;
+	if (isReplicated)
+	{
+		sharedTopologiesLock.lock();
+		for (SharedTopologyMap::iterator it = s_sharedTopologies.begin(); it != s_sharedTopologies.end(); )
+		{
+			if (it->second.expired())
+			{
+				it = s_sharedTopologies.erase(it);
+			}
+			else
+			{
+				++it;
+			}
+		}
+		SharedTopologyMap::iterator it = s_sharedTopologies.find(key);
+		if (it != s_sharedTopologies.end())
+		{
+			topology = it->second.lock();
+		}
+	}
+	bool buildTopology = !topology;
+	if (buildTopology)
+	{
+		topology = std::make_shared<SharedTopology>();
+	}
+
+	GraphView* vw = new GraphView(topology);
 	vw->m_name = graphViewName;
 	vw->m_isDirected = isDirected;
 	vw->m_vertexTable = vTable;
 	vw->m_edgeTable = eTable;
-	//construct the path schema
-	vw->constructPathSchema();
-	//construct the path temp table
-	vw->constructPathTempTable();
 
 	//set the vertex column names
 	//int vColumnCount = vSchema->columnCount();
@@ -109,10 +143,26 @@ GraphView* GraphViewFactory::createGraphView(const std::string &graphViewName, c
 		}
 	}
 
+	//the path schema takes the start and end vertex columns from the vertex id column,
+	//so it is constructed once the column indexes are known
+	vw->constructPathSchema();
+
 	vw->m_databaseId = databaseId;
 	::memcpy(&(vw->m_signature), signature, 20);
 
-	vw->fillGraphFromRelationalTables();
+	if (buildTopology)
+	{
+		vw->fillGraphFromRelationalTables();
+		if (isReplicated)
+		{
+			s_sharedTopologies[key] = topology;
+		}
+	}
+	else
+	{
+		GLOG("GraphViewFactory", "createGraphView", 175, "sharing the topology of replicated graph view " << graphViewName);
+	}
+	vw->m_stats.configure(graphViewName + " stats", graphViewName);
 
 	return vw;
 }
@@ -162,6 +212,7 @@ void GraphViewFactory::loadGraph(GraphView* vw, vector<Vertex* > vertexes, vecto
 		from->addOutEdge(edges[i]);
 		to->addInEdge(edges[i]);
 	}
+	vw->buildTopologyFromElements();
 }
 
 void GraphViewFactory::printGraphView(GraphView* gview)
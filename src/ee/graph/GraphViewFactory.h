@@ -4,7 +4,11 @@
 //#include "GraphView.h"
 #include "Edge.h"
 #include "Vertex.h"
+#include <map>
+#include <memory>
+#include <mutex>
 #include <string>
+#include <tuple>
 #include <vector>
 using namespace std;
 
@@ -16,6 +20,7 @@ namespace voltdb {
 
 class GraphView;
 class TupleSchema;
+struct SharedTopology;
 
 class GraphViewFactory
 {
@@ -31,6 +36,13 @@ public:
 	          voltdb::CatalogId databaseId, char *signature);
 	static void loadGraph(GraphView* vw, vector<Vertex* > vertexes, vector<Edge* > edges);
 	static void printGraphView(GraphView* gview);
+
+private:
+	//topologies of the graph views over replicated tables, by view name and tables
+	typedef std::tuple<std::string, Table*, Table*> SharedTopologyKey;
+	typedef std::map<SharedTopologyKey, std::weak_ptr<SharedTopology> > SharedTopologyMap;
+	static SharedTopologyMap s_sharedTopologies;
+	static std::mutex s_sharedTopologiesMutex;
 };
 
 }
@@ -0,0 +1,268 @@
+#include "GraphViewStats.h"
+#include "GraphView.h"
+#include "storage/tablefactory.h"
+#include "storage/temptable.h"
+
+using namespace std;
+
+namespace voltdb {
+
+//column prefixes of the latency histograms, in the order of operatorLatencies()
+static const char* OPERATOR_NAMES[] = { "VERTEX_SCAN", "EDGE_SCAN", "PATH_SCAN", "PATH_JOIN" };
+static const int NUM_OF_OPERATORS = 4;
+
+static const LatencyHistogram* operatorLatencies(const GraphOperatorCounters& counters, int op)
+{
+	const LatencyHistogram* latencies[] = { &counters.vertexScanLatency, &counters.edgeScanLatency,
+			&counters.pathScanLatency, &counters.pathJoinLatency };
+	return latencies[op];
+}
+
+void LatencyHistogram::record(int64_t micros)
+{
+	int bucket = 0;
+	while (bucket < NUM_OF_BUCKETS - 1 && micros >= ((int64_t)1 << bucket))
+	{
+		bucket++;
+	}
+	buckets[bucket]++;
+	executions++;
+	if (micros > maxMicros)
+	{
+		maxMicros = micros;
+	}
+}
+
+int64_t LatencyHistogram::percentile(double percent) const
+{
+	if (executions == 0)
+	{
+		return 0;
+	}
+	int64_t rank = (int64_t)(executions * percent / 100.0);
+	int64_t seen = 0;
+	for (int b = 0; b < NUM_OF_BUCKETS; b++)
+	{
+		seen += buckets[b];
+		if (seen > rank)
+		{
+			return (int64_t)1 << b;
+		}
+	}
+	return (int64_t)1 << (NUM_OF_BUCKETS - 1);
+}
+
+void LatencyHistogram::subtract(const LatencyHistogram& snapshot)
+{
+	for (int b = 0; b < NUM_OF_BUCKETS; b++)
+	{
+		buckets[b] -= snapshot.buckets[b];
+	}
+	executions -= snapshot.executions;
+}
+
+vector<string> GraphViewStats::generateGraphViewStatsColumnNames()
+{
+	vector<string> columnNames = StatsSource::generateBaseStatsColumnNames();
+	columnNames.push_back("GRAPH_VIEW_NAME");
+	columnNames.push_back("VERTEX_SCAN_TUPLES");
+	columnNames.push_back("EDGE_SCAN_TUPLES");
+	columnNames.push_back("TRAVERSALS");
+	columnNames.push_back("PATHS_PRODUCED");
+	columnNames.push_back("VERTEXES_EXPANDED");
+	columnNames.push_back("EDGES_SCANNED");
+	columnNames.push_back("ELEMENTS_PRUNED");
+	columnNames.push_back("PATH_CACHE_HITS");
+	columnNames.push_back("PATH_CACHE_MISSES");
+	columnNames.push_back("MAX_FRONTIER_SIZE");
+	columnNames.push_back("VERTEX_COUNT");
+	columnNames.push_back("EDGE_COUNT");
+	columnNames.push_back("ADJACENCY_BYTES");
+	columnNames.push_back("SEARCH_INDEX_BYTES");
+	columnNames.push_back("MAX_FAN_OUT");
+	columnNames.push_back("MAX_FAN_OUT_VERTEX_ID");
+	columnNames.push_back("AVG_FAN_OUT");
+	columnNames.push_back("LAST_REBUILD_TIMESTAMP");
+	columnNames.push_back("LAST_REBUILD_MICROS");
+	for (int op = 0; op < NUM_OF_OPERATORS; op++)
+	{
+		string prefix = OPERATOR_NAMES[op];
+		columnNames.push_back(prefix + "_EXECUTIONS");
+		columnNames.push_back(prefix + "_P50_MICROS");
+		columnNames.push_back(prefix + "_P99_MICROS");
+		columnNames.push_back(prefix + "_MAX_MICROS");
+	}
+	return columnNames;
+}
+
+static void addColumn(ValueType type, vector<ValueType>& types, vector<int32_t>& columnLengths,
+		vector<bool>& allowNull, vector<bool>& inBytes)
+{
+	types.push_back(type);
+	columnLengths.push_back(type == ValueType::tVARCHAR ? 4096 : NValue::getTupleStorageSize(type));
+	allowNull.push_back(false);
+	inBytes.push_back(false);
+}
+
+void GraphViewStats::populateGraphViewStatsSchema(vector<ValueType>& types, vector<int32_t>& columnLengths,
+		vector<bool>& allowNull, vector<bool>& inBytes)
+{
+	StatsSource::populateBaseSchema(types, columnLengths, allowNull, inBytes);
+	//graph view name
+	addColumn(ValueType::tVARCHAR, types, columnLengths, allowNull, inBytes);
+	//vertex scan tuples, edge scan tuples, traversals, paths produced
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	//vertexes expanded, edges scanned, elements pruned, path cache hits and misses, max frontier size
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	//vertex count, edge count, adjacency bytes, search index bytes
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	//max fan-out, its vertex key, avg fan-out
+	addColumn(ValueType::tINTEGER, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tDOUBLE, types, columnLengths, allowNull, inBytes);
+	//last rebuild timestamp and duration
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	//executions, p50, p99 and max latency of every operator
+	for (int op = 0; op < NUM_OF_OPERATORS; op++)
+	{
+		addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+		addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+		addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+		addColumn(ValueType::tBIGINT, types, columnLengths, allowNull, inBytes);
+	}
+}
+
+TempTable* GraphViewStats::generateEmptyGraphViewStatsTable()
+{
+	string name = "Graph view stats temp table";
+	vector<string> columnNames = GraphViewStats::generateGraphViewStatsColumnNames();
+	vector<ValueType> columnTypes;
+	vector<int32_t> columnLengths;
+	vector<bool> columnAllowNull;
+	vector<bool> columnInBytes;
+	GraphViewStats::populateGraphViewStatsSchema(columnTypes, columnLengths, columnAllowNull, columnInBytes);
+	TupleSchema* schema = TupleSchema::createTupleSchema(columnTypes, columnLengths, columnAllowNull, columnInBytes);
+	return TableFactory::buildTempTable(name, schema, columnNames, NULL);
+}
+
+GraphViewStats::GraphViewStats(GraphView* graphView)
+	: StatsSource(), m_graphView(graphView)
+{
+}
+
+GraphViewStats::~GraphViewStats()
+{
+	m_tableName.free();
+}
+
+void GraphViewStats::configure(string name, string graphViewName)
+{
+	StatsSource::configure(name);
+	m_tableName = ValueFactory::getStringValue(graphViewName);
+}
+
+vector<string> GraphViewStats::generateStatsColumnNames()
+{
+	return GraphViewStats::generateGraphViewStatsColumnNames();
+}
+
+void GraphViewStats::populateSchema(vector<ValueType>& types, vector<int32_t>& columnLengths,
+		vector<bool>& allowNull, vector<bool>& inBytes)
+{
+	GraphViewStats::populateGraphViewStatsSchema(types, columnLengths, allowNull, inBytes);
+}
+
+void GraphViewStats::updateStatsTuple(TableTuple* tuple)
+{
+	GraphOperatorCounters counters = m_graphView->operatorCounters();
+	GraphOperatorCounters reported = counters;
+	if (interval())
+	{
+		reported.vertexScanTuples -= m_lastCounters.vertexScanTuples;
+		reported.edgeScanTuples -= m_lastCounters.edgeScanTuples;
+		reported.traversals -= m_lastCounters.traversals;
+		reported.pathsProduced -= m_lastCounters.pathsProduced;
+		reported.vertexesExpanded -= m_lastCounters.vertexesExpanded;
+		reported.edgesScanned -= m_lastCounters.edgesScanned;
+		reported.elementsPruned -= m_lastCounters.elementsPruned;
+		reported.pathCacheHits -= m_lastCounters.pathCacheHits;
+		reported.pathCacheMisses -= m_lastCounters.pathCacheMisses;
+		reported.vertexScanLatency.subtract(m_lastCounters.vertexScanLatency);
+		reported.edgeScanLatency.subtract(m_lastCounters.edgeScanLatency);
+		reported.pathScanLatency.subtract(m_lastCounters.pathScanLatency);
+		reported.pathJoinLatency.subtract(m_lastCounters.pathJoinLatency);
+		m_lastCounters = counters;
+	}
+
+	//the degree distribution is derived from the topology on every collection,
+	//it is a single pass over the vertex ranges
+	const CSRTopology& topology = m_graphView->m_topology;
+	//the vertex of the first largest fan-out, -1 for an empty graph
+	int maxFanOut = -1;
+	int64_t maxFanOutVertexId = -1;
+	int64_t totalFanOut = 0;
+	for (int index = 0; index < topology.vertexIndexLimit(); index++)
+	{
+		if (!topology.isVertexActive(index))
+		{
+			continue;
+		}
+		int fanOut = topology.fanOut(index);
+		totalFanOut += fanOut;
+		if (fanOut > maxFanOut)
+		{
+			maxFanOut = fanOut;
+			maxFanOutVertexId = topology.vertexId(index);
+		}
+	}
+	maxFanOut = std::max(maxFanOut, 0);
+	int numOfVertexes = topology.numOfVertexes();
+	double avgFanOut = (numOfVertexes == 0) ? 0.0 : (double)totalFanOut / numOfVertexes;
+
+	tuple->setNValue(m_columnName2Index["GRAPH_VIEW_NAME"], m_tableName);
+	tuple->setNValue(m_columnName2Index["VERTEX_SCAN_TUPLES"], ValueFactory::getBigIntValue(reported.vertexScanTuples));
+	tuple->setNValue(m_columnName2Index["EDGE_SCAN_TUPLES"], ValueFactory::getBigIntValue(reported.edgeScanTuples));
+	tuple->setNValue(m_columnName2Index["TRAVERSALS"], ValueFactory::getBigIntValue(reported.traversals));
+	tuple->setNValue(m_columnName2Index["PATHS_PRODUCED"], ValueFactory::getBigIntValue(reported.pathsProduced));
+	tuple->setNValue(m_columnName2Index["VERTEXES_EXPANDED"], ValueFactory::getBigIntValue(reported.vertexesExpanded));
+	tuple->setNValue(m_columnName2Index["EDGES_SCANNED"], ValueFactory::getBigIntValue(reported.edgesScanned));
+	tuple->setNValue(m_columnName2Index["ELEMENTS_PRUNED"], ValueFactory::getBigIntValue(reported.elementsPruned));
+	tuple->setNValue(m_columnName2Index["PATH_CACHE_HITS"], ValueFactory::getBigIntValue(reported.pathCacheHits));
+	tuple->setNValue(m_columnName2Index["PATH_CACHE_MISSES"], ValueFactory::getBigIntValue(reported.pathCacheMisses));
+	tuple->setNValue(m_columnName2Index["MAX_FRONTIER_SIZE"], ValueFactory::getBigIntValue(reported.maxFrontierSize));
+	tuple->setNValue(m_columnName2Index["VERTEX_COUNT"], ValueFactory::getBigIntValue(numOfVertexes));
+	tuple->setNValue(m_columnName2Index["EDGE_COUNT"], ValueFactory::getBigIntValue(topology.numOfEdges()));
+	tuple->setNValue(m_columnName2Index["ADJACENCY_BYTES"], ValueFactory::getBigIntValue(topology.memoryFootprint()));
+	tuple->setNValue(m_columnName2Index["SEARCH_INDEX_BYTES"],
+			ValueFactory::getBigIntValue(m_graphView->m_landmarks.memoryFootprint()));
+	tuple->setNValue(m_columnName2Index["MAX_FAN_OUT"], ValueFactory::getIntegerValue(maxFanOut));
+	tuple->setNValue(m_columnName2Index["MAX_FAN_OUT_VERTEX_ID"], ValueFactory::getBigIntValue(maxFanOutVertexId));
+	tuple->setNValue(m_columnName2Index["AVG_FAN_OUT"], ValueFactory::getDoubleValue(avgFanOut));
+	tuple->setNValue(m_columnName2Index["LAST_REBUILD_TIMESTAMP"],
+			ValueFactory::getBigIntValue(m_graphView->m_lastRebuildTimestamp));
+	tuple->setNValue(m_columnName2Index["LAST_REBUILD_MICROS"],
+			ValueFactory::getBigIntValue(m_graphView->m_lastRebuildMicros));
+	for (int op = 0; op < NUM_OF_OPERATORS; op++)
+	{
+		string prefix = OPERATOR_NAMES[op];
+		const LatencyHistogram* latency = operatorLatencies(reported, op);
+		tuple->setNValue(m_columnName2Index[prefix + "_EXECUTIONS"], ValueFactory::getBigIntValue(latency->executions));
+		tuple->setNValue(m_columnName2Index[prefix + "_P50_MICROS"], ValueFactory::getBigIntValue(latency->percentile(50)));
+		tuple->setNValue(m_columnName2Index[prefix + "_P99_MICROS"], ValueFactory::getBigIntValue(latency->percentile(99)));
+		tuple->setNValue(m_columnName2Index[prefix + "_MAX_MICROS"], ValueFactory::getBigIntValue(latency->maxMicros));
+	}
+}
+
+}
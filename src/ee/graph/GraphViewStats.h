@@ -0,0 +1,130 @@
+/*
+ * GraphViewStats.h
+ *
+ * StatsSource of a graph view, reported through the GRAPHVIEW @Statistics selector.
+ * Make sure to update GraphViewStats.java when changing the columns.
+ */
+
+#ifndef GRAPHVIEWSTATS_H_
+#define GRAPHVIEWSTATS_H_
+
+#include <chrono>
+#include "stats/StatsSource.h"
+
+namespace voltdb {
+
+class GraphView;
+class TempTable;
+
+//execution times of one graph operator in power of two buckets, bucket 0 counts the
+//executions below one microsecond and bucket b > 0 the ones in [2^(b-1), 2^b) microseconds
+struct LatencyHistogram
+{
+	static const int NUM_OF_BUCKETS = 32;
+
+	LatencyHistogram() : executions(0), maxMicros(0)
+	{
+		for (int b = 0; b < NUM_OF_BUCKETS; b++)
+		{
+			buckets[b] = 0;
+		}
+	}
+
+	int64_t buckets[NUM_OF_BUCKETS];
+	int64_t executions;
+	//slowest execution, not reset by interval collection
+	int64_t maxMicros;
+
+	void record(int64_t micros);
+	//upper bound (in microseconds) of the bucket holding the given percentile, 0 without executions
+	int64_t percentile(double percent) const;
+	//leaves the executions recorded after the given snapshot of this histogram
+	void subtract(const LatencyHistogram& snapshot);
+};
+
+//work done by the graph operators, maintained by the executors and the traversals
+struct GraphOperatorCounters
+{
+	GraphOperatorCounters() :
+		vertexScanTuples(0), edgeScanTuples(0), traversals(0), pathsProduced(0),
+		vertexesExpanded(0), edgesScanned(0), elementsPruned(0), pathCacheHits(0), pathCacheMisses(0),
+		maxFrontierSize(0) {}
+
+	int64_t vertexScanTuples;
+	int64_t edgeScanTuples;
+	int64_t traversals;
+	int64_t pathsProduced;
+	int64_t vertexesExpanded;
+	int64_t edgesScanned;
+	//vertexes and edges the pushed down conditions kept out of the traversals
+	int64_t elementsPruned;
+	//traversals served from the path result cache of the graph view, and the cacheable ones that ran
+	int64_t pathCacheHits;
+	int64_t pathCacheMisses;
+	//largest frontier of a single traversal, not reset by interval collection
+	int64_t maxFrontierSize;
+
+	//time spent in the p_execute of the graph executors
+	LatencyHistogram vertexScanLatency;
+	LatencyHistogram edgeScanLatency;
+	LatencyHistogram pathScanLatency;
+	LatencyHistogram pathJoinLatency;
+
+	inline void updateFrontierSize(size_t frontierSize)
+	{
+		if ((int64_t)frontierSize > maxFrontierSize)
+		{
+			maxFrontierSize = (int64_t)frontierSize;
+		}
+	}
+};
+
+//records the time until it goes out of scope into the histogram (if any)
+class GraphOperatorTimer
+{
+public:
+	GraphOperatorTimer(LatencyHistogram* histogram)
+		: m_histogram(histogram), m_start(std::chrono::steady_clock::now()) {}
+
+	~GraphOperatorTimer()
+	{
+		if (m_histogram != NULL)
+		{
+			m_histogram->record(std::chrono::duration_cast<std::chrono::microseconds>(
+					std::chrono::steady_clock::now() - m_start).count());
+		}
+	}
+
+private:
+	LatencyHistogram* m_histogram;
+	std::chrono::steady_clock::time_point m_start;
+};
+
+class GraphViewStats : public StatsSource
+{
+public:
+	static std::vector<std::string> generateGraphViewStatsColumnNames();
+	static void populateGraphViewStatsSchema(std::vector<voltdb::ValueType>& types,
+			std::vector<int32_t>& columnLengths, std::vector<bool>& allowNull, std::vector<bool>& inBytes);
+	static TempTable* generateEmptyGraphViewStatsTable();
+
+	GraphViewStats(GraphView* graphView);
+	~GraphViewStats();
+
+	void configure(std::string name, std::string graphViewName);
+
+protected:
+	virtual void updateStatsTuple(TableTuple* tuple);
+	virtual std::vector<std::string> generateStatsColumnNames();
+	virtual void populateSchema(std::vector<voltdb::ValueType>& types, std::vector<int32_t>& columnLengths,
+			std::vector<bool>& allowNull, std::vector<bool>& inBytes);
+
+private:
+	GraphView* m_graphView;
+	//counters as of the last interval collection
+	GraphOperatorCounters m_lastCounters;
+};
+
+}
+
+#endif /* GRAPHVIEWSTATS_H_ */
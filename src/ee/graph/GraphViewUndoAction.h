@@ -0,0 +1,53 @@
+/*
+ * GraphViewUndoAction.h
+ *
+ * Reverts a change applied to the topology of a graph view when the
+ * transaction that modified the vertex or edge table is rolled back.
+ */
+
+#ifndef GRAPHVIEWUNDOACTION_H_
+#define GRAPHVIEWUNDOACTION_H_
+
+#include "common/UndoReleaseAction.h"
+#include "graph/GraphView.h"
+
+namespace voltdb {
+
+class GraphViewUndoAction : public UndoOnlyAction
+{
+public:
+	GraphViewUndoAction(GraphView* graphView, bool isVertex,
+			const GraphView::ElementValues* removed, const GraphView::ElementValues* inserted)
+		: m_graphView(graphView), m_isVertex(isVertex),
+		  m_hasRemoved(removed != NULL), m_hasInserted(inserted != NULL)
+	{
+		if (removed)
+		{
+			m_removed = *removed;
+		}
+		if (inserted)
+		{
+			m_inserted = *inserted;
+		}
+	}
+
+	//put back what was removed and take out what was inserted
+	void undo()
+	{
+		m_graphView->applyTopologyChange(m_isVertex,
+				m_hasInserted ? &m_inserted : NULL,
+				m_hasRemoved ? &m_removed : NULL);
+	}
+
+private:
+	GraphView* m_graphView;
+	bool m_isVertex;
+	bool m_hasRemoved;
+	bool m_hasInserted;
+	GraphView::ElementValues m_removed;
+	GraphView::ElementValues m_inserted;
+};
+
+}
+
+#endif /* GRAPHVIEWUNDOACTION_H_ */
@@ -13,7 +13,7 @@
 #include "storage/table.h"
 #include "storage/TupleIterator.h"
 #include "storage/temptable.h"
-#include "graph/GraphView.h"
+#include "graph/PathTraversal.h"
 #include "logging/LogManager.h"
 
 namespace voltdb {
@@ -24,72 +24,21 @@ namespace voltdb {
 class PathIterator : public TupleIterator {
 
     friend class TempTable;
-    friend class GraphView;
+    friend class PathTraversal;
 
 public:
-	PathIterator(GraphView* gv) { this->graphView = gv; }
+	PathIterator(PathTraversal* traversal) { this->traversal = traversal; }
 	bool next(TableTuple &out);
 	//virtual ~PathIterator();
 protected:
-	GraphView* graphView;
+	PathTraversal* traversal;
 };
 
 
 inline bool PathIterator::next(TableTuple &out) {
-
-	LogManager::GLog("PathIterator", "next", 40,
-					"calling next() before expanding");
-	//call graph function that might add data to the temp table
-	graphView->expandCurrentPathOperation();
-	
-	if(graphView->m_pathTableIterator == NULL)
-	{
-		LogManager::GLog("PathIterator", "next", 46,
-							"m_pathTableIterator is initialized after we found it null.");
-		TableIterator tempByLu = graphView->m_pathTable->iteratorDeletingAsWeGo();
-		graphView->m_pathTableIterator = &tempByLu;
-		graphView->m_pathTableIterator->m_activeTuples = 0;
-	}
-	
-	// Added by LX: to make pathScan work
-	LogManager::GLog("PathIterator", "next:54", (int)graphView->m_pathTable->activeTupleCount(), "");
-	LogManager::GLog("PathIterator", "next:55", (int)graphView->m_pathTableIterator->m_activeTuples, "");
-	
-
-	// Commented by LX: to make pathScan work
-	//if new tuples were added, update the iterator about the #active tuples
-	if((int)graphView->m_pathTableIterator->m_activeTuples < (int)graphView->m_pathTable->activeTupleCount()) {
-		std::stringstream paramsToPrint;
-		paramsToPrint << "hasNext is false, activeTupleCount before = " << graphView->m_pathTableIterator->m_activeTuples;
-
-		graphView->m_pathTableIterator->m_activeTuples = (int)graphView->m_pathTable->activeTupleCount();
-		paramsToPrint << ", activeTupleCount after = " << graphView->m_pathTableIterator->m_activeTuples;
-		LogManager::GLog("PathIterator", "next", 61, paramsToPrint.str());
-	}
-	// bool hasNext = graphView->m_pathTableIterator->hasNext();
-	// if (hasNext)
-	// 	return false;
-
-	/*
-	bool hasNext = graphView->m_pathTableIterator->hasNext();
-	if(!hasNext)
-	{
-		graphView->m_pathTableIterator = &(graphView->m_pathTable->iteratorDeletingAsWeGo());
-		hasNext = graphView->m_pathTableIterator->hasNext();
-		if(!isValidTuple && hasNext)
-		{
-			LogManager::GLog("PathIterator", "next", 59,
-										"isValidTuple is false and hasNext is true, calling next again.");
-			isValidTuple = graphView->m_pathTableIterator->next(out);
-		}
-	}
-
-	if(graphView->dummyPathExapansionState == 6)
-		isValidTuple = false;
-	*/
-	//call next on the iterator of the temp table
-	return (graphView->m_pathTableIterator)->next(out);
-	// return true;
+	//expand the traversal just enough to produce the next path,
+	//so a consumer that stops early (e.g. an inline limit) also stops the traversal
+	return traversal->nextPath(out);
 }
 
 }
@@ -0,0 +1,1082 @@
+#include "PathTraversal.h"
+#include <algorithm>
+#include <cmath>
+#include <limits>
+#include "common/ValueFactory.hpp"
+#include "common/tabletuple.h"
+#include "expressions/functionexpression.h"
+#include "graph/GraphView.h"
+#include "graph/PathIterator.h"
+#include "graph/TraversalFilter.h"
+#include "logging/LogManager.h"
+#include "storage/tablefactory.h"
+#include "storage/temptable.h"
+
+using namespace std;
+
+namespace voltdb {
+
+PathTraversal::PathTraversal(GraphView* graphView)
+	: m_graphView(graphView), m_topology(graphView->m_topology), m_counters(graphView->m_counters),
+	  m_pathSearch(m_topology, m_counters), m_analytics(m_topology, m_counters)
+{
+	fromVertexId = -1;
+	toVertexId = -1;
+	queryType = -1;
+	pathLength = -1;
+	topK = -1;
+	vSelectivity = -1;
+	eSelectivity = -1;
+	spColumnIndexInEdgesTable = -1;
+	m_analyticsIterations = 0;
+	m_analyticsCursor = -1;
+	m_traversalFilter = NULL;
+	m_traversalStarted = false;
+	m_executeTraversal = false;
+	m_numOfPaths = 0;
+	m_nextLoopStart = -1;
+	m_loopStartIndex = -1;
+	m_cacheTopologyVersion = -1;
+	m_cacheRowVersion = -1;
+	m_cachingPaths = false;
+	//the temp table owns its schema, every traversal gets a copy of the path schema
+	m_pathTable = TableFactory::buildTempTable(graphView->getPathsTableName(),
+			TupleSchema::createTupleSchema(graphView->getPathSchema()), graphView->m_pathColumnNames, NULL);
+	m_pathIterator = new PathIterator(this);
+}
+
+PathTraversal::~PathTraversal()
+{
+	delete m_pathIterator;
+	delete m_pathTable;
+}
+
+bool PathTraversal::QueryKey::operator<(const QueryKey& other) const
+{
+	if (queryType != other.queryType) return queryType < other.queryType;
+	if (fromVertexId != other.fromVertexId) return fromVertexId < other.fromVertexId;
+	if (toVertexId != other.toVertexId) return toVertexId < other.toVertexId;
+	if (pathLength != other.pathLength) return pathLength < other.pathLength;
+	if (topK != other.topK) return topK < other.topK;
+	if (vSelectivity != other.vSelectivity) return vSelectivity < other.vSelectivity;
+	if (eSelectivity != other.eSelectivity) return eSelectivity < other.eSelectivity;
+	if (spColumnIndexInEdgesTable != other.spColumnIndexInEdgesTable)
+		return spColumnIndexInEdgesTable < other.spColumnIndexInEdgesTable;
+	return filterSignature < other.filterSignature;
+}
+
+void PathTraversal::resetPathOperation(TraversalFilter* filter)
+{
+	m_graphView->refreshTopology();
+	//empty the path table and the state left by the previous traversal
+	setTraversalFilter(filter);
+	m_executeTraversal = true;
+	m_traversalStarted = false;
+	m_pendingPaths.clear();
+	m_frontier.clear();
+	m_costFrontier = CostFrontier();
+	m_pathSteps.clear();
+	m_numOfPaths = 0;
+	m_nextLoopStart = -1;
+	m_loopStartIndex = -1;
+	m_analyticsCursor = -1;
+	m_pathTable->deleteAllTempTupleDeepCopies();
+	m_counters.traversals++;
+
+	m_currentPathQuery.queryType = queryType;
+	m_currentPathQuery.fromVertexId = fromVertexId;
+	m_currentPathQuery.toVertexId = toVertexId;
+	m_currentPathQuery.pathLength = pathLength;
+	m_currentPathQuery.topK = topK;
+	m_currentPathQuery.vSelectivity = vSelectivity;
+	m_currentPathQuery.eSelectivity = eSelectivity;
+	m_currentPathQuery.spColumnIndexInEdgesTable = spColumnIndexInEdgesTable;
+	m_currentPathQuery.filterSignature = (m_traversalFilter != NULL) ? m_traversalFilter->signature() : string();
+	m_cacheTopologyVersion = m_graphView->m_topologyVersion;
+	m_cacheRowVersion = m_graphView->m_rowVersion;
+	m_producedPaths.clear();
+	//the loop searches (11 to 14) reuse the arena of the path steps for every start vertex
+	m_cachingPaths = (queryType < 11 || queryType > 14) && !replayCachedPaths();
+}
+
+void PathTraversal::setTraversalFilter(TraversalFilter* filter)
+{
+	m_traversalFilter = (filter != NULL && !filter->isEmpty()) ? filter : NULL;
+	if (m_traversalFilter != NULL)
+	{
+		m_traversalFilter->bind(m_graphView);
+	}
+	m_pathSearch.setFilter(m_traversalFilter);
+}
+
+bool PathTraversal::replayCachedPaths()
+{
+	const GraphView::CachedPaths* cached = m_graphView->findCachedPaths(m_currentPathQuery);
+	if (cached == NULL)
+	{
+		return false;
+	}
+	m_pendingPaths.assign(cached->rows.begin(), cached->rows.end());
+	m_pathSteps = cached->pathSteps;
+	m_numOfPaths = (int)cached->rows.size();
+	//nothing left to expand, nextPath() only returns the pending paths
+	m_traversalStarted = true;
+	m_executeTraversal = false;
+	return true;
+}
+
+PathIterator& PathTraversal::iterator(TraversalFilter* filter)
+{
+	resetPathOperation(filter);
+	return *m_pathIterator;
+}
+
+bool PathTraversal::acceptsStart(int startIndex)
+{
+	return m_traversalFilter == NULL || m_traversalFilter->acceptsVertex(startIndex, 0);
+}
+
+bool PathTraversal::acceptsStep(int slot, int outIndex, int level)
+{
+	//edge n leads from vertex n to vertex n + 1
+	return m_traversalFilter == NULL ||
+			(m_traversalFilter->acceptsEdge(m_topology.edgeIndex(slot), level) &&
+			 m_traversalFilter->acceptsVertex(outIndex, level + 1));
+}
+
+bool PathTraversal::acceptsPathSteps(int pathStep)
+{
+	if (m_traversalFilter == NULL || !m_traversalFilter->hasPositionalConditions())
+	{
+		return true;
+	}
+	int length = -1;
+	for (int step = pathStep; step >= 0; step = m_pathSteps[step].parent)
+	{
+		length++;
+	}
+	for (int step = pathStep, position = length; step >= 0; step = m_pathSteps[step].parent, position--)
+	{
+		const PathStep& s = m_pathSteps[step];
+		if (!m_traversalFilter->acceptsVertex(s.vertexIndex, position) ||
+				(s.edgeIndex >= 0 && !m_traversalFilter->acceptsEdge(s.edgeIndex, position - 1)))
+		{
+			return false;
+		}
+	}
+	return true;
+}
+
+bool PathTraversal::expandCurrentPathOperation()
+{
+	//Check the current path operation type, and advance the paths exploration
+	//one step at a time until at least one path is pending.
+	//Every step expands a single frontier entry, so the work done is proportional
+	//to the number of paths the consumer actually asks for
+	while(m_executeTraversal && m_pendingPaths.empty())
+	{
+		bool hasMoreWork = false;
+		switch(this->queryType)
+		{
+		//reachability, BFS,...
+		case 1: //reachability BFS without selectivity
+			hasMoreWork = this->BFS_Reachability_ByDepth(this->fromVertexId, this->pathLength);
+			break;
+		case 2: //reachaility BFS with edge selectivity
+			hasMoreWork = this->BFS_Reachability_ByDepth_eSelectivity(this->fromVertexId, this->pathLength, this->eSelectivity);
+			break;
+		case 3: //reachability BFS with start and end
+			hasMoreWork = this->BFS_Reachability_ByDestination(this->fromVertexId, this->toVertexId);
+			break;
+		//topological queries
+		case 11: //vOnly selectivity
+			hasMoreWork = this->SubGraphLoop(this->pathLength, this->vSelectivity, 100);
+			break;
+		case 12: //eOnly selectivity
+			hasMoreWork = this->SubGraphLoop(this->pathLength, 100, this->eSelectivity);
+			break;
+		case 13: //vertex and edge selectivity
+			hasMoreWork = this->SubGraphLoop(this->pathLength, this->vSelectivity, this->eSelectivity);
+			break;
+		case 14: //start from a specific vertex and allow vertex and edge selectivity
+			hasMoreWork = this->SubGraphLoopFromStartVertex(this->fromVertexId, this->pathLength, this->vSelectivity, this->eSelectivity);
+			break;
+		//shortest paths
+		case 21: //top k shortest paths
+			hasMoreWork = this->SP_TopK(this->fromVertexId, this->toVertexId, this->topK);
+			break;
+		case 22: //top 1 shortest path with edge selectivity
+			hasMoreWork = this->SP_EdgeSelectivity(this->fromVertexId, this->toVertexId, this->eSelectivity);
+			break;
+		case 23: //Single source to all vertexes shortest paths
+			hasMoreWork = this->SP_ToAllVertexes_EdgeSelectivity(this->fromVertexId, this->eSelectivity);
+			break;
+		//whole graph analytics
+		case 31: //PageRank, LENGTH bounds the iterations and PROP3 sets the convergence threshold
+			hasMoreWork = this->PageRank(this->pathLength, this->topK);
+			break;
+		case 32: //weakly connected components
+			hasMoreWork = this->ConnectedComponents(false);
+			break;
+		case 33: //strongly connected components
+			hasMoreWork = this->ConnectedComponents(true);
+			break;
+		case 34: //triangle count and local clustering coefficient
+			hasMoreWork = this->TriangleCount();
+			break;
+		}
+		m_traversalStarted = true;
+		m_counters.updateFrontierSize(max(m_frontier.size(), m_costFrontier.size()));
+		if(!hasMoreWork)
+		{
+			m_executeTraversal = false;
+			if (m_cachingPaths)
+			{
+				m_cachingPaths = false;
+				m_graphView->cachePaths(m_currentPathQuery, m_cacheTopologyVersion, m_cacheRowVersion,
+						m_producedPaths, m_pathSteps);
+			}
+			GLOG("PathTraversal", "expandCurrentPathOperation", 330, "queryType = " << this->queryType
+					<< ", from = " << this->fromVertexId << ", to = " << this->toVertexId << ", numOfPaths = " << m_numOfPaths);
+		}
+	}
+	return !m_pendingPaths.empty();
+}
+
+bool PathTraversal::nextPath(TableTuple& out)
+{
+	if(!expandCurrentPathOperation())
+	{
+		return false;
+	}
+	const PathRow& row = m_pendingPaths.front();
+	pathTuple(row.startVertexId, row.endVertexId, row.length, row.cost, row.pathStep, out);
+	m_pendingPaths.pop_front();
+	m_counters.pathsProduced++;
+	return true;
+}
+
+void PathTraversal::pathTuple(int64_t startVertexId, int64_t endVertexId, int length, double cost, int pathStep, TableTuple& out)
+{
+	TableTuple& temp_tuple = m_pathTable->tempTuple();
+	//start vertex, end vertex, length, cost, path
+	if (m_graphView->m_pathSchema->columnType(0) == ValueType::tVARCHAR)
+	{
+		//the keys of VARCHAR ids are dictionary codes, report the id values of the vertex rows
+		TableTuple vertexTuple(m_graphView->m_vertexTable->schema());
+		vertexTuple.move(m_topology.vertexTuple(m_topology.vertexIndex(startVertexId)));
+		temp_tuple.setNValue(0, vertexTuple.getNValue(m_graphView->m_vertexIdColumnIndex));
+		vertexTuple.move(m_topology.vertexTuple(m_topology.vertexIndex(endVertexId)));
+		temp_tuple.setNValue(1, vertexTuple.getNValue(m_graphView->m_vertexIdColumnIndex));
+	}
+	else
+	{
+		temp_tuple.setNValue(0, ValueFactory::getBigIntValue(startVertexId));
+		temp_tuple.setNValue(1, ValueFactory::getBigIntValue(endVertexId));
+	}
+	temp_tuple.setNValue(2, ValueFactory::getIntegerValue(length));
+	temp_tuple.setNValue(3, ValueFactory::getDoubleValue(cost));
+	temp_tuple.setNValue(4, pathStep < 0 ? ValueFactory::getNullBinaryValue() : encodePath(pathStep));
+	out.move(temp_tuple.address());
+}
+
+NValue PathTraversal::encodePath(int pathStep)
+{
+	//a path of length n holds 2n + 1 ids, v0, e0, v1, ..., vn, see expressions/pathfunctions.h for the encodings
+	bool varcharVertexIds = m_graphView->m_pathSchema->columnType(0) == ValueType::tVARCHAR;
+	bool varcharEdgeIds = m_graphView->m_edgeTable->schema()->columnType(m_graphView->m_edgeIdColumnIndex) == ValueType::tVARCHAR;
+	if (varcharVertexIds || varcharEdgeIds)
+	{
+		return encodeTaggedPath(pathStep, varcharVertexIds, varcharEdgeIds);
+	}
+	//every id takes 8 bytes (little endian). The steps link backwards, so the ids are written from the end of the buffer
+	int numOfIds = -1;
+	for (int step = pathStep; step >= 0; step = m_pathSteps[step].parent)
+	{
+		numOfIds += 2;
+	}
+	m_pathBytes.resize(numOfIds * sizeof(int64_t));
+	int position = numOfIds;
+	uint64_t id;
+	for (int step = pathStep; step >= 0; step = m_pathSteps[step].parent)
+	{
+		const PathStep& pathStepEntry = m_pathSteps[step];
+		for (int element = 0; element < 2; element++)
+		{
+			if (element == 0)
+			{
+				id = (uint64_t)m_topology.vertexId(pathStepEntry.vertexIndex);
+			}
+			else if (pathStepEntry.parent >= 0)
+			{
+				id = (uint64_t)m_topology.edgeIdOfIndex(pathStepEntry.edgeIndex);
+			}
+			else
+			{
+				break;
+			}
+			position--;
+			for (int b = 0; b < (int)sizeof(int64_t); b++)
+			{
+				m_pathBytes[position * sizeof(int64_t) + b] = (char)((id >> (8 * b)) & 0xFF);
+			}
+		}
+	}
+	return ValueFactory::getTempBinaryValue(&m_pathBytes[0], (int32_t)m_pathBytes.size());
+}
+
+NValue PathTraversal::encodeTaggedPath(int pathStep, bool varcharVertexIds, bool varcharEdgeIds)
+{
+	//the ids take a variable number of bytes, so the steps are put in path order before the ids are written
+	m_pathStepOrder.clear();
+	for (int step = pathStep; step >= 0; step = m_pathSteps[step].parent)
+	{
+		m_pathStepOrder.push_back(step);
+	}
+	m_pathBytes.clear();
+	for (int i = (int)m_pathStepOrder.size() - 1; i >= 0; i--)
+	{
+		const PathStep& pathStepEntry = m_pathSteps[m_pathStepOrder[i]];
+		if (pathStepEntry.parent >= 0)
+		{
+			appendTaggedId(m_topology.edgeIdOfIndex(pathStepEntry.edgeIndex), varcharEdgeIds);
+		}
+		appendTaggedId(m_topology.vertexId(pathStepEntry.vertexIndex), varcharVertexIds);
+	}
+	if (m_pathBytes.size() % sizeof(int64_t) == 0)
+	{
+		m_pathBytes.push_back(PATH_TAG_PADDING);
+	}
+	return ValueFactory::getTempBinaryValue(&m_pathBytes[0], (int32_t)m_pathBytes.size());
+}
+
+void PathTraversal::appendTaggedId(int64_t key, bool isVarchar)
+{
+	//the keys of VARCHAR ids are dictionary codes, the path holds the id values
+	uint64_t value = (uint64_t)key;
+	int numOfBytes = PATH_ID_BYTES;
+	const std::string* id = NULL;
+	if (isVarchar)
+	{
+		id = &m_graphView->m_idDictionary.idOf(key);
+		value = id->size();
+		numOfBytes = PATH_LENGTH_BYTES;
+	}
+	m_pathBytes.push_back(isVarchar ? PATH_TAG_VARCHAR : PATH_TAG_BIGINT);
+	for (int b = 0; b < numOfBytes; b++)
+	{
+		m_pathBytes.push_back((char)((value >> (8 * b)) & 0xFF));
+	}
+	if (isVarchar)
+	{
+		m_pathBytes.insert(m_pathBytes.end(), id->begin(), id->end());
+	}
+}
+
+int PathTraversal::multiSourcePathSteps(int source, int64_t endVertexId)
+{
+	m_pathSteps.clear();
+	uint64_t bit = ((uint64_t)1) << source;
+	int vertexIndex = m_topology.vertexIndex(endVertexId);
+	if (vertexIndex < 0)
+	{
+		return -1;
+	}
+	//walk the discoveries of the source back to its start vertex, which has none
+	vector<const MSBFSDiscovery*> discoveries;
+	for (;;)
+	{
+		int entry = m_msbfsLastDiscovery[vertexIndex];
+		while (entry >= 0 && (m_msbfsDiscoveries[entry].sources & bit) == 0)
+		{
+			entry = m_msbfsDiscoveries[entry].previous;
+		}
+		if (entry < 0)
+		{
+			break;
+		}
+		discoveries.push_back(&m_msbfsDiscoveries[entry]);
+		vertexIndex = m_msbfsDiscoveries[entry].parentIndex;
+	}
+	int step = addPathStep(-1, vertexIndex, -1);
+	for (int i = (int)discoveries.size() - 1; i >= 0; i--)
+	{
+		step = addPathStep(step, discoveries[i]->vertexIndex, discoveries[i]->edgeIndex);
+	}
+	return step;
+}
+
+void PathTraversal::multiSourceBFS(const vector<int64_t>& startVertexIds, const vector<int64_t>* destVertexIds, int depth,
+		vector<int>& lengths, vector<int64_t>& endVertexIds, TraversalFilter* filter)
+{
+	m_graphView->refreshTopology();
+	setTraversalFilter(filter);
+	int numOfSources = (int)startVertexIds.size();
+	assert(numOfSources <= MSBFSBatchSize);
+	lengths.assign(numOfSources, -1);
+	endVertexIds.assign(numOfSources, -1);
+
+	//drop the discoveries of the previous batch
+	for (size_t d = 0; d < m_msbfsDiscoveries.size(); d++)
+	{
+		m_msbfsLastDiscovery[m_msbfsDiscoveries[d].vertexIndex] = -1;
+	}
+	m_msbfsDiscoveries.clear();
+
+	int indexLimit = m_topology.vertexIndexLimit();
+	if ((int)m_msbfsSeen.size() != indexLimit)
+	{
+		m_msbfsSeen.assign(indexLimit, 0);
+		m_msbfsVisit.assign(indexLimit, 0);
+		m_msbfsVisitNext.assign(indexLimit, 0);
+		m_msbfsDestinations.assign(indexLimit, 0);
+		m_msbfsLastDiscovery.assign(indexLimit, -1);
+	}
+
+	//every vertex that gets a bit set is recorded, so only those entries are cleared afterwards
+	vector<int> touched;
+	vector<int> frontier, nextFrontier;
+	uint64_t pending = 0;
+	int startIndex, destIndex;
+	for (int i = 0; i < numOfSources; i++)
+	{
+		uint64_t bit = ((uint64_t)1) << i;
+		startIndex = m_topology.vertexIndex(startVertexIds[i]);
+		destIndex = destVertexIds ? m_topology.vertexIndex((*destVertexIds)[i]) : 0;
+		//same as the single source traversals, missing vertexes give no path
+		if (startIndex < 0 || destIndex < 0 || (!destVertexIds && depth <= 0) || !acceptsStart(startIndex))
+		{
+			continue;
+		}
+		if (m_msbfsSeen[startIndex] == 0 && m_msbfsDestinations[startIndex] == 0)
+		{
+			touched.push_back(startIndex);
+		}
+		if (m_msbfsVisit[startIndex] == 0)
+		{
+			frontier.push_back(startIndex);
+		}
+		m_msbfsSeen[startIndex] |= bit;
+		m_msbfsVisit[startIndex] |= bit;
+		if (destVertexIds)
+		{
+			if (m_msbfsSeen[destIndex] == 0 && m_msbfsDestinations[destIndex] == 0)
+			{
+				touched.push_back(destIndex);
+			}
+			m_msbfsDestinations[destIndex] |= bit;
+		}
+		pending |= bit;
+	}
+
+	m_counters.traversals += numOfSources;
+	int level = 0, currIndex, outIndex, slot, endSlot;
+	uint64_t visit, discovered, found;
+	while (pending != 0 && !frontier.empty() && (destVertexIds || level < depth))
+	{
+		for (size_t f = 0; f < frontier.size(); f++)
+		{
+			currIndex = frontier[f];
+			//sources that already have their result stop expanding
+			visit = m_msbfsVisit[currIndex] & pending;
+			m_msbfsVisit[currIndex] = 0;
+			if (visit == 0)
+			{
+				continue;
+			}
+			endSlot = m_topology.outEnd(currIndex);
+			m_counters.vertexesExpanded++;
+			m_counters.edgesScanned += endSlot - m_topology.outBegin(currIndex);
+			for (slot = m_topology.outBegin(currIndex); slot < endSlot; slot++)
+			{
+				outIndex = m_topology.outNeighbor(slot);
+				discovered = visit & ~m_msbfsSeen[outIndex];
+				//the conditions depend on the level only, all the sources reject the same steps
+				if (discovered == 0 || !acceptsStep(slot, outIndex, level))
+				{
+					continue;
+				}
+				if (m_msbfsSeen[outIndex] == 0 && m_msbfsDestinations[outIndex] == 0)
+				{
+					touched.push_back(outIndex);
+				}
+				if (m_msbfsVisitNext[outIndex] == 0)
+				{
+					nextFrontier.push_back(outIndex);
+				}
+				m_msbfsSeen[outIndex] |= discovered;
+				m_msbfsVisitNext[outIndex] |= discovered;
+				MSBFSDiscovery discovery;
+				discovery.vertexIndex = outIndex;
+				discovery.parentIndex = currIndex;
+				discovery.edgeIndex = m_topology.edgeIndex(slot);
+				discovery.sources = discovered;
+				discovery.previous = m_msbfsLastDiscovery[outIndex];
+				m_msbfsLastDiscovery[outIndex] = (int)m_msbfsDiscoveries.size();
+				m_msbfsDiscoveries.push_back(discovery);
+
+				found = destVertexIds ? (discovered & m_msbfsDestinations[outIndex]) :
+						((level + 1 == depth) ? discovered : 0);
+				found &= pending;
+				while (found != 0)
+				{
+					int source = __builtin_ctzll(found);
+					found &= found - 1;
+					pending &= ~(((uint64_t)1) << source);
+					if (destVertexIds)
+					{
+						//BFS_Reachability_ByDestination reports the level of the destination plus one
+						lengths[source] = level + 2;
+						endVertexIds[source] = (*destVertexIds)[source];
+					}
+					else
+					{
+						lengths[source] = depth;
+						endVertexIds[source] = m_topology.vertexId(outIndex);
+					}
+				}
+			}
+		}
+		m_counters.updateFrontierSize(nextFrontier.size());
+		for (size_t f = 0; f < nextFrontier.size(); f++)
+		{
+			m_msbfsVisit[nextFrontier[f]] = m_msbfsVisitNext[nextFrontier[f]];
+			m_msbfsVisitNext[nextFrontier[f]] = 0;
+		}
+		frontier.swap(nextFrontier);
+		nextFrontier.clear();
+		level++;
+	}
+
+	for (size_t t = 0; t < touched.size(); t++)
+	{
+		m_msbfsSeen[touched[t]] = 0;
+		m_msbfsVisit[touched[t]] = 0;
+		m_msbfsVisitNext[touched[t]] = 0;
+		m_msbfsDestinations[touched[t]] = 0;
+	}
+}
+
+void PathTraversal::addPath(int64_t startVertexId, int64_t endVertexId, int length, double cost, int pathStep)
+{
+	PathRow row;
+	row.startVertexId = startVertexId;
+	row.endVertexId = endVertexId;
+	row.length = length;
+	row.cost = cost;
+	row.pathStep = pathStep;
+	m_pendingPaths.push_back(row);
+	m_numOfPaths++;
+	if (m_cachingPaths)
+	{
+		if (m_producedPaths.size() < (size_t)GraphView::MaxCachedPathRows)
+		{
+			m_producedPaths.push_back(row);
+		}
+		else
+		{
+			//too large for the cache
+			m_cachingPaths = false;
+			m_producedPaths.clear();
+		}
+	}
+}
+
+int PathTraversal::addPathStep(int parent, int vertexIndex, int edgeIndex)
+{
+	PathStep step;
+	step.parent = parent;
+	step.vertexIndex = vertexIndex;
+	step.edgeIndex = edgeIndex;
+	m_pathSteps.push_back(step);
+	return (int)m_pathSteps.size() - 1;
+}
+
+int PathTraversal::addPathSteps(const ShortestPathSearch::Path& path)
+{
+	int step = -1;
+	for (size_t i = 0; i < path.vertexes.size(); i++)
+	{
+		step = addPathStep(step, path.vertexes[i], (i == 0) ? -1 : path.edges[i - 1]);
+	}
+	return step;
+}
+
+void PathTraversal::preparePathSearch(int weightColumn, int maxEProp)
+{
+	m_pathSearch.setEdgeWeights(m_graphView->edgeWeights(weightColumn), maxEProp);
+	m_pathSearch.useLandmarks(m_graphView->landmarks(weightColumn));
+}
+
+bool PathTraversal::SP_TopK(int64_t src, int64_t dest, int k)
+{
+	//Yen's algorithm returns loopless paths in cost order, one path per call
+	if(!m_traversalStarted)
+	{
+		preparePathSearch(spColumnIndexInEdgesTable, numeric_limits<int>::max());
+		m_pathSearch.resetTopK();
+	}
+	if(m_numOfPaths >= k)
+	{
+		return false;
+	}
+
+	ShortestPathSearch::Path path;
+	if(!m_pathSearch.nextShortestPath(m_topology.vertexIndex(src), m_topology.vertexIndex(dest), path))
+	{
+		return false;
+	}
+	//the search only checks the conditions of every position, the path is dropped if it fails the others
+	int pathStep = addPathSteps(path);
+	if(acceptsPathSteps(pathStep))
+	{
+		addPath(src, dest, path.length(), path.cost(), pathStep);
+	}
+	return true;
+}
+
+bool PathTraversal::SP_ToAllVertexes_EdgeSelectivity(int64_t src, int edgeSelectivity)
+{
+	if(!m_traversalStarted)
+	{
+		int srcIndex = m_topology.vertexIndex(src);
+		m_vertexMarks.reset(m_topology.vertexIndexLimit());
+		if (srcIndex >= 0 && acceptsStart(srcIndex))
+		{
+			m_vertexMarks.mark(srcIndex, 0);
+			m_costFrontier.push(make_pair(0, make_pair(srcIndex, addPathStep(-1, srcIndex, -1)))); //zero cost to reach Vertex from
+		}
+	}
+	if(m_costFrontier.empty())
+	{
+		return false;
+	}
+
+	//select next vertex to explore
+	int currVIndex = m_costFrontier.top().second.first;
+	int currStep = m_costFrontier.top().second.second;
+	int minCost = (int)m_costFrontier.top().first;
+	m_costFrontier.pop();
+	if(m_vertexMarks.value(currVIndex) < minCost)
+	{
+		//a shorter path to this vertex was settled already
+		return true;
+	}
+	if(minCost > 0)
+	{
+		addPath(src, m_topology.vertexId(currVIndex), minCost, minCost, currStep);
+	}
+
+	//explore the outgoing vertexes
+	int candVertexIndex;
+	int endSlot = m_topology.outEnd(currVIndex);
+	m_counters.vertexesExpanded++;
+	m_counters.edgesScanned += endSlot - m_topology.outBegin(currVIndex);
+	for(int slot = m_topology.outBegin(currVIndex); slot < endSlot; slot++)
+	{
+		if(m_topology.eProp(slot) > edgeSelectivity)
+		{
+			continue;
+		}
+
+		candVertexIndex = m_topology.outNeighbor(slot);
+		//with unit costs the level of a vertex is its cost
+		if ( (!m_vertexMarks.isMarked(candVertexIndex) ||
+			  (m_vertexMarks.value(candVertexIndex) > minCost + 1)) &&
+			 acceptsStep(slot, candVertexIndex, minCost) )
+		{
+			m_vertexMarks.mark(candVertexIndex, minCost + 1);
+			m_costFrontier.push(make_pair(minCost + 1, make_pair(candVertexIndex,
+					addPathStep(currStep, candVertexIndex, m_topology.edgeIndex(slot)))));
+		}
+	}
+	return true;
+}
+
+int PathTraversal::nextAnalyticsVertex()
+{
+	int limit = m_topology.vertexIndexLimit();
+	while (m_analyticsCursor >= 0 && m_analyticsCursor < limit)
+	{
+		int index = m_analyticsCursor++;
+		if (m_analytics.usesVertex(index))
+		{
+			return index;
+		}
+	}
+	//drop the results once they are all reported
+	m_vertexScores.clear();
+	m_vertexGroups.clear();
+	m_vertexCounts.clear();
+	return -1;
+}
+
+bool PathTraversal::PageRank(int maxIterations, int thresholdExponent)
+{
+	if(!m_traversalStarted)
+	{
+		if (maxIterations <= 0)
+		{
+			maxIterations = 100;
+		}
+		if (thresholdExponent <= 0)
+		{
+			thresholdExponent = 6;
+		}
+		m_analytics.selectSubgraph(m_traversalFilter);
+		m_analyticsIterations = m_analytics.pageRank(0.85, pow(10.0, -thresholdExponent), maxIterations, m_vertexScores);
+		m_analyticsCursor = 0;
+		GLOG("PathTraversal", "PageRank", 943, "iterations = " << m_analyticsIterations);
+	}
+	int index = nextAnalyticsVertex();
+	if (index < 0)
+	{
+		return false;
+	}
+	int64_t id = m_topology.vertexId(index);
+	addPath(id, id, m_analyticsIterations, m_vertexScores[index], -1);
+	return true;
+}
+
+bool PathTraversal::ConnectedComponents(bool strongly)
+{
+	if(!m_traversalStarted)
+	{
+		m_analytics.selectSubgraph(m_traversalFilter);
+		int numOfComponents = strongly ?
+				m_analytics.stronglyConnectedComponents(m_vertexGroups) :
+				m_analytics.weaklyConnectedComponents(m_vertexGroups);
+		//size of every component, kept at the index of its smallest vertex
+		m_vertexCounts.assign(m_vertexGroups.size(), 0);
+		for (size_t v = 0; v < m_vertexGroups.size(); v++)
+		{
+			if (m_vertexGroups[v] >= 0)
+			{
+				m_vertexCounts[m_vertexGroups[v]]++;
+			}
+		}
+		m_analyticsCursor = 0;
+		GLOG("PathTraversal", "ConnectedComponents", 973, "strongly = " << strongly << ", numOfComponents = " << numOfComponents);
+	}
+	int index = nextAnalyticsVertex();
+	if (index < 0)
+	{
+		return false;
+	}
+	int component = m_vertexGroups[index];
+	int64_t size = m_vertexCounts[component];
+	addPath(m_topology.vertexId(index), m_topology.vertexId(component), (int)size, (double)size, -1);
+	return true;
+}
+
+bool PathTraversal::TriangleCount()
+{
+	if(!m_traversalStarted)
+	{
+		m_analytics.selectSubgraph(m_traversalFilter);
+		int64_t numOfTriangles = m_analytics.countTriangles(m_vertexCounts, m_vertexGroups);
+		m_analyticsCursor = 0;
+		GLOG("PathTraversal", "TriangleCount", 993, "numOfTriangles = " << numOfTriangles);
+	}
+	int index = nextAnalyticsVertex();
+	if (index < 0)
+	{
+		return false;
+	}
+	//the degrees are in m_vertexGroups
+	double degree = m_vertexGroups[index];
+	double coefficient = (degree < 2) ? 0 : 2.0 * m_vertexCounts[index] / (degree * (degree - 1));
+	int64_t id = m_topology.vertexId(index);
+	addPath(id, id, (int)m_vertexCounts[index], coefficient, -1);
+	return true;
+}
+
+bool PathTraversal::SP_EdgeSelectivity(int64_t src, int64_t dest, int edgeSelectivity)
+{
+	//a single bidirectional search, the edges cost the values of the cost column (one without a cost column)
+	if(m_traversalStarted)
+	{
+		return false;
+	}
+	preparePathSearch(spColumnIndexInEdgesTable, edgeSelectivity);
+	ShortestPathSearch::Path path;
+	if(m_pathSearch.shortestPath(m_topology.vertexIndex(src), m_topology.vertexIndex(dest), path))
+	{
+		int pathStep = addPathSteps(path);
+		if(acceptsPathSteps(pathStep))
+		{
+			addPath(src, dest, path.length(), path.cost(), pathStep);
+		}
+	}
+	return true;
+}
+
+bool PathTraversal::BFS_Reachability_ByDepth_eSelectivity(int64_t startVertexId, int depth, int eSelectivity)
+{
+	//the frontier holds (vertex index, level) pairs, vertexes are not marked as visited
+	//so every walk of the requested depth is reported
+	if(!m_traversalStarted)
+	{
+		int startIndex = m_topology.vertexIndex(startVertexId);
+		if(startIndex >= 0 && acceptsStart(startIndex))
+		{
+			m_frontier.push_back(make_pair(addPathStep(-1, startIndex, -1), 0));
+		}
+	}
+	if(m_frontier.empty() || m_frontier.front().second >= depth)
+	{
+		return false;
+	}
+
+	int currStep = m_frontier.front().first;
+	int currIndex = m_pathSteps[currStep].vertexIndex;
+	int level = m_frontier.front().second;
+	m_frontier.pop_front();
+	int outIndex, outStep;
+	int endSlot = m_topology.outEnd(currIndex);
+	m_counters.vertexesExpanded++;
+	m_counters.edgesScanned += endSlot - m_topology.outBegin(currIndex);
+	for(int slot = m_topology.outBegin(currIndex); slot < endSlot; slot++)
+	{
+		if(m_topology.eProp(slot) > eSelectivity)
+		{
+			continue;
+		}
+		outIndex = m_topology.outNeighbor(slot);
+		if(!acceptsStep(slot, outIndex, level))
+		{
+			continue;
+		}
+		outStep = addPathStep(currStep, outIndex, m_topology.edgeIndex(slot));
+		if( (depth > 0 && level + 1 == depth))
+		{
+			//Now, we reached the destination vertexes
+			addPath(startVertexId, m_topology.vertexId(outIndex), level + 1, (double)(level + 2), outStep);
+		}
+		else
+		{
+			//add to the frontier, as currentDepth is less than depth
+			m_frontier.push_back(make_pair(outStep, level + 1));
+		}
+	}
+	return true;
+}
+
+bool PathTraversal::BFS_Reachability_ByDepth(int64_t startVertexId, int depth)
+{
+	if(!m_traversalStarted)
+	{
+		int startIndex = m_topology.vertexIndex(startVertexId);
+		if(startIndex >= 0 && acceptsStart(startIndex))
+		{
+			//the mark value of a vertex is its level
+			m_vertexMarks.reset(m_topology.vertexIndexLimit());
+			m_vertexMarks.mark(startIndex, 0);
+			m_frontier.push_back(make_pair(addPathStep(-1, startIndex, -1), 0));
+		}
+	}
+	//levels leave the frontier in non-decreasing order
+	if(m_frontier.empty() || m_frontier.front().second >= depth)
+	{
+		return false;
+	}
+
+	int currStep = m_frontier.front().first;
+	int currIndex = m_pathSteps[currStep].vertexIndex;
+	int level = m_frontier.front().second;
+	m_frontier.pop_front();
+	int outIndex, outStep;
+	int endSlot = m_topology.outEnd(currIndex);
+	m_counters.vertexesExpanded++;
+	m_counters.edgesScanned += endSlot - m_topology.outBegin(currIndex);
+	for(int slot = m_topology.outBegin(currIndex); slot < endSlot; slot++)
+	{
+		outIndex = m_topology.outNeighbor(slot);
+
+		//a vertex the conditions reject stays unmarked, another edge may still lead to it
+		if (m_vertexMarks.isMarked(outIndex) || !acceptsStep(slot, outIndex, level))
+		{
+			continue;
+		}
+
+		m_vertexMarks.mark(outIndex, level + 1);
+		outStep = addPathStep(currStep, outIndex, m_topology.edgeIndex(slot));
+		if( (depth > 0 && level + 1 == depth))
+		{
+			//Now, we reached the destination vertexes
+			addPath(startVertexId, m_topology.vertexId(outIndex), level + 1, (double)(level + 1), outStep);
+		}
+		else
+		{
+			//add to the frontier, as currentDepth is less than depth
+			m_frontier.push_back(make_pair(outStep, level + 1));
+		}
+	}
+	return true;
+}
+
+bool PathTraversal::BFS_Reachability_ByDestination(int64_t startVertexId, int64_t destVerexId)
+{
+	int destIndex = m_topology.vertexIndex(destVerexId);
+	if(!m_traversalStarted)
+	{
+		int startIndex = m_topology.vertexIndex(startVertexId);
+		if(startIndex >= 0 && destIndex >= 0 && acceptsStart(startIndex))
+		{
+			m_vertexMarks.reset(m_topology.vertexIndexLimit());
+			m_vertexMarks.mark(startIndex, 0);
+			m_frontier.push_back(make_pair(addPathStep(-1, startIndex, -1), 0));
+		}
+	}
+	if(m_frontier.empty())
+	{
+		return false;
+	}
+
+	int currStep = m_frontier.front().first;
+	int currIndex = m_pathSteps[currStep].vertexIndex;
+	m_frontier.pop_front();
+	int outIndex, outStep, level;
+	int endSlot = m_topology.outEnd(currIndex);
+	m_counters.vertexesExpanded++;
+	m_counters.edgesScanned += endSlot - m_topology.outBegin(currIndex);
+	for(int slot = m_topology.outBegin(currIndex); slot < endSlot; slot++)
+	{
+		outIndex = m_topology.outNeighbor(slot);
+
+		if (m_vertexMarks.isMarked(outIndex) || !acceptsStep(slot, outIndex, m_vertexMarks.value(currIndex)))
+		{
+			continue;
+		}
+
+		m_vertexMarks.mark(outIndex, m_vertexMarks.value(currIndex) + 1);
+		outStep = addPathStep(currStep, outIndex, m_topology.edgeIndex(slot));
+		if(outIndex == destIndex)
+		{
+			//Now, we reached the destination vertex, the search is over
+			level = m_vertexMarks.value(outIndex) + 1;
+			addPath(startVertexId, destVerexId, level, (double)level, outStep);
+			m_frontier.clear();
+			break;
+		}
+		else
+		{
+			//add to the frontier, as the destination is not reached yet
+			m_frontier.push_back(make_pair(outStep, m_vertexMarks.value(outIndex)));
+		}
+	}
+	return true;
+}
+
+bool PathTraversal::expandLoops(int length, int startVSelectivity, int vSelectivity, int eSelectivity,
+		bool reportClosingVertex)
+{
+	//the frontier holds (vertex index, level) pairs, a loop is any walk of the requested
+	//length that ends where it started. Once the walks from the current start vertex are
+	//exhausted, move on to the next candidate start vertex (if any)
+	while(m_frontier.empty() || m_frontier.front().second >= length)
+	{
+		m_frontier.clear();
+		if(m_nextLoopStart < 0 || m_nextLoopStart >= m_topology.vertexIndexLimit())
+		{
+			return false;
+		}
+		int candidate = m_nextLoopStart++;
+		if(m_topology.isVertexActive(candidate) && m_topology.vProp(candidate) <= startVSelectivity
+				&& acceptsStart(candidate))
+		{
+			m_loopStartIndex = candidate;
+			m_pathSteps.clear();
+			m_frontier.push_back(make_pair(addPathStep(-1, candidate, -1), 0));
+		}
+	}
+
+	int64_t startVertexId = m_topology.vertexId(m_loopStartIndex);
+	int currStep = m_frontier.front().first;
+	int currIndex = m_pathSteps[currStep].vertexIndex;
+	int level = m_frontier.front().second;
+	m_frontier.pop_front();
+	int outIndex;
+	int endSlot = m_topology.outEnd(currIndex);
+	m_counters.vertexesExpanded++;
+	m_counters.edgesScanned += endSlot - m_topology.outBegin(currIndex);
+	for(int slot = m_topology.outBegin(currIndex); slot < endSlot; slot++)
+	{
+		if(m_topology.eProp(slot) > eSelectivity)
+		{
+			continue;
+		}
+
+		outIndex = m_topology.outNeighbor(slot);
+
+		if(m_topology.vProp(outIndex) > vSelectivity || !acceptsStep(slot, outIndex, level))
+		{
+			continue;
+		}
+
+		if(level + 1 == length)
+		{
+			//we found a loop of the desired length
+			if(outIndex == m_loopStartIndex)
+			{
+				//optionally set the start vertex to the vertex having an edge that closes the loop (for debugging purposes)
+				addPath(reportClosingVertex ? m_topology.vertexId(currIndex) : startVertexId,
+						startVertexId, level + 1, (double)(level + 1),
+						addPathStep(currStep, outIndex, m_topology.edgeIndex(slot)));
+			}
+		}
+		else
+		{
+			//add to the frontier, as currentDepth is less than depth
+			m_frontier.push_back(make_pair(addPathStep(currStep, outIndex, m_topology.edgeIndex(slot)), level + 1));
+		}
+	}
+	return true;
+}
+
+bool PathTraversal::SubGraphLoopFromStartVertex(int64_t startVertexId, int length, int vSelectivity, int eSelectivity)
+{
+	if(!m_traversalStarted)
+	{
+		int startIndex = m_topology.vertexIndex(startVertexId);
+		if(startIndex >= 0 && acceptsStart(startIndex))
+		{
+			m_loopStartIndex = startIndex;
+			m_frontier.push_back(make_pair(addPathStep(-1, startIndex, -1), 0));
+		}
+	}
+	return expandLoops(length, INT_MAX, vSelectivity, eSelectivity, true);
+}
+
+bool PathTraversal::SubGraphLoop(int length, int vSelectivity, int eSelectivity)
+{
+	if(!m_traversalStarted)
+	{
+		m_nextLoopStart = 0;
+	}
+	//the vertex selectivity only applies to the start vertexes
+	return expandLoops(length, vSelectivity, INT_MAX, eSelectivity, true);
+}
+
+bool PathTraversal::SubGraphLoop(int64_t startVertexId, int length)
+{
+	if(!m_traversalStarted)
+	{
+		if(startVertexId >= 0)
+		{
+			int startIndex = m_topology.vertexIndex(startVertexId);
+			if(startIndex >= 0 && acceptsStart(startIndex))
+			{
+				m_loopStartIndex = startIndex;
+				m_frontier.push_back(make_pair(addPathStep(-1, startIndex, -1), 0));
+			}
+		}
+		else
+		{
+			m_nextLoopStart = 0;
+		}
+	}
+	return expandLoops(length, INT_MAX, INT_MAX, INT_MAX, false);
+}
+
+}
@@ -0,0 +1,245 @@
+/*
+ * PathTraversal.h
+ *
+ * State of one path operation over a graph view: the traversal parameters, the
+ * frontier and path steps of the current traversal, the scratch space of the
+ * searches and the temp table that backs the path tuples it produces. Every path
+ * scan and path join executor owns one, so several path operations over the same
+ * graph view (e.g. the two sides of a self-join of PATHS) run independently of
+ * each other. The topology, the result cache and the landmarks stay with the
+ * graph view and are shared by all its traversals.
+ */
+
+#ifndef PATHTRAVERSAL_H_
+#define PATHTRAVERSAL_H_
+
+#include <deque>
+#include <queue>
+#include <string>
+#include <vector>
+#include "common/NValue.hpp"
+#include "graph/CSRTopology.h"
+#include "graph/GraphAnalytics.h"
+#include "graph/GraphViewStats.h"
+#include "graph/ShortestPathSearch.h"
+
+namespace voltdb {
+
+class GraphView;
+class PathIterator;
+class TableTuple;
+class TempTable;
+class TraversalFilter;
+
+class PathTraversal
+{
+	friend class GraphView;
+
+public:
+	//PQEntryWithLength.first is the cost, PQEntryWithLength.second.first is the vertex index, PQEntryWithLength.second.second is the path step
+	typedef std::pair<double, std::pair<int, int> > PQEntryWithLength;
+	typedef std::pair<int, int > PQEntry;
+
+	//a path found by the traversal, the vertexes and edges along it are kept in the path steps
+	struct PathRow
+	{
+		int64_t startVertexId;
+		int64_t endVertexId;
+		int length;
+		double cost;
+		int pathStep;
+	};
+	//edgeIndex is the dense index of the edge leading from the parent step to vertexIndex, -1 for the first step
+	struct PathStep
+	{
+		int parent;
+		int vertexIndex;
+		int edgeIndex;
+	};
+	//the parameters that determine the paths of a traversal, see GraphView::findCachedPaths()
+	struct QueryKey
+	{
+		int queryType;
+		int64_t fromVertexId;
+		int64_t toVertexId;
+		int pathLength;
+		int topK;
+		int vSelectivity;
+		int eSelectivity;
+		int spColumnIndexInEdgesTable;
+		std::string filterSignature;
+
+		bool operator<(const QueryKey& other) const;
+	};
+
+	explicit PathTraversal(GraphView* graphView);
+	~PathTraversal();
+
+	GraphView* getGraphView() { return m_graphView; }
+	//the temp table of the path tuples, also the output table of the path scans without inline nodes
+	TempTable* getPathTable() { return m_pathTable; }
+
+	//starts a new traversal with the current parameters. The traversal only extends paths with
+	//the vertexes and edges that pass filter (if any), the filter has to stay alive until the
+	//traversal is over
+	PathIterator& iterator(TraversalFilter* filter = NULL);
+
+	//advances the current traversal until at least one path is pending,
+	//returns false once the traversal cannot produce more paths
+	bool expandCurrentPathOperation();
+	//fills out with the next path of the current traversal (backed by the temp tuple of the path table)
+	bool nextPath(TableTuple& out);
+
+	//traversal parameters, set by the executor before iterator() is called
+	int64_t fromVertexId, toVertexId;
+	int queryType, pathLength, topK, vSelectivity, eSelectivity, spColumnIndexInEdgesTable;
+
+	//Queries
+	//every query is a resumable generator: each call expands a single frontier entry
+	//(starting the traversal on the first call) and returns false once the traversal is exhausted
+	bool BFS_Reachability_ByDepth(int64_t startVertexId, int depth);
+	bool BFS_Reachability_ByDestination(int64_t startVertexId, int64_t endVertex);
+	bool BFS_Reachability_ByDepth_eSelectivity(int64_t startVertexId, int depth, int eSelectivity);
+	bool SP_TopK(int64_t src, int64_t dest, int k);
+	bool SP_EdgeSelectivity(int64_t src, int64_t dest, int edgeSelectivity);
+	bool SP_ToAllVertexes_EdgeSelectivity(int64_t src, int edgeSelectivity);
+
+	//Batched reachability for path joins: a bit-parallel BFS (MS-BFS) from up to
+	//MSBFSBatchSize start vertexes at once, the traversals share the frontier scans.
+	//With destination ids, lengths[i] gets the length reported by BFS_Reachability_ByDestination,
+	//otherwise endVertexIds[i] gets the first vertex found at the given depth. The frontier is
+	//shared and ordered by the first discovery over all the sources, so among the vertexes of
+	//equal depth a source may find another one first than its own BFS would. Sources without
+	//a result keep a length of -1. The traversals only extend paths with the vertexes and
+	//edges that pass filter (if any), as the ones started by iterator()
+	static const int MSBFSBatchSize = 64;
+	void multiSourceBFS(const std::vector<int64_t>& startVertexIds, const std::vector<int64_t>* destVertexIds, int depth,
+			std::vector<int>& lengths, std::vector<int64_t>& endVertexIds, TraversalFilter* filter = NULL);
+	//fills out (backed by the temp tuple of the path table) with the given path,
+	//the start and end vertexes are reported with the values of the vertex id column.
+	//PATH gets the ids along the path ending at pathStep, NULL for a pathStep of -1
+	void pathTuple(int64_t startVertexId, int64_t endVertexId, int length, double cost, int pathStep, TableTuple& out);
+	//the steps of the path multiSourceBFS found for the given source (its position in startVertexIds),
+	//read back from the discoveries of the last call. Returns the last step, the steps of the previous
+	//call are dropped
+	int multiSourcePathSteps(int source, int64_t endVertexId);
+
+	//Topology query, i.e., connected sub-graph of
+
+	//to select all vertexes, set vSelectivty to 100, same for the edges
+	bool SubGraphLoop(int length, int vSelectivity, int eSelectivity);
+	bool SubGraphLoopFromStartVertex(int64_t startVertexId, int length, int vSelectivity, int eSelectivity); //14
+	bool SubGraphLoop(int64_t startVertexId, int length); //startVertexId of -1 means to try all the vertexes as the start of the loop
+
+	//Whole graph analytics, computed over the (filtered) topology on the first call and
+	//reported as one row per vertex, with the vertex as the start of the row
+	//PageRank: END = the vertex, LENGTH = iterations run, COST = rank.
+	//Stops once the ranks change by less than 10^-thresholdExponent or after maxIterations
+	bool PageRank(int maxIterations, int thresholdExponent); //31
+	//END = the vertex with the smallest index in the component of the vertex, LENGTH and COST = component size
+	bool ConnectedComponents(bool strongly); //32 weakly, 33 strongly
+	//END = the vertex, LENGTH = triangles through the vertex, COST = local clustering coefficient
+	bool TriangleCount(); //34
+
+protected:
+	void resetPathOperation(TraversalFilter* filter);
+	//makes filter the conditions of the next traversal, an empty filter checks nothing
+	void setTraversalFilter(TraversalFilter* filter);
+	//serves the current traversal from the result cache of the graph view, returns false on a miss
+	bool replayCachedPaths();
+	//one step of the search for loops of the given length, moves on to the next start vertex
+	//(m_nextLoopStart) once the walks from the current one (m_loopStartIndex) are exhausted
+	bool expandLoops(int length, int startVSelectivity, int vSelectivity, int eSelectivity,
+			bool reportClosingVertex);
+	//checks the pushed down conditions of the traversal filter: the start vertex of a path,
+	//the edge in slot leading from a vertex at the given level to outIndex, and (for the searches
+	//that cannot check positions while expanding) all the steps of a path found
+	bool acceptsStart(int startIndex);
+	bool acceptsStep(int slot, int outIndex, int level);
+	bool acceptsPathSteps(int pathStep);
+	//walks the vertexes the analytics ran on, returns the next vertex index to report
+	//or -1 once all of them are reported
+	int nextAnalyticsVertex();
+	//points the path search at the given edge weights and the landmarks of the graph view
+	void preparePathSearch(int weightColumn, int maxEProp);
+	void addPath(int64_t startVertexId, int64_t endVertexId, int length, double cost, int pathStep);
+	//steps of the paths explored by the current traversal, every step links to the step it extends
+	int addPathStep(int parent, int vertexIndex, int edgeIndex);
+	//appends the steps of a path found by m_pathSearch, returns the last one
+	int addPathSteps(const ShortestPathSearch::Path& path);
+	//packs the vertex and edge ids from the first step to pathStep into a VARBINARY value
+	NValue encodePath(int pathStep);
+	//encodes the path with tagged ids, for graph views with VARCHAR vertex or edge ids
+	NValue encodeTaggedPath(int pathStep, bool varcharVertexIds, bool varcharEdgeIds);
+	void appendTaggedId(int64_t key, bool isVarchar);
+
+	GraphView* m_graphView;
+	//the (possibly shared) topology and the operator counters of the graph view
+	CSRTopology& m_topology;
+	GraphOperatorCounters& m_counters;
+	//per vertex scratch space (visited flags and levels/costs) of the current traversal
+	VertexMarks m_vertexMarks;
+	//point to point and top k shortest paths
+	ShortestPathSearch m_pathSearch;
+	//whole graph operators (queryType 31 to 34) and the per vertex results of the current one
+	GraphAnalytics m_analytics;
+	std::vector<double> m_vertexScores;
+	std::vector<int> m_vertexGroups;
+	std::vector<int64_t> m_vertexCounts;
+	int m_analyticsIterations;
+	int m_analyticsCursor;
+
+	typedef std::priority_queue<PQEntryWithLength, std::vector<PQEntryWithLength>, std::greater<PQEntryWithLength> > CostFrontier;
+	//paths found by the last expansion step that were not returned yet
+	std::deque<PathRow> m_pendingPaths;
+	//(path step, level) entries of the BFS like traversals, the vertex index is in the step
+	std::deque<PQEntry> m_frontier;
+	//(cost, (vertex index, path step)) entries of the shortest path traversals
+	CostFrontier m_costFrontier;
+	//vertex and edge conditions of the current traversal, NULL if there are none
+	TraversalFilter* m_traversalFilter;
+	//arena of the path steps, cleared with the traversal (or the start vertex of the loop search)
+	std::vector<PathStep> m_pathSteps;
+	//scratch space of encodePath
+	std::vector<char> m_pathBytes;
+	std::vector<int> m_pathStepOrder;
+	bool m_traversalStarted;
+	bool m_executeTraversal;
+	int m_numOfPaths;
+	int m_nextLoopStart;
+	int m_loopStartIndex;
+
+	//key of the current traversal, the graph versions it started on and the paths it
+	//produced so far, while they fit in the result cache of the graph view
+	QueryKey m_currentPathQuery;
+	int64_t m_cacheTopologyVersion;
+	int64_t m_cacheRowVersion;
+	bool m_cachingPaths;
+	std::vector<PathRow> m_producedPaths;
+
+	//scratch space of multiSourceBFS, one bit per source
+	std::vector<uint64_t> m_msbfsSeen;
+	std::vector<uint64_t> m_msbfsVisit;
+	std::vector<uint64_t> m_msbfsVisitNext;
+	std::vector<uint64_t> m_msbfsDestinations;
+	//the parents of the batched traversals: one entry per vertex discovered from a frontier vertex,
+	//with the bits of the sources that reached it that way. The entries of a vertex are linked
+	//from m_msbfsLastDiscovery, they are kept until the next batch so the paths can be read back
+	struct MSBFSDiscovery
+	{
+		int vertexIndex;
+		int parentIndex;
+		int edgeIndex;
+		uint64_t sources;
+		int previous; //previous entry of the same vertex, -1 for none
+	};
+	std::vector<MSBFSDiscovery> m_msbfsDiscoveries;
+	std::vector<int> m_msbfsLastDiscovery;
+
+	TempTable* m_pathTable;
+	PathIterator* m_pathIterator;
+};
+
+}
+
+#endif /* PATHTRAVERSAL_H_ */
@@ -0,0 +1,49 @@
+/*
+ * SharedTopology.h
+ *
+ * The topology of a graph view and the state maintained along with it. The
+ * rows of replicated tables are shared by all the sites of a host, so a graph
+ * view over replicated vertex and edge tables shares one instance with the
+ * views of the other sites instead of building its own copy. One of the views
+ * (the maintainer) applies the changes made to the tables, the others only
+ * read the topology.
+ */
+
+#ifndef SHAREDTOPOLOGY_H_
+#define SHAREDTOPOLOGY_H_
+
+#include <map>
+#include <mutex>
+#include <vector>
+#include "graph/CSRTopology.h"
+#include "graph/ElementIdDictionary.h"
+
+namespace voltdb {
+
+class GraphView;
+
+struct SharedTopology
+{
+	SharedTopology(void) : version(0), rowVersion(0), stale(false), maintainer(NULL) {}
+
+	CSRTopology topology;
+	//codes of the VARCHAR vertex and edge ids, the keys of the topology
+	ElementIdDictionary ids;
+	//edges with a missing end point, keyed by the id of the missing vertex
+	std::multimap<int64_t, CSRTopology::EdgeEntry> danglingEdges;
+	//bumped on every change, the caches built over the topology compare it
+	int64_t version;
+	//bumped on every change of the vertex and edge rows, including the updates that leave
+	//the topology as it is, the path result caches compare it
+	int64_t rowVersion;
+	//set while a bulk load bypasses the maintenance, see GraphView::invalidateTopology()
+	bool stale;
+	//the sites read a shared topology concurrently, the first one to find it stale rebuilds it
+	std::mutex rebuildMutex;
+	GraphView* maintainer;
+	std::vector<GraphView*> views;
+};
+
+}
+
+#endif /* SHAREDTOPOLOGY_H_ */
@@ -0,0 +1,585 @@
+#include "ShortestPathSearch.h"
+#include <algorithm>
+#include <cmath>
+#include <limits>
+#include "graph/TraversalFilter.h"
+
+using namespace std;
+
+namespace voltdb {
+
+static const double INFINITE_COST = numeric_limits<double>::infinity();
+
+ShortestPathSearch::ShortestPathSearch(const CSRTopology& topology, GraphOperatorCounters& counters)
+	: m_topology(topology), m_counters(counters)
+{
+	m_weightArray = NULL;
+	m_maxEProp = numeric_limits<int>::max();
+	m_filter = NULL;
+	m_stamp = 0;
+	m_srcIndex = -1;
+	m_destIndex = -1;
+	m_banStamp = 1;
+}
+
+void ShortestPathSearch::setEdgeWeights(const std::shared_ptr<const std::vector<double> >& weights, int maxEProp)
+{
+	m_weights = weights;
+	m_weightArray = m_weights ? m_weights->data() : NULL;
+	m_maxEProp = maxEProp;
+}
+
+void ShortestPathSearch::resetScratch()
+{
+	int n = m_topology.vertexIndexLimit();
+	SearchSide* sides[2] = { &m_forward, &m_backward };
+	m_stamp++;
+	if ((int)m_forward.labeled.size() != n || m_stamp == 0)
+	{
+		for (int i = 0; i < 2; i++)
+		{
+			sides[i]->dist.resize(n);
+			sides[i]->parentVertex.resize(n);
+			sides[i]->parentEdge.resize(n);
+			sides[i]->labeled.assign(n, 0);
+			sides[i]->settled.assign(n, 0);
+		}
+		if (m_landmarks)
+		{
+			m_potentials.resize(n);
+			m_potentialStamps.assign(n, 0);
+		}
+		m_stamp = 1;
+	}
+	for (int i = 0; i < 2; i++)
+	{
+		sides[i]->frontier = Frontier();
+	}
+}
+
+void ShortestPathSearch::label(SearchSide& side, int index, double dist, int parentVertex, int parentEdge, double key)
+{
+	side.dist[index] = dist;
+	side.parentVertex[index] = parentVertex;
+	side.parentEdge[index] = parentEdge;
+	side.labeled[index] = m_stamp;
+	side.frontier.push(make_pair(key, index));
+}
+
+double ShortestPathSearch::potential(int index)
+{
+	if (!m_landmarks)
+	{
+		return 0;
+	}
+	if (m_potentialStamps[index] == m_stamp)
+	{
+		return m_potentials[index];
+	}
+
+	//by the triangle inequality d(x, y) >= d(l, y) - d(l, x) and d(x, y) >= d(x, l) - d(y, l).
+	//A term whose subtrahend is finite while the minuend is not proves y unreachable from x
+	double toDest = 0, fromSrc = 0;
+	bool unreachable = false;
+	double terms[4][2];
+	for (size_t l = 0; l < m_landmarks->vertexes.size() && !unreachable; l++)
+	{
+		const vector<double>& fromL = m_landmarks->fromLandmark[l];
+		const vector<double>& toL = m_landmarks->toLandmark[l];
+		terms[0][0] = fromL[m_destIndex]; terms[0][1] = fromL[index];
+		terms[1][0] = toL[index]; terms[1][1] = toL[m_destIndex];
+		terms[2][0] = fromL[index]; terms[2][1] = fromL[m_srcIndex];
+		terms[3][0] = toL[m_srcIndex]; terms[3][1] = toL[index];
+		for (int t = 0; t < 4; t++)
+		{
+			if (std::isinf(terms[t][1]))
+			{
+				continue;
+			}
+			if (std::isinf(terms[t][0]))
+			{
+				unreachable = true;
+				break;
+			}
+			if (t < 2)
+			{
+				toDest = max(toDest, terms[t][0] - terms[t][1]);
+			}
+			else
+			{
+				fromSrc = max(fromSrc, terms[t][0] - terms[t][1]);
+			}
+		}
+	}
+	//the average of the forward and the backward potentials keeps both searches consistent
+	double p = unreachable ? INFINITE_COST : (toDest - fromSrc) / 2;
+	m_potentials[index] = p;
+	m_potentialStamps[index] = m_stamp;
+	return p;
+}
+
+bool ShortestPathSearch::isBannedVertex(int index) const
+{
+	return index < (int)m_bannedVertexes.size() && m_bannedVertexes[index] == m_banStamp;
+}
+
+bool ShortestPathSearch::isBannedEdge(int fromIndex, int edge) const
+{
+	return !m_bannedEdges.empty() &&
+			m_bannedEdges.find(((int64_t)fromIndex << 32) | (uint32_t)edge) != m_bannedEdges.end();
+}
+
+void ShortestPathSearch::banEdge(int fromIndex, int edge)
+{
+	m_bannedEdges.insert(((int64_t)fromIndex << 32) | (uint32_t)edge);
+}
+
+void ShortestPathSearch::clearRestrictions()
+{
+	m_bannedEdges.clear();
+	m_banStamp++;
+	if ((int)m_bannedVertexes.size() != m_topology.vertexIndexLimit() || m_banStamp == 0)
+	{
+		m_bannedVertexes.assign(m_topology.vertexIndexLimit(), 0);
+		m_banStamp = 1;
+	}
+}
+
+void ShortestPathSearch::scanForward(double& best, int& meeting)
+{
+	int u = m_forward.frontier.top().second;
+	m_forward.frontier.pop();
+	if (isSettled(m_forward, u))
+	{
+		//a stale entry, u was reached by a cheaper path
+		return;
+	}
+	m_forward.settled[u] = m_stamp;
+
+	int v, edge;
+	double dist, p;
+	int endSlot = m_topology.outEnd(u);
+	m_counters.vertexesExpanded++;
+	m_counters.edgesScanned += endSlot - m_topology.outBegin(u);
+	for (int slot = m_topology.outBegin(u); slot < endSlot; slot++)
+	{
+		if (m_topology.eProp(slot) > m_maxEProp)
+		{
+			continue;
+		}
+		v = m_topology.outNeighbor(slot);
+		edge = m_topology.edgeIndex(slot);
+		if (isBannedVertex(v) || isBannedEdge(u, edge))
+		{
+			continue;
+		}
+		if (m_filter != NULL && (!m_filter->acceptsEdge(edge, TraversalFilter::EVERY_POSITION) ||
+				!m_filter->acceptsVertex(v, TraversalFilter::EVERY_POSITION)))
+		{
+			continue;
+		}
+		dist = m_forward.dist[u] + edgeWeight(edge);
+		if (std::isinf(dist) || (isLabeled(m_forward, v) && m_forward.dist[v] <= dist))
+		{
+			continue;
+		}
+		p = potential(v);
+		if (std::isinf(p))
+		{
+			continue;
+		}
+		label(m_forward, v, dist, u, edge, dist + p);
+		if (isLabeled(m_backward, v) && dist + m_backward.dist[v] < best)
+		{
+			best = dist + m_backward.dist[v];
+			meeting = v;
+		}
+	}
+}
+
+void ShortestPathSearch::scanBackward(double& best, int& meeting)
+{
+	int u = m_backward.frontier.top().second;
+	m_backward.frontier.pop();
+	if (isSettled(m_backward, u))
+	{
+		return;
+	}
+	m_backward.settled[u] = m_stamp;
+
+	//the in slots of u hold the edges v -> u
+	int v, edge;
+	double dist, p;
+	int endSlot = m_topology.inEnd(u);
+	m_counters.vertexesExpanded++;
+	m_counters.edgesScanned += endSlot - m_topology.inBegin(u);
+	for (int slot = m_topology.inBegin(u); slot < endSlot; slot++)
+	{
+		if (m_topology.inEProp(slot) > m_maxEProp)
+		{
+			continue;
+		}
+		v = m_topology.inNeighbor(slot);
+		edge = m_topology.inEdgeIndex(slot);
+		if (isBannedVertex(v) || isBannedEdge(v, edge))
+		{
+			continue;
+		}
+		if (m_filter != NULL && (!m_filter->acceptsEdge(edge, TraversalFilter::EVERY_POSITION) ||
+				!m_filter->acceptsVertex(v, TraversalFilter::EVERY_POSITION)))
+		{
+			continue;
+		}
+		dist = m_backward.dist[u] + edgeWeight(edge);
+		if (std::isinf(dist) || (isLabeled(m_backward, v) && m_backward.dist[v] <= dist))
+		{
+			continue;
+		}
+		p = potential(v);
+		if (std::isinf(p))
+		{
+			continue;
+		}
+		label(m_backward, v, dist, u, edge, dist - p);
+		if (isLabeled(m_forward, v) && dist + m_forward.dist[v] < best)
+		{
+			best = dist + m_forward.dist[v];
+			meeting = v;
+		}
+	}
+}
+
+bool ShortestPathSearch::shortestPath(int srcIndex, int destIndex, Path& path)
+{
+	path.vertexes.clear();
+	path.edges.clear();
+	path.costs.clear();
+	if (srcIndex < 0 || destIndex < 0)
+	{
+		return false;
+	}
+	if (isBannedVertex(srcIndex) || isBannedVertex(destIndex))
+	{
+		return false;
+	}
+	if (m_filter != NULL && (!m_filter->acceptsVertex(srcIndex, TraversalFilter::EVERY_POSITION) ||
+			!m_filter->acceptsVertex(destIndex, TraversalFilter::EVERY_POSITION)))
+	{
+		return false;
+	}
+	if (m_landmarks && (int)m_landmarks->fromLandmark[0].size() != m_topology.vertexIndexLimit())
+	{
+		//the landmarks were computed for another topology
+		dropLandmarks();
+	}
+	if (srcIndex == destIndex)
+	{
+		path.vertexes.push_back(srcIndex);
+		path.costs.push_back(0);
+		return true;
+	}
+
+	resetScratch();
+	m_srcIndex = srcIndex;
+	m_destIndex = destIndex;
+	double srcPotential = potential(srcIndex);
+	double destPotential = potential(destIndex);
+	if (std::isinf(srcPotential) || std::isinf(destPotential))
+	{
+		//the landmarks prove that dest cannot be reached
+		return false;
+	}
+	label(m_forward, srcIndex, 0, -1, -1, srcPotential);
+	label(m_backward, destIndex, 0, -1, -1, -destPotential);
+
+	//with the keys shifted by the potentials, no path through an unsettled vertex
+	//can be cheaper than best once the two frontier minimums add up to it
+	double best = INFINITE_COST;
+	int meeting = -1;
+	while (!m_forward.frontier.empty() && !m_backward.frontier.empty())
+	{
+		if (m_forward.frontier.top().first + m_backward.frontier.top().first >= best)
+		{
+			break;
+		}
+		m_counters.updateFrontierSize(m_forward.frontier.size() + m_backward.frontier.size());
+		if (m_forward.frontier.size() <= m_backward.frontier.size())
+		{
+			scanForward(best, meeting);
+		}
+		else
+		{
+			scanBackward(best, meeting);
+		}
+	}
+	if (meeting < 0)
+	{
+		return false;
+	}
+
+	//the forward half is walked back from the meeting vertex, then reversed
+	for (int v = meeting; v != -1; v = m_forward.parentVertex[v])
+	{
+		path.vertexes.push_back(v);
+		path.costs.push_back(m_forward.dist[v]);
+		if (m_forward.parentVertex[v] != -1)
+		{
+			path.edges.push_back(m_forward.parentEdge[v]);
+		}
+	}
+	std::reverse(path.vertexes.begin(), path.vertexes.end());
+	std::reverse(path.costs.begin(), path.costs.end());
+	std::reverse(path.edges.begin(), path.edges.end());
+	double total = m_forward.dist[meeting] + m_backward.dist[meeting];
+	for (int v = meeting; m_backward.parentVertex[v] != -1; v = m_backward.parentVertex[v])
+	{
+		path.edges.push_back(m_backward.parentEdge[v]);
+		path.vertexes.push_back(m_backward.parentVertex[v]);
+		path.costs.push_back(total - m_backward.dist[m_backward.parentVertex[v]]);
+	}
+	return true;
+}
+
+void ShortestPathSearch::resetTopK()
+{
+	m_topPaths.clear();
+	m_candidatePaths.clear();
+	clearRestrictions();
+}
+
+bool ShortestPathSearch::samePath(const Path& a, const Path& b)
+{
+	return a.vertexes == b.vertexes && a.edges == b.edges;
+}
+
+bool ShortestPathSearch::nextShortestPath(int srcIndex, int destIndex, Path& path)
+{
+	if (m_topPaths.empty())
+	{
+		if (!shortestPath(srcIndex, destIndex, path))
+		{
+			return false;
+		}
+		m_topPaths.push_back(path);
+		return true;
+	}
+
+	//Yen: every vertex of the last accepted path but the destination is tried as the spur vertex,
+	//the root (the prefix up to the spur vertex) is kept and the spur path must leave the
+	//root through an edge that no accepted path with the same root uses
+	const Path last = m_topPaths.back();
+	Path spurPath;
+	for (int i = 0; i < last.length(); i++)
+	{
+		int spurIndex = last.vertexes[i];
+		clearRestrictions();
+		for (size_t p = 0; p < m_topPaths.size(); p++)
+		{
+			const Path& accepted = m_topPaths[p];
+			if (accepted.length() > i &&
+					std::equal(last.vertexes.begin(), last.vertexes.begin() + i + 1, accepted.vertexes.begin()) &&
+					std::equal(last.edges.begin(), last.edges.begin() + i, accepted.edges.begin()))
+			{
+				banEdge(spurIndex, accepted.edges[i]);
+			}
+		}
+		//the spur path may not revisit the root, so all the paths stay loopless
+		for (int j = 0; j < i; j++)
+		{
+			m_bannedVertexes[last.vertexes[j]] = m_banStamp;
+		}
+		if (!shortestPath(spurIndex, destIndex, spurPath))
+		{
+			continue;
+		}
+
+		Path candidate;
+		candidate.vertexes.assign(last.vertexes.begin(), last.vertexes.begin() + i);
+		candidate.edges.assign(last.edges.begin(), last.edges.begin() + i);
+		candidate.costs.assign(last.costs.begin(), last.costs.begin() + i);
+		double rootCost = last.costs[i];
+		for (size_t s = 0; s < spurPath.vertexes.size(); s++)
+		{
+			candidate.vertexes.push_back(spurPath.vertexes[s]);
+			candidate.costs.push_back(rootCost + spurPath.costs[s]);
+		}
+		candidate.edges.insert(candidate.edges.end(), spurPath.edges.begin(), spurPath.edges.end());
+
+		bool isKnown = false;
+		for (size_t c = 0; c < m_candidatePaths.size() && !isKnown; c++)
+		{
+			isKnown = samePath(m_candidatePaths[c], candidate);
+		}
+		if (!isKnown)
+		{
+			m_candidatePaths.push_back(candidate);
+		}
+	}
+	clearRestrictions();
+
+	if (m_candidatePaths.empty())
+	{
+		return false;
+	}
+	//the cheapest candidate, fewer edges first on ties
+	size_t next = 0;
+	for (size_t c = 1; c < m_candidatePaths.size(); c++)
+	{
+		const Path& cand = m_candidatePaths[c];
+		const Path& curr = m_candidatePaths[next];
+		if (cand.cost() < curr.cost() || (cand.cost() == curr.cost() && cand.length() < curr.length()))
+		{
+			next = c;
+		}
+	}
+	path = m_candidatePaths[next];
+	m_candidatePaths.erase(m_candidatePaths.begin() + next);
+	m_topPaths.push_back(path);
+	return true;
+}
+
+void ShortestPathSearch::singleSourceDistances(int source, bool backward, vector<double>& dist)
+{
+	dist.assign(m_topology.vertexIndexLimit(), INFINITE_COST);
+	Frontier frontier;
+	dist[source] = 0;
+	frontier.push(make_pair(0.0, source));
+	int u, v, slot, endSlot;
+	double d;
+	while (!frontier.empty())
+	{
+		d = frontier.top().first;
+		u = frontier.top().second;
+		frontier.pop();
+		if (d > dist[u])
+		{
+			continue;
+		}
+		endSlot = backward ? m_topology.inEnd(u) : m_topology.outEnd(u);
+		for (slot = backward ? m_topology.inBegin(u) : m_topology.outBegin(u); slot < endSlot; slot++)
+		{
+			if (backward)
+			{
+				v = m_topology.inNeighbor(slot);
+				d = dist[u] + edgeWeight(m_topology.inEdgeIndex(slot));
+			}
+			else
+			{
+				v = m_topology.outNeighbor(slot);
+				d = dist[u] + edgeWeight(m_topology.edgeIndex(slot));
+			}
+			if (d < dist[v])
+			{
+				dist[v] = d;
+				frontier.push(make_pair(d, v));
+			}
+		}
+	}
+}
+
+void ShortestPathSearch::buildLandmarks(int numOfLandmarks)
+{
+	dropLandmarks();
+	int n = m_topology.vertexIndexLimit();
+	int next = -1;
+	for (int v = 0; v < n && next < 0; v++)
+	{
+		if (m_topology.isVertexActive(v))
+		{
+			next = v;
+		}
+	}
+
+	//farthest point selection: every next landmark is the vertex farthest
+	//from its closest landmark, which spreads the landmarks over the graph
+	vector<double> closest(n, INFINITE_COST);
+	std::shared_ptr<Landmarks> landmarks = std::make_shared<Landmarks>();
+	while (next >= 0 && (int)landmarks->vertexes.size() < numOfLandmarks)
+	{
+		landmarks->vertexes.push_back(next);
+		landmarks->fromLandmark.push_back(vector<double>());
+		landmarks->toLandmark.push_back(vector<double>());
+		singleSourceDistances(next, false, landmarks->fromLandmark.back());
+		singleSourceDistances(next, true, landmarks->toLandmark.back());
+
+		const vector<double>& fromL = landmarks->fromLandmark.back();
+		double farthest = 0;
+		next = -1;
+		for (int v = 0; v < n; v++)
+		{
+			closest[v] = min(closest[v], fromL[v]);
+			if (!std::isinf(closest[v]) && closest[v] > farthest)
+			{
+				farthest = closest[v];
+				next = v;
+			}
+		}
+	}
+	if (!landmarks->vertexes.empty())
+	{
+		useLandmarks(landmarks);
+	}
+}
+
+void ShortestPathSearch::dropLandmarks()
+{
+	m_landmarks.reset();
+	m_potentials.clear();
+	m_potentialStamps.clear();
+}
+
+void ShortestPathSearch::useLandmarks(const std::shared_ptr<const Landmarks>& landmarks)
+{
+	if (landmarks == m_landmarks)
+	{
+		return;
+	}
+	dropLandmarks();
+	if (landmarks)
+	{
+		int n = m_topology.vertexIndexLimit();
+		m_landmarks = landmarks;
+		m_potentials.resize(n);
+		m_potentialStamps.assign(n, 0);
+	}
+}
+
+size_t ShortestPathSearch::memoryFootprint() const
+{
+	size_t bytes = m_landmarks ? m_landmarks->vertexes.size() * m_topology.vertexIndexLimit() * 2 * sizeof(double) : 0;
+	bytes += m_potentials.capacity() * (sizeof(double) + sizeof(uint32_t));
+	return bytes;
+}
+
+LandmarkCache::LandmarkCache(const CSRTopology& topology, GraphOperatorCounters& counters,
+		int minVertexes, int minQueries, int numOfLandmarks)
+	: m_topology(topology), m_search(topology, counters), m_minVertexes(minVertexes), m_minQueries(minQueries),
+	  m_numOfLandmarks(numOfLandmarks)
+{
+	m_version = -1;
+	m_weightColumn = -1;
+	m_queries = 0;
+}
+
+bool LandmarkCache::countQuery(int64_t topologyVersion, int weightColumn)
+{
+	if (m_version != topologyVersion || m_weightColumn != weightColumn)
+	{
+		m_search.dropLandmarks();
+		m_version = topologyVersion;
+		m_weightColumn = weightColumn;
+		m_queries = 0;
+		return false;
+	}
+	return !m_search.hasLandmarks() && ++m_queries >= m_minQueries
+			&& m_topology.numOfVertexes() >= m_minVertexes;
+}
+
+void LandmarkCache::build(const std::shared_ptr<const std::vector<double> >& weights)
+{
+	//the distances to and from the landmarks ignore the edge selectivity of the queries
+	m_search.setEdgeWeights(weights, numeric_limits<int>::max());
+	m_search.buildLandmarks(m_numOfLandmarks);
+}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * ShortestPathSearch.h
+ *
+ * Point to point shortest paths over a CSRTopology. A single path is found by
+ * a bidirectional Dijkstra, optionally guided by landmark (ALT) lower bounds,
+ * and the top k loopless paths are enumerated with Yen's algorithm on top of it.
+ */
+
+#ifndef SHORTESTPATHSEARCH_H_
+#define SHORTESTPATHSEARCH_H_
+
+#include <memory>
+#include <vector>
+#include <queue>
+#include <unordered_set>
+#include <stdint.h>
+#include "graph/CSRTopology.h"
+#include "graph/GraphViewStats.h"
+
+namespace voltdb {
+
+class TraversalFilter;
+
+class ShortestPathSearch
+{
+public:
+	//a path given with dense vertex and edge indexes, edges[i] connects vertexes[i] to vertexes[i + 1]
+	//and costs[i] is the cost of reaching vertexes[i] from the first vertex
+	struct Path
+	{
+		std::vector<int> vertexes;
+		std::vector<int> edges;
+		std::vector<double> costs;
+
+		int length() const { return (int)edges.size(); }
+		double cost() const { return costs.back(); }
+	};
+
+	//vertexes[l] is a landmark vertex index, fromLandmark[l][v] = d(l, v) and toLandmark[l][v] = d(v, l).
+	//Built by one search, read by the searches of all the traversals over the same topology
+	struct Landmarks
+	{
+		std::vector<int> vertexes;
+		std::vector<std::vector<double> > fromLandmark;
+		std::vector<std::vector<double> > toLandmark;
+	};
+
+	//the settled vertexes and scanned edges of the searches are added to counters
+	ShortestPathSearch(const CSRTopology& topology, GraphOperatorCounters& counters);
+
+	//weights[e] is the cost of the edge with dense index e (see GraphView::edgeWeights()), NULL gives
+	//every edge a cost of one. Edges with an infinite cost or an eProp above maxEProp are skipped
+	void setEdgeWeights(const std::shared_ptr<const std::vector<double> >& weights, int maxEProp);
+	//the vertexes and edges that fail the conditions of every position of filter are skipped,
+	//the positions of the vertexes and edges are not known while searching (NULL for no filter)
+	void setFilter(TraversalFilter* filter) { m_filter = filter; }
+	//returns false if destIndex cannot be reached from srcIndex
+	bool shortestPath(int srcIndex, int destIndex, Path& path);
+
+	//Yen's k shortest loopless paths, every call returns the next path in cost order
+	void resetTopK();
+	bool nextShortestPath(int srcIndex, int destIndex, Path& path);
+
+	//landmark distances for the ALT lower bounds, computed with the current edge weights
+	//(ignoring maxEProp, removing edges only makes the bounds looser)
+	void buildLandmarks(int numOfLandmarks);
+	void dropLandmarks();
+	bool hasLandmarks() const { return m_landmarks != NULL; }
+	const std::shared_ptr<const Landmarks>& landmarks() const { return m_landmarks; }
+	//uses the landmarks built by another search with the same edge weights (NULL for none)
+	void useLandmarks(const std::shared_ptr<const Landmarks>& landmarks);
+	size_t memoryFootprint() const;
+
+private:
+	typedef std::pair<double, int> FrontierEntry;
+	typedef std::priority_queue<FrontierEntry, std::vector<FrontierEntry>, std::greater<FrontierEntry> > Frontier;
+
+	//the labels of one direction of the bidirectional search
+	struct SearchSide
+	{
+		std::vector<double> dist;
+		std::vector<int> parentVertex;
+		std::vector<int> parentEdge;
+		std::vector<uint32_t> labeled;
+		std::vector<uint32_t> settled;
+		Frontier frontier;
+	};
+
+	void resetScratch();
+	inline bool isLabeled(const SearchSide& side, int index) const { return side.labeled[index] == m_stamp; }
+	inline bool isSettled(const SearchSide& side, int index) const { return side.settled[index] == m_stamp; }
+	void label(SearchSide& side, int index, double dist, int parentVertex, int parentEdge, double key);
+	inline double edgeWeight(int edge) const { return (m_weightArray == NULL) ? 1 : m_weightArray[edge]; }
+	//(lower bound of d(v, dest) - lower bound of d(src, v)) / 2, infinity if v cannot be on a path
+	double potential(int index);
+	//settles the top vertex of one side and relaxes its edges, best and meeting track the
+	//cheapest path through a vertex labeled by both sides
+	void scanForward(double& best, int& meeting);
+	void scanBackward(double& best, int& meeting);
+	void singleSourceDistances(int source, bool backward, std::vector<double>& dist);
+
+	bool isBannedVertex(int index) const;
+	bool isBannedEdge(int fromIndex, int edge) const;
+	void banEdge(int fromIndex, int edge);
+	void clearRestrictions();
+	static bool samePath(const Path& a, const Path& b);
+
+	const CSRTopology& m_topology;
+	GraphOperatorCounters& m_counters;
+	//the edge costs, m_weightArray points into m_weights
+	std::shared_ptr<const std::vector<double> > m_weights;
+	const double* m_weightArray;
+	int m_maxEProp;
+	TraversalFilter* m_filter;
+
+	SearchSide m_forward;
+	SearchSide m_backward;
+	uint32_t m_stamp;
+	int m_srcIndex;
+	int m_destIndex;
+
+	//restrictions of the spur searches
+	std::vector<uint32_t> m_bannedVertexes;
+	uint32_t m_banStamp;
+	std::unordered_set<int64_t> m_bannedEdges;
+
+	std::shared_ptr<const Landmarks> m_landmarks;
+	std::vector<double> m_potentials;
+	std::vector<uint32_t> m_potentialStamps;
+
+	//accepted paths and candidates of Yen's algorithm
+	std::vector<Path> m_topPaths;
+	std::vector<Path> m_candidatePaths;
+};
+
+//The landmarks of a graph view, shared by the searches of all its traversals. They pay off only
+//on large graphs that are queried repeatedly, so they are built once a topology version and weight
+//column got enough queries, and a new topology version (edge costs included) or column drops them
+class LandmarkCache
+{
+public:
+	LandmarkCache(const CSRTopology& topology, GraphOperatorCounters& counters,
+			int minVertexes, int minQueries, int numOfLandmarks);
+
+	//counts a query on the given topology version and weight column, returns true
+	//if the landmarks should be built now, with the edge costs of that column
+	bool countQuery(int64_t topologyVersion, int weightColumn);
+	void build(const std::shared_ptr<const std::vector<double> >& weights);
+	//NULL while no landmarks were built for the topology version of the last query
+	const std::shared_ptr<const ShortestPathSearch::Landmarks>& landmarks() const { return m_search.landmarks(); }
+	size_t memoryFootprint() const { return m_search.memoryFootprint(); }
+
+private:
+	const CSRTopology& m_topology;
+	ShortestPathSearch m_search;
+	const int m_minVertexes;
+	const int m_minQueries;
+	const int m_numOfLandmarks;
+	//topology version and weight column the landmarks (or the query count) belong to
+	int64_t m_version;
+	int m_weightColumn;
+	int m_queries;
+};
+
+}
+
+#endif /* SHORTESTPATHSEARCH_H_ */
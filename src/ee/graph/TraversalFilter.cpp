@@ -0,0 +1,256 @@
+#include "TraversalFilter.h"
+#include <algorithm>
+#include <atomic>
+#include "common/SerializableEEException.h"
+#include "common/TupleSchema.h"
+#include "common/serializeio.h"
+#include "common/ValueFactory.hpp"
+#include "common/ValuePeeker.hpp"
+#include "expressions/abstractexpression.h"
+#include "expressions/parametervalueexpression.h"
+#include "expressions/tuplevalueexpression.h"
+#include "graph/GraphView.h"
+#include "storage/table.h"
+
+using namespace std;
+
+namespace voltdb {
+
+//the filters of all the sites draw their ids from it
+static std::atomic<int64_t> s_nextConditionsId(0);
+
+TraversalFilter::TraversalFilter()
+{
+	m_graphView = NULL;
+	m_conditionsId = -1;
+}
+
+TraversalFilter::~TraversalFilter()
+{
+}
+
+void TraversalFilter::setConditions(const vector<AbstractExpression*>& vertexConditions, const vector<int>& vertexPositions,
+		const vector<AbstractExpression*>& edgeConditions, const vector<int>& edgePositions)
+{
+	setConditions(m_vertexes, vertexConditions, vertexPositions);
+	setConditions(m_edges, edgeConditions, edgePositions);
+	m_graphView = NULL;
+	m_conditionsId = ++s_nextConditionsId;
+	m_parameters.clear();
+	for (size_t i = 0; i < vertexConditions.size(); i++)
+	{
+		collectParameters(vertexConditions[i], m_parameters);
+	}
+	for (size_t i = 0; i < edgeConditions.size(); i++)
+	{
+		collectParameters(edgeConditions[i], m_parameters);
+	}
+}
+
+void TraversalFilter::setConditions(ElementConditions& element, const vector<AbstractExpression*>& conditions,
+		const vector<int>& positions)
+{
+	vassert(conditions.size() == positions.size());
+	element.conditions = conditions;
+	element.positions = positions;
+	element.hasPositional = false;
+	element.attributes.clear();
+	for (size_t i = 0; i < conditions.size(); i++)
+	{
+		if (positions[i] != EVERY_POSITION)
+		{
+			element.hasPositional = true;
+		}
+		collectAttributes(conditions[i], element.attributes);
+	}
+	sort(element.attributes.begin(), element.attributes.end());
+	element.attributes.erase(unique(element.attributes.begin(), element.attributes.end()), element.attributes.end());
+}
+
+void TraversalFilter::collectAttributes(const AbstractExpression* expr, vector<int>& attributes)
+{
+	if (expr == NULL)
+	{
+		return;
+	}
+	const TupleValueExpression* tve = dynamic_cast<const TupleValueExpression*>(expr);
+	if (tve != NULL)
+	{
+		attributes.push_back(tve->getColumnId());
+		return;
+	}
+	collectAttributes(expr->getLeft(), attributes);
+	collectAttributes(expr->getRight(), attributes);
+	const vector<AbstractExpression*> args = expr->getArgs();
+	for (size_t i = 0; i < args.size(); i++)
+	{
+		collectAttributes(args[i], attributes);
+	}
+}
+
+void TraversalFilter::collectParameters(const AbstractExpression* expr, vector<const AbstractExpression*>& parameters)
+{
+	if (expr == NULL)
+	{
+		return;
+	}
+	if (dynamic_cast<const ParameterValueExpression*>(expr) != NULL)
+	{
+		parameters.push_back(expr);
+		return;
+	}
+	collectParameters(expr->getLeft(), parameters);
+	collectParameters(expr->getRight(), parameters);
+	const vector<AbstractExpression*> args = expr->getArgs();
+	for (size_t i = 0; i < args.size(); i++)
+	{
+		collectParameters(args[i], parameters);
+	}
+}
+
+string TraversalFilter::signature() const
+{
+	if (isEmpty())
+	{
+		return string();
+	}
+	string signature(reinterpret_cast<const char*>(&m_conditionsId), sizeof(m_conditionsId));
+	for (size_t i = 0; i < m_parameters.size(); i++)
+	{
+		//a parameter evaluates to its current value, appended with its type and serialized bytes
+		NValue value = m_parameters[i]->eval(NULL, NULL);
+		signature.push_back((char)ValuePeeker::peekValueType(value));
+		string bytes(value.serializedSize(), '\0');
+		ReferenceSerializeOutput output(&bytes[0], bytes.size());
+		value.serializeTo(output);
+		signature.append(bytes);
+	}
+	return signature;
+}
+
+void TraversalFilter::bind(GraphView* graphView)
+{
+	if (m_graphView == graphView)
+	{
+		return;
+	}
+	bind(m_vertexes, graphView->m_vertexTable, graphView->m_columnIDsInVertexTable);
+	bind(m_edges, graphView->m_edgeTable, graphView->m_columnIDsInEdgeTable);
+	m_graphView = graphView;
+}
+
+void TraversalFilter::bind(ElementConditions& element, Table* table, const vector<int>& columnIds)
+{
+	element.sourceColumns.clear();
+	if (element.conditions.empty())
+	{
+		return;
+	}
+	element.sourceSchema = table->schema();
+
+	//the scratch tuple has the layout of the graph view attributes, only the used ones get values
+	int numOfAttributes = (int)columnIds.size();
+	vector<ValueType> types;
+	vector<int32_t> sizes;
+	vector<bool> allowNull;
+	vector<bool> inBytes;
+	for (int a = 0; a < numOfAttributes; a++)
+	{
+		int column = columnIds[a];
+		if (column >= 0)
+		{
+			const TupleSchema::ColumnInfo* info = element.sourceSchema->getColumnInfo(column);
+			types.push_back(info->getVoltType());
+			sizes.push_back(info->length);
+			inBytes.push_back(info->inBytes);
+		}
+		else
+		{
+			types.push_back(ValueType::tINTEGER);
+			sizes.push_back(sizeof(int32_t));
+			inBytes.push_back(false);
+		}
+		allowNull.push_back(true);
+	}
+	for (size_t i = 0; i < element.attributes.size(); i++)
+	{
+		int attribute = element.attributes[i];
+		if (attribute < 0 || attribute >= numOfAttributes)
+		{
+			throwSerializableEEException("A traversal condition refers to attribute %d of the %d attributes of table %s",
+					attribute, numOfAttributes, table->name().c_str());
+		}
+		element.sourceColumns.push_back(columnIds[attribute]);
+	}
+
+	TupleSchema* schema = TupleSchema::createTupleSchema(types, sizes, allowNull, inBytes);
+	element.scratch.init(schema);
+	TupleSchema::freeTupleSchema(schema);
+}
+
+bool TraversalFilter::acceptsVertex(int vertexIndex, int position)
+{
+	if (m_vertexes.conditions.empty())
+	{
+		return true;
+	}
+	return accepts(m_vertexes, m_graphView->m_topology.vertexTuple(vertexIndex), vertexIndex, position);
+}
+
+bool TraversalFilter::acceptsEdge(int edgeIndex, int position)
+{
+	if (m_edges.conditions.empty())
+	{
+		return true;
+	}
+	return accepts(m_edges, m_graphView->m_topology.edgeTupleOfIndex(edgeIndex), -1, position);
+}
+
+bool TraversalFilter::accepts(ElementConditions& element, char* tupleData, int vertexIndex, int position)
+{
+	bool loaded = false;
+	TableTuple& scratch = element.scratch.tuple();
+	for (size_t i = 0; i < element.conditions.size(); i++)
+	{
+		if (element.positions[i] != EVERY_POSITION && element.positions[i] != position)
+		{
+			continue;
+		}
+		if (!loaded)
+		{
+			if (tupleData == NULL)
+			{
+				//an element without a row cannot satisfy a condition on its attributes
+				return false;
+			}
+			TableTuple source(tupleData, element.sourceSchema);
+			for (size_t a = 0; a < element.attributes.size(); a++)
+			{
+				int column = element.sourceColumns[a];
+				if (column >= 0)
+				{
+					scratch.setNValue(element.attributes[a], source.getNValue(column));
+				}
+				else if (column == GraphView::FanOutColumn)
+				{
+					scratch.setNValue(element.attributes[a],
+							ValueFactory::getIntegerValue(m_graphView->m_topology.fanOut(vertexIndex)));
+				}
+				else if (column == GraphView::FanInColumn)
+				{
+					scratch.setNValue(element.attributes[a],
+							ValueFactory::getIntegerValue(m_graphView->m_topology.fanIn(vertexIndex)));
+				}
+			}
+			loaded = true;
+		}
+		if (!element.conditions[i]->eval(&scratch, NULL).isTrue())
+		{
+			m_graphView->m_counters.elementsPruned++;
+			return false;
+		}
+	}
+	return true;
+}
+
+}
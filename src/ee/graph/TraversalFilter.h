@@ -0,0 +1,85 @@
+/*
+ * TraversalFilter.h
+ *
+ * Vertex and edge conditions of a path scan, pushed down from the WHERE clause so
+ * that the traversals never extend a path with an element that fails them. A
+ * condition applies either to every element of the path or to the element at one
+ * position (vertex n, or edge n from vertex n to vertex n + 1). The conditions
+ * refer to the attributes of the graph view and are evaluated against a scratch
+ * tuple that gets the attributes they use.
+ */
+
+#ifndef TRAVERSALFILTER_H_
+#define TRAVERSALFILTER_H_
+
+#include <string>
+#include <vector>
+#include "common/tabletuple.h"
+
+namespace voltdb {
+
+class AbstractExpression;
+class GraphView;
+class Table;
+
+class TraversalFilter
+{
+public:
+	//position of the conditions that apply to every vertex (edge) of the path
+	static const int EVERY_POSITION = -1;
+
+	TraversalFilter();
+	~TraversalFilter();
+
+	//the expressions stay owned by the caller, positions[i] is the position conditions[i] applies to
+	void setConditions(const std::vector<AbstractExpression*>& vertexConditions, const std::vector<int>& vertexPositions,
+			const std::vector<AbstractExpression*>& edgeConditions, const std::vector<int>& edgePositions);
+	//maps the attributes used by the conditions to the columns of the vertex and edge tables of graphView
+	void bind(GraphView* graphView);
+
+	bool isEmpty() const { return m_vertexes.conditions.empty() && m_edges.conditions.empty(); }
+	//true if some condition applies to a single position only
+	bool hasPositionalConditions() const { return m_vertexes.hasPositional || m_edges.hasPositional; }
+	//checks the conditions of the given position and the ones of every position, with
+	//a position of EVERY_POSITION (unknown position) only the latter are checked
+	bool acceptsVertex(int vertexIndex, int position);
+	bool acceptsEdge(int edgeIndex, int position);
+	//identifies the conditions together with the current values of the parameters they use,
+	//two traversals with the same signature accept the same vertexes and edges
+	std::string signature() const;
+
+private:
+	//the conditions on the vertexes or on the edges
+	struct ElementConditions
+	{
+		ElementConditions() : hasPositional(false), sourceSchema(NULL) {}
+
+		std::vector<AbstractExpression*> conditions;
+		std::vector<int> positions;
+		bool hasPositional;
+		//the attributes the conditions use and the columns of the vertex (edge) table holding them
+		std::vector<int> attributes;
+		std::vector<int> sourceColumns;
+		const TupleSchema* sourceSchema;
+		//scratch tuple with one column per attribute of the graph view
+		StandAloneTupleStorage scratch;
+	};
+
+	void setConditions(ElementConditions& element, const std::vector<AbstractExpression*>& conditions,
+			const std::vector<int>& positions);
+	void bind(ElementConditions& element, Table* table, const std::vector<int>& columnIds);
+	bool accepts(ElementConditions& element, char* tupleData, int vertexIndex, int position);
+	static void collectAttributes(const AbstractExpression* expr, std::vector<int>& attributes);
+	static void collectParameters(const AbstractExpression* expr, std::vector<const AbstractExpression*>& parameters);
+
+	GraphView* m_graphView;
+	//unique for every setConditions() call, the parameters give the rest of the signature
+	int64_t m_conditionsId;
+	std::vector<const AbstractExpression*> m_parameters;
+	ElementConditions m_vertexes;
+	ElementConditions m_edges;
+};
+
+}
+
+#endif /* TRAVERSALFILTER_H_ */
@@ -19,12 +19,12 @@ int Vertex::fanIn()
 	return this->m_inEdgeIds.size();
 }
 
-int Vertex::getOutEdgeId(int index)
+int64_t Vertex::getOutEdgeId(int index)
 {
 	return this->m_outEdgeIds[index];
 }
 
-int Vertex::getInEdgeId(int index)
+int64_t Vertex::getInEdgeId(int index)
 {
 	return this->m_inEdgeIds[index];
 }
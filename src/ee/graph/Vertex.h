@@ -17,8 +17,8 @@ protected:
 	//mohamed: we are using ids instead of pointers for two reasons
 	// 1) this will abstract referencing the graph elements from thier memory locations (e.g., we can easily relocate the edges in the memory)
 	// 2) graph elements may be hosted by other remote machines
-	vector<int> m_outEdgeIds;
-	vector<int> m_inEdgeIds;
+	vector<int64_t> m_outEdgeIds;
+	vector<int64_t> m_inEdgeIds;
 
 public:
 	Vertex(void);
@@ -26,8 +26,8 @@ public:
 
 	int fanOut();
 	int fanIn();
-	int getOutEdgeId(int index);
-	int getInEdgeId(int index);
+	int64_t getOutEdgeId(int index);
+	int64_t getInEdgeId(int index);
 	Edge* getOutEdge(int index);
 	Edge* getInEdge(int index);
 	void addOutEdge(Edge* edge);
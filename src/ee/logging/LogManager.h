@@ -22,9 +22,28 @@
 #include "LogProxy.h"
 #include <stdint.h>
 #include <iostream>
+#include <sstream>
 #include <pthread.h>
 using namespace std;// Add LX
 
+// Graph tracing. The message may be any expression or stream chain ("a = " << a) and is
+// only evaluated when tracing is enabled: compiled in (not in release builds, nor with
+// VOLT_GRAPH_TRACE_DISABLED) and switched on through LogManager::GDebug
+#if defined(NDEBUG) || defined(VOLT_GRAPH_TRACE_DISABLED)
+#define VOLT_GRAPH_TRACE_ENABLED false
+#else
+#define VOLT_GRAPH_TRACE_ENABLED voltdb::LogManager::GDebug
+#endif
+
+#define GLOG(className, methodName, lineNo, message)                                \
+    do {                                                                            \
+        if (VOLT_GRAPH_TRACE_ENABLED) {                                             \
+            std::ostringstream glogMessage;                                         \
+            glogMessage << message;                                                 \
+            voltdb::LogManager::GLog(className, methodName, lineNo, glogMessage.str()); \
+        }                                                                           \
+    } while (0)
+
 namespace voltdb {
 
 /**
@@ -35,7 +54,8 @@ public:
 
     // Add LX
     static bool GDebug;
-    static void GLog(string className, string methodName, int lineNo, string message);
+    //use the GLOG macro, it skips building the message when tracing is off
+    static void GLog(const string& className, const string& methodName, int lineNo, const string& message);
     // End LX
     /**
      * Constructor that initializes all the loggers with the specified proxy
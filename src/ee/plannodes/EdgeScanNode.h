@@ -31,6 +31,8 @@ public:
 
 	std::string getTargetGraphViewName() const { return m_target_graph_name; } // DEPRECATED?
 	AbstractExpression* getPredicate() const { return m_predicate.get(); }
+	//id value of the rows to visit (the scan is a lookup of the rows with this id), NULL for a full scan
+	AbstractExpression* getLookupKey() const { return m_lookupKey.get(); }
 
 	bool isSubQuery() const { return m_isSubQuery; }
 
@@ -44,6 +46,8 @@ protected:
     // This is the predicate used to filter out tuples during the scan
     //
     boost::scoped_ptr<AbstractExpression> m_predicate;
+    //the id looked up by the scan, if any
+    boost::scoped_ptr<AbstractExpression> m_lookupKey;
     // True if this scan represents a sub query
     bool m_isSubQuery;
     // True if this scan has a predicate that always evaluates to FALSE
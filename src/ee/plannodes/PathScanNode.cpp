@@ -60,18 +60,25 @@ int PathScanPlanNode::getSPColumnIdInEdgesTable() const
 void PathScanPlanNode::loadFromJSONObject(PlannerDomValue obj)
 {
 	m_target_graph_name = obj.valueForKey("TARGET_GRAPH_NAME").asStr();
-	m_t_startVertexId = obj.valueForKey("STARTVERTEX").asInt();
-	m_t_endVertexId = obj.valueForKey("ENDVERTEX").asInt();
+	m_t_startVertexId = obj.valueForKey("STARTVERTEX").asInt64();
+	m_t_endVertexId = obj.valueForKey("ENDVERTEX").asInt64();
 	m_t_queryType = obj.valueForKey("PROP1").asInt();
 	m_t_pathLength = obj.valueForKey("LENGTH").asInt(); //used to be PROP2 before
 	m_t_topK = obj.valueForKey("PROP3").asInt();
 	m_t_vSelectivity = obj.valueForKey("PROP4").asInt();
 	m_t_eSelectivity = obj.valueForKey("PROP5").asInt();
 	m_sp_column_name = "";
+	m_batched = false;
 
 	if (obj.hasNonNullKey("HINT"))
 	{
 		m_sp_column_name = obj.valueForKey("HINT").asStr();
+		//HINT(BATCHED) names no cost column, it lets the path joins batch their traversals
+		if (m_sp_column_name == "BATCHED")
+		{
+			m_batched = true;
+			m_sp_column_name = "";
+		}
 		if (!m_sp_column_name.empty())
 		{
 			std::size_t openParenthesesPosition  = m_sp_column_name.find("(");
@@ -90,6 +97,11 @@ void PathScanPlanNode::loadFromJSONObject(PlannerDomValue obj)
 		m_predicate.reset(loadExpressionFromJSONObject("PREDICATE", obj));
 	}
 
+	m_vertexFilters.loadExpressionArrayFromJSONObject("VERTEX_FILTERS", obj);
+	loadIntArrayFromJSONObject("VERTEX_FILTER_POSITIONS", obj, m_vertexFilterPositions);
+	m_edgeFilters.loadExpressionArrayFromJSONObject("EDGE_FILTERS", obj);
+	loadIntArrayFromJSONObject("EDGE_FILTER_POSITIONS", obj, m_edgeFilterPositions);
+
 	m_isSubQuery = obj.hasNonNullKey("SUBQUERY_INDICATOR");
 
 	if (m_isSubQuery) {
@@ -112,9 +124,11 @@ void PathScanPlanNode::loadFromJSONObject(PlannerDomValue obj)
 					<< ", PLength = " << m_t_pathLength
 					<< ", K = " << m_t_topK
 					<< ", vSelectivity = " << m_t_vSelectivity
-					<< ", eSelectivity = " << m_t_eSelectivity;
+					<< ", eSelectivity = " << m_t_eSelectivity
+					<< ", vertexFilters = " << m_vertexFilters.size()
+					<< ", edgeFilters = " << m_edgeFilters.size();
 
-			LogManager::GLog("PathScanPlanNode", "loadFromJSONObject", 72, paramsToPrint.str());
+			GLOG("PathScanPlanNode", "loadFromJSONObject", 72, paramsToPrint.str());
 		}
 	}
 
@@ -31,14 +31,23 @@ public:
 
 	std::string getTargetGraphViewName() const { return m_target_graph_name; } // DEPRECATED?
 	AbstractExpression* getPredicate() const { return m_predicate.get(); }
-	int getStartVertexId() const { return m_t_startVertexId; }
-	int getEndVertexId() const { return m_t_endVertexId; }
+	int64_t getStartVertexId() const { return m_t_startVertexId; }
+	int64_t getEndVertexId() const { return m_t_endVertexId; }
 	int getQType() const { return m_t_queryType; }
 	int getPathLength() const { return m_t_pathLength; }
 	int getTopK() const { return m_t_topK; }
 	int getVertexSelectivity() const { return m_t_vSelectivity; }
 	int getEdgeSelectivity() const { return m_t_eSelectivity; }
+	//conditions on the vertexes and edges of the paths that the traversal checks while expanding,
+	//positions hold the vertex (edge) position a condition applies to, -1 for every position
+	const std::vector<AbstractExpression*>& getVertexFilters() const { return m_vertexFilters; }
+	const std::vector<int>& getVertexFilterPositions() const { return m_vertexFilterPositions; }
+	const std::vector<AbstractExpression*>& getEdgeFilters() const { return m_edgeFilters; }
+	const std::vector<int>& getEdgeFilterPositions() const { return m_edgeFilterPositions; }
 	std::string getSPColumnName() const { return m_sp_column_name; }
+	//set by HINT(BATCHED): the path joins may run the BFS of up to 64 outer rows at once,
+	//each row gets a path of the same length as its own BFS finds, not necessarily the same one
+	bool isBatched() const { return m_batched; }
 	int getSPColumnIdInEdgesTable() const;
 
 
@@ -51,9 +60,10 @@ protected:
 
     std::string m_target_graph_name;
     std::string m_sp_column_name;
+    bool m_batched = false;
 	GraphViewCatalogDelegate* m_gcd;
-	int m_t_startVertexId = -1;
-	int m_t_endVertexId = -1;
+	int64_t m_t_startVertexId = -1;
+	int64_t m_t_endVertexId = -1;
 	int m_t_queryType = -1; //prop1
 	int m_t_pathLength= -1; //length (used to be prop2 in the past)
 	int m_t_topK= -1; //prop3
@@ -63,6 +73,10 @@ protected:
 	// This is the predicate used to filter out tuples during the scan
 	//
 	boost::scoped_ptr<AbstractExpression> m_predicate;
+	OwningExpressionVector m_vertexFilters;
+	std::vector<int> m_vertexFilterPositions;
+	OwningExpressionVector m_edgeFilters;
+	std::vector<int> m_edgeFilterPositions;
 	// True if this scan represents a sub query
 	bool m_isSubQuery;
 	// True if this scan has a predicate that always evaluates to FALSE
@@ -54,6 +54,7 @@ void VertexScanPlanNode::loadFromJSONObject(PlannerDomValue obj)
 	{
 		m_predicate.reset(loadExpressionFromJSONObject("PREDICATE", obj));
 	}
+	m_lookupKey.reset(loadExpressionFromJSONObject("LOOKUP_KEY", obj));
 
 	m_isSubQuery = obj.hasNonNullKey("SUBQUERY_INDICATOR");
 
@@ -70,7 +71,7 @@ void VertexScanPlanNode::loadFromJSONObject(PlannerDomValue obj)
 	    }
 	    else
 	    {
-	    	LogManager::GLog("VertexScanPlanNode", "loadFromJSONObject", 73, "Target graph view name = " + m_gcd->getGraphView()->name());
+	    	GLOG("VertexScanPlanNode", "loadFromJSONObject", 73, "Target graph view name = " + m_gcd->getGraphView()->name());
 	    }
 	}
 }
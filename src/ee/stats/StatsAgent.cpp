@@ -18,6 +18,7 @@
 
 #include "StatsSource.h"
 #include "indexes/IndexStats.h"
+#include "graph/GraphViewStats.h"
 #include "storage/TableStats.h"
 #include "storage/temptable.h"
 
@@ -38,6 +39,8 @@ namespace
             return TableStats::generateEmptyTableStatsTable();
         case STATISTICS_SELECTOR_TYPE_INDEX:
             return IndexStats::generateEmptyIndexStatsTable();
+        case STATISTICS_SELECTOR_TYPE_GRAPHVIEW:
+            return GraphViewStats::generateEmptyGraphViewStatsTable();
         default:
             throwFatalException("Attempted to get unsupported stats type");
         }
@@ -62,6 +62,7 @@
 #include "common/ExecuteWithMpMemory.h"
 #include "common/FailureInjection.h"
 #include "crc/crc32c.h"
+#include "graph/GraphView.h"
 #include "indexes/tableindex.h"
 #include "indexes/tableindexfactory.h"
 #include "common/ValuePeeker.hpp"
@@ -188,6 +189,12 @@ PersistentTable::~PersistentTable() {
         delete view;
     }
 
+    // graph views are owned by their catalog delegates, just make sure
+    // they stop referring to the rows of this table
+    BOOST_FOREACH (auto graphView, m_graphViews) {
+        graphView->detachTable(this);
+    }
+
     // clean up indexes
     BOOST_FOREACH (auto index, m_indexes) {
         delete index;
@@ -432,7 +439,9 @@ void PersistentTable::truncateTable(VoltDBEngine* engine, bool replicatedTable,
     // buggy code paths from v6.6.  That will just cause merge conflicts
     // with the rework that is currently in progress but will land after
     // v6.6.
-    if ( ! m_viewHandlers.empty()) {
+    // Graph views keep pointers to the rows of this table, so they must see
+    // every row go away rather than have the table swapped underneath them.
+    if ( ! m_viewHandlers.empty() || ! m_graphViews.empty()) {
         /* // enable to debug
         std::cout << "DEBUG: truncating source of join view table (retail) "
                   << activeTupleCount()
@@ -928,6 +937,13 @@ void PersistentTable::insertTupleCommon(TableTuple& source, TableTuple& target,
     BOOST_FOREACH (auto view, m_views) {
         view->processTupleInsert(target, fallible);
     }
+
+    // handle any graph views, see m_graphViews for why they are read without the lock.
+    // The row is already stored, so the graph views do not throw: every id gets a key,
+    // a VARCHAR id its dictionary code
+    BOOST_FOREACH (auto graphView, m_graphViews) {
+        graphView->processTupleInsert(this, target, fallible);
+    }
 }
 
 /*
@@ -1123,6 +1139,12 @@ void PersistentTable::updateTupleWithSpecificIndexes(
     std::vector<char*> oldObjects;
     std::vector<char*> newObjects;
 
+    // Graph views read the old values from the target tuple, so they have to
+    // be told before the new values overwrite it.
+    for (auto graphView: m_graphViews) {
+        graphView->processTupleUpdate(this, targetTupleToUpdate, sourceTupleWithNewValues, fallible);
+    }
+
     // this is the actual write of the new values
     targetTupleToUpdate.copyForPersistentUpdate(sourceTupleWithNewValues, oldObjects, newObjects);
 
@@ -1323,6 +1345,10 @@ void PersistentTable::deleteTuple(TableTuple& target, bool fallible, bool remove
         }
     }
 
+    BOOST_FOREACH (auto graphView, m_graphViews) {
+        graphView->processTupleDelete(this, target, fallible);
+    }
+
     if (createUndoAction) {
         return;
     }
@@ -1591,6 +1617,25 @@ void PersistentTable::dropMaterializedView(MaterializedViewTriggerForWrite* targ
     delete targetView;
 }
 
+/*
+ * register a graph view that is built on top of this table. The table does not own it.
+ */
+void PersistentTable::addGraphView(GraphView* graphView) {
+    std::lock_guard<std::mutex> lock(m_graphViewsMutex);
+    m_graphViews.push_back(graphView);
+}
+
+/*
+ * unregister a graph view, the table no longer maintains its topology.
+ */
+void PersistentTable::dropGraphView(GraphView* graphView) {
+    std::lock_guard<std::mutex> lock(m_graphViewsMutex);
+    std::vector<GraphView*>::iterator it = find(m_graphViews.begin(), m_graphViews.end(), graphView);
+    if (it != m_graphViews.end()) {
+        m_graphViews.erase(it);
+    }
+}
+
 // ------------------------------------------------------------------
 // UTILITY
 // ------------------------------------------------------------------
@@ -1925,6 +1970,9 @@ void PersistentTable::swapTuples(TableTuple& originalTuple,
                                     m_name.c_str(), index->getName().c_str());
             }
         }
+        BOOST_FOREACH (auto graphView, m_graphViews) {
+            graphView->notifyTupleMovement(this, originalTuple, destinationTuple);
+        }
     }
 
     if (isTableWithMigrate(m_tableType)) {
@@ -71,6 +71,7 @@
 #include "common/ThreadLocalPool.h"
 #include "common/SynchronizedThreadLock.h"
 #include <map>
+#include <mutex>
 #include <set>
 
 
@@ -89,6 +90,7 @@ class MaterializedViewTriggerForInsert;
 class MaterializedViewTriggerForWrite;
 class MaterializedViewHandler;
 class TableIndex;
+class GraphView;
 
 /**
  * Interface used by contexts, scanners, iterators, and undo actions to access
@@ -392,6 +394,13 @@ public:
 
     std::vector<MaterializedViewTriggerForWrite*>& views() { return m_views; }
 
+    /** Add/drop graph views that use this table as their vertex or edge table */
+    void addGraphView(GraphView* graphView);
+
+    void dropGraphView(GraphView* graphView);
+
+    std::vector<GraphView*>& graphViews() { return m_graphViews; }
+
     TableTuple& copyIntoTempTuple(TableTuple& source) {
         vassert(m_tempTuple.m_data);
         m_tempTuple.copy(source);
@@ -800,6 +809,16 @@ private:
     // list of materialized views that are sourced from this table
     std::vector<MaterializedViewTriggerForWrite*> m_views;
 
+    // graph views whose topology is maintained from the rows of this table.
+    // The table does not own them. Every site registers its own graph view
+    // with a shared replicated table, and the sites drop them concurrently
+    // when their engines shut down, hence the mutex on add and drop. The
+    // write hooks read the vector without it: it only changes while the
+    // catalog is loaded or updated, or while the engines are torn down, and
+    // no transaction writes the table at those times.
+    std::vector<GraphView*> m_graphViews;
+    std::mutex m_graphViewsMutex;
+
     // STATS
     PersistentTableStats m_stats;
 
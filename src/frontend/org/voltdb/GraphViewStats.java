@@ -0,0 +1,75 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.voltdb.VoltTable.ColumnInfo;
+
+public class GraphViewStats extends SiteStatsSource {
+    // graph operators with a latency histogram, latencies are given as the
+    // upper bound of their power of two bucket
+    private static final String[] OPERATOR_NAMES = {
+        "VERTEX_SCAN", "EDGE_SCAN", "PATH_SCAN", "PATH_JOIN"
+    };
+
+    public GraphViewStats(long siteId) {
+        super(siteId, true);
+    }
+
+    @Override
+    protected Iterator<Object> getStatsRowKeyIterator(boolean interval) {
+        return null;
+    }
+
+    // The rows are filled in by the EE (graph/GraphViewStats.cpp), this
+    // schema is only used for the empty table returned before the EE has
+    // provided one. Keep both in sync.
+    @Override
+    protected void populateColumnSchema(ArrayList<ColumnInfo> columns) {
+        super.populateColumnSchema(columns);
+        columns.add(new ColumnInfo("PARTITION_ID", VoltType.BIGINT));
+        columns.add(new ColumnInfo("GRAPH_VIEW_NAME", VoltType.STRING));
+        columns.add(new ColumnInfo("VERTEX_SCAN_TUPLES", VoltType.BIGINT));
+        columns.add(new ColumnInfo("EDGE_SCAN_TUPLES", VoltType.BIGINT));
+        columns.add(new ColumnInfo("TRAVERSALS", VoltType.BIGINT));
+        columns.add(new ColumnInfo("PATHS_PRODUCED", VoltType.BIGINT));
+        columns.add(new ColumnInfo("VERTEXES_EXPANDED", VoltType.BIGINT));
+        columns.add(new ColumnInfo("EDGES_SCANNED", VoltType.BIGINT));
+        columns.add(new ColumnInfo("ELEMENTS_PRUNED", VoltType.BIGINT));
+        columns.add(new ColumnInfo("PATH_CACHE_HITS", VoltType.BIGINT));
+        columns.add(new ColumnInfo("PATH_CACHE_MISSES", VoltType.BIGINT));
+        columns.add(new ColumnInfo("MAX_FRONTIER_SIZE", VoltType.BIGINT));
+        columns.add(new ColumnInfo("VERTEX_COUNT", VoltType.BIGINT));
+        columns.add(new ColumnInfo("EDGE_COUNT", VoltType.BIGINT));
+        columns.add(new ColumnInfo("ADJACENCY_BYTES", VoltType.BIGINT));
+        columns.add(new ColumnInfo("SEARCH_INDEX_BYTES", VoltType.BIGINT));
+        columns.add(new ColumnInfo("MAX_FAN_OUT", VoltType.INTEGER));
+        columns.add(new ColumnInfo("MAX_FAN_OUT_VERTEX_ID", VoltType.BIGINT));
+        columns.add(new ColumnInfo("AVG_FAN_OUT", VoltType.FLOAT));
+        columns.add(new ColumnInfo("LAST_REBUILD_TIMESTAMP", VoltType.BIGINT));
+        columns.add(new ColumnInfo("LAST_REBUILD_MICROS", VoltType.BIGINT));
+        for (String operator : OPERATOR_NAMES) {
+            columns.add(new ColumnInfo(operator + "_EXECUTIONS", VoltType.BIGINT));
+            columns.add(new ColumnInfo(operator + "_P50_MICROS", VoltType.BIGINT));
+            columns.add(new ColumnInfo(operator + "_P99_MICROS", VoltType.BIGINT));
+            columns.add(new ColumnInfo(operator + "_MAX_MICROS", VoltType.BIGINT));
+        }
+    }
+}
@@ -32,6 +32,7 @@ import org.voltdb.catalog.ColumnRef;
 import org.voltdb.catalog.Constraint;
 import org.voltdb.catalog.Database;
 import org.voltdb.catalog.Function;
+import org.voltdb.catalog.GraphView;
 import org.voltdb.catalog.Index;
 import org.voltdb.catalog.ProcParameter;
 import org.voltdb.catalog.Procedure;
@@ -222,6 +223,17 @@ public class JdbcDatabaseMetaDataGenerator
             new ColumnInfo("ENABLED", VoltType.STRING)
     };
 
+    static public final ColumnInfo[] GRAPHVIEWS_SCHEMA = new ColumnInfo[] {
+            new ColumnInfo("GRAPH_NAME", VoltType.STRING),
+            new ColumnInfo("VERTEX_TABLE", VoltType.STRING),
+            new ColumnInfo("EDGE_TABLE", VoltType.STRING),
+            new ColumnInfo("IS_DIRECTED", VoltType.STRING),
+            new ColumnInfo("VERTEX_ID_COLUMN", VoltType.STRING),
+            new ColumnInfo("EDGE_ID_COLUMN", VoltType.STRING),
+            new ColumnInfo("EDGE_FROM_COLUMN", VoltType.STRING),
+            new ColumnInfo("EDGE_TO_COLUMN", VoltType.STRING)
+    };
+
     JdbcDatabaseMetaDataGenerator(Catalog catalog, DefaultProcedureManager defaultProcs, InMemoryJarfile jarfile)
     {
         m_catalog = catalog;
@@ -272,6 +284,8 @@ public class JdbcDatabaseMetaDataGenerator
             result = getClasses();
         } else if (selector.equalsIgnoreCase("TASKS")) {
             result = getTasks();
+        } else if (selector.equalsIgnoreCase("GRAPHVIEWS")) {
+            result = getGraphViews();
         }
         return result;
     }
@@ -858,6 +872,31 @@ public class JdbcDatabaseMetaDataGenerator
         return results;
     }
 
+    // The tables of the graph views and the table columns their ID, FROM and TO properties
+    // are read from, which is what loaders need to write a graph through its tables.
+    VoltTable getGraphViews() {
+        VoltTable results = new VoltTable(GRAPHVIEWS_SCHEMA);
+        for (GraphView graph : m_database.getGraphviews()) {
+            results.addRow(graph.getTypeName(),
+                    graph.getVtable() == null ? null : graph.getVtable().getTypeName(),
+                    graph.getEtable() == null ? null : graph.getEtable().getTypeName(),
+                    Boolean.toString(graph.getIsdirected()),
+                    getPropSource(graph.getVertexprops(), "ID"),
+                    getPropSource(graph.getEdgeprops(), "ID"),
+                    getPropSource(graph.getEdgeprops(), "FROM"),
+                    getPropSource(graph.getEdgeprops(), "TO"));
+        }
+        return results;
+    }
+
+    private static String getPropSource(CatalogMap<Column> props, String propName) {
+        Column prop = props.getIgnoreCase(propName);
+        if (prop == null || prop.getMatviewsource() == null) {
+            return null;
+        }
+        return prop.getMatviewsource().getTypeName();
+    }
+
     private String getParamsString(CatalogMap<TaskParameter> params) {
         String paramsArray[] = new String[params.size()];
         for (TaskParameter param : params) {
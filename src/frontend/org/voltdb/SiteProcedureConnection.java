@@ -243,6 +243,17 @@ public interface SiteProcedureConnection {
     public TheHashinator getCurrentHashinator();
     public void updateHashinator(TheHashinator hashinator);
     public void setViewsEnabled(String viewNames, boolean enabled);
+    /**
+     * The graph view topologies as of now, in chunks. Returns the next chunk,
+     * an empty one after the last.
+     */
+    public byte[] getGraphTopologyChunk();
+    /**
+     * Hands a chunk of saved graph view topologies back to the EE, which restores
+     * them once it got the last one.
+     * @return the number of graph views restored, 0 before the last chunk
+     */
+    public int restoreGraphTopologies(byte[] chunk, boolean lastChunk);
     public long[] validatePartitioning(long tableIds[], byte hashinatorConfig[]);
     public void notifyOfSnapshotNonce(String nonce, long snapshotSpHandle);
 
@@ -17,6 +17,7 @@
 
 package org.voltdb;
 
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
@@ -285,6 +286,9 @@ public class SnapshotSaveAPI
                                 multiPartTxnId,
                                 m_isTruncation,
                                 m_allLocalSiteSnapshotDigestData);
+                        if (format == SnapshotFormat.NATIVE) {
+                            saveGraphTopologies(context, file_path, pathType, file_nonce);
+                        }
                     }
 
                     if (m_deferredSetupFuture != null && taskList != null) {
@@ -493,6 +497,30 @@ public class SnapshotSaveAPI
         }
     }
 
+    /**
+     * Save the graph view topologies of the site along with its tables. The snapshot
+     * does not depend on them, a restore without them rebuilds the topologies from the
+     * tables, so a failure is only logged.
+     */
+    private static void saveGraphTopologies(SystemProcedureExecutionContext context,
+            String file_path, String pathType, String file_nonce)
+    {
+        try {
+            Runnable completionTask = SnapshotUtil.writeGraphTopologies(
+                    context.getSiteProcedureConnection(),
+                    SnapshotUtil.getRealPath(SnapshotPathType.valueOf(pathType), file_path),
+                    file_nonce,
+                    context.getPartitionId(),
+                    SNAP_LOG);
+            if (completionTask != null) {
+                SnapshotSiteProcessor.m_tasksOnSnapshotCompletion.offer(completionTask);
+            }
+        }
+        catch (IOException e) {
+            SNAP_LOG.warn("Unable to save the graph view topologies of partition " + context.getPartitionId(), e);
+        }
+    }
+
     private void createSetupIv2(
             String file_path, final String pathType, final String file_nonce, SnapshotFormat format,
             final long txnId, final Map<Integer, Long> partitionTransactionIds,
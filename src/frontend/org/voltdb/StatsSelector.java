@@ -22,6 +22,7 @@ package org.voltdb;
 public enum StatsSelector {
     TABLE,
     INDEX,
+    GRAPHVIEW,      // graph view operator counters, the ordinal must match the EE selector type
     PROCEDURE,
     STARVATION,
     QUEUE,
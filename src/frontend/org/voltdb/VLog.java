@@ -18,6 +18,7 @@
 package org.voltdb;
 
 import java.io.File;
+import java.util.function.Supplier;
 
 /**
  * This file isn't long for this world. It's just something I've been using
@@ -26,7 +27,8 @@ import java.io.File;
  */
 public class VLog {
     // Add LX
-    public static boolean GDebug = true;
+    // graph tracing is off unless the JVM is started with -Dvoltdb.graph.debug=true
+    public static boolean GDebug = Boolean.getBoolean("voltdb.graph.debug");
     public static void GLog(String className, String methodName, int lineNo, String message)
     {
         if(VLog.GDebug)
@@ -34,6 +36,14 @@ public class VLog {
             System.out.println("#GDebug: " + className + "." + methodName + "(" + Integer.toString(lineNo) + ") => " + message);
         }
     }
+    // the message is only built when tracing is on, use this on hot paths
+    public static void GLog(String className, String methodName, int lineNo, Supplier<String> message)
+    {
+        if(VLog.GDebug)
+        {
+            GLog(className, methodName, lineNo, message.get());
+        }
+    }
     // End LX
     static File m_logfile = new File("vlog.txt");
 
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.voltdb.client.VoltBulkLoader.BulkLoaderFailureCallBack;
 import org.voltdb.client.VoltBulkLoader.BulkLoaderSuccessCallback;
@@ -111,6 +112,21 @@ public interface Client {
     public boolean callProcedure(ProcedureCallback callback, String procName, Object... parameters)
     throws IOException, NoConnectionsException;
 
+    /**
+     * <p>Asynchronously invoke a procedure, returning a future that completes with the response.
+     * The future completes on the thread backing the client instance, so the same care applies to
+     * the stages attached to it without an executor as to a {@link ProcedureCallback}. As with a
+     * callback, the future completes normally whatever the status of the response is. It completes
+     * exceptionally if the invocation could not be queued: with a {@link ProcCallException} if
+     * configureBlocking(false) was invoked and there is backpressure, with the exception raised
+     * otherwise (e.g. {@link NoConnectionsException}).</p>
+     *
+     * @param procName class name (not qualified by package) of the procedure to execute.
+     * @param parameters vararg list of procedure's parameter values.
+     * @return future of the {@link ClientResponse} of the invocation.
+     */
+    public CompletableFuture<ClientResponse> callProcedureAsync(String procName, Object... parameters);
+
     /**
      * <p>Synchronously invoke a procedure with timeout. Blocks until a result is available. A {@link ProcCallException}
      * is thrown if the response is anything other then success.</p>
@@ -47,6 +47,7 @@ public class ClientConfig {
     static final long DEFAULT_CONNECTION_TIMOUT_MS = 2 * 60 * 1000; // default timeout is 2 minutes;
     static final long DEFAULT_INITIAL_CONNECTION_RETRY_INTERVAL_MS = 1000; // default initial connection retry interval is 1 second
     static final long DEFAULT_MAX_CONNECTION_RETRY_INTERVAL_MS = 8000; // default max connection retry interval is 8 seconds
+    static final int DEFAULT_WRITE_COALESCING_MAX_BYTES = 64 * 1024; // default coalesced batch is sent once it reaches 64k
 
     final ClientAuthScheme m_hashScheme;
     final String m_username;
@@ -70,6 +71,8 @@ public class ClientConfig {
     boolean m_topologyChangeAware = false;
     boolean m_enableSSL = false;
     String m_sslPropsFile = null;
+    long m_writeCoalescingLingerNanos = 0;
+    int m_writeCoalescingMaxBytes = DEFAULT_WRITE_COALESCING_MAX_BYTES;
 
     //For unit testing. This should really be in Environment class we should assemble all such there.
     public static final boolean ENABLE_SSL_FOR_TEST = Boolean.valueOf(
@@ -313,6 +316,32 @@ public class ClientConfig {
         m_maxOutstandingTxns = maxOutstanding;
     }
 
+    /**
+     * <p>Coalesce the writes of the asynchronous invocations. Instead of queuing every invocation
+     * on its connection as it is made, the invocations bound for the same connection are held for
+     * up to the linger window and then written together, which saves the per invocation wakeups
+     * of the network thread and system calls when many small invocations are made. An invocation
+     * waits at most the linger window longer to be sent, a batch is sent right away once it holds
+     * maxBatchBytes. Disabled by default (a linger window of 0).</p>
+     *
+     * @param lingerMicros How long in microseconds an invocation may wait for others to be sent with,
+     * 0 to send every invocation as it is made.
+     * @param maxBatchBytes Serialized size of the invocations at which a batch is sent without
+     * waiting for the linger window to close.
+     */
+    public void setWriteCoalescing(long lingerMicros, int maxBatchBytes) {
+        if (lingerMicros < 0) {
+            throw new IllegalArgumentException(
+                    "Linger window must not be negative, " + lingerMicros + " was specified");
+        }
+        if (maxBatchBytes < 1) {
+            throw new IllegalArgumentException(
+                    "Max batch size must be greater than 0, " + maxBatchBytes + " was specified");
+        }
+        m_writeCoalescingLingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        m_writeCoalescingMaxBytes = maxBatchBytes;
+    }
+
     /**
      * <p>Set the maximum number of transactions that can be run in 1 second. Note this
      * specifies a rate, not a ceiling. If the limit is set to 10, you can't send 10 in
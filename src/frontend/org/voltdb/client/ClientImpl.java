@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
@@ -142,6 +143,7 @@ public final class ClientImpl implements Client {
         }
         m_username = username;
         m_distributer.setTopologyChangeAware(config.m_topologyChangeAware);
+        m_distributer.setWriteCoalescing(config.m_writeCoalescingLingerNanos, config.m_writeCoalescingMaxBytes);
         if (config.m_topologyChangeAware) {
             m_ex = Executors.newSingleThreadScheduledExecutor(CoreUtils.getThreadFactory("Topoaware thread"));
         }
@@ -328,6 +330,31 @@ public final class ClientImpl implements Client {
                 Distributer.USE_DEFAULT_CLIENT_TIMEOUT, TimeUnit.NANOSECONDS, parameters);
     }
 
+    /**
+     * Asynchronously invoke a procedure call, the returned future completes with the response.
+     * @param procName class name (not qualified by package) of the procedure to execute.
+     * @param parameters vararg list of procedure's parameter values.
+     * @return future of the procedure results
+     */
+    @Override
+    public CompletableFuture<ClientResponse> callProcedureAsync(String procName, Object... parameters) {
+        final CompletableFuture<ClientResponse> future = new CompletableFuture<>();
+        try {
+            if (!callProcedure(future::complete, procName, parameters)) {
+                final ClientResponseImpl r = new ClientResponseImpl(
+                        ClientResponse.GRACEFUL_FAILURE,
+                        ClientResponse.UNINITIALIZED_APP_STATUS_CODE,
+                        "",
+                        new VoltTable[0],
+                        String.format("Unable to queue client request."));
+                future.completeExceptionally(new ProcCallException(r, "Unable to queue client request.", null));
+            }
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * Asynchronously invoke a procedure call with timeout.
      * @param callback TransactionCallback that will be invoked with procedure results.
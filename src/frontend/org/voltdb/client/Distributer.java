@@ -160,6 +160,16 @@ class Distributer {
     private AtomicBoolean m_createConnectionUponTopoChangeInProgress = new AtomicBoolean(false);
     private boolean m_topologyChangeAware;
 
+    // Write coalescing of the invocations (see ClientConfig.setWriteCoalescing), disabled
+    // with a linger window of 0
+    private long m_writeCoalescingLingerNanos = 0;
+    private int m_writeCoalescingMaxBytes = ClientConfig.DEFAULT_WRITE_COALESCING_MAX_BYTES;
+    // Closes the linger windows, kept off the reaper thread so that a busy timeout
+    // expiration does not hold the batches back. Created when the coalescing is enabled
+    private ScheduledExecutorService m_writeCoalescer = null;
+    // The number of coalesced batches enqueued on the write streams, for the tests
+    final AtomicLong m_coalescedBatches = new AtomicLong(0);
+
     private final ScheduledExecutorService m_ex =
         Executors.newSingleThreadScheduledExecutor(
                 CoreUtils.getThreadFactory("VoltDB Client Reaper Thread"));
@@ -423,6 +433,11 @@ class Distributer {
 
         volatile long m_lastResponseTimeNanos = System.nanoTime();
         boolean m_outstandingPing = false;
+
+        // Invocations held back by the write coalescing, written with a single enqueue
+        // once the linger window of the first one closes or they reach the max batch size
+        private final ArrayList<ByteBuffer> m_coalescedWrites = new ArrayList<>();
+        private int m_coalescedBytes = 0;
         ClientStatusListenerExt.DisconnectCause m_closeCause = DisconnectCause.CONNECTION_CLOSED;
 
         public NodeConnection(long ids[]) {}
@@ -509,8 +524,61 @@ class Distributer {
                 m_rateLimiter.transactionResponseReceived(nowNanos, -1, ignoreBackpressure);
                 return;
             } else {
+                write(c);
+            }
+        }
+
+        /*
+         * Queue an invocation on the write stream, or add it to the coalesced writes.
+         * The first invocation of a batch schedules the flush that closes its linger window
+         */
+        private void write(ByteBuffer c) {
+            if (m_writeCoalescingLingerNanos <= 0) {
                 m_connection.writeStream().enqueue(c);
+                return;
+            }
+            boolean firstOfBatch;
+            synchronized (m_coalescedWrites) {
+                m_coalescedWrites.add(c);
+                m_coalescedBytes += c.remaining();
+                if (m_coalescedBytes >= m_writeCoalescingMaxBytes) {
+                    flushCoalescedWrites();
+                    return;
+                }
+                firstOfBatch = m_coalescedWrites.size() == 1;
+            }
+            if (firstOfBatch) {
+                try {
+                    m_writeCoalescer.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            synchronized (m_coalescedWrites) {
+                                flushCoalescedWrites();
+                            }
+                        }
+                    }, m_writeCoalescingLingerNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException ree) {
+                    // this is for race if m_writeCoalescer shuts down in the middle of schedule,
+                    // nothing closes the linger window any more so write the batch now
+                    synchronized (m_coalescedWrites) {
+                        flushCoalescedWrites();
+                    }
+                }
+            }
+        }
+
+        /*
+         * Must be called holding the m_coalescedWrites lock. A flush scheduled for a batch that was
+         * already sent because of its size sends the next batch early (or nothing), which is fine
+         */
+        private void flushCoalescedWrites() {
+            if (m_coalescedWrites.isEmpty()) {
+                return;
             }
+            m_connection.writeStream().enqueue(m_coalescedWrites.toArray(new ByteBuffer[m_coalescedWrites.size()]));
+            m_coalescedWrites.clear();
+            m_coalescedBytes = 0;
+            m_coalescedBatches.incrementAndGet();
         }
 
         /*
@@ -1310,11 +1378,19 @@ class Distributer {
         if (CoreUtils.isJunitTest()) {
             m_timeoutReaperHandle.cancel(true);
             m_ex.shutdownNow();
+            if (m_writeCoalescer != null) {
+                m_writeCoalescer.shutdownNow();
+            }
         } else {
             // stop the old proc call reaper
             m_timeoutReaperHandle.cancel(false);
             m_ex.shutdown();
             m_ex.awaitTermination(365, TimeUnit.DAYS);
+            // the pending linger windows still close, their batches are written before the network stops
+            if (m_writeCoalescer != null) {
+                m_writeCoalescer.shutdown();
+                m_writeCoalescer.awaitTermination(365, TimeUnit.DAYS);
+            }
         }
 
         m_network.shutdown();
@@ -1639,6 +1715,15 @@ class Distributer {
         m_topologyChangeAware = topoAware;
     }
 
+    void setWriteCoalescing(long lingerNanos, int maxBatchBytes) {
+        m_writeCoalescingLingerNanos = lingerNanos;
+        m_writeCoalescingMaxBytes = maxBatchBytes;
+        if (lingerNanos > 0 && m_writeCoalescer == null) {
+            m_writeCoalescer = Executors.newSingleThreadScheduledExecutor(
+                    CoreUtils.getThreadFactory("VoltDB Client Write Coalescer"));
+        }
+    }
+
     void createConnectionsUponTopologyChange() {
 
         if(!m_topologyChangeAware || m_createConnectionUponTopoChangeInProgress.get()) {
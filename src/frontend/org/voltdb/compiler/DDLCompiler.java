@@ -914,6 +914,31 @@ public class DDLCompiler {
         }
     }
 
+    // Add LX
+    /**
+     * A graph view follows the partitioning of its vertex and edge tables, which
+     * is only known once handlePartitions() has run. Each site then holds the
+     * topology of its own partition. Mixing a replicated and a partitioned table
+     * would give every site a different subset of one side of the graph, so it is
+     * rejected.
+     */
+    void handleGraphPartitions(Database db) throws VoltCompilerException {
+        for (GraphView graph : db.getGraphviews()) {
+            boolean isVertexReplicated = graph.getVtable().getIsreplicated();
+            boolean isEdgeReplicated = graph.getEtable().getIsreplicated();
+            if (isVertexReplicated != isEdgeReplicated) {
+                throw m_compiler.new VoltCompilerException(String.format(
+                        "Graph view %s mixes the %s vertex table %s and the %s edge table %s. " +
+                        "The vertex and edge tables of a graph view must be either both replicated or both partitioned.",
+                        graph.getTypeName(),
+                        isVertexReplicated ? "replicated" : "partitioned", graph.getVtable().getTypeName(),
+                        isEdgeReplicated ? "replicated" : "partitioned", graph.getEtable().getTypeName()));
+            }
+            graph.setIsreplicated(isVertexReplicated);
+        }
+    }
+    // End LX
+
     private void handleTTL(Database db) throws VoltCompilerException {
         for (Table table : db.getTables()) {
             TimeToLive ttl = table.getTimetolive().get(TimeToLiveVoltDB.TTL_NAME);
@@ -980,6 +1005,7 @@ public class DDLCompiler {
 
         fillTrackerFromXML();
         handlePartitions(db);
+        handleGraphPartitions(db);
         handleTTL(db);
         // System.out.println("222");
         m_mvProcessor.startProcessing(db, m_matViewMap, getExportTableNames());
@@ -1697,9 +1723,8 @@ public class DDLCompiler {
         graph.setAnnotation(annotation);
         annotation.ddl = node.attributes.get("DDL");
 
-        // all tables start replicated
-        // if a partition is found in the project file later,
-        //  then this is reversed
+        // all graphs start replicated, handleGraphPartitions()
+        // derives the final value from the vertex and edge tables
         graph.setIsreplicated(true);
 
         // map of index replacements for later constraint fixup
@@ -298,6 +298,21 @@ public class TupleValueExpression extends AbstractValueExpression {
         m_tableAlias = alias;
     }
 
+    /**
+     * @return VERTEXES, EDGES or PATHS for a property of a graph view, null otherwise
+     */
+    public String getGraphObject() {
+        return m_graphObject;
+    }
+
+    /**
+     * @return the position of the vertex or edge on the path (as in PS.EDGES[1].WEIGHT),
+     * -1 for every position or no position
+     */
+    public int getGraphObjectIdx() {
+        return m_graphObjectIdx;
+    }
+
     boolean matchesTableAlias(String tableAlias) {
        if (m_tableAlias == null) {
           return m_tableName.equals(tableAlias);
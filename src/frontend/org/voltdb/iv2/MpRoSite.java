@@ -696,6 +696,16 @@ public class MpRoSite implements Runnable, SiteProcedureConnection
         throw new RuntimeException("RO MP Site doesn't do this, shouldn't be here.");
     }
 
+    @Override
+    public byte[] getGraphTopologyChunk() {
+        throw new RuntimeException("RO MP Site doesn't do this, shouldn't be here.");
+    }
+
+    @Override
+    public int restoreGraphTopologies(byte[] chunk, boolean lastChunk) {
+        throw new RuntimeException("RO MP Site doesn't do this, shouldn't be here.");
+    }
+
     /**
      * For the specified list of table ids, return the number of mispartitioned rows using
      * the provided hashinator config
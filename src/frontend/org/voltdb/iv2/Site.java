@@ -45,6 +45,7 @@ import org.voltdb.DRLogSegmentId;
 import org.voltdb.DependencyPair;
 import org.voltdb.ExtensibleSnapshotDigestData;
 import org.voltdb.HsqlBackend;
+import org.voltdb.GraphViewStats;
 import org.voltdb.IndexStats;
 import org.voltdb.LoadedProcedureSet;
 import org.voltdb.MemoryStats;
@@ -196,6 +197,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
     // Stats
     final TableStats m_tableStats;
     final IndexStats m_indexStats;
+    final GraphViewStats m_graphViewStats;
     final MemoryStats m_memStats;
 
     // Each execution site manages snapshot using a SnapshotSiteProcessor
@@ -721,12 +723,17 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
             agent.registerStatsSource(StatsSelector.INDEX,
                                       m_siteId,
                                       m_indexStats);
+            m_graphViewStats = new GraphViewStats(m_siteId);
+            agent.registerStatsSource(StatsSelector.GRAPHVIEW,
+                                      m_siteId,
+                                      m_graphViewStats);
             m_memStats = memStats;
             m_tickProducer = new TickProducer(pendingSiteTasks, siteId);
         } else {
             // MPI doesn't need to track these stats
             m_tableStats = null;
             m_indexStats = null;
+            m_graphViewStats = null;
             m_memStats = null;
             m_tickProducer = null;
         }
@@ -1225,6 +1232,22 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
         m_ee.setViewsEnabled(viewNames, enabled);
     }
 
+    @Override
+    public byte[] getGraphTopologyChunk() {
+        m_ee.getParamBufferForExecuteTask(0);
+        return m_ee.executeTask(TaskType.GET_GRAPH_TOPOLOGIES, ByteBuffer.allocate(0));
+    }
+
+    @Override
+    public int restoreGraphTopologies(byte[] chunk, boolean lastChunk) {
+        ByteBuffer paramBuffer = m_ee.getParamBufferForExecuteTask(1 + 4 + chunk.length);
+        paramBuffer.put(lastChunk ? (byte)1 : (byte)0);
+        paramBuffer.putInt(chunk.length);
+        paramBuffer.put(chunk);
+        ByteBuffer resultBuffer = ByteBuffer.wrap(m_ee.executeTask(TaskType.RESTORE_GRAPH_TOPOLOGIES, paramBuffer));
+        return resultBuffer.getInt();
+    }
+
     @Override
     public Map<Integer, List<VoltTable>> recursableRun(
             TransactionState currentTxnState)
@@ -1480,6 +1503,22 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
                 m_indexStats.resetStatsTable();
             }
 
+            // update graph view stats, located by the relative index of the graph view
+            CatalogMap<org.voltdb.catalog.GraphView> graphViews = m_context.database.getGraphviews();
+            int[] graphViewIds = new int[graphViews.size()];
+            i = 0;
+            for (org.voltdb.catalog.GraphView graphView : graphViews) {
+                graphViewIds[i++] = graphView.getRelativeIndex();
+            }
+            final VoltTable[] s3 =
+                m_ee.getStats(StatsSelector.GRAPHVIEW, graphViewIds, false, time);
+            if ((s3 != null) && (s3.length > 0)) {
+                m_graphViewStats.setStatsTable(s3[0]);
+            }
+            else {
+                m_graphViewStats.resetStatsTable();
+            }
+
             // update the rolled up memory statistics
             if (m_memStats != null) {
                 m_memStats.eeUpdateMemStats(m_siteId,
@@ -45,10 +45,19 @@ public class JDBC4Connection implements java.sql.Connection, IVoltDBConnection
     public static final String COMMIT_THROW_EXCEPTION = "jdbc.committhrowexception";
     public static final String ROLLBACK_THROW_EXCEPTION = "jdbc.rollbackthrowexception";
     public static final String QUERYTIMEOUT_UNIT = "jdbc.querytimeout.unit";
+    // Sends all the statements of Statement.executeBatch() before waiting for the first response.
+    // The statements of a batch may then execute in any order, so this only suits batches of
+    // independent statements (e.g. inserts of distinct rows).
+    public static final String BATCH_PIPELINING = "jdbc.batchpipelining";
+    // Fetches the rows of a SELECT a page of Statement.getFetchSize() rows at a time, see
+    // JDBC4PagedResultSet for the queries that qualify.
+    public static final String STREAM_RESULTS = "jdbc.streamresults";
 
     protected final JDBC4ClientConnection NativeConnection;
     protected final String User;
     protected TimeUnit queryTimeOutUnit = TimeUnit.SECONDS;
+    protected boolean pipelineBatches = false;
+    protected boolean streamResults = false;
     private boolean isClosed = false;
     private Properties props;
     private boolean autoCommit = true;
@@ -61,6 +70,8 @@ public class JDBC4Connection implements java.sql.Connection, IVoltDBConnection
         if (this.props.getProperty(JDBC4Connection.QUERYTIMEOUT_UNIT, "Seconds").equalsIgnoreCase("milliseconds")) {
             this.queryTimeOutUnit = TimeUnit.MILLISECONDS;
         }
+        this.pipelineBatches = this.props.getProperty(JDBC4Connection.BATCH_PIPELINING, "false").equalsIgnoreCase("true");
+        this.streamResults = this.props.getProperty(JDBC4Connection.STREAM_RESULTS, "false").equalsIgnoreCase("true");
     }
 
     private void checkClosed() throws SQLException
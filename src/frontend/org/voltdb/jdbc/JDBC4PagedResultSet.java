@@ -0,0 +1,237 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.jdbc;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.voltdb.VoltTable;
+import org.voltdb.VoltTableRow;
+import org.voltdb.jdbc.JDBC4Statement.VoltSQL;
+
+/**
+ * A forward only result set that holds one page of the rows of a query at a time, so a large
+ * SELECT is neither buffered whole in the response nor in the client heap. Every page is fetched
+ * by its own call of the query, with a LIMIT of the fetch size and a filter that only admits the
+ * rows sorting after the ORDER BY values of the last row read (keyset paging). This needs a query
+ * ordered at its top level by plain columns (see VoltSQL.isPageable()), and the order has to be
+ * total, e.g. end with the primary key, for the pages not to skip or repeat rows. The pages run
+ * as separate transactions, so they reflect the writes committed in between.
+ *
+ * Cost: when an index covers the ORDER BY columns, a page is a range scan of the index that
+ * stops after the fetch size, and reading the whole result costs about what one unpaged query
+ * does. Without such an index every page scans and sorts all the rows that match the query and
+ * follow the last key, O(rows * rows / fetch size) in total, so only page queries on indexed keys.
+ * When the last row read has no usable key, because the result lacks an ORDER BY column, names
+ * it more than once or holds a null in it, the remaining rows are read in one last page past
+ * an OFFSET, as large as an unpaged result.
+ *
+ * Statements create these instead of {@link JDBC4ResultSet} when the connection has
+ * {@link JDBC4Connection#STREAM_RESULTS} set and the statement has a fetch size.
+ */
+public class JDBC4PagedResultSet extends JDBC4ResultSet {
+    private final VoltSQL query;
+    private final JDBC4ClientConnection connection;
+    private final long timeout;
+    private final TimeUnit unit;
+    private final int maxRows;
+    private int pageSize;
+    // rows of the pages before the current one
+    private int rowsBefore = 0;
+    private boolean lastPage;
+    // the result columns of the ORDER BY columns, null if one is missing or ambiguous
+    private final int[] keyColumns;
+
+    JDBC4PagedResultSet(Statement sourceStatement, VoltSQL query, JDBC4ClientConnection connection,
+            long timeout, TimeUnit unit, int pageSize, int maxRows) throws SQLException {
+        super(sourceStatement, fetchPage(query.getFirstPageQuery(pageLimit(pageSize, maxRows, 0)),
+                connection, timeout, unit));
+        this.query = query;
+        this.connection = connection;
+        this.timeout = timeout;
+        this.unit = unit;
+        this.maxRows = maxRows;
+        this.pageSize = pageSize;
+        this.lastPage = isLastPage(pageLimit(pageSize, maxRows, 0), table.getRowCount());
+        this.keyColumns = findKeyColumns(table, query.getPageKeyNames());
+        super.setFetchSize(pageSize);
+    }
+
+    private static VoltTable fetchPage(VoltSQL pageQuery, JDBC4ClientConnection connection,
+            long timeout, TimeUnit unit) throws SQLException {
+        return pageQuery.execute(connection, timeout, unit)[0];
+    }
+
+    // rows to ask for after the given number of rows, at most maxRows (if set) in total
+    private static int pageLimit(int pageSize, int maxRows, int rowsRead) {
+        return (maxRows > 0) ? Math.min(pageSize, maxRows - rowsRead) : pageSize;
+    }
+
+    private static int[] findKeyColumns(VoltTable table, List<String> keyNames) {
+        int[] keyColumns = new int[keyNames.size()];
+        for (int i = 0; i < keyColumns.length; i++) {
+            keyColumns[i] = -1;
+            for (int column = 0; column < table.getColumnCount(); column++) {
+                if (keyNames.get(i).equalsIgnoreCase(table.getColumnName(column))) {
+                    if (keyColumns[i] >= 0) {
+                        return null;
+                    }
+                    keyColumns[i] = column;
+                }
+            }
+            if (keyColumns[i] < 0) {
+                return null;
+            }
+        }
+        return keyColumns;
+    }
+
+    // the ORDER BY values of the last row of the current page, null if they cannot be compared
+    private Object[] getLastKey() {
+        if (keyColumns == null) {
+            return null;
+        }
+        VoltTableRow row = table.fetchRow(table.getRowCount() - 1);
+        Object[] key = new Object[keyColumns.length];
+        for (int i = 0; i < keyColumns.length; i++) {
+            key[i] = row.get(keyColumns[i], table.getColumnType(keyColumns[i]));
+            if (row.wasNull()) {
+                return null;
+            }
+        }
+        return key;
+    }
+
+    private boolean isLastPage(int limit, int pageRows) {
+        return pageRows < limit || (maxRows > 0 && rowsBefore + pageRows >= maxRows);
+    }
+
+    // Moves the cursor forward one row from its current position, fetching the next page once
+    // the rows of the current one are read.
+    @Override
+    public boolean next() throws SQLException {
+        checkClosed();
+        if (super.next()) {
+            return true;
+        }
+        if (lastPage) {
+            return false;
+        }
+        int rowsRead = rowsBefore + table.getRowCount();
+        Object[] lastKey = getLastKey();
+        VoltTable page;
+        if (lastKey != null) {
+            int limit = pageLimit(pageSize, maxRows, rowsRead);
+            page = fetchPage(query.getNextPageQuery(limit, lastKey), connection, timeout, unit);
+            rowsBefore = rowsRead;
+            lastPage = isLastPage(limit, page.getRowCount());
+        }
+        else {
+            page = fetchPage(query.getRemainingRowsQuery((maxRows > 0) ? maxRows - rowsRead : 0, rowsRead),
+                    connection, timeout, unit);
+            rowsBefore = rowsRead;
+            lastPage = true;
+        }
+        resetTable(page);
+        return super.next();
+    }
+
+    // Retrieves the current row number.
+    @Override
+    public int getRow() throws SQLException {
+        int row = super.getRow();
+        return (row == 0) ? 0 : rowsBefore + row;
+    }
+
+    // Retrieves whether the cursor is on the first row of this ResultSet
+    // object.
+    @Override
+    public boolean isFirst() throws SQLException {
+        return rowsBefore == 0 && super.isFirst();
+    }
+
+    // Retrieves whether the cursor is on the last row of this ResultSet object,
+    // which a full page cannot tell without fetching the next one.
+    @Override
+    public boolean isLast() throws SQLException {
+        checkClosed();
+        throw SQLError.noSupport();
+    }
+
+    // Retrieves the type of this ResultSet object.
+    @Override
+    public int getType() throws SQLException {
+        return TYPE_FORWARD_ONLY;
+    }
+
+    // Gives the JDBC driver a hint as to the number of rows that should be
+    // fetched from the database when more rows are needed for this ResultSet
+    // object.
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        super.setFetchSize(rows);
+        if (rows > 0) {
+            pageSize = rows;
+        }
+    }
+
+    // The cursor of a paged result set only moves forward.
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        checkClosed();
+        throw SQLError.noSupport();
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        checkClosed();
+        throw SQLError.noSupport();
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        checkClosed();
+        throw SQLError.noSupport();
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        checkClosed();
+        throw SQLError.noSupport();
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        checkClosed();
+        throw SQLError.noSupport();
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        checkClosed();
+        throw SQLError.noSupport();
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        checkClosed();
+        throw SQLError.noSupport();
+    }
+}
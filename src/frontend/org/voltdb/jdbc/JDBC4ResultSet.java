@@ -82,6 +82,14 @@ public class JDBC4ResultSet implements java.sql.ResultSet {
         }
     }
 
+    // Replaces the rows of the result set, used by JDBC4PagedResultSet to move on to the next page.
+    // The cursor is left before the first of the new rows.
+    protected void resetTable(VoltTable sourceTable) {
+        table = sourceTable;
+        rowCount = table.getRowCount();
+        cursorPosition = Position.beforeFirst;
+    }
+
     protected final void checkClosed() throws SQLException {
         if (this.isClosed())
             throw SQLError.get(SQLError.CONNECTION_CLOSED);
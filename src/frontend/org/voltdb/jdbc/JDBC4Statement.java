@@ -28,13 +28,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.voltdb.VoltTable;
 import org.voltdb.VoltType;
 import org.voltdb.client.ClientResponse;
 import org.voltdb.client.ProcCallException;
+import org.voltdb.client.ProcedureCallback;
 import org.voltdb.parser.JDBCParser;
 import org.voltdb.parser.SQLLexer;
 import org.voltdb.parser.JDBCParser.ParsedCall;
@@ -50,6 +55,39 @@ public class JDBC4Statement implements java.sql.Statement
         public static final byte TYPE_UPDATE = 2;
         public static final byte TYPE_EXEC = 3;
 
+        private static final String COLUMN_REFERENCE = "((?:[a-z_][a-z0-9_$]*\\.)?([a-z_][a-z0-9_$]*))";
+        private static final Pattern TOP_LEVEL_ORDER_BY_COLUMNS = Pattern.compile(
+                "\\border\\s+by\\s+(" + COLUMN_REFERENCE + "(?:\\s+(?:asc|desc))?(?:\\s*,\\s*" +
+                COLUMN_REFERENCE + "(?:\\s+(?:asc|desc))?)*)\\s*$", Pattern.CASE_INSENSITIVE);
+        private static final Pattern ORDER_BY_COLUMN = Pattern.compile(
+                COLUMN_REFERENCE + "(?:\\s+(asc|desc))?", Pattern.CASE_INSENSITIVE);
+        private static final Pattern TOP_LEVEL_LIMIT = Pattern.compile("\\b(limit|offset)\\b", Pattern.CASE_INSENSITIVE);
+        private static final Pattern TOP_LEVEL_GROUPING = Pattern.compile(
+                "\\b(group\\s+by|having|union|intersect|except)\\b", Pattern.CASE_INSENSITIVE);
+        private static final Pattern TOP_LEVEL_FROM = Pattern.compile("\\bfrom\\b", Pattern.CASE_INSENSITIVE);
+        private static final Pattern TOP_LEVEL_WHERE = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+        private static final Pattern SELECT_LIST_START = Pattern.compile(
+                "^\\s*select\\s+(?:(?:distinct|all)\\s+)?", Pattern.CASE_INSENSITIVE);
+        // the alias of a select item, with or without AS
+        private static final Pattern SELECT_ITEM_ALIAS = Pattern.compile(
+                "\\S\\s+(?:as\\s+)?([a-z_][a-z0-9_$]*)$", Pattern.CASE_INSENSITIVE);
+
+        // The ORDER BY columns of a pageable query, and where its WHERE and ORDER BY clauses are
+        private static class PageKey
+        {
+            final List<String> columns = new ArrayList<>();
+            final List<String> names = new ArrayList<>();
+            final List<Boolean> descending = new ArrayList<>();
+            final int whereEnd;
+            final int orderByStart;
+
+            PageKey(int whereEnd, int orderByStart)
+            {
+                this.whereEnd = whereEnd;
+                this.orderByStart = orderByStart;
+            }
+        }
+
         private final String[] sql;
         private final int parameterCount;
         private final byte type;
@@ -126,24 +164,7 @@ public class JDBC4Statement implements java.sql.Statement
             {
                 ClientResponse response = e.getClientResponse();
                 if (response != null) {
-                    // Map response status to specific JDBC exception, mostly GENERAL_ERROR except
-                    // for connection problems.
-                    switch (response.getStatus()) {
-                    case ClientResponse.CONNECTION_LOST:
-                        throw SQLError.get(e, SQLError.CONNECTION_CLOSED, "CONNECTION_LOST", e.getMessage());
-                    case ClientResponse.CONNECTION_TIMEOUT:
-                        throw SQLError.get(e, SQLError.CONNECTION_FAILURE, "CONNECTION_TIMEOUT", e.getMessage());
-                    case ClientResponse.SERVER_UNAVAILABLE:
-                        throw SQLError.get(e, SQLError.CONNECTION_FAILURE, "CONNECTION_UNAVAILABLE", e.getMessage());
-                    case ClientResponse.USER_ABORT:
-                        throw SQLError.get(e, SQLError.GENERAL_ERROR, "USER_ABORT", e.getMessage());
-                    case ClientResponse.UNEXPECTED_FAILURE:
-                        throw SQLError.get(e, SQLError.GENERAL_ERROR, "UNEXPECTED_FAILURE", e.getMessage());
-                    case ClientResponse.GRACEFUL_FAILURE:
-                        throw SQLError.get(e, SQLError.GENERAL_ERROR, "GRACEFUL_FAILURE", e.getMessage());
-                    default:
-                        throw SQLError.get(e, SQLError.GENERAL_ERROR, String.format("status=%d", (int)response.getStatus()), e.getMessage());
-                    }
+                    throw responseError(response, e, e.getMessage());
                 } else {
                     throw SQLError.get(e, SQLError.GENERAL_ERROR, e.getMessage());
                 }
@@ -154,6 +175,46 @@ public class JDBC4Statement implements java.sql.Statement
             }
         }
 
+        // Sends the statement without waiting for the response, the callback gets the response.
+        // Returns false if the request could not be queued.
+        protected boolean executeAsync(JDBC4ClientConnection connection, ProcedureCallback callback,
+                long timeout, TimeUnit queryTimeOutUnit) throws SQLException {
+            try
+            {
+                if (this.type == TYPE_EXEC) {
+                    return connection.executeAsyncWithClientTimeout(callback, this.sql[0], timeout, queryTimeOutUnit, this.parameters);
+                } else {
+                    return connection.executeAsyncWithClientTimeout(callback, "@AdHoc", timeout, queryTimeOutUnit, this.sql[0]);
+                }
+            }
+            catch(IOException e)
+            {
+                throw SQLError.get(e, SQLError.CONNECTION_FAILURE, e.getMessage());
+            }
+        }
+
+        // Map response status to specific JDBC exception, mostly GENERAL_ERROR except
+        // for connection problems.
+        static SQLException responseError(ClientResponse response, Exception cause, String message)
+        {
+            switch (response.getStatus()) {
+            case ClientResponse.CONNECTION_LOST:
+                return SQLError.get(cause, SQLError.CONNECTION_CLOSED, "CONNECTION_LOST", message);
+            case ClientResponse.CONNECTION_TIMEOUT:
+                return SQLError.get(cause, SQLError.CONNECTION_FAILURE, "CONNECTION_TIMEOUT", message);
+            case ClientResponse.SERVER_UNAVAILABLE:
+                return SQLError.get(cause, SQLError.CONNECTION_FAILURE, "CONNECTION_UNAVAILABLE", message);
+            case ClientResponse.USER_ABORT:
+                return SQLError.get(cause, SQLError.GENERAL_ERROR, "USER_ABORT", message);
+            case ClientResponse.UNEXPECTED_FAILURE:
+                return SQLError.get(cause, SQLError.GENERAL_ERROR, "UNEXPECTED_FAILURE", message);
+            case ClientResponse.GRACEFUL_FAILURE:
+                return SQLError.get(cause, SQLError.GENERAL_ERROR, "GRACEFUL_FAILURE", message);
+            default:
+                return SQLError.get(cause, SQLError.GENERAL_ERROR, String.format("status=%d", (int)response.getStatus()), message);
+            }
+        }
+
         public static boolean isUpdateResult(VoltTable table)
         {
             return ((table.getColumnName(0).length() == 0 || table.getColumnName(0).equals("modified_tuples"))&& table.getRowCount() == 1 && table.getColumnCount() == 1 && table.getColumnType(0) == VoltType.BIGINT);
@@ -183,6 +244,196 @@ public class JDBC4Statement implements java.sql.Statement
             }
         }
 
+        // Whether the rows of the query can be fetched a page at a time (see JDBC4PagedResultSet)
+        public boolean isPageable()
+        {
+            return this.isQueryOfType(TYPE_SELECT) && getPageKey() != null;
+        }
+
+        // The sort key of a query that is paged by the key of the last row read: a SELECT without a
+        // LIMIT, OFFSET, grouping or set operation at its top level, ordered by plain columns that
+        // are not select list aliases, so that a filter on them fits in the WHERE clause. The result
+        // columns are matched to the ORDER BY columns by their unqualified names, so a qualified
+        // ORDER BY column must be selected as it is written (or by * or its table's *)
+        private PageKey getPageKey()
+        {
+            String query = getTrimmedSelectSql();
+            String topLevel = getTopLevelClauses(query);
+            if (TOP_LEVEL_LIMIT.matcher(topLevel).find() || TOP_LEVEL_GROUPING.matcher(topLevel).find()) {
+                return null;
+            }
+            Matcher orderBy = TOP_LEVEL_ORDER_BY_COLUMNS.matcher(topLevel);
+            if (!orderBy.find()) {
+                return null;
+            }
+            Matcher from = TOP_LEVEL_FROM.matcher(topLevel);
+            List<String> selectItems = getSelectItems(from.find() ? topLevel.substring(0, from.start()) : topLevel);
+            Matcher where = TOP_LEVEL_WHERE.matcher(topLevel);
+            PageKey key = new PageKey(where.find() ? where.end() : -1, orderBy.start());
+            Matcher column = ORDER_BY_COLUMN.matcher(orderBy.group(1));
+            while (column.find()) {
+                String name = column.group(2);
+                if (isSelectAlias(selectItems, name) ||
+                        (column.group(1).length() > name.length() && !isSelected(selectItems, column.group(1)))) {
+                    return null;
+                }
+                key.columns.add(column.group(1));
+                key.names.add(name.toUpperCase());
+                key.descending.add("desc".equalsIgnoreCase(column.group(3)));
+            }
+            return key;
+        }
+
+        // The top level items of the select list
+        private static List<String> getSelectItems(String selectList)
+        {
+            List<String> items = new ArrayList<>();
+            for (String item : SELECT_LIST_START.matcher(selectList).replaceFirst("").split(",")) {
+                items.add(item.trim());
+            }
+            return items;
+        }
+
+        private static boolean isSelectAlias(List<String> selectItems, String name)
+        {
+            for (String item : selectItems) {
+                Matcher alias = SELECT_ITEM_ALIAS.matcher(item);
+                if (alias.find() && alias.group(1).equalsIgnoreCase(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Whether the qualified column is a result column, selected as it is or by a *
+        private static boolean isSelected(List<String> selectItems, String qualifiedColumn)
+        {
+            String table = qualifiedColumn.substring(0, qualifiedColumn.indexOf('.'));
+            for (String item : selectItems) {
+                if (item.equalsIgnoreCase(qualifiedColumn) || item.equals("*") || item.equalsIgnoreCase(table + ".*")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // The query text with the literals and everything inside parentheses blanked out, which
+        // leaves the top level clauses at their positions in the query
+        private static String getTopLevelClauses(String query)
+        {
+            StringBuilder topLevel = new StringBuilder(query.length());
+            int depth = 0;
+            char quote = 0;
+            for (int i = 0; i < query.length(); i++) {
+                char c = query.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                    c = ' ';
+                }
+                else if (c == '\'' || c == '"') {
+                    quote = c;
+                    c = ' ';
+                }
+                else if (c == '(') {
+                    depth++;
+                }
+                else if (c == ')') {
+                    depth--;
+                    c = ' ';
+                }
+                topLevel.append(depth == 0 ? c : ' ');
+            }
+            return topLevel.toString();
+        }
+
+        // The names of the ORDER BY columns of a pageable query, as the result columns name them
+        public List<String> getPageKeyNames()
+        {
+            return getPageKey().names;
+        }
+
+        // The first rows of a pageable query, at most limit of them
+        public VoltSQL getFirstPageQuery(int limit)
+        {
+            return getPageQuery(getTrimmedSelectSql() + String.format(" LIMIT %d;", limit), new Object[0]);
+        }
+
+        // The rows of a pageable query that sort after the given ORDER BY values of the last row
+        // read, at most limit of them. The values must not be null. With the key columns k1..kn
+        // the page filter is (k1 > ?) OR (k1 = ? AND k2 > ?) OR ..., where a descending column
+        // is compared with < and also admits the nulls, which sort last in descending order.
+        public VoltSQL getNextPageQuery(int limit, Object[] lastKey)
+        {
+            String query = getTrimmedSelectSql();
+            PageKey key = getPageKey();
+            StringBuilder filter = new StringBuilder();
+            List<Object> keyParameters = new ArrayList<>();
+            for (int i = 0; i < key.columns.size(); i++) {
+                filter.append(i == 0 ? "(" : " OR (");
+                for (int j = 0; j < i; j++) {
+                    filter.append(key.columns.get(j)).append(" = ? AND ");
+                    keyParameters.add(lastKey[j]);
+                }
+                String column = key.columns.get(i);
+                if (key.descending.get(i)) {
+                    filter.append("(").append(column).append(" < ? OR ").append(column).append(" IS NULL))");
+                }
+                else {
+                    filter.append(column).append(" > ?)");
+                }
+                keyParameters.add(lastKey[i]);
+            }
+            StringBuilder page = new StringBuilder(query.length() + filter.length() + 32);
+            if (key.whereEnd < 0) {
+                page.append(query, 0, key.orderByStart).append(" WHERE ").append(filter).append(' ');
+            }
+            else {
+                page.append(query, 0, key.whereEnd).append(" (").append(query, key.whereEnd, key.orderByStart)
+                    .append(") AND (").append(filter).append(") ");
+            }
+            page.append(query, key.orderByStart, query.length()).append(String.format(" LIMIT %d;", limit));
+            return getPageQuery(page.toString(), keyParameters.toArray());
+        }
+
+        // The rows of the query from offset on, all of them if limit is 0
+        public VoltSQL getRemainingRowsQuery(int limit, long offset)
+        {
+            String query = getTrimmedSelectSql();
+            query += (limit > 0) ? String.format(" LIMIT %d OFFSET %d;", limit, offset) : String.format(" OFFSET %d;", offset);
+            return getPageQuery(query, new Object[0]);
+        }
+
+        // The page query runs through @AdHoc, with the parameters of the query (if any) followed by
+        // the page parameters, which belong to placeholders after all those of the query
+        private VoltSQL getPageQuery(String query, Object[] pageParameters)
+        {
+            int queryParameters = (this.type == TYPE_EXEC) ? this.parameters.length : 1;
+            Object[] paramsOut = new Object[queryParameters + pageParameters.length];
+            if (this.type == TYPE_EXEC) {
+                System.arraycopy(this.parameters, 0, paramsOut, 0, queryParameters);
+            }
+            paramsOut[0] = query;
+            System.arraycopy(pageParameters, 0, paramsOut, queryParameters, pageParameters.length);
+            return new VoltSQL(new String[] {"@AdHoc"}, this.parameterCount, TYPE_EXEC, this.queryType, paramsOut);
+        }
+
+        private String getTrimmedSelectSql()
+        {
+            String query = this.getSelectSql().trim();
+            while (query.endsWith(";")) {
+                query = query.substring(0, query.length() - 1).trim();
+            }
+            return query;
+        }
+
+        // The text of a SELECT, an executable prepared query carries it as the first @AdHoc parameter
+        private String getSelectSql()
+        {
+            return (this.type == TYPE_EXEC) ? (String) this.parameters[0] : this.sql[0];
+        }
+
         // SQL Parsing
         public static VoltSQL parseCall(String jdbcCall) throws SQLException
         {
@@ -368,7 +619,7 @@ public class JDBC4Statement implements java.sql.Statement
         checkClosed();
         if (query.isQueryOfType(VoltSQL.TYPE_SELECT,VoltSQL.TYPE_EXEC))
         {
-            setCurrentResult(query.execute(this.sourceConnection.NativeConnection, this.m_timeout,this.sourceConnection.queryTimeOutUnit), -1);
+            executeQuery(query);
             return true;
         }
         else
@@ -420,6 +671,13 @@ public class JDBC4Statement implements java.sql.Statement
         if (batch == null || batch.size() == 0) {
             return new int[0];
         }
+        if (sourceConnection.pipelineBatches) {
+            try {
+                return executePipelinedBatch();
+            } finally {
+                clearBatch();
+            }
+        }
 
         int[] updateCounts = new int[batch.size()];
         // keep a running total of update counts
@@ -453,8 +711,82 @@ public class JDBC4Statement implements java.sql.Statement
         return updateCounts;
     }
 
+    // Sends all the statements of the batch before waiting for the responses, which saves
+    // a round trip per statement (see JDBC4Connection.BATCH_PIPELINING). A failed statement
+    // does not stop the others, so on failure the BatchUpdateException carries an update
+    // count for every statement of the batch, EXECUTE_FAILED for the ones that failed or
+    // could not be sent.
+    private int[] executePipelinedBatch() throws SQLException
+    {
+        final int count = batch.size();
+        final ClientResponse[] responses = new ClientResponse[count];
+        final CountDownLatch pending = new CountDownLatch(count);
+
+        int sent = 0;
+        SQLException sendFailure = null;
+        for (; sent < count; sent++) {
+            final int index = sent;
+            ProcedureCallback callback = new ProcedureCallback() {
+                @Override
+                public void clientCallback(ClientResponse response) {
+                    responses[index] = response;
+                    pending.countDown();
+                }
+            };
+            try {
+                if (!batch.get(sent).executeAsync(sourceConnection.NativeConnection, callback,
+                        this.m_timeout, sourceConnection.queryTimeOutUnit)) {
+                    sendFailure = SQLError.get(SQLError.CONNECTION_FAILURE, "Unable to queue client request.");
+                    break;
+                }
+            } catch (SQLException x) {
+                sendFailure = x;
+                break;
+            }
+        }
+        // the statements that were not sent get no response
+        for (int i = sent; i < count; i++) {
+            pending.countDown();
+        }
+        try {
+            pending.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SQLError.get(e, SQLError.GENERAL_ERROR, e.getMessage());
+        }
+
+        int[] updateCounts = new int[count];
+        int runningUpdateCount = 0;
+        SQLException failure = null;
+        for (int i = 0; i < count; i++) {
+            ClientResponse response = responses[i];
+            if (response != null && response.getStatus() == ClientResponse.SUCCESS) {
+                updateCounts[i] = (int) response.getResults()[0].fetchRow(0).getLong(0);
+                runningUpdateCount += updateCounts[i];
+                continue;
+            }
+            updateCounts[i] = EXECUTE_FAILED;
+            if (failure == null) {
+                // only the statements from the first one that could not be sent lack a response
+                failure = (response != null) ?
+                        VoltSQL.responseError(response, null, response.getStatusString()) : sendFailure;
+            }
+        }
+        setCurrentResult(null, runningUpdateCount);
+        if (failure != null) {
+            throw new BatchUpdateException(updateCounts, failure);
+        }
+        return updateCounts;
+    }
+
     protected ResultSet executeQuery(VoltSQL query) throws SQLException
     {
+        if (this.sourceConnection.streamResults && this.fetchSize > 0 && query.isPageable()) {
+            setCurrentResult(new VoltTable[0], -1);
+            this.result = new JDBC4PagedResultSet(this, query, this.sourceConnection.NativeConnection,
+                    this.m_timeout, this.sourceConnection.queryTimeOutUnit, this.fetchSize, this.maxRows);
+            return this.result;
+        }
         setCurrentResult(query.execute(this.sourceConnection.NativeConnection, this.m_timeout, this.sourceConnection.queryTimeOutUnit), -1);
         return this.result;
     }
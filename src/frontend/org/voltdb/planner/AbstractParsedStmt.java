@@ -847,6 +847,22 @@ public abstract class AbstractParsedStmt {
         return tableScan;
     }
 
+    /**
+     * Start and end vertex constants are handed to the path scan as 64 bit
+     * vertex keys. VARCHAR vertex ids are coded by the EE when the rows are
+     * read, so they can only be matched through a join with a column holding
+     * the ids.
+     */
+    private static long parseVertexIdHint(String value) {
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new PlanningErrorException("Vertex id constant " + value +
+                    " is not an integer, compare VARCHAR vertex ids through a join instead");
+        }
+    }
+
     // Add LX
     /**
      * Add a table to the statement cache.
@@ -854,11 +870,11 @@ public abstract class AbstractParsedStmt {
      * @param tableAlias
      * @return the cache entry
      */
-    protected StmtTableScan addGraphToStmtCache(GraphView graph, String tableAlias, String object, String hint, int startvertexid, int endvertexid, int prop1, int prop2, int prop3, int prop4, int prop5, int length) {
+    protected StmtTableScan addGraphToStmtCache(GraphView graph, String tableAlias, String object, String hint, long startvertexid, long endvertexid, boolean hasStartvertexid, boolean hasEndvertexid, int prop1, int prop2, int prop3, int prop4, int prop5, int length) {
         // Create an index into the query Catalog cache
         StmtTableScan tableScan = m_tableAliasMap.get(tableAlias);
         if (tableScan == null) {
-            tableScan = new StmtTargetGraphScan(graph, tableAlias, m_stmtId, object, hint, startvertexid, endvertexid, prop1, prop2, prop3, prop4, prop5, length);
+            tableScan = new StmtTargetGraphScan(graph, tableAlias, m_stmtId, object, hint, startvertexid, endvertexid, hasStartvertexid, hasEndvertexid, prop1, prop2, prop3, prop4, prop5, length);
             m_tableAliasMap.put(tableAlias, tableScan);
         }
         return tableScan;
@@ -1512,19 +1528,21 @@ public abstract class AbstractParsedStmt {
                        (tableNode.name == "pathscan")?"PATHS":null;
        
        String hint = tableNode.attributes.get("hint");
-       int startvertexid = -1;
-       int endvertexid = -1;
+       long startvertexid = -1;
+       long endvertexid = -1;
        int prop1 = -1;
        int prop2 = -1;
        int prop3 = -1;
        int prop4 = -1;
        int prop5 = -1;
        int length = -1;
-       if (tableNode.attributes.get("startvertexid") != null) {
-           startvertexid = Integer.parseInt(tableNode.attributes.get("startvertexid"));
+       boolean hasStartvertexid = tableNode.attributes.get("startvertexid") != null;
+       boolean hasEndvertexid = tableNode.attributes.get("endvertexid") != null;
+       if (hasStartvertexid) {
+           startvertexid = parseVertexIdHint(tableNode.attributes.get("startvertexid"));
        }
-       if (tableNode.attributes.get("endvertexid") != null) {
-           endvertexid = Integer.parseInt(tableNode.attributes.get("endvertexid"));
+       if (hasEndvertexid) {
+           endvertexid = parseVertexIdHint(tableNode.attributes.get("endvertexid"));
        }
        if (tableNode.attributes.get("prop1") != null) {
            prop1 = Integer.parseInt(tableNode.attributes.get("prop1"));
@@ -1545,6 +1563,7 @@ public abstract class AbstractParsedStmt {
            length = Integer.parseInt(tableNode.attributes.get("length"));
        }
        graphScan = addGraphToStmtCache(graph, tableAlias, object, hint, startvertexid, endvertexid,
+                                       hasStartvertexid, hasEndvertexid,
                                        prop1, prop2, prop3, prop4, prop5, length);
 
        AbstractExpression joinExpr = parseJoinCondition(tableNode);
@@ -51,6 +51,7 @@ import org.voltdb.plannodes.MaterializedScanPlanNode;
 import org.voltdb.plannodes.NestLoopIndexPlanNode;
 import org.voltdb.plannodes.ReceivePlanNode;
 import org.voltdb.plannodes.SendPlanNode;
+import org.voltdb.plannodes.SchemaColumn;
 import org.voltdb.plannodes.SeqScanPlanNode;
 import org.voltdb.types.ExpressionType;
 import org.voltdb.types.IndexLookupType;
@@ -59,6 +60,7 @@ import org.voltdb.types.JoinType;
 import org.voltdb.types.SortDirectionType;
 import org.voltdb.utils.CatalogUtil;
 import org.voltdb.plannodes.EdgeScanPlanNode; // Add LX
+import org.voltdb.plannodes.GraphElementScanPlanNode;
 import org.voltdb.plannodes.PathScanPlanNode; // Add LX
 import org.voltdb.plannodes.VertexScanPlanNode; // Add LX
 
@@ -1959,18 +1961,180 @@ public abstract class SubPlanAssembler {
         {
             SeqScanPlanNode scanNode = null;
             // build the scan node
-            if (((StmtTargetGraphScan)graphScan).getGraphElementName() == "VERTEXES")
+            if (((StmtTargetGraphScan)graphScan).getGraphElementName() == "VERTEXES") {
+                // FANOUT and FANIN would only count the edges of the partition of the site.
+                if ( ! graphScan.getIsReplicated()) {
+                    for (SchemaColumn column : graphScan.getScanColumns()) {
+                        if (VertexScanPlanNode.TOPOLOGY_PROPERTIES.contains(column.getColumnName())) {
+                            throw new PlanningErrorException(String.format(
+                                    "Vertex property %s is not supported on graph view %s because its vertex and edge tables are partitioned.",
+                                    column.getColumnName(), ((StmtTargetGraphScan)graphScan).getTableName()));
+                        }
+                    }
+                }
                 scanNode = new VertexScanPlanNode(graphScan);
+            }
             else if (((StmtTargetGraphScan)graphScan).getGraphElementName() == "EDGES")
                 scanNode = new EdgeScanPlanNode(graphScan);
-            else if (((StmtTargetGraphScan)graphScan).getGraphElementName() == "PATHS")
+            else if (((StmtTargetGraphScan)graphScan).getGraphElementName() == "PATHS") {
+                // Every site only holds the topology of its own partition, so a path
+                // could not follow the edges that lead to vertexes stored elsewhere.
+                if ( ! graphScan.getIsReplicated()) {
+                    throw new PlanningErrorException(String.format(
+                            "Path scans are not supported on graph view %s because its vertex and edge tables are partitioned.",
+                            ((StmtTargetGraphScan)graphScan).getTableName()));
+                }
                 scanNode = new PathScanPlanNode(graphScan);
+            }
             
             assert(scanNode != null);
             // build the predicate
-            scanNode.setPredicate(path.otherExprs);
+            if (scanNode instanceof PathScanPlanNode) {
+                scanNode.setPredicate(pushDownTraversalFilters((PathScanPlanNode)scanNode,
+                        graphScan.getTableAlias(), removeTraversalParameters(graphScan.getTableAlias(), path.otherExprs)));
+            }
+            else {
+                scanNode.setPredicate(path.otherExprs);
+            }
+            if (scanNode instanceof GraphElementScanPlanNode) {
+                ((GraphElementScanPlanNode)scanNode).setLookupKey(
+                        getGraphIdLookupKey(graphScan.getTableAlias(), path.otherExprs));
+            }
             return scanNode;
         }
+
+        /**
+         * Find a filter of the form ID = value among the filters of a vertex or edge scan,
+         * where the value does not depend on any table (a constant or a parameter).
+         *
+         * @param tableAlias The alias of the graph view in the statement.
+         * @param exprs The filters of the scan.
+         * @return A copy of the value, or null if no filter pins the ID property.
+         */
+        private static AbstractExpression getGraphIdLookupKey(String tableAlias,
+                Collection<AbstractExpression> exprs) {
+            for (AbstractExpression expr : exprs) {
+                if (expr.getExpressionType() != ExpressionType.COMPARE_EQUAL) {
+                    continue;
+                }
+                for (int side = 0; side < 2; side++) {
+                    AbstractExpression idExpr = (side == 0) ? expr.getLeft() : expr.getRight();
+                    AbstractExpression valueExpr = (side == 0) ? expr.getRight() : expr.getLeft();
+                    if ( ! (idExpr instanceof TupleValueExpression)) {
+                        continue;
+                    }
+                    TupleValueExpression tve = (TupleValueExpression)idExpr;
+                    if ( ! GraphElementScanPlanNode.ID_PROPERTY.equals(tve.getColumnName()) ||
+                            (tableAlias != null && ! tableAlias.equals(tve.getTableAlias()))) {
+                        continue;
+                    }
+                    if (valueExpr.hasTupleValueSubexpression() || valueExpr.hasSubquerySubexpression()) {
+                        continue;
+                    }
+                    return valueExpr.clone();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Drop the filters of a path scan that set the parameters of its traversal, like
+         * PS.STARTVERTEXID = 1 or PS.LENGTH = 2. The parser reads their constants into the
+         * path scan and the traversal only produces paths that satisfy them, while the
+         * reported LENGTH of some traversals differs from the bound. The other filters stay
+         * in the predicate, which the EE evaluates on the path rows. Those cannot use the
+         * PROP columns, they are not part of the path rows.
+         *
+         * @param tableAlias The alias of the graph view in the statement.
+         * @param exprs The filters of the scan.
+         * @return The filters that are not traversal parameters.
+         */
+        private static List<AbstractExpression> removeTraversalParameters(String tableAlias,
+                Collection<AbstractExpression> exprs) {
+            List<AbstractExpression> remaining = new ArrayList<>();
+            for (AbstractExpression expr : exprs) {
+                if (isTraversalParameter(tableAlias, expr)) {
+                    continue;
+                }
+                for (TupleValueExpression tve : ExpressionUtil.getTupleValueExpressions(expr)) {
+                    if ((tableAlias == null || tableAlias.equals(tve.getTableAlias())) &&
+                            PathScanPlanNode.TRAVERSAL_PROPERTIES.contains(tve.getColumnName())) {
+                        throw new PlanningErrorException(String.format(
+                                "Path property %s can only be compared for equality with a constant.",
+                                tve.getColumnName()));
+                    }
+                }
+                remaining.add(expr);
+            }
+            return remaining;
+        }
+
+        // A comparison the parser reads into the path scan (see RangeVariable.updatescan):
+        // the column on the left and a constant on the right. A parameter of an ad hoc query
+        // stands for the constant it replaced, a stored procedure parameter is not read.
+        private static boolean isTraversalParameter(String tableAlias, AbstractExpression expr) {
+            if (expr.getExpressionType() != ExpressionType.COMPARE_EQUAL ||
+                    ! (expr.getLeft() instanceof TupleValueExpression)) {
+                return false;
+            }
+            TupleValueExpression tve = (TupleValueExpression)expr.getLeft();
+            if ((tableAlias != null && ! tableAlias.equals(tve.getTableAlias())) ||
+                    ! (PathScanPlanNode.TRAVERSAL_PARAMETERS.contains(tve.getColumnName()) ||
+                       PathScanPlanNode.TRAVERSAL_PROPERTIES.contains(tve.getColumnName()))) {
+                return false;
+            }
+            AbstractExpression value = expr.getRight();
+            return value instanceof ConstantValueExpression ||
+                    (value instanceof ParameterValueExpression &&
+                     ((ParameterValueExpression)value).getOriginalValue() != null);
+        }
+
+        /**
+         * Hand the filters of a path scan that only refer to the vertexes or only to the
+         * edges of its paths (like PS.EDGES[0..*].WEIGHT > 5 or PS.VERTEXES[1].ACTIVE = 1)
+         * over to the traversal, which then never extends a path with a vertex or an edge
+         * that fails them. A filter may use several properties, but all of them have to
+         * belong to the same vertex or edge position (or to every position).
+         *
+         * @param scanNode The path scan.
+         * @param tableAlias The alias of the graph view in the statement.
+         * @param exprs The filters of the scan.
+         * @return The filters that are left for the predicate of the scan.
+         */
+        private static List<AbstractExpression> pushDownTraversalFilters(PathScanPlanNode scanNode,
+                String tableAlias, Collection<AbstractExpression> exprs) {
+            List<AbstractExpression> remaining = new ArrayList<>();
+            for (AbstractExpression expr : exprs) {
+                List<TupleValueExpression> tves = ExpressionUtil.getTupleValueExpressions(expr);
+                String graphObject = null;
+                int position = -1;
+                boolean pushable = ! tves.isEmpty() && ! expr.hasSubquerySubexpression();
+                for (TupleValueExpression tve : tves) {
+                    if ( ! pushable) {
+                        break;
+                    }
+                    String object = tve.getGraphObject();
+                    if ((tableAlias != null && ! tableAlias.equals(tve.getTableAlias())) ||
+                            ! (PathScanPlanNode.VERTEXES.equals(object) || PathScanPlanNode.EDGES.equals(object))) {
+                        pushable = false;
+                    }
+                    else if (graphObject == null) {
+                        graphObject = object;
+                        position = tve.getGraphObjectIdx();
+                    }
+                    else if ( ! graphObject.equals(object) || position != tve.getGraphObjectIdx()) {
+                        pushable = false;
+                    }
+                }
+                if (pushable) {
+                    scanNode.addTraversalFilter(graphObject, expr.clone(), position);
+                }
+                else {
+                    remaining.add(expr);
+                }
+            }
+            return remaining;
+        }
         // End LX
 
         /**
@@ -26,9 +26,11 @@ import org.voltdb.planner.AbstractParsedStmt;
 import org.voltdb.plannodes.AbstractPlanNode;
 import org.voltdb.plannodes.AbstractScanPlanNode;
 import org.voltdb.plannodes.AggregatePlanNode;
+import org.voltdb.plannodes.GraphElementScanPlanNode;
 import org.voltdb.plannodes.IndexCountPlanNode;
 import org.voltdb.plannodes.IndexScanPlanNode;
 import org.voltdb.plannodes.LimitPlanNode;
+import org.voltdb.plannodes.PathScanPlanNode;
 import org.voltdb.plannodes.SeqScanPlanNode;
 import org.voltdb.plannodes.TableCountPlanNode;
 import org.voltdb.types.ExpressionType;
@@ -82,6 +84,10 @@ public class ReplaceWithIndexCounter extends MicroOptimization {
             if (((SeqScanPlanNode)child).getPredicate() != null) {
                 return plan;
             }
+            // The scans of a graph view have no table the EE could count.
+            if (child instanceof GraphElementScanPlanNode || child instanceof PathScanPlanNode) {
+                return plan;
+            }
 
             AbstractExpression postPredicate = aggplan.getPostPredicate();
             if (postPredicate != null) {
@@ -22,8 +22,11 @@ public class StmtTargetGraphScan extends StmtTableScan {
     private final GraphView m_graph;
     private final String m_graphElement;
     private final String m_hint;
-    private final int m_startvertexid;
-    private final int m_endvertexid;
+    private final long m_startvertexid;
+    private final long m_endvertexid;
+    // Vertex ids can be negative, so whether the query pins them is kept apart from the ids.
+    private final boolean m_hasStartvertexid;
+    private final boolean m_hasEndvertexid;
     private final int m_prop1;
     private final int m_prop2;
     private final int m_prop3;
@@ -34,7 +37,8 @@ public class StmtTargetGraphScan extends StmtTableScan {
     private List<Column> m_columns;
 
     public StmtTargetGraphScan(GraphView graph, String tableAlias, int stmtId, String object,
-    		                   String hint, int startvertexid, int endvertexid,
+    		                   String hint, long startvertexid, long endvertexid,
+    		                   boolean hasStartvertexid, boolean hasEndvertexid,
     		                   int prop1, int prop2, int prop3, int prop4,int prop5, int length
     		                   ) {
         super(tableAlias, stmtId);
@@ -44,6 +48,8 @@ public class StmtTargetGraphScan extends StmtTableScan {
         m_hint = hint;
         m_startvertexid = startvertexid;
         m_endvertexid = endvertexid;
+        m_hasStartvertexid = hasStartvertexid;
+        m_hasEndvertexid = hasEndvertexid;
         m_prop1 = prop1;
         m_prop2 = prop2;
         m_prop3 = prop3;
@@ -54,21 +60,29 @@ public class StmtTargetGraphScan extends StmtTableScan {
     }
 
     public StmtTargetGraphScan(GraphView graph, String tableAlias) {
-        this(graph, tableAlias, 0, null, null, -1, -1, -1, -1, -1, -1, -1, -1);
+        this(graph, tableAlias, 0, null, null, -1, -1, false, false, -1, -1, -1, -1, -1, -1);
     }
 
     public String getHint() {
 		return m_hint;
 	}
 
-	public int getStartvertexid() {
+	public long getStartvertexid() {
 		return m_startvertexid;
 	}
 
-	public int getEndvertexid() {
+	public long getEndvertexid() {
 		return m_endvertexid;
 	}
 
+	public boolean hasStartvertexid() {
+		return m_hasStartvertexid;
+	}
+
+	public boolean hasEndvertexid() {
+		return m_hasEndvertexid;
+	}
+
 	public int getProp1() {
 		return m_prop1;
 	}
@@ -212,6 +212,32 @@ public class VoltSqlFunctions {
                         false,
                         new Class[] {String.class, int.class},
                         FunctionSQL.FUNC_VOLT_SUBSTRING_CHAR_FROM))
+                    // Graph view path functions
+                    .put(PathFunctions.class, new ScalarFunctionDescriptor(
+                        "path_length",
+                        false,
+                        new Class[] {byte[].class},
+                        FunctionForVoltDB.FunctionDescriptor.FUNC_VOLT_PATH_LENGTH))
+                    .put(PathFunctions.class, new ScalarFunctionDescriptor(
+                        "path_first",
+                        false,
+                        new Class[] {byte[].class},
+                        FunctionForVoltDB.FunctionDescriptor.FUNC_VOLT_PATH_FIRST))
+                    .put(PathFunctions.class, new ScalarFunctionDescriptor(
+                        "path_last",
+                        false,
+                        new Class[] {byte[].class},
+                        FunctionForVoltDB.FunctionDescriptor.FUNC_VOLT_PATH_LAST))
+                    .put(PathFunctions.class, new ScalarFunctionDescriptor(
+                        "path_vertex",
+                        false,
+                        new Class[] {byte[].class, int.class},
+                        FunctionForVoltDB.FunctionDescriptor.FUNC_VOLT_PATH_VERTEX))
+                    .put(PathFunctions.class, new ScalarFunctionDescriptor(
+                        "path_edge",
+                        false,
+                        new Class[] {byte[].class, int.class},
+                        FunctionForVoltDB.FunctionDescriptor.FUNC_VOLT_PATH_EDGE))
                     // Aggregate functions
                     .put(AggExampleFunctions.class, new AggregateFunctionDescriptor(
                         "aggregate_example",
@@ -319,6 +345,29 @@ public class VoltSqlFunctions {
         }
     }
 
+    // Graph view path functions
+    public static class PathFunctions {
+        public static int path_length(byte[] path) {
+            return 0;
+        }
+
+        public static long path_first(byte[] path) {
+            return 0;
+        }
+
+        public static long path_last(byte[] path) {
+            return 0;
+        }
+
+        public static long path_vertex(byte[] path, int position) {
+            return 0;
+        }
+
+        public static long path_edge(byte[] path, int position) {
+            return 0;
+        }
+    }
+
     //-------------------------------------------------------------
     //                   volt extend sql aggregate functions
     //-------------------------------------------------------------
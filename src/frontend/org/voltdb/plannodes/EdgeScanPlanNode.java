@@ -1,10 +1,9 @@
 package org.voltdb.plannodes;
 
 import org.voltdb.planner.parseinfo.StmtTableScan;
-import org.voltdb.plannodes.SeqScanPlanNode;
 import org.voltdb.types.PlanNodeType;
 
-public class EdgeScanPlanNode extends SeqScanPlanNode {
+public class EdgeScanPlanNode extends GraphElementScanPlanNode {
 
     public EdgeScanPlanNode() {
         super();
@@ -25,10 +24,6 @@ public class EdgeScanPlanNode extends SeqScanPlanNode {
     
     @Override
     protected String explainPlanForNode(String indent) {
-        String tableName = m_targetTableName == null? m_targetTableAlias: m_targetTableName;
-        if (m_targetTableAlias != null && !m_targetTableAlias.equals(tableName)) {
-            tableName += " (" + m_targetTableAlias +")";
-        }
-        return "EDGESCAN of \"" + tableName + "\"" + explainPredicate("\n" + indent + " filter by ");
+        return explainScan("EDGESCAN", indent);
     }
 }
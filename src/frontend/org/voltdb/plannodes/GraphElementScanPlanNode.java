@@ -0,0 +1,108 @@
+package org.voltdb.plannodes;
+
+import java.util.Set;
+
+import org.json_voltpatches.JSONException;
+import org.json_voltpatches.JSONObject;
+import org.json_voltpatches.JSONStringer;
+import org.voltdb.catalog.Database;
+import org.voltdb.catalog.GraphView;
+import org.voltdb.catalog.Table;
+import org.voltdb.compiler.DatabaseEstimates;
+import org.voltdb.compiler.ScalarValueHints;
+import org.voltdb.expressions.AbstractExpression;
+import org.voltdb.planner.parseinfo.StmtTableScan;
+import org.voltdb.planner.parseinfo.StmtTargetGraphScan;
+import org.voltdb.types.PlanNodeType;
+
+/**
+ * Scan of the vertexes or the edges of a graph view. When the predicate pins the
+ * ID property to a single value, the scan carries that value as its lookup key and
+ * the EE visits only the rows with this id (through the graph view topology for
+ * vertexes, through an index on the id column of the edges table for edges).
+ * The predicate is kept as is, so it still filters the rows found by the lookup.
+ */
+public abstract class GraphElementScanPlanNode extends SeqScanPlanNode {
+
+    public enum Members {
+        LOOKUP_KEY;
+    }
+
+    public static final String ID_PROPERTY = "ID";
+
+    protected AbstractExpression m_lookupKey = null;
+
+    protected GraphElementScanPlanNode() {
+        super();
+    }
+
+    protected GraphElementScanPlanNode(StmtTableScan tableScan) {
+        super(tableScan);
+    }
+
+    protected GraphElementScanPlanNode(String tableName, String tableAlias) {
+        super(tableName, tableAlias);
+    }
+
+    public AbstractExpression getLookupKey() {
+        return m_lookupKey;
+    }
+
+    public void setLookupKey(AbstractExpression lookupKey) {
+        m_lookupKey = lookupKey;
+    }
+
+    @Override
+    public void toJSONString(JSONStringer stringer) throws JSONException {
+        super.toJSONString(stringer);
+        if (m_lookupKey != null) {
+            stringer.key(Members.LOOKUP_KEY.name());
+            stringer.value(m_lookupKey);
+        }
+    }
+
+    @Override
+    public void loadFromJSONObject(JSONObject jobj, Database db) throws JSONException {
+        super.loadFromJSONObject(jobj, db);
+        m_lookupKey = AbstractExpression.fromJSONChild(jobj, Members.LOOKUP_KEY.name(), m_tableScan);
+    }
+
+    @Override
+    public void findAllExpressionsOfClass(Class< ? extends AbstractExpression> aeClass, Set<AbstractExpression> collected) {
+        super.findAllExpressionsOfClass(aeClass, collected);
+        if (m_lookupKey != null) {
+            collected.addAll(m_lookupKey.findAllSubexpressionsOfClass(aeClass));
+        }
+    }
+
+    /**
+     * Costs the scan with the estimates of the vertex (edge) table rather than the ones of a
+     * table named after the graph view. A lookup by id finds a single element.
+     */
+    @Override
+    public void computeCostEstimates(long childOutputTupleCountEstimate,
+                                     DatabaseEstimates estimates,
+                                     ScalarValueHints[] paramHints) {
+        if (m_isSubQuery || ! (m_tableScan instanceof StmtTargetGraphScan)) {
+            super.computeCostEstimates(childOutputTupleCountEstimate, estimates, paramHints);
+            return;
+        }
+        GraphView graph = ((StmtTargetGraphScan)m_tableScan).getTargetGraph();
+        Table elements = (getPlanNodeType() == PlanNodeType.VERTEXSCAN) ? graph.getVtable() : graph.getEtable();
+        long tuples = (m_lookupKey != null) ? 1 : estimates.getEstimatesForTable(elements.getTypeName()).maxTuples;
+        m_estimatedProcessedTupleCount = tuples;
+        m_estimatedOutputTupleCount = tuples;
+    }
+
+    protected String explainScan(String scanName, String indent) {
+        String tableName = m_targetTableName == null? m_targetTableAlias: m_targetTableName;
+        if (m_targetTableAlias != null && !m_targetTableAlias.equals(tableName)) {
+            tableName += " (" + m_targetTableAlias +")";
+        }
+        String lookup = "";
+        if (m_lookupKey != null) {
+            lookup = " by " + ID_PROPERTY + " lookup of " + m_lookupKey.explain(getTableNameForExplain());
+        }
+        return scanName + " of \"" + tableName + "\"" + lookup + explainPredicate("\n" + indent + " filter by ");
+    }
+}
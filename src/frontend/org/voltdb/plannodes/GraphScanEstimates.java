@@ -0,0 +1,62 @@
+package org.voltdb.plannodes;
+
+import org.voltdb.catalog.GraphView;
+import org.voltdb.compiler.DatabaseEstimates;
+
+/**
+ * Size estimates of a graph view, derived from the estimates of its vertex and edge
+ * tables. The scans of VERTEXES, EDGES and PATHS are costed with them instead of the
+ * estimates of a table named after the graph view. Traversals are assumed to reach
+ * averageDegree^n vertexes in n steps, capped by the size of the graph.
+ */
+final class GraphScanEstimates {
+
+    // Length assumed for the traversals whose length the query does not bound.
+    static final int DEFAULT_PATH_LENGTH = 4;
+    // Iterations assumed for the iterative whole graph operators (PageRank).
+    static final int DEFAULT_ITERATIONS = 20;
+
+    final long vertexes;
+    final long edges;
+    final double averageDegree;
+
+    GraphScanEstimates(GraphView graph, DatabaseEstimates estimates) {
+        vertexes = Math.max(1, estimates.getEstimatesForTable(graph.getVtable().getTypeName()).maxTuples);
+        edges = Math.max(1, estimates.getEstimatesForTable(graph.getEtable().getTypeName()).maxTuples);
+        averageDegree = Math.max(1.0, (double)edges / vertexes);
+    }
+
+    /** Vertexes reached from one start vertex within the given number of steps. */
+    long reachedVertexes(int length) {
+        return (long)Math.min(vertexes, Math.pow(averageDegree, Math.max(0, length)));
+    }
+
+    /** Edges scanned by a traversal from one start vertex within the given number of steps. */
+    long scannedEdges(int length) {
+        return (long)Math.min(edges, reachedVertexes(length) * averageDegree);
+    }
+
+    /** Expected number of steps between two vertexes. */
+    int expectedDistance() {
+        if (averageDegree <= 1.0) {
+            return DEFAULT_PATH_LENGTH;
+        }
+        return Math.max(1, (int)Math.ceil(Math.log(vertexes) / Math.log(averageDegree)));
+    }
+
+    /** Edges scanned by a bidirectional search between two vertexes at the given distance. */
+    long bidirectionalScannedEdges(int distance) {
+        return Math.min(edges, 2 * scannedEdges((distance + 1) / 2));
+    }
+
+    // Cap of the products below, leaves room for the sums the parent nodes take.
+    private static final long MAX_ESTIMATE = Long.MAX_VALUE / 16;
+
+    /** a * b for non-negative estimates, capped instead of overflowing. */
+    static long saturatedProduct(long a, long b) {
+        if (a != 0 && b > MAX_ESTIMATE / a) {
+            return MAX_ESTIMATE;
+        }
+        return a * b;
+    }
+}
@@ -41,8 +41,22 @@ public class NestLoopPlanNode extends AbstractJoinPlanNode {
         m_estimatedOutputTupleCount = childOutputTupleCountEstimate;
         // Discount outer child estimates based on the number of its filters
         assert(m_children.size() == 2);
-        m_estimatedProcessedTupleCount = discountEstimatedProcessedTupleCount(m_children.get(0)) +
-                m_children.get(1).m_estimatedProcessedTupleCount;
+        AbstractPlanNode outerChild = m_children.get(0);
+        AbstractPlanNode innerChild = m_children.get(1);
+        long outerEstimate = discountEstimatedProcessedTupleCount(outerChild);
+        long innerEstimate = innerChild.m_estimatedProcessedTupleCount;
+        // The EE runs the join of a path scan as a NestedLoopPathExecutor, which always reads
+        // the rows of the other child and repeats the whole traversal for each of them,
+        // whichever side the path scan is planned on.
+        if (innerChild instanceof PathScanPlanNode) {
+            innerEstimate = GraphScanEstimates.saturatedProduct(innerEstimate,
+                    Math.max(1, outerChild.m_estimatedOutputTupleCount));
+        }
+        else if (outerChild instanceof PathScanPlanNode) {
+            outerEstimate = GraphScanEstimates.saturatedProduct(outerChild.m_estimatedProcessedTupleCount,
+                    Math.max(1, innerChild.m_estimatedOutputTupleCount));
+        }
+        m_estimatedProcessedTupleCount = outerEstimate + innerEstimate;
     }
 
     @Override
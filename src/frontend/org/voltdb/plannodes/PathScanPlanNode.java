@@ -1,9 +1,21 @@
 package org.voltdb.plannodes;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
+import com.google_voltpatches.common.collect.ImmutableSet;
 import org.json_voltpatches.JSONException;
+import org.json_voltpatches.JSONObject;
 import org.json_voltpatches.JSONStringer;
+import org.voltdb.VoltType;
+import org.voltdb.catalog.Column;
+import org.voltdb.catalog.Database;
+import org.voltdb.catalog.GraphView;
+import org.voltdb.compiler.DatabaseEstimates;
+import org.voltdb.compiler.ScalarValueHints;
+import org.voltdb.exceptions.PlanningErrorException;
+import org.voltdb.expressions.AbstractExpression;
 import org.voltdb.expressions.ExpressionUtil;
 import org.voltdb.expressions.TupleValueExpression;
 import org.voltdb.planner.parseinfo.StmtTableScan;
@@ -24,19 +36,64 @@ public class PathScanPlanNode extends SeqScanPlanNode {
     	PROP3,
     	PROP4,
     	PROP5,
-    	LENGTH,;
+    	LENGTH,
+    	VERTEX_FILTERS,
+    	VERTEX_FILTER_POSITIONS,
+    	EDGE_FILTERS,
+    	EDGE_FILTER_POSITIONS;
     }
+
+    public static final String VERTEXES = "VERTEXES";
+    public static final String EDGES = "EDGES";
+    // Columns of the paths whose equality constants set up the traversal instead of
+    // filtering its paths. The EE path rows have no PROP columns.
+    public static final Set<String> TRAVERSAL_PARAMETERS = ImmutableSet.of("STARTVERTEXID", "ENDVERTEXID", "LENGTH");
+    public static final Set<String> TRAVERSAL_PROPERTIES = ImmutableSet.of("PROP1", "PROP2", "PROP3", "PROP4", "PROP5");
+    // HINT(BATCHED) lets a path join run the BFS of many outer rows at once. Each row gets a
+    // path of the length its own BFS finds, but among the paths of equal length maybe another one.
+    public static final String BATCHED_HINT = "BATCHED";
+
+    // Traversals of the EE, selected by PROP1.
+    public static final int BFS_BY_DEPTH = 1;
+    public static final int BFS_BY_DEPTH_EDGE_SELECTIVITY = 2;
+    public static final int BFS_TO_DESTINATION = 3;
+    public static final int LOOPS_VERTEX_SELECTIVITY = 11;
+    public static final int LOOPS_EDGE_SELECTIVITY = 12;
+    public static final int LOOPS_SELECTIVITY = 13;
+    public static final int LOOPS_FROM_START_VERTEX = 14;
+    public static final int SP_TOP_K = 21;
+    public static final int SP_EDGE_SELECTIVITY = 22;
+    public static final int SP_TO_ALL_VERTEXES = 23;
+    public static final int PAGERANK = 31;
+    public static final int WEAKLY_CONNECTED_COMPONENTS = 32;
+    public static final int STRONGLY_CONNECTED_COMPONENTS = 33;
+    public static final int TRIANGLE_COUNT = 34;
+    // A PROP or LENGTH the query does not set, they take no negative values.
+    private static final int NOT_GIVEN = -1;
     
     String hint;
-    int startvertexid;
-    int endverexid;
+    long startvertexid;
+    long endverexid;
     int prop1;
     int prop2;
     int prop3;
     int prop4;
     int prop5;
     int length;
+    // Set when the query pins the vertex, the ids can be negative.
+    boolean m_startVertexGiven;
+    boolean m_endVertexGiven;
+    // Set when PROP1 does not name the traversal, the estimates pick it.
+    boolean m_choosesTraversal;
+    boolean m_edgeSelectivityGiven;
     String graphName = "";
+    // Conditions on the vertexes and the edges of the paths, checked by the traversal
+    // while it expands the paths. A condition applies to the element at the given
+    // position of the path, or to all of them for a position of -1.
+    List<AbstractExpression> m_vertexFilters = new ArrayList<>();
+    List<Integer> m_vertexFilterPositions = new ArrayList<>();
+    List<AbstractExpression> m_edgeFilters = new ArrayList<>();
+    List<Integer> m_edgeFilterPositions = new ArrayList<>();
 	
     public PathScanPlanNode() {
         super();
@@ -56,6 +113,212 @@ public class PathScanPlanNode extends SeqScanPlanNode {
         prop4 = graphScan.getProp4();
         prop5 = graphScan.getProp5();
         length = graphScan.getLength();
+        m_startVertexGiven = graphScan.hasStartvertexid();
+        m_endVertexGiven = graphScan.hasEndvertexid();
+        m_choosesTraversal = (prop1 == NOT_GIVEN);
+        m_edgeSelectivityGiven = (prop5 != NOT_GIVEN);
+        if (m_choosesTraversal) {
+            // the first candidate until the cost estimates pick one
+            chooseTraversal(null);
+        }
+        checkCostColumn(graphScan.getTargetGraph());
+    }
+
+    /**
+     * The edges table column a HINT(name) or HINT(SHORTESTPATH(name)) names costs the edges
+     * of the shortest path searches. Any numeric column will do, the EE reads the costs as
+     * doubles. A hint that names no column leaves the edges at a cost of one.
+     */
+    private void checkCostColumn(GraphView graph) {
+        if (hint == null || hint.isEmpty() || BATCHED_HINT.equalsIgnoreCase(hint)) {
+            return;
+        }
+        String columnName = hint;
+        int open = hint.indexOf('(');
+        if (open >= 0 && hint.endsWith(")")) {
+            columnName = hint.substring(open + 1, hint.length() - 1);
+        }
+        Column column = graph.getEtable().getColumns().getIgnoreCase(columnName);
+        if (column != null && ! VoltType.get((byte)column.getType()).isNumber()) {
+            throw new PlanningErrorException("The cost column " + column.getTypeName() + " of graph view " +
+                    graph.getTypeName() + " is not numeric");
+        }
+    }
+
+    /**
+     * The traversals of the EE that return the paths the query asks for when PROP1 does
+     * not name one, from the vertexes the WHERE clause pins. Between two vertexes: a
+     * bidirectional shortest path search, or Yen's top k search, which returns the same
+     * path for a k of one as long as no edge selectivity is set (and has to be taken when
+     * PROP3 asks for more paths). From the start vertex: a BFS when LENGTH bounds the paths
+     * (the one that checks the edge selectivity when PROP5 sets it), else the shortest paths
+     * to all the vertexes. None for a path scan whose start vertex comes from a join.
+     */
+    private List<Integer> candidateTraversals() {
+        List<Integer> candidates = new ArrayList<>();
+        if ( ! m_startVertexGiven) {
+            return candidates;
+        }
+        if (m_endVertexGiven) {
+            if (prop3 <= 1) {
+                candidates.add(SP_EDGE_SELECTIVITY);
+            }
+            if (prop3 > 1 || ! m_edgeSelectivityGiven) {
+                candidates.add(SP_TOP_K);
+            }
+        }
+        else if (length > 0) {
+            candidates.add(m_edgeSelectivityGiven ? BFS_BY_DEPTH_EDGE_SELECTIVITY : BFS_BY_DEPTH);
+        }
+        else {
+            candidates.add(SP_TO_ALL_VERTEXES);
+        }
+        return candidates;
+    }
+
+    /**
+     * Pick the candidate traversal that scans the fewest edges by the estimates of the
+     * graph, the first one without estimates. The edge selectivity the searches take is
+     * opened up as the query does not set it, and Yen's search returns a single path
+     * unless PROP3 asks for more.
+     */
+    private void chooseTraversal(GraphScanEstimates graph) {
+        List<Integer> candidates = candidateTraversals();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        int chosen = candidates.get(0);
+        if (graph != null) {
+            long cheapest = estimateTraversal(chosen, graph).processed;
+            for (int candidate : candidates) {
+                long processed = estimateTraversal(candidate, graph).processed;
+                if (processed < cheapest) {
+                    chosen = candidate;
+                    cheapest = processed;
+                }
+            }
+        }
+        prop1 = chosen;
+        if (prop1 == SP_TOP_K && prop3 < 1) {
+            prop3 = 1;
+        }
+        if ( ! m_edgeSelectivityGiven) {
+            prop5 = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * The traversal a path join runs for every row of the other side: a BFS to the
+     * depth LENGTH sets, else a search between the two vertexes the row gives.
+     */
+    private int joinTraversal() {
+        return (length > 0) ? BFS_BY_DEPTH : BFS_TO_DESTINATION;
+    }
+
+    // Rows a traversal produces and edges it scans.
+    private static final class TraversalEstimate {
+        final long output;
+        final long processed;
+
+        TraversalEstimate(long output, long processed) {
+            this.output = Math.max(1, output);
+            this.processed = Math.max(1, processed);
+        }
+    }
+
+    private TraversalEstimate estimateTraversal(int traversal, GraphScanEstimates graph) {
+        int pathLength = (length > 0) ? length : GraphScanEstimates.DEFAULT_PATH_LENGTH;
+        switch (traversal) {
+        case BFS_BY_DEPTH:
+        case BFS_BY_DEPTH_EDGE_SELECTIVITY:
+            return new TraversalEstimate(graph.reachedVertexes(pathLength), graph.scannedEdges(pathLength));
+        case BFS_TO_DESTINATION:
+            return new TraversalEstimate(1, graph.scannedEdges(graph.expectedDistance()));
+        case LOOPS_VERTEX_SELECTIVITY:
+        case LOOPS_EDGE_SELECTIVITY:
+        case LOOPS_SELECTIVITY:
+            // every vertex starts walks of the given length
+            return new TraversalEstimate(graph.vertexes,
+                    GraphScanEstimates.saturatedProduct(graph.vertexes, graph.scannedEdges(pathLength)));
+        case LOOPS_FROM_START_VERTEX:
+            return new TraversalEstimate(1, graph.scannedEdges(pathLength));
+        case SP_TOP_K: {
+            // Yen's search runs a search for the first path, and one from every vertex
+            // of the last path (the spur vertexes) for each of the others
+            long paths = Math.max(1, prop3);
+            long searches = 1 + GraphScanEstimates.saturatedProduct(paths - 1, graph.expectedDistance());
+            return new TraversalEstimate(paths, GraphScanEstimates.saturatedProduct(searches,
+                    graph.bidirectionalScannedEdges(graph.expectedDistance())));
+        }
+        case SP_EDGE_SELECTIVITY:
+            return new TraversalEstimate(1, graph.bidirectionalScannedEdges(graph.expectedDistance()));
+        case SP_TO_ALL_VERTEXES:
+            return new TraversalEstimate(graph.vertexes, graph.edges);
+        case PAGERANK:
+            return new TraversalEstimate(graph.vertexes, GraphScanEstimates.saturatedProduct(graph.edges,
+                    (length > 0) ? length : GraphScanEstimates.DEFAULT_ITERATIONS));
+        case WEAKLY_CONNECTED_COMPONENTS:
+        case STRONGLY_CONNECTED_COMPONENTS:
+            return new TraversalEstimate(graph.vertexes, graph.edges);
+        case TRIANGLE_COUNT:
+            return new TraversalEstimate(graph.vertexes,
+                    GraphScanEstimates.saturatedProduct(graph.edges, (long)Math.sqrt(graph.edges)));
+        default:
+            // the EE runs no traversal for an unknown PROP1
+            return new TraversalEstimate(1, 1);
+        }
+    }
+
+    @Override
+    public void computeCostEstimates(long childOutputTupleCountEstimate,
+                                     DatabaseEstimates estimates,
+                                     ScalarValueHints[] paramHints) {
+        if (m_isSubQuery || ! (m_tableScan instanceof StmtTargetGraphScan)) {
+            super.computeCostEstimates(childOutputTupleCountEstimate, estimates, paramHints);
+            return;
+        }
+        GraphScanEstimates graph = new GraphScanEstimates(
+                ((StmtTargetGraphScan)m_tableScan).getTargetGraph(), estimates);
+        if (m_choosesTraversal) {
+            chooseTraversal(graph);
+        }
+        // a path scan whose start vertex comes from a join is costed by the traversal
+        // the join runs for one row, the join charges it for every row
+        TraversalEstimate estimate = estimateTraversal(
+                (m_choosesTraversal && ! m_startVertexGiven) ? joinTraversal() : prop1, graph);
+        m_estimatedOutputTupleCount = estimate.output;
+        m_estimatedProcessedTupleCount = estimate.processed;
+    }
+
+    private String traversalName() {
+        switch (prop1) {
+        case BFS_BY_DEPTH:
+        case BFS_BY_DEPTH_EDGE_SELECTIVITY:
+            return "BFS";
+        case BFS_TO_DESTINATION:
+            return "BFS TO DESTINATION";
+        case LOOPS_VERTEX_SELECTIVITY:
+        case LOOPS_EDGE_SELECTIVITY:
+        case LOOPS_SELECTIVITY:
+        case LOOPS_FROM_START_VERTEX:
+            return "LOOP SEARCH";
+        case SP_TOP_K:
+            return "TOP " + prop3 + " SHORTEST PATHS";
+        case SP_EDGE_SELECTIVITY:
+            return "BIDIRECTIONAL SHORTEST PATH";
+        case SP_TO_ALL_VERTEXES:
+            return "SHORTEST PATHS TO ALL VERTEXES";
+        case PAGERANK:
+            return "PAGERANK";
+        case WEAKLY_CONNECTED_COMPONENTS:
+            return "WEAKLY CONNECTED COMPONENTS";
+        case STRONGLY_CONNECTED_COMPONENTS:
+            return "STRONGLY CONNECTED COMPONENTS";
+        case TRIANGLE_COUNT:
+            return "TRIANGLE COUNT";
+        default:
+            return null;
+        }
     }
 
     public PathScanPlanNode(String tableName, String tableAlias) {
@@ -66,6 +329,32 @@ public class PathScanPlanNode extends SeqScanPlanNode {
     public PlanNodeType getPlanNodeType() {
         return PlanNodeType.PATHSCAN;
     }
+
+    /**
+     * Add a condition the traversal checks on every vertex or edge it adds to a path.
+     * @param graphObject VERTEXES or EDGES
+     * @param filter The condition, its columns are properties of the vertexes (edges).
+     * @param position The position of the vertex (edge) on the path, -1 for all of them.
+     */
+    public void addTraversalFilter(String graphObject, AbstractExpression filter, int position) {
+        if (VERTEXES.equals(graphObject)) {
+            m_vertexFilters.add(filter);
+            m_vertexFilterPositions.add(position);
+        }
+        else {
+            assert(EDGES.equals(graphObject));
+            m_edgeFilters.add(filter);
+            m_edgeFilterPositions.add(position);
+        }
+    }
+
+    public List<AbstractExpression> getVertexFilters() {
+        return m_vertexFilters;
+    }
+
+    public List<AbstractExpression> getEdgeFilters() {
+        return m_edgeFilters;
+    }
     
     /*
      * GVoltDB
@@ -163,6 +452,52 @@ public class PathScanPlanNode extends SeqScanPlanNode {
         stringer.key(Members.PROP4.name()).value(prop4);
         stringer.key(Members.PROP5.name()).value(prop5);
         stringer.key(Members.LENGTH.name()).value(length);
+        if ( ! m_vertexFilters.isEmpty()) {
+            stringer.key(Members.VERTEX_FILTERS.name()).array(m_vertexFilters);
+            toJSONIntArrayString(stringer, Members.VERTEX_FILTER_POSITIONS.name(), toIntArray(m_vertexFilterPositions));
+        }
+        if ( ! m_edgeFilters.isEmpty()) {
+            stringer.key(Members.EDGE_FILTERS.name()).array(m_edgeFilters);
+            toJSONIntArrayString(stringer, Members.EDGE_FILTER_POSITIONS.name(), toIntArray(m_edgeFilterPositions));
+        }
+    }
+
+    @Override
+    public void loadFromJSONObject(JSONObject jobj, Database db) throws JSONException {
+        super.loadFromJSONObject(jobj, db);
+        m_vertexFilters.clear();
+        m_vertexFilterPositions.clear();
+        m_edgeFilters.clear();
+        m_edgeFilterPositions.clear();
+        AbstractExpression.loadFromJSONArrayChild(m_vertexFilters, jobj, Members.VERTEX_FILTERS.name(), m_tableScan);
+        int[] positions = loadIntArrayMemberFromJSON(jobj, Members.VERTEX_FILTER_POSITIONS.name());
+        for (int ii = 0; positions != null && ii < positions.length; ii++) {
+            m_vertexFilterPositions.add(positions[ii]);
+        }
+        AbstractExpression.loadFromJSONArrayChild(m_edgeFilters, jobj, Members.EDGE_FILTERS.name(), m_tableScan);
+        positions = loadIntArrayMemberFromJSON(jobj, Members.EDGE_FILTER_POSITIONS.name());
+        for (int ii = 0; positions != null && ii < positions.length; ii++) {
+            m_edgeFilterPositions.add(positions[ii]);
+        }
+    }
+
+    @Override
+    public void findAllExpressionsOfClass(Class< ? extends AbstractExpression> aeClass, Set<AbstractExpression> collected) {
+        super.findAllExpressionsOfClass(aeClass, collected);
+        for (AbstractExpression filter : m_vertexFilters) {
+            collected.addAll(filter.findAllSubexpressionsOfClass(aeClass));
+        }
+        for (AbstractExpression filter : m_edgeFilters) {
+            collected.addAll(filter.findAllSubexpressionsOfClass(aeClass));
+        }
+    }
+
+    private static int[] toIntArray(List<Integer> list) {
+        int[] result = new int[list.size()];
+        for (int ii = 0; ii < result.length; ii++) {
+            result[ii] = list.get(ii);
+        }
+        return result;
     }
    
     @Override
@@ -171,8 +506,26 @@ public class PathScanPlanNode extends SeqScanPlanNode {
         if (m_targetTableAlias != null && !m_targetTableAlias.equals(tableName)) {
             tableName += " (" + m_targetTableAlias +")";
         }
-        return "PATHSCAN of \"" + tableName + "\"" + explainPredicate("\n" + indent + " filter by ");
-    }    
+        String traversal = traversalName();
+        return "PATHSCAN of \"" + tableName + "\"" +
+                (traversal == null ? "" : " using " + traversal) +
+                (BATCHED_HINT.equalsIgnoreCase(hint) ? " (batched)" : "") +
+                explainTraversalFilters(VERTEXES, m_vertexFilters, m_vertexFilterPositions, indent) +
+                explainTraversalFilters(EDGES, m_edgeFilters, m_edgeFilterPositions, indent) +
+                explainPredicate("\n" + indent + " filter by ");
+    }
+
+    private String explainTraversalFilters(String graphObject, List<AbstractExpression> filters,
+            List<Integer> positions, String indent) {
+        StringBuilder sb = new StringBuilder();
+        for (int ii = 0; ii < filters.size(); ii++) {
+            int position = positions.get(ii);
+            sb.append("\n").append(indent).append(" traverse ").append(graphObject)
+              .append(position < 0 ? "[*]" : "[" + position + "]")
+              .append(" only where ").append(filters.get(ii).explain(getTableNameForExplain()));
+        }
+        return sb.toString();
+    }
     
     
 }
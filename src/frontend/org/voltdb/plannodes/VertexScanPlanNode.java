@@ -1,10 +1,16 @@
 package org.voltdb.plannodes;
 
+import java.util.Set;
+
+import com.google_voltpatches.common.collect.ImmutableSet;
 import org.voltdb.planner.parseinfo.StmtTableScan;
-import org.voltdb.plannodes.SeqScanPlanNode;
 import org.voltdb.types.PlanNodeType;
 
-public class VertexScanPlanNode extends SeqScanPlanNode {
+public class VertexScanPlanNode extends GraphElementScanPlanNode {
+
+    // Vertex properties the EE derives from the topology of the graph view
+    // rather than reading them from the vertex table.
+    public static final Set<String> TOPOLOGY_PROPERTIES = ImmutableSet.of("FANOUT", "FANIN");
 
     public VertexScanPlanNode() {
         super();
@@ -25,11 +31,7 @@ public class VertexScanPlanNode extends SeqScanPlanNode {
     
     @Override
     protected String explainPlanForNode(String indent) {
-        String tableName = m_targetTableName == null? m_targetTableAlias: m_targetTableName;
-        if (m_targetTableAlias != null && !m_targetTableAlias.equals(tableName)) {
-            tableName += " (" + m_targetTableAlias +")";
-        }
-        return "VERTEXSCAN of \"" + tableName + "\"" + explainPredicate("\n" + indent + " filter by ");
+        return explainScan("VERTEXSCAN", indent);
     }
     
 }
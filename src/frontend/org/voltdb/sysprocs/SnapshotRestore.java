@@ -975,6 +975,26 @@ public class SnapshotRestore extends VoltSystemProcedure {
             // So I intentionally let this fragment return nothing.
             return null;
         }
+        else if (fragmentId == SysProcFragmentId.PF_restoreGraphTopologies) {
+            assert(params[0] != null && params[1] != null);
+            String path = (String)params[0];
+            String nonce = (String)params[1];
+            // Graph views that are not restored are rebuilt from their tables, so this
+            // fragment cannot fail the restore and returns nothing either.
+            try {
+                int restored = SnapshotUtil.restoreGraphTopologies(context.getSiteProcedureConnection(),
+                        path, nonce, context.getPartitionId(), SNAP_LOG);
+                if (restored > 0) {
+                    SNAP_LOG.info("Restored " + restored + " graph view topologies of partition "
+                            + context.getPartitionId() + " from snapshot.");
+                }
+            }
+            catch (IOException e) {
+                SNAP_LOG.warn("Unable to restore the graph view topologies of partition "
+                        + context.getPartitionId(), e);
+            }
+            return null;
+        }
 
         assert(false);
         return null;
@@ -1960,6 +1980,28 @@ public class SnapshotRestore extends VoltSystemProcedure {
                         m_runner.getTxnState().getTimetamp());
     }
 
+    /**
+     * Generate a FragmentTaskMessage to instruct the SP sites to restore the graph view
+     * topologies their partitions saved with the snapshot, once the tables are loaded.
+     */
+    private FragmentTaskMessage generateRestoreGraphTopologiesMessage(long coordinatorHSId,
+                                                                      String filePath,
+                                                                      String fileNonce) {
+        return FragmentTaskMessage.createWithOneFragment(
+                        0,            // initiatorHSId
+                        coordinatorHSId,
+                        0,            // txnId
+                        0,            // uniqueId
+                        false,        // isReadOnly
+                        fragIdToHash(SysProcFragmentId.PF_restoreGraphTopologies), //planHash
+                        SysProcFragmentId.PF_restoreGraphTopologies,
+                        ParameterSet.fromArrayNoCopy(filePath, fileNonce),
+                        false,        // isFinal
+                        m_runner.getTxnState().isForReplay(),
+                        false,        // isNPartTxn
+                        m_runner.getTxnState().getTimetamp());
+    }
+
     private void verifyRestoreWorkResult(VoltTable[] results, VoltTable[] restore_results) {
         while (results[0].advanceRow()) {
             // this will actually add the active row of results[0]
@@ -2104,6 +2146,11 @@ public class SnapshotRestore extends VoltSystemProcedure {
                     verifyRestoreWorkResult(results, restore_results);
                 }
 
+                // The graph views rebuild their topologies from the restored tables unless
+                // the ones saved with the snapshot still match the rows.
+                m.send(Longs.toArray(actualToGenerated.values()),
+                       generateRestoreGraphTopologiesMessage(m.getHSId(), m_filePath, m_fileNonce));
+
                 // Re-enable the views after the table restore work completes.
                 m.send(Longs.toArray(actualToGenerated.values()),
                        generateSetViewEnabledMessage(m.getHSId(), commaSeparatedViewNamesToDisable.toString(), true));
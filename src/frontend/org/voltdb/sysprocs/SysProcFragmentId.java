@@ -132,6 +132,11 @@ public class SysProcFragmentId
      */
     public static final int PF_restoreDistributeHashinator = 79;
     public static final int PF_restoreDistributeHashinatorResults = 80;
+    /*
+     * Plan fragment that restores the graph view topologies saved with the snapshot
+     * once the tables are loaded, see SnapshotUtil.restoreGraphTopologies
+     */
+    public static final int PF_restoreGraphTopologies = 81;
 
     // @StartSampler -- UNUSED
     public static final int PF_startSampler = 90;
@@ -30,6 +30,7 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.RandomAccessFile;
 import java.io.StringWriter;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -66,6 +67,7 @@ import org.voltdb.ClientResponseImpl;
 import org.voltdb.ExtensibleSnapshotDigestData;
 import org.voltdb.RealVoltDB;
 import org.voltdb.SimpleClientResponseAdapter;
+import org.voltdb.SiteProcedureConnection;
 import org.voltdb.SnapshotCompletionInterest;
 import org.voltdb.SnapshotDaemon;
 import org.voltdb.SnapshotDaemon.ForwardClientException;
@@ -95,6 +97,11 @@ public class SnapshotUtil {
 
     public final static String HASH_EXTENSION = ".hash";
     public final static String COMPLETION_EXTENSION = ".finished";
+    public final static String GRAPH_EXTENSION = ".graph";
+    // graph view topologies are passed between the EE and their file in chunks of this size
+    private final static int GRAPH_TOPOLOGY_CHUNK_SIZE = 8 * 1024 * 1024;
+    // the length of the topologies and their CRC follow them in the file
+    private final static int GRAPH_TOPOLOGY_TRAILER_SIZE = 8 + 4;
 
     public static final String JSON_PATH = "path";
     public static final String JSON_PATH_TYPE = "pathType";
@@ -346,6 +353,135 @@ public class SnapshotUtil {
         }
     }
 
+    /**
+     * Write the topologies of the graph views of a site, so that restoring the snapshot
+     * does not have to rebuild them from the vertex and edge tables. Runs on the site thread
+     * when the snapshot starts, which gives the topologies as of the snapshot transaction.
+     * Sites whose graph views have nothing to save (e.g. a topology still to be rebuilt after
+     * a bulk load) write no file.
+     * @return a task that syncs the file once the snapshot completes, null without a file
+     */
+    public static Runnable writeGraphTopologies(
+        SiteProcedureConnection site,
+        String path,
+        String nonce,
+        int partitionId,
+        final VoltLogger logger)
+    throws IOException
+    {
+        byte[] chunk = site.getGraphTopologyChunk();
+        if (chunk.length == 0) {
+            return null;
+        }
+        final File file = new VoltFile(path, constructGraphTopologyFilenameForNonce(nonce, partitionId));
+        FileOutputStream fos = null;
+        boolean success = false;
+        try {
+            fos = new FileOutputStream(file);
+            PureJavaCrc32 crc = new PureJavaCrc32();
+            long length = 0;
+            while (chunk.length > 0) {
+                crc.update(chunk, 0, chunk.length);
+                fos.write(chunk);
+                length += chunk.length;
+                chunk = site.getGraphTopologyChunk();
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(GRAPH_TOPOLOGY_TRAILER_SIZE);
+            trailer.putLong(length);
+            trailer.putInt((int)crc.getValue());
+            fos.write(trailer.array());
+            success = true;
+            final FileOutputStream out = fos;
+            return new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try {
+                        out.getChannel().force(true);
+                    }
+                    catch (IOException e) {
+                        // a torn file fails its CRC check, the topologies are then rebuilt on restore
+                        logger.warn("Unable to sync graph view topologies " + file, e);
+                    }
+                    finally {
+                        try {
+                            out.close();
+                        }
+                        catch (IOException e) {
+                            logger.warn("Unable to close graph view topologies " + file, e);
+                        }
+                    }
+                }
+            };
+        }
+        finally {
+            if (!success) {
+                // the EE releases the topologies once it handed out the last chunk
+                while (chunk.length > 0) {
+                    chunk = site.getGraphTopologyChunk();
+                }
+                if (fos != null) {
+                    fos.close();
+                }
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Hand the graph view topologies a partition saved with a snapshot back to the EE of
+     * a site of that partition, once the vertex and edge tables are loaded. The EE only
+     * restores the topologies whose rows match the loaded tables, files that fail the CRC
+     * check are skipped. The graph views that are not restored are rebuilt from the tables.
+     * @return the number of graph views restored
+     */
+    public static int restoreGraphTopologies(
+        SiteProcedureConnection site,
+        String path,
+        String nonce,
+        int partitionId,
+        VoltLogger logger)
+    throws IOException
+    {
+        final File file = new VoltFile(path, constructGraphTopologyFilenameForNonce(nonce, partitionId));
+        if (!file.exists()) {
+            return 0;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length() - GRAPH_TOPOLOGY_TRAILER_SIZE;
+            if (length <= 0) {
+                logger.warn("Skipping truncated graph view topologies " + file);
+                return 0;
+            }
+            raf.seek(length);
+            long savedLength = raf.readLong();
+            int savedCrc = raf.readInt();
+            // the whole file is checked before any of it reaches the EE
+            PureJavaCrc32 crc = new PureJavaCrc32();
+            byte[] chunk = new byte[(int)Math.min(length, GRAPH_TOPOLOGY_CHUNK_SIZE)];
+            raf.seek(0);
+            for (long remaining = length; remaining > 0; remaining -= chunk.length) {
+                int chunkLength = (int)Math.min(remaining, chunk.length);
+                raf.readFully(chunk, 0, chunkLength);
+                crc.update(chunk, 0, chunkLength);
+            }
+            if (savedLength != length || (int)crc.getValue() != savedCrc) {
+                logger.warn("Skipping bad graph view topologies " + file);
+                return 0;
+            }
+            raf.seek(0);
+            int restored = 0;
+            for (long remaining = length; remaining > 0; ) {
+                chunk = new byte[(int)Math.min(remaining, GRAPH_TOPOLOGY_CHUNK_SIZE)];
+                raf.readFully(chunk);
+                remaining -= chunk.length;
+                restored = site.restoreGraphTopologies(chunk, remaining == 0);
+            }
+            return restored;
+        }
+    }
+
     /**
      * Get the nonce from the filename of the digest file.
      * @param filename The filename of the digest file
@@ -1284,6 +1420,15 @@ public class SnapshotUtil {
         return (nonce + "-host_" + hostId + HASH_EXTENSION);
     }
 
+    /**
+     * Generates the filename of the graph view topologies a partition saved for the given nonce.
+     * @param nonce
+     * @param partitionId
+     */
+    public static final String constructGraphTopologyFilenameForNonce(String nonce, int partitionId) {
+        return (nonce + "-partition_" + partitionId + GRAPH_EXTENSION);
+    }
+
     public static final String constructCompletionFilenameForNonce(String nonce, int hostId) {
         return (nonce + "-host_" + hostId + COMPLETION_EXTENSION);
     }
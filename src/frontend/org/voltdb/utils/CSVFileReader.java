@@ -37,7 +37,8 @@ import com.google_voltpatches.common.collect.HashBiMap;
 /**
  *
  * This is a single thread reader which feeds the lines after validating syntax
- * to CSVDataLoader.
+ * to CSVDataLoader. It reads either the whole input or, for CSVParallelFileReader,
+ * a range of lines of the file.
  *
  */
 class CSVFileReader implements Runnable {
@@ -66,6 +67,11 @@ class CSVFileReader implements Runnable {
     private final BulkLoaderErrorHandler m_errHandler;
     private final VoltType[] m_columnTypes;
     private final int m_columnCount;
+    private final ICsvListReader m_reader;
+    // a reader of a range of lines counts them from the start of its range, the lines
+    // of the file before the range are added for the line numbers it reports
+    private final boolean m_rangeReader;
+    private final long m_lineOffset;
     private int headerlen;
     private Integer[] order;
 
@@ -92,39 +98,94 @@ class CSVFileReader implements Runnable {
         m_errHandler = errorHandler;
         m_columnTypes = m_loader.getColumnTypes();
         m_columnCount = m_columnTypes.length;
+        m_reader = m_listReader;
+        m_rangeReader = false;
+        m_lineOffset = 0;
+    }
+
+    /**
+     * A reader of the lines of rangeReader, which follow lineOffset lines of the file. It
+     * shares the loader, the error handler and the header of fileReader, and leaves closing
+     * the loader to the caller.
+     */
+    CSVFileReader(CSVFileReader fileReader, ICsvListReader rangeReader, long lineOffset) {
+        m_loader = fileReader.m_loader;
+        m_errHandler = fileReader.m_errHandler;
+        m_columnTypes = fileReader.m_columnTypes;
+        m_columnCount = fileReader.m_columnCount;
+        headerlen = fileReader.headerlen;
+        order = fileReader.order;
+        m_reader = rangeReader;
+        m_rangeReader = true;
+        m_lineOffset = lineOffset;
     }
 
     @Override
     public void run() {
-        List<String> lineList;
         //if header option is true, check whether csv first line is valid
+        if (!m_rangeReader) {
+            validateHeader();
+        }
+        readLines();
+
+        if (m_rangeReader) {
+            m_totalLineCount.addAndGet(m_reader.getLineNumber());
+            return;
+        }
+        closeLoader();
+    }
+
+    void closeLoader() {
+        //Now wait for processors to see endOfData and count down. After that drain to finish all callbacks
+        try {
+            m_log.debug("Waiting for CSVDataLoader to finish.");
+            m_loader.close();
+            m_log.debug("CSVDataLoader Done.");
+        } catch (Exception ex) {
+            m_log.warn("Stopped processing because of connection error. "
+                    + "A report will be generated with what we processed so far. Error: " + ex);
+        }
+    }
+
+    void validateHeader() {
         if (m_config.header) {
             if (!checkHeader()) {
-                m_log.error("In the CSV file " + m_config.file + ", the header "+ m_listReader.getUntokenizedRow() +" does not match "
+                m_log.error("In the CSV file " + m_config.file + ", the header "+ m_reader.getUntokenizedRow() +" does not match "
                         + "an existing column in the table " + m_config.table + ".");
                 System.exit(-1);
             }
         }
+    }
 
-        while ((m_config.limitrows-- > 0)) {
+    private void readLines() {
+        List<String> lineList;
+        // the lines before the one being read
+        long lineCount = m_lineOffset;
+        while (m_rangeReader || (m_config.limitrows-- > 0)) {
             if (m_errHandler.hasReachedErrorLimit()) {
                 break;
             }
 
             try {
+                if (m_rangeReader) {
+                    lineCount = m_lineOffset + m_reader.getLineNumber();
+                }
                 //Initial setting of m_totalLineCount
-                if (m_listReader.getLineNumber() == 0) {
-                    m_totalLineCount.set(m_config.skip);
-                } else {
-                    m_totalLineCount.set(m_listReader.getLineNumber());
+                else {
+                    if (m_reader.getLineNumber() == 0) {
+                        m_totalLineCount.set(m_config.skip);
+                    } else {
+                        m_totalLineCount.set(m_reader.getLineNumber());
+                    }
+                    lineCount = m_totalLineCount.get();
                 }
                 long st = System.nanoTime();
-                lineList = m_listReader.read();
+                lineList = m_reader.read();
                 long end = System.nanoTime();
                 m_parsingTime += (end - st);
                 if (lineList == null) {
-                    if (m_totalLineCount.get() > m_listReader.getLineNumber()) {
-                        m_totalLineCount.set(m_listReader.getLineNumber());
+                    if (!m_rangeReader && m_totalLineCount.get() > m_reader.getLineNumber()) {
+                        m_totalLineCount.set(m_reader.getLineNumber());
                     }
                     break;
                 }
@@ -139,8 +200,8 @@ class CSVFileReader implements Runnable {
                 String[] reorderValues = new String[m_columnCount];
                 if ((lineCheckResult = checkparams_trimspace_reorder(lineValues, reorderValues)) != null) {
                     final RowWithMetaData metaData
-                            = new RowWithMetaData(m_listReader.getUntokenizedRow(),
-                                    m_totalLineCount.get() + 1);
+                            = new RowWithMetaData(m_reader.getUntokenizedRow(),
+                                    lineCount + 1);
                     if (m_errHandler.handleError(metaData, null, lineCheckResult)) {
                         break;
                     }
@@ -148,15 +209,15 @@ class CSVFileReader implements Runnable {
                 }
 
                 RowWithMetaData lineData
-                        = new RowWithMetaData(m_listReader.getUntokenizedRow(),
-                                m_listReader.getLineNumber());
+                        = new RowWithMetaData(m_reader.getUntokenizedRow(),
+                                m_lineOffset + m_reader.getLineNumber());
                 m_loader.insertRow(lineData, reorderValues);
             } catch (SuperCsvException e) {
                 //Catch rows that can not be read by superCSV m_listReader.
                 // e.g. items without quotes when strictquotes is enabled.
                 final RowWithMetaData metaData
-                        = new RowWithMetaData(m_listReader.getUntokenizedRow(),
-                                m_totalLineCount.get() + 1);
+                        = new RowWithMetaData(m_reader.getUntokenizedRow(),
+                                lineCount + 1);
                 if (m_errHandler.handleError(metaData, null, e.getMessage())) {
                     break;
                 }
@@ -168,21 +229,11 @@ class CSVFileReader implements Runnable {
                 break;
             }
         }
-
-        //Now wait for processors to see endOfData and count down. After that drain to finish all callbacks
-        try {
-            m_log.debug("Waiting for CSVDataLoader to finish.");
-            m_loader.close();
-            m_log.debug("CSVDataLoader Done.");
-        } catch (Exception ex) {
-            m_log.warn("Stopped processing because of connection error. "
-                    + "A report will be generated with what we processed so far. Error: " + ex);
-        }
     }
 
     private boolean checkHeader() {
         try {
-            String[] firstline = m_listReader.getHeader(false);
+            String[] firstline = m_reader.getHeader(false);
             Set<String> firstset = new HashSet<String>();
             BiMap<Integer, String> colNames = HashBiMap.create(m_loader.getColumnNames());
             headerlen = firstline.length;
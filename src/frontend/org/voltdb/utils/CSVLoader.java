@@ -25,6 +25,7 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.Properties;
 import java.util.TimeZone;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -118,6 +119,10 @@ public class CSVLoader implements BulkLoaderErrorHandler {
      * Stop when all connections are lost?
      */
     public static final boolean DEFAULT_STOP_ON_DISCONNECT = false;
+    /**
+     * Number of threads parsing the CSV file
+     */
+    public static final int DEFAULT_PARSERS = 1;
     /**
      * Used for testing only.
      */
@@ -331,6 +336,9 @@ public class CSVLoader implements BulkLoaderErrorHandler {
 
         @Option(desc = "Stop when all connections are lost", hasArg = false)
         boolean stopondisconnect = DEFAULT_STOP_ON_DISCONNECT;
+
+        @Option(desc = "number of threads parsing the CSV file in ranges of lines, needs a file without line breaks inside quoted values (default: 1)")
+        int parsers = DEFAULT_PARSERS;
         /**
          * Validate command line options.
          */
@@ -357,6 +365,12 @@ public class CSVLoader implements BulkLoaderErrorHandler {
             if (batch < 0) {
                 exitWithMessageAndUsage("batch size number must be >= 0");
             }
+            if (parsers < 1) {
+                exitWithMessageAndUsage("parsers must be >= 1");
+            }
+            if (parsers > 1 && limitrows != Integer.MAX_VALUE) {
+                exitWithMessageAndUsage("--limitrows cannot be used with more than one parser");
+            }
             if(!customNullString.isEmpty() && !blank.equals("error")){
                 blank = "empty";
             }
@@ -424,26 +438,15 @@ public class CSVLoader implements BulkLoaderErrorHandler {
 
         configuration();
 
-        final Tokenizer tokenizer;
         ICsvListReader listReader = null;
         try {
             if (CSVLoader.standin) {
-                tokenizer = new Tokenizer(new BufferedReader(new InputStreamReader(System.in)), csvPreference,
-                        config.strictquotes, config.escape, config.columnsizelimit,
+                listReader = createListReader(new BufferedReader(new InputStreamReader(System.in)),
                         config.skip, config.header);
-                listReader = new CsvListReader(tokenizer, csvPreference);
             } else {
                 FileInputStream fis = new FileInputStream(config.file);
                 InputStreamReader isr = new InputStreamReader(fis, config.charset);
-                tokenizer = new Tokenizer(isr,
-                          csvPreference,
-                          config.strictquotes,
-                          config.escape,
-                          config.columnsizelimit,
-                          config.skip,
-                          config.header);
-
-                listReader = new CsvListReader(tokenizer, csvPreference);
+                listReader = createListReader(isr, config.skip, config.header);
             }
         } catch (FileNotFoundException e) {
             System.err.println("CSV file '" + config.file + "' could not be found.");
@@ -512,8 +515,17 @@ public class CSVLoader implements BulkLoaderErrorHandler {
             CSVFileReader.initializeReader(cfg, csvClient, listReader);
 
             CSVFileReader csvReader = new CSVFileReader(dataLoader, errHandler);
+            CSVParallelFileReader parallelReader = null;
+            if (config.parsers > 1 && !CSVLoader.standin) {
+                if (CSVParallelFileReader.canSplitLines(config.charset)) {
+                    parallelReader = new CSVParallelFileReader(csvReader, config.parsers);
+                } else {
+                    System.err.println("Parsing the CSV file with a single thread, the lines of charset "
+                            + config.charset + " cannot be split on bytes.");
+                }
+            }
 
-            Thread readerThread = new Thread(csvReader);
+            Thread readerThread = new Thread(parallelReader != null ? parallelReader : csvReader);
             readerThread.setName("CSVFileReader");
             readerThread.setDaemon(true);
 
@@ -527,7 +539,7 @@ public class CSVLoader implements BulkLoaderErrorHandler {
 
             errHandler.waitForErrorFlushComplete();
 
-            readerTime = (csvReader.m_parsingTime) / 1000000;
+            readerTime = (parallelReader != null ? parallelReader.m_parsingTime : csvReader.m_parsingTime) / 1000000;
             insertCount = dataLoader.getProcessedRows();
             ackCount = insertCount - dataLoader.getFailedRows();
             rowsQueued = CSVFileReader.m_totalRowCount.get();
@@ -557,6 +569,20 @@ public class CSVLoader implements BulkLoaderErrorHandler {
         }
     }
 
+    /**
+     * Creates a reader of the CSV rows of the given input with the configured format.
+     */
+    static ICsvListReader createListReader(Reader reader, long skip, boolean header) {
+        Tokenizer tokenizer = new Tokenizer(reader,
+                csvPreference,
+                config.strictquotes,
+                config.escape,
+                config.columnsizelimit,
+                skip,
+                header);
+        return new CsvListReader(tokenizer, csvPreference);
+    }
+
     private static void configuration() {
         csvPreference = new CsvPreference.Builder(config.quotechar, config.separator, "\n").build();
         if (config.file.equals("")) {
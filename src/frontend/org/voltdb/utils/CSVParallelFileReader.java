@@ -0,0 +1,217 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.voltcore.logging.VoltLogger;
+import org.voltcore.utils.CoreUtils;
+
+/**
+ *
+ * This reader parses the CSV file with several threads. The file is split into
+ * ranges of whole lines, every range is memory mapped and read by a CSVFileReader
+ * of its own. All of them feed the same CSVDataLoader, whose bulk loader hashes
+ * the rows to their partitions, so the parsers fill the per partition batches
+ * directly. Splitting on line breaks needs a file without line breaks inside
+ * quoted values.
+ *
+ */
+class CSVParallelFileReader implements Runnable {
+    // ranges are mapped whole, a range has at most this many bytes plus the rest of its last line
+    private static final long MAX_RANGE_BYTES = 1L << 30;
+    // more ranges than parsers keep all of them busy when the lines are uneven
+    private static final int RANGES_PER_PARSER = 4;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final VoltLogger m_log = new VoltLogger("CSVLOADER");
+
+    long m_parsingTime = 0;
+    private final CSVFileReader m_fileReader;
+    private final int m_parsers;
+
+    /**
+     * @param fileReader the reader of the whole file, it checks the header and its loader gets the rows
+     * @param parsers    the number of parsing threads
+     */
+    CSVParallelFileReader(CSVFileReader fileReader, int parsers) {
+        m_fileReader = fileReader;
+        m_parsers = parsers;
+    }
+
+    /**
+     * Whether the lines of the charset can be split at '\n' bytes.
+     */
+    static boolean canSplitLines(String charsetName) {
+        try {
+            ByteBuffer lineBreak = Charset.forName(charsetName).newEncoder().encode(CharBuffer.wrap("\n"));
+            return lineBreak.remaining() == 1 && lineBreak.get(0) == '\n';
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void run() {
+        final CSVLoader.CSVConfig config = CSVFileReader.m_config;
+        m_fileReader.validateHeader();
+        // the lines before the first row, the header is expected on the first line
+        final long headerLines = config.skip + (config.header ? 1 : 0);
+        CSVFileReader.m_totalLineCount.set(headerLines);
+
+        ExecutorService parsers = Executors.newFixedThreadPool(m_parsers, CoreUtils.getThreadFactory("CSVParser"));
+        try (FileChannel channel = FileChannel.open(Paths.get(config.file), StandardOpenOption.READ)) {
+            long[] bounds = splitLines(channel, headerLines);
+            int rangeCount = bounds.length - 1;
+            final Charset charset = Charset.forName(config.charset);
+
+            // the line numbers of the rows of a range start after the lines of the ranges before it
+            List<MappedByteBuffer> ranges = new ArrayList<MappedByteBuffer>(rangeCount);
+            List<Future<Long>> lineCounts = new ArrayList<Future<Long>>(rangeCount);
+            for (int i = 0; i < rangeCount; i++) {
+                final MappedByteBuffer range = channel.map(MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]);
+                ranges.add(range);
+                lineCounts.add(parsers.submit(() -> countLines(range)));
+            }
+
+            List<Future<Long>> parsingTimes = new ArrayList<Future<Long>>(rangeCount);
+            long lineOffset = headerLines;
+            for (int i = 0; i < rangeCount; i++) {
+                final CSVFileReader rangeReader = new CSVFileReader(m_fileReader,
+                        CSVLoader.createListReader(new InputStreamReader(new RangeInputStream(ranges.get(i)), charset), 0, false),
+                        lineOffset);
+                parsingTimes.add(parsers.submit(() -> {
+                    rangeReader.run();
+                    return rangeReader.m_parsingTime;
+                }));
+                lineOffset += lineCounts.get(i).get();
+            }
+            for (Future<Long> parsingTime : parsingTimes) {
+                m_parsingTime += parsingTime.get();
+            }
+        } catch (IOException | ExecutionException ex) {
+            m_log.error("Failed to read CSV lines from file: " + ex);
+        } catch (InterruptedException e) {
+            m_log.error("CSVLoader interrupted: " + e);
+        } finally {
+            parsers.shutdownNow();
+        }
+
+        m_fileReader.closeLoader();
+    }
+
+    /**
+     * Splits the rows of the file into ranges of whole lines, range i goes from
+     * bounds[i] to bounds[i + 1]. Some of the ranges can be empty.
+     */
+    private long[] splitLines(FileChannel channel, long headerLines) throws IOException {
+        long size = channel.size();
+        long start = skipLines(channel, 0, headerLines);
+        int rangeCount = (int) Math.max((long) m_parsers * RANGES_PER_PARSER,
+                (size - start + MAX_RANGE_BYTES - 1) / MAX_RANGE_BYTES);
+        long[] bounds = new long[rangeCount + 1];
+        bounds[0] = start;
+        for (int i = 1; i < rangeCount; i++) {
+            long split = start + (size - start) / rangeCount * i;
+            bounds[i] = skipLines(channel, Math.max(split, bounds[i - 1]), 1);
+        }
+        bounds[rangeCount] = size;
+        return bounds;
+    }
+
+    /**
+     * The position after the given number of line breaks from position on, the
+     * size of the file if it has fewer of them.
+     */
+    private static long skipLines(FileChannel channel, long position, long lines) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        while (lines > 0) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read && lines > 0; i++) {
+                position++;
+                if (buffer.get(i) == '\n') {
+                    lines--;
+                }
+            }
+        }
+        return position;
+    }
+
+    private static long countLines(ByteBuffer range) {
+        long lines = 0;
+        for (int i = 0; i < range.limit(); i++) {
+            if (range.get(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Reads a mapped range of the file.
+     */
+    private static class RangeInputStream extends InputStream {
+        private final ByteBuffer m_range;
+
+        RangeInputStream(ByteBuffer range) {
+            m_range = range;
+        }
+
+        @Override
+        public int read() {
+            return m_range.hasRemaining() ? (m_range.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!m_range.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, m_range.remaining());
+            m_range.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return m_range.remaining();
+        }
+    }
+}
@@ -0,0 +1,640 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.utils;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.voltdb.CLIConfig;
+import org.voltdb.VoltTable;
+import org.voltdb.VoltType;
+import org.voltdb.client.Client;
+import org.voltdb.client.ClientConfig;
+import org.voltdb.client.ClientImpl;
+import org.voltdb.client.ClientResponse;
+import org.voltdb.client.VoltBulkLoader.BulkLoaderFailureCallBack;
+import org.voltdb.client.VoltBulkLoader.VoltBulkLoader;
+
+/**
+ * GraphLoader loads a graph from an edge list or an adjacency list file into the
+ * vertex and edge tables of a graph view.
+ *
+ * Every line of an edge list holds an edge, the ids of its source and destination
+ * vertexes followed by the values of the other columns of the edge table, in the
+ * order of the table. Every line of an adjacency list holds a vertex id followed
+ * by the ids of the vertexes it has edges to. Empty lines and lines starting with
+ * '#' or '%' are skipped.
+ *
+ * The rows go through a VoltBulkLoader for each table, which batches them per
+ * partition. The vertexes the file refers to are created on first sight, the ones
+ * the vertex table already holds fail with a unique constraint violation and are
+ * counted as existing. Edges repeated in the file are loaded once, for undirected
+ * graphs in either direction. Both checks keep the ids of the load in memory, in a
+ * set of at most 805306368 (3/4 of 2^30) entries each that takes 17 bytes per slot,
+ * so a file with more distinct vertexes, or more distinct edges unless --nodedup is
+ * given, has to be loaded in parts. The check of the vertexes cannot be turned off,
+ * it is what queues every vertex once. Vertex ids that are not integers are kept as
+ * strings in a map to the numbers the checks use, which holds as many ids but takes
+ * about 100 bytes per id on top of the characters.
+ *
+ * The edge ids of an edge table with an id column count up from --firstedgeid, or
+ * by default from one past the largest id the table holds when the load starts.
+ * Concurrent loads into the same graph view have to be given ranges that do not
+ * overlap.
+ */
+public class GraphLoader {
+
+    /**
+     * default edge id of the first edge loaded into an empty edge table
+     */
+    public static final long DEFAULT_FIRST_EDGE_ID = 0;
+    /**
+     * --firstedgeid value that continues the ids of the edge table
+     */
+    static final long NEXT_EDGE_ID = Long.MIN_VALUE;
+    /**
+     * seconds between two progress reports
+     */
+    public static final int DEFAULT_REPORT_INTERVAL = 10;
+    /**
+     * Used for testing only.
+     */
+    public static boolean testMode = false;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Configuration options.
+     */
+    public static class GraphLoaderConfig extends CLIConfig {
+
+        @Option(shortOpt = "f", desc = "location of the graph input file (default: standard input)")
+        String file = "";
+
+        @Option(desc = "format of the input file: {edgelist|adjacency} (default: edgelist)")
+        String format = "edgelist";
+
+        @Option(desc = "delimiter to use for separating entries (default: whitespace)")
+        String separator = "";
+
+        @Option(shortOpt = "m", desc = "maximum errors allowed")
+        int maxerrors = 100;
+
+        @Option(shortOpt = "s", desc = "list of servers to connect to (default: localhost)")
+        String servers = "localhost";
+
+        @Option(desc = "username when connecting to the servers")
+        String user = "";
+
+        @Option(desc = "password to use when connecting to servers")
+        String password = "";
+
+        @Option(desc = "credentials that contains username and password information")
+        String credentials = "";
+
+        @Option(desc = "port to use when connecting to database (default: 21212)")
+        int port = Client.VOLTDB_SERVER_PORT;
+
+        @Option(shortOpt = "c", desc = "character set , default system character set")
+        String charset = "utf-8";
+
+        @Option(desc = "Enable SSL, Optionally provide configuration file.")
+        String ssl = "";
+
+        @Option(desc = "Enable Kerberos and use provided JAAS login configuration entry key.")
+        String kerberos = "";
+
+        /**
+         * Batch size for processing batched operations.
+         */
+        @Option(desc = "Batch Size for processing.")
+        public int batch = 200;
+
+        @Option(desc = "id of the first edge when the edge table has an id column, the next edges count up from it "
+                + "(default: one past the largest id of the edge table, 0 if the table is empty)")
+        long firstedgeid = NEXT_EDGE_ID;
+
+        @Option(desc = "do not check the file for repeated edges, saves the memory of the check on inputs known to be clean "
+                + "(the check holds at most 805306368 distinct edges, the vertex ids are kept in memory either way "
+                + "and are limited to as many)", hasArg = false)
+        boolean nodedup = false;
+
+        @Option(desc = "seconds between progress reports, 0 for none (default: 10)")
+        int reportinterval = DEFAULT_REPORT_INTERVAL;
+
+        /**
+         * Graph view to load the file into.
+         */
+        @AdditionalArgs(desc = "insert the graph into the vertex and edge tables of GRAPHNAME")
+        public String graph = "";
+
+        /**
+         * Validate command line options.
+         */
+        @Override
+        public void validate() {
+            if (graph.equals("")) {
+                exitWithMessageAndUsage("graph view name required");
+            }
+            if (!format.equalsIgnoreCase("edgelist") && !format.equalsIgnoreCase("adjacency")) {
+                exitWithMessageAndUsage("format specified must be one of {edgelist|adjacency}");
+            }
+            if (maxerrors < 0) {
+                exitWithMessageAndUsage("maxerrors must be >= 0");
+            }
+            if (port < 0) {
+                exitWithMessageAndUsage("port number must be >= 0");
+            }
+            if (batch < 0) {
+                exitWithMessageAndUsage("batch size number must be >= 0");
+            }
+            if (reportinterval < 0) {
+                exitWithMessageAndUsage("reportinterval must be >= 0");
+            }
+        }
+
+        /**
+         * Usage
+         */
+        @Override
+        public void printUsage() {
+            System.out.println("Usage: graphloader [args] graphname");
+            super.printUsage();
+        }
+    }
+
+    private final GraphLoaderConfig m_config;
+    private final Pattern m_separator;
+    private final boolean m_adjacency;
+    private final boolean m_directed;
+
+    private final VoltBulkLoader m_vertexLoader;
+    private final int m_vertexColumnCount;
+    private final int m_vertexIdIndex;
+    // vertex ids are kept as numbers, or as codes of a map for the ids of other types
+    private final boolean m_numericIds;
+    private final LongPairSet m_vertexes = new LongPairSet();
+    private final Map<String, Long> m_vertexCodes = new HashMap<String, Long>();
+
+    private final VoltBulkLoader m_edgeLoader;
+    private final int m_edgeColumnCount;
+    private final int m_edgeIdIndex;
+    private final int m_edgeFromIndex;
+    private final int m_edgeToIndex;
+    // the columns an edge list line fills after the vertex ids
+    private final int[] m_edgeValueIndexes;
+    private final LongPairSet m_edges = new LongPairSet();
+    private long m_nextEdgeId;
+
+    private long m_lineCount = 0;
+    private long m_vertexesQueued = 0;
+    private long m_edgesQueued = 0;
+    private long m_duplicateEdges = 0;
+    private final AtomicLong m_existingVertexes = new AtomicLong(0);
+    private final AtomicLong m_failedVertexes = new AtomicLong(0);
+    private final AtomicLong m_failedEdges = new AtomicLong(0);
+    private final AtomicLong m_errorCount = new AtomicLong(0);
+
+    /**
+     * Finds the tables of the graph view and the columns of its ids and creates
+     * the loaders of both tables.
+     */
+    GraphLoader(GraphLoaderConfig config, ClientImpl client) throws Exception {
+        m_config = config;
+        m_separator = config.separator.isEmpty() ? WHITESPACE : Pattern.compile(Pattern.quote(config.separator));
+        m_adjacency = config.format.equalsIgnoreCase("adjacency");
+
+        VoltTable graphs = client.callProcedure("@SystemCatalog", "GRAPHVIEWS").getResults()[0];
+        boolean found = false;
+        while (graphs.advanceRow()) {
+            if (graphs.getString("GRAPH_NAME").equalsIgnoreCase(config.graph)) {
+                found = true;
+                break;
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("Graph view " + config.graph + " does not exist.");
+        }
+        String vertexTable = graphs.getString("VERTEX_TABLE");
+        String edgeTable = graphs.getString("EDGE_TABLE");
+        if (vertexTable == null || edgeTable == null) {
+            throw new IllegalArgumentException("Graph view " + config.graph + " is not defined on tables.");
+        }
+        m_directed = Boolean.parseBoolean(graphs.getString("IS_DIRECTED"));
+
+        m_vertexLoader = client.getNewBulkLoader(vertexTable, config.batch, false, new LoadFailureCallback(true));
+        m_vertexColumnCount = m_vertexLoader.getColumnNames().size();
+        m_vertexIdIndex = columnIndex(m_vertexLoader, graphs.getString("VERTEX_ID_COLUMN"), "vertex id");
+        m_numericIds = m_vertexLoader.getColumnTypes()[m_vertexIdIndex].isAnyIntegerType();
+
+        m_edgeLoader = client.getNewBulkLoader(edgeTable, config.batch, false, new LoadFailureCallback(false));
+        m_edgeColumnCount = m_edgeLoader.getColumnNames().size();
+        String edgeIdColumn = graphs.getString("EDGE_ID_COLUMN");
+        m_edgeIdIndex = (edgeIdColumn == null) ? -1 : columnIndex(m_edgeLoader, edgeIdColumn, "edge id");
+        m_edgeFromIndex = columnIndex(m_edgeLoader, graphs.getString("EDGE_FROM_COLUMN"), "edge source");
+        m_edgeToIndex = columnIndex(m_edgeLoader, graphs.getString("EDGE_TO_COLUMN"), "edge destination");
+        List<Integer> valueIndexes = new ArrayList<Integer>();
+        for (int i = 0; i < m_edgeColumnCount; i++) {
+            if (i != m_edgeIdIndex && i != m_edgeFromIndex && i != m_edgeToIndex) {
+                valueIndexes.add(i);
+            }
+        }
+        m_edgeValueIndexes = new int[valueIndexes.size()];
+        for (int i = 0; i < m_edgeValueIndexes.length; i++) {
+            m_edgeValueIndexes[i] = valueIndexes.get(i);
+        }
+        m_nextEdgeId = (config.firstedgeid != NEXT_EDGE_ID || m_edgeIdIndex < 0) ? config.firstedgeid
+                : nextEdgeId(client, edgeTable, edgeIdColumn);
+    }
+
+    /**
+     * The id following the largest one of the edge table, the edges of an earlier
+     * load keep their ids.
+     */
+    private long nextEdgeId(ClientImpl client, String edgeTable, String edgeIdColumn) throws Exception {
+        VoltTable count = client.callProcedure("@AdHoc", "SELECT COUNT(*) FROM " + edgeTable + ";").getResults()[0];
+        if (count.asScalarLong() == 0) {
+            return DEFAULT_FIRST_EDGE_ID;
+        }
+        if (!m_edgeLoader.getColumnTypes()[m_edgeIdIndex].isAnyIntegerType()) {
+            throw new IllegalArgumentException("Edge table " + edgeTable + " is not empty and its ids are not "
+                    + "integers, give the id of the first edge with --firstedgeid.");
+        }
+        // an ordered scan rather than MAX(), whose plan over a partitioned table the EE rejects here
+        VoltTable max = client.callProcedure("@AdHoc", "SELECT " + edgeIdColumn + " FROM " + edgeTable
+                + " ORDER BY " + edgeIdColumn + " DESC LIMIT 1;").getResults()[0];
+        return max.asScalarLong() + 1;
+    }
+
+    private int columnIndex(VoltBulkLoader loader, String column, String role) {
+        if (column != null) {
+            for (Map.Entry<Integer, String> entry : loader.getColumnNames().entrySet()) {
+                if (entry.getValue().equalsIgnoreCase(column)) {
+                    return entry.getKey();
+                }
+            }
+        }
+        throw new IllegalArgumentException("Graph view " + m_config.graph + " has no " + role + " column.");
+    }
+
+    /**
+     * Counts the rows the loaders report back as failed. Vertexes failing on a unique
+     * constraint are already in the vertex table.
+     */
+    private class LoadFailureCallback implements BulkLoaderFailureCallBack {
+        private final boolean m_isVertex;
+
+        LoadFailureCallback(boolean isVertex) {
+            m_isVertex = isVertex;
+        }
+
+        @Override
+        public void failureCallback(Object rowHandle, Object[] fieldList, ClientResponse response) {
+            if (response.getStatus() == ClientResponse.SUCCESS) {
+                return;
+            }
+            String status = response.getStatusString();
+            if (m_isVertex && status != null && status.contains("CONSTRAINT VIOLATION")
+                    && (status.contains("UNIQUE") || status.contains("PRIMARY_KEY"))) {
+                m_existingVertexes.incrementAndGet();
+                return;
+            }
+            (m_isVertex ? m_failedVertexes : m_failedEdges).incrementAndGet();
+            handleError((Long) rowHandle, (m_isVertex ? "vertex " : "edge ") + status);
+        }
+    }
+
+    private void handleError(long line, String message) {
+        if (m_errorCount.incrementAndGet() <= m_config.maxerrors) {
+            System.err.println("Error at line " + line + ": " + message);
+        }
+    }
+
+    private boolean hasReachedErrorLimit() {
+        return m_errorCount.get() > m_config.maxerrors;
+    }
+
+    /**
+     * Reads the file, queueing the rows of its new vertexes and edges, and waits for
+     * the loaders to insert them.
+     */
+    void load(BufferedReader reader) throws Exception {
+        final long start = System.currentTimeMillis();
+        final long interval = m_config.reportinterval * 1000L;
+        long nextReport = start + interval;
+        try {
+            String line;
+            while (!hasReachedErrorLimit() && (line = reader.readLine()) != null) {
+                m_lineCount++;
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '%') {
+                    continue;
+                }
+                String[] values = m_separator.split(line);
+                if (values.length < (m_adjacency ? 1 : 2)) {
+                    handleError(m_lineCount, "expected the ids of two vertexes");
+                    continue;
+                }
+                if (!m_adjacency && values.length - 2 > m_edgeValueIndexes.length) {
+                    handleError(m_lineCount, "found " + (values.length - 2) + " edge values, "
+                            + m_edgeValueIndexes.length + " expected");
+                    continue;
+                }
+                try {
+                    String from = values[0].trim();
+                    long fromCode = vertex(from);
+                    for (int i = 1; i < (m_adjacency ? values.length : 2); i++) {
+                        String to = values[i].trim();
+                        edge(from, fromCode, to, vertex(to), values);
+                    }
+                } catch (NumberFormatException e) {
+                    handleError(m_lineCount, "invalid vertex id " + e.getMessage());
+                }
+                if (interval > 0 && System.currentTimeMillis() >= nextReport) {
+                    report(start, "Read");
+                    nextReport += interval;
+                }
+            }
+        } finally {
+            m_vertexLoader.close();
+            m_edgeLoader.close();
+        }
+        report(start, "Loaded");
+    }
+
+    /**
+     * The number the load knows the vertex by, queueing its row the first time
+     * the load sees it.
+     */
+    private long vertex(String id) throws InterruptedException {
+        long code;
+        boolean isNew;
+        if (m_numericIds) {
+            code = Long.parseLong(id);
+            isNew = m_vertexes.add(code, 0);
+        } else {
+            Long known = m_vertexCodes.get(id);
+            isNew = (known == null);
+            code = isNew ? m_vertexCodes.size() : known;
+            if (isNew) {
+                // the same limit as the ids of numbers, the map outgrows the memory long before
+                if (code >= LongPairSet.MAX_SIZE) {
+                    throw new IllegalStateException("More than " + code + " distinct ids to check in memory, "
+                            + "load the file in parts.");
+                }
+                m_vertexCodes.put(id, code);
+            }
+        }
+        if (isNew) {
+            Object[] row = new Object[m_vertexColumnCount];
+            row[m_vertexIdIndex] = id;
+            m_vertexLoader.insertRow(m_lineCount, row);
+            m_vertexesQueued++;
+        }
+        return code;
+    }
+
+    private void edge(String from, long fromCode, String to, long toCode, String[] values) throws InterruptedException {
+        if (!m_config.nodedup) {
+            // an undirected edge is the same read from either end
+            boolean swap = !m_directed && fromCode > toCode;
+            if (!m_edges.add(swap ? toCode : fromCode, swap ? fromCode : toCode)) {
+                m_duplicateEdges++;
+                return;
+            }
+        }
+        Object[] row = new Object[m_edgeColumnCount];
+        if (m_edgeIdIndex >= 0) {
+            row[m_edgeIdIndex] = m_nextEdgeId++;
+        }
+        row[m_edgeFromIndex] = from;
+        row[m_edgeToIndex] = to;
+        if (!m_adjacency) {
+            for (int i = 2; i < values.length; i++) {
+                row[m_edgeValueIndexes[i - 2]] = values[i].trim();
+            }
+        }
+        m_edgeLoader.insertRow(m_lineCount, row);
+        m_edgesQueued++;
+    }
+
+    private void report(long start, String action) {
+        float elapsedTimeSec = Math.max(System.currentTimeMillis() - start, 1) / 1000F;
+        System.out.println(action + " " + m_lineCount + " lines, " + m_edgesQueued + " edges and "
+                + m_vertexesQueued + " vertexes in " + elapsedTimeSec + " seconds ("
+                + (long) (m_edgesQueued / elapsedTimeSec) + " edges/s, "
+                + (long) (m_vertexesQueued / elapsedTimeSec) + " vertexes/s)");
+    }
+
+    private void printSummary() {
+        if (hasReachedErrorLimit()) {
+            System.out.println("The number of errors exceeds the configured maximum errors: " + m_config.maxerrors);
+        }
+        System.out.println("Inserted " + (m_edgesQueued - m_failedEdges.get()) + " edges and "
+                + (m_vertexesQueued - m_failedVertexes.get() - m_existingVertexes.get()) + " vertexes, skipped "
+                + m_duplicateEdges + " repeated edges and " + m_existingVertexes.get() + " existing vertexes, "
+                + m_errorCount.get() + " errors");
+    }
+
+    /**
+     * graphloader main. (main is directly used by tests as well)
+     *
+     * @param args
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final GraphLoaderConfig config = new GraphLoaderConfig();
+        config.parse(GraphLoader.class.getName(), args);
+
+        BufferedReader reader = null;
+        try {
+            if (config.file.equals("")) {
+                reader = new BufferedReader(new InputStreamReader(System.in));
+            } else {
+                reader = new BufferedReader(new InputStreamReader(new FileInputStream(config.file), config.charset));
+            }
+        } catch (FileNotFoundException e) {
+            System.err.println("Graph file '" + config.file + "' could not be found.");
+            System.exit(-1);
+        }
+
+        // read username and password from txt file
+        if (config.credentials != null && !config.credentials.trim().isEmpty()) {
+            Properties props = MiscUtils.readPropertiesFromCredentials(config.credentials);
+            config.user = props.getProperty("username");
+            config.password = props.getProperty("password");
+        }
+
+        // If we need to prompt the user for a password, do so.
+        config.password = CLIConfig.readPasswordIfNeeded(config.user, config.password, "Enter password: ");
+
+        final ClientConfig c_config = new ClientConfig(config.user, config.password, null);
+        if (config.ssl != null && !config.ssl.trim().isEmpty()) {
+            c_config.setTrustStoreConfigFromPropertyFile(config.ssl);
+            c_config.enableSSL();
+        }
+        if (!config.kerberos.trim().isEmpty()) {
+            c_config.enableKerberosAuthentication(config.kerberos);
+        }
+        c_config.setProcedureCallTimeout(0); // Set procedure all to infinite
+        Client client = null;
+        try {
+            client = CSVLoader.getClient(c_config, config.servers.split(","), config.port);
+        } catch (Exception e) {
+            System.err.println("Error connecting to the servers: " + config.servers);
+            System.exit(-1);
+        }
+        assert (client != null);
+
+        boolean failed = true;
+        try {
+            GraphLoader loader = new GraphLoader(config, (ClientImpl) client);
+            loader.load(reader);
+            loader.printSummary();
+            failed = loader.m_errorCount.get() > 0;
+        } catch (Exception ex) {
+            System.err.println("Exception Happened while loading graph data: " + ex);
+        } finally {
+            reader.close();
+            client.close();
+        }
+        //In test junit mode we let it continue for reuse
+        if (!testMode) {
+            System.exit(failed ? -1 : 0);
+        }
+    }
+
+    /**
+     * An open addressing hash set of pairs of longs, which keeps the ids of the load
+     * in a few arrays rather than in an object per id.
+     */
+    static class LongPairSet {
+        private static final int INITIAL_CAPACITY = 1 << 10;
+        private static final int MAX_CAPACITY = 1 << 30;
+        // the pairs the default set holds
+        static final int MAX_SIZE = MAX_CAPACITY - (MAX_CAPACITY >> 2);
+
+        private final int m_maxCapacity;
+        private long[] m_firsts;
+        private long[] m_seconds;
+        private boolean[] m_used;
+        private int m_size = 0;
+
+        LongPairSet() {
+            this(MAX_CAPACITY);
+        }
+
+        /**
+         * A set that holds up to three quarters of maxCapacity pairs, which has to
+         * be a power of two.
+         */
+        LongPairSet(int maxCapacity) {
+            assert (Integer.bitCount(maxCapacity) == 1);
+            m_maxCapacity = maxCapacity;
+            allocate(Math.min(INITIAL_CAPACITY, maxCapacity));
+        }
+
+        private void allocate(int capacity) {
+            m_firsts = new long[capacity];
+            m_seconds = new long[capacity];
+            m_used = new boolean[capacity];
+        }
+
+        int size() {
+            return m_size;
+        }
+
+        /**
+         * Adds the pair, returns false if the set already holds it.
+         */
+        boolean add(long first, long second) {
+            // keep the table at most three quarters full
+            if (m_size == m_used.length - (m_used.length >> 2)) {
+                if (contains(first, second)) {
+                    return false;
+                }
+                grow();
+            }
+            if (!insert(first, second)) {
+                return false;
+            }
+            m_size++;
+            return true;
+        }
+
+        boolean contains(long first, long second) {
+            int mask = m_used.length - 1;
+            for (int slot = hash(first, second) & mask; m_used[slot]; slot = (slot + 1) & mask) {
+                if (m_firsts[slot] == first && m_seconds[slot] == second) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean insert(long first, long second) {
+            int mask = m_used.length - 1;
+            int slot = hash(first, second) & mask;
+            while (m_used[slot]) {
+                if (m_firsts[slot] == first && m_seconds[slot] == second) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            m_used[slot] = true;
+            m_firsts[slot] = first;
+            m_seconds[slot] = second;
+            return true;
+        }
+
+        private void grow() {
+            if (m_used.length >= m_maxCapacity) {
+                throw new IllegalStateException("More than " + m_size + " distinct ids to check in memory, " +
+                        "load the file in parts, or with --nodedup if these are edges.");
+            }
+            long[] firsts = m_firsts;
+            long[] seconds = m_seconds;
+            boolean[] used = m_used;
+            allocate(used.length << 1);
+            for (int i = 0; i < used.length; i++) {
+                if (used[i]) {
+                    insert(firsts[i], seconds[i]);
+                }
+            }
+        }
+
+        private static int hash(long first, long second) {
+            long h = first * 0x9E3779B97F4A7C15L + second;
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+    }
+}
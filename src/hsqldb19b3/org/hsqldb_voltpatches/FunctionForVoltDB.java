@@ -181,6 +181,13 @@ public class FunctionForVoltDB extends FunctionSQL {
         public static final int FUNC_VOLT_INET6_NTOA      = 20046;
         public static final int FUNC_VOLT_INET6_ATON      = 20047;
 
+        // Graph view path functions, over the packed ids of the PATH column
+        public static final int FUNC_VOLT_PATH_LENGTH     = 20048;
+        public static final int FUNC_VOLT_PATH_FIRST      = 20049;
+        public static final int FUNC_VOLT_PATH_LAST       = 20050;
+        public static final int FUNC_VOLT_PATH_VERTEX     = 20051;
+        public static final int FUNC_VOLT_PATH_EDGE       = 20052;
+
         // Geospatial functions
         static final int FUNC_VOLT_POINTFROMTEXT                = 21000;
         static final int FUNC_VOLT_POLYGONFROMTEXT              = 21001;
@@ -431,6 +438,26 @@ public class FunctionForVoltDB extends FunctionSQL {
                     new Type[] { Type.SQL_VARBINARY },
                     singleParamList),
 
+            new FunctionDescriptor("path_length", Type.SQL_INTEGER, FUNC_VOLT_PATH_LENGTH, -1,
+                    new Type[] { Type.SQL_VARBINARY },
+                    singleParamList),
+
+            new FunctionDescriptor("path_first", Type.SQL_BIGINT, FUNC_VOLT_PATH_FIRST, -1,
+                    new Type[] { Type.SQL_VARBINARY },
+                    singleParamList),
+
+            new FunctionDescriptor("path_last", Type.SQL_BIGINT, FUNC_VOLT_PATH_LAST, -1,
+                    new Type[] { Type.SQL_VARBINARY },
+                    singleParamList),
+
+            new FunctionDescriptor("path_vertex", Type.SQL_BIGINT, FUNC_VOLT_PATH_VERTEX, -1,
+                    new Type[] { Type.SQL_VARBINARY, Type.SQL_INTEGER },
+                    doubleParamList),
+
+            new FunctionDescriptor("path_edge", Type.SQL_BIGINT, FUNC_VOLT_PATH_EDGE, -1,
+                    new Type[] { Type.SQL_VARBINARY, Type.SQL_INTEGER },
+                    doubleParamList),
+
             new FunctionDescriptor("makevalidpolygon", Type.VOLT_GEOGRAPHY, FUNC_VOLT_MAKE_VALID_POLYGON, -1,
             		new Type[] { Type.VOLT_GEOGRAPHY },
             		singleParamList),
@@ -853,6 +880,17 @@ public class FunctionForVoltDB extends FunctionSQL {
             dataType = Type.SQL_VARCHAR;
             break;
 
+        case FunctionDescriptor.FUNC_VOLT_PATH_LENGTH:
+        case FunctionDescriptor.FUNC_VOLT_PATH_FIRST:
+        case FunctionDescriptor.FUNC_VOLT_PATH_LAST:
+        case FunctionDescriptor.FUNC_VOLT_PATH_VERTEX:
+        case FunctionDescriptor.FUNC_VOLT_PATH_EDGE:
+            if (nodes[0].dataType != null &&
+                !nodes[0].dataType.isBinaryType()) {
+                throw Error.error(ErrorCode.X_42561);
+            }
+            break;
+
         default:
             break;
         }
@@ -905,6 +943,44 @@ public class FunctionForVoltDB extends FunctionSQL {
                 dataType = like_child.dataType;
             }
         }
+
+        // the paths of graph views with VARCHAR ids hold the id values, see pathIdType()
+        Type idType = null;
+        switch (m_def.getId()) {
+        case FunctionDescriptor.FUNC_VOLT_PATH_FIRST:
+        case FunctionDescriptor.FUNC_VOLT_PATH_LAST:
+        case FunctionDescriptor.FUNC_VOLT_PATH_VERTEX:
+            idType = pathIdType(nodes[0], false);
+            break;
+        case FunctionDescriptor.FUNC_VOLT_PATH_EDGE:
+            idType = pathIdType(nodes[0], true);
+            break;
+        default:
+            break;
+        }
+        if (idType != null && idType.isCharacterType()) {
+            dataType = idType;
+        }
+    }
+
+    /**
+     * The type of the vertex (or edge) ids of a graph view when the path is
+     * the PATH column of its paths, null for other paths. The path functions
+     * return integer ids as BIGINT.
+     */
+    private static Type pathIdType(Expression path, boolean edgeIds) {
+        if ( ! (path instanceof ExpressionColumn)) {
+            return null;
+        }
+        RangeVariable range = ((ExpressionColumn) path).getRangeVariable();
+        if (range == null || ! range.isPaths) {
+            return null;
+        }
+        GraphView graph = range.rangeGraph;
+        if (edgeIds) {
+            return graph.getEdgeProp(graph.getEdgePropIndex("ID")).getDataType();
+        }
+        return graph.getVertexProp(graph.getVertexPropIndex("ID")).getDataType();
     }
 
     @Override
@@ -11,7 +11,7 @@ import org.hsqldb_voltpatches.index.Index;
 import org.hsqldb_voltpatches.lib.HashMappedList;
 import org.hsqldb_voltpatches.lib.OrderedHashSet;
 import org.hsqldb_voltpatches.rights.Grantee;
-import org.hsqldb_voltpatches.types.CharacterType;
+import org.hsqldb_voltpatches.types.BinaryType;
 import org.hsqldb_voltpatches.types.NumberType;
 import org.hsqldb_voltpatches.types.Type;
 
@@ -46,6 +46,8 @@ public class GraphView implements SchemaObject {
     
     private final long DefPrecision = 10;
     
+    // VoltType.MAX_VALUE_LENGTH, the PATH column has no other limit
+    private static final long PathMaxBytes = 1048576;
     //HsqlName[] VertexProperties;
     //HsqlName[] VertexColumns;
     
@@ -128,8 +130,9 @@ public class GraphView implements SchemaObject {
     	ColumnSchema pathCost = new ColumnSchema(Name, new NumberType(Types.SQL_DOUBLE, DefPrecision, 0), false, false, null);
     	addPathPropNoCheck(pathCost);
     	
+    	// the vertex and edge ids (v0, e0, v1, ..., vn), read by PATH_LENGTH, PATH_VERTEX and PATH_EDGE
     	Name = database.nameManager.newColumnHsqlName(schema, "PATH", isDelimitedIdentifier);
-    	col = new ColumnSchema(Name, new CharacterType(Types.SQL_VARCHAR, 1024), false, false, null);
+    	col = new ColumnSchema(Name, BinaryType.getBinaryType(Types.SQL_VARBINARY, PathMaxBytes), false, false, null);
     	addPathPropNoCheck(col);
     	
     	Name = database.nameManager.newColumnHsqlName(schema, "PROP1", isDelimitedIdentifier);
@@ -154,6 +157,17 @@ public class GraphView implements SchemaObject {
     	
     }
     
+    /*
+     * Gives the STARTVERTEXID and ENDVERTEXID path properties the type of the
+     * vertex ID property (e.g. BIGINT or VARCHAR ids).
+     * Called once the vertex properties are imported from the vertex table
+     */
+    public void setPathVertexIdType() {
+    	Type idType = getVertexProp(getVertexPropIndex("ID")).getDataType();
+    	getPathProp(getPathPropIndex("STARTVERTEXID")).setType(idType);
+    	getPathProp(getPathPropIndex("ENDVERTEXID")).setType(idType);
+    }
+    
 	@Override
 	public int getType() {
 		// TODO Auto-generated method stub
@@ -399,6 +399,7 @@ public class ParserDDL extends ParserRoutine {
         }
         
         graph.addDefVertexProps(schema, isDelimitedIdentifier());
+        graph.setPathVertexIdType();
         
         br.append(partsql);
         // System.out.println(".....");
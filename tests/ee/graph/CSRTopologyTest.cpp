@@ -0,0 +1,473 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include "harness.h"
+
+#include <algorithm>
+#include <vector>
+
+#include "graph/CSRTopology.h"
+
+using namespace voltdb;
+
+class CSRTopologyTest : public Test
+{
+public:
+    // builds the graph 0->1, 1->2, 0->2, 2->3 over the vertex ids 10..13
+    void buildDiamond(CSRTopology& topology, bool isDirected)
+    {
+        for (int i = 0; i < 4; i++) {
+            topology.addVertex(10 + i, NULL, 0);
+        }
+        std::vector<CSRTopology::EdgeEntry> edges;
+        edges.push_back(edge(1, 0, 1));
+        edges.push_back(edge(2, 1, 2));
+        edges.push_back(edge(3, 0, 2));
+        edges.push_back(edge(4, 2, 3));
+        topology.build(edges, isDirected);
+    }
+
+    static CSRTopology::EdgeEntry edge(int64_t id, int64_t from, int64_t to)
+    {
+        CSRTopology::EdgeEntry entry;
+        entry.id = id;
+        entry.from = from;
+        entry.to = to;
+        entry.tupleData = NULL;
+        entry.eProp = 0;
+        return entry;
+    }
+
+    // sorted ids of the edges in the out (or in) slots of a vertex
+    static std::vector<int64_t> outEdgeIds(const CSRTopology& topology, int index)
+    {
+        std::vector<int64_t> ids;
+        for (int slot = topology.outBegin(index); slot < topology.outEnd(index); slot++) {
+            ids.push_back(topology.edgeId(slot));
+        }
+        std::sort(ids.begin(), ids.end());
+        return ids;
+    }
+
+    static std::vector<int64_t> inEdgeIds(const CSRTopology& topology, int index)
+    {
+        std::vector<int64_t> ids;
+        for (int slot = topology.inBegin(index); slot < topology.inEnd(index); slot++) {
+            ids.push_back(topology.inEdgeId(slot));
+        }
+        std::sort(ids.begin(), ids.end());
+        return ids;
+    }
+};
+
+TEST_F(CSRTopologyTest, Build)
+{
+    CSRTopology directed;
+    buildDiamond(directed, true);
+    EXPECT_EQ(4, directed.numOfVertexes());
+    EXPECT_EQ(4, directed.numOfEdges());
+    EXPECT_EQ(2, directed.vertexIndex(12));
+    EXPECT_EQ(-1, directed.vertexIndex(14));
+    EXPECT_EQ(13, directed.vertexId(3));
+    EXPECT_EQ(2, directed.fanOut(0));
+    EXPECT_EQ(0, directed.fanIn(0));
+    EXPECT_EQ(2, directed.fanIn(2));
+    EXPECT_EQ(0, directed.fanOut(3));
+    EXPECT_TRUE(outEdgeIds(directed, 0) == std::vector<int64_t>({ 1, 3 }));
+    EXPECT_TRUE(inEdgeIds(directed, 2) == std::vector<int64_t>({ 2, 3 }));
+    // the ranges are packed, one after the other
+    EXPECT_EQ(directed.outEnd(0), directed.outBegin(1));
+    EXPECT_EQ(directed.outEnd(2), directed.outBegin(3));
+
+    // undirected edges show up in the out and in slots of both ends,
+    // but count once
+    CSRTopology undirected;
+    buildDiamond(undirected, false);
+    EXPECT_EQ(4, undirected.numOfEdges());
+    EXPECT_EQ(3, undirected.fanOut(2));
+    EXPECT_EQ(3, undirected.fanIn(2));
+    EXPECT_TRUE(outEdgeIds(undirected, 2) == std::vector<int64_t>({ 2, 3, 4 }));
+    EXPECT_TRUE(inEdgeIds(undirected, 3) == std::vector<int64_t>({ 4 }));
+
+    int indexes[] = { 0, -1, 2 };
+    int32_t fanOuts[3];
+    int32_t fanIns[3];
+    directed.fillDegrees(indexes, 3, fanOuts, fanIns);
+    EXPECT_EQ(2, fanOuts[0]);
+    EXPECT_EQ(0, fanIns[0]);
+    EXPECT_EQ(0, fanOuts[1]);
+    EXPECT_EQ(0, fanIns[1]);
+    EXPECT_EQ(1, fanOuts[2]);
+    EXPECT_EQ(2, fanIns[2]);
+}
+
+TEST_F(CSRTopologyTest, SlotRelocation)
+{
+    CSRTopology topology;
+    buildDiamond(topology, true);
+    // the range of vertex 1 is full, the next edge moves it to the tail of the
+    // slot arrays
+    EXPECT_EQ(2, topology.outBegin(1));
+    topology.addEdge(edge(5, 1, 3));
+    EXPECT_EQ(4, topology.outBegin(1));
+    EXPECT_TRUE(outEdgeIds(topology, 1) == std::vector<int64_t>({ 2, 5 }));
+    // the ranges next to it are left alone
+    EXPECT_TRUE(outEdgeIds(topology, 0) == std::vector<int64_t>({ 1, 3 }));
+    EXPECT_TRUE(outEdgeIds(topology, 2) == std::vector<int64_t>({ 4 }));
+    EXPECT_TRUE(inEdgeIds(topology, 3) == std::vector<int64_t>({ 4, 5 }));
+
+    // the relocated range has spare room, the next edges stay in place
+    topology.addEdge(edge(6, 1, 0));
+    topology.addEdge(edge(7, 1, 1));
+    EXPECT_EQ(4, topology.outBegin(1));
+    EXPECT_EQ(4, topology.fanOut(1));
+    // then it moves again with twice the room
+    topology.addEdge(edge(8, 1, 2));
+    EXPECT_EQ(8, topology.outBegin(1));
+    EXPECT_TRUE(outEdgeIds(topology, 1) == std::vector<int64_t>({ 2, 5, 6, 7, 8 }));
+    EXPECT_TRUE(inEdgeIds(topology, 1) == std::vector<int64_t>({ 1, 7 }));
+    EXPECT_EQ(8, topology.numOfEdges());
+
+    // every range keeps all its edges however often it moves
+    for (int pass = 0; pass < 2; pass++) {
+        bool isDirected = (pass == 0);
+        CSRTopology grown;
+        buildDiamond(grown, isDirected);
+        for (int k = 0; k < 3000; k++) {
+            grown.addEdge(edge(100 + k, k % 4, (k + 1) % 4));
+        }
+        EXPECT_EQ(3004, grown.numOfEdges());
+        for (int index = 0; index < 4; index++) {
+            std::vector<int64_t> out = outEdgeIds(grown, index);
+            int built = isDirected ? ((index == 0) ? 2 : (index == 3) ? 0 : 1)
+                                   : ((index == 2) ? 3 : (index == 3) ? 1 : 2);
+            EXPECT_EQ(built + (isDirected ? 750 : 1500), (int)out.size());
+            EXPECT_TRUE(std::adjacent_find(out.begin(), out.end()) == out.end());
+            for (int k = index; k < 3000; k += 4) {
+                EXPECT_TRUE(std::binary_search(out.begin(), out.end(), 100 + k));
+            }
+        }
+        for (int k = 0; k < 3000; k++) {
+            std::vector<int64_t> in = inEdgeIds(grown, (k + 1) % 4);
+            EXPECT_TRUE(std::binary_search(in.begin(), in.end(), 100 + k));
+        }
+    }
+}
+
+TEST_F(CSRTopologyTest, Compaction)
+{
+    CSRTopology topology;
+    buildDiamond(topology, true);
+    for (int k = 0; k < 3000; k++) {
+        topology.addEdge(edge(100 + k, 0, 3));
+    }
+    EXPECT_EQ(3002, topology.fanOut(0));
+    size_t grown = topology.memoryFootprint();
+
+    // the ranges vertex 0 moved out of and its last range are abandoned, which
+    // leaves most of the out slots unused
+    std::vector<CSRTopology::EdgeEntry> detached;
+    topology.removeVertex(0, detached);
+    EXPECT_EQ(3002, (int)detached.size());
+    EXPECT_EQ(2, topology.numOfEdges());
+
+    // the next edge packs the ranges again, in vertex order with a quarter of
+    // spare room each
+    topology.addEdge(edge(5, 1, 2));
+    EXPECT_EQ(0, topology.outBegin(0));
+    EXPECT_EQ(0, topology.outEnd(0));
+    EXPECT_EQ(0, topology.outBegin(1));
+    EXPECT_EQ(2, topology.outEnd(1));
+    EXPECT_EQ(2, topology.outBegin(2));
+    EXPECT_EQ(3, topology.outEnd(2));
+    EXPECT_EQ(3, topology.outBegin(3));
+    EXPECT_EQ(3, topology.outEnd(3));
+    EXPECT_LT(topology.memoryFootprint() + 6000 * 2 * sizeof(int), grown);
+
+    EXPECT_TRUE(outEdgeIds(topology, 1) == std::vector<int64_t>({ 2, 5 }));
+    EXPECT_TRUE(outEdgeIds(topology, 2) == std::vector<int64_t>({ 4 }));
+    EXPECT_TRUE(inEdgeIds(topology, 2) == std::vector<int64_t>({ 2, 5 }));
+    EXPECT_TRUE(inEdgeIds(topology, 3) == std::vector<int64_t>({ 4 }));
+    EXPECT_EQ(3, topology.numOfEdges());
+
+    // the packed ranges keep growing as before
+    for (int k = 0; k < 10; k++) {
+        topology.addEdge(edge(200 + k, 2, 3));
+    }
+    EXPECT_EQ(11, topology.fanOut(2));
+    EXPECT_TRUE(outEdgeIds(topology, 1) == std::vector<int64_t>({ 2, 5 }));
+    EXPECT_EQ(11, topology.fanIn(3));
+}
+
+TEST_F(CSRTopologyTest, SwapRemove)
+{
+    CSRTopology topology;
+    for (int i = 0; i < 6; i++) {
+        topology.addVertex(i, NULL, 0);
+    }
+    std::vector<CSRTopology::EdgeEntry> edges;
+    for (int i = 1; i < 6; i++) {
+        edges.push_back(edge(i, 0, i));
+    }
+    topology.build(edges, true);
+    int begin = topology.outBegin(0);
+
+    // removing from the middle moves the last slot into the hole
+    EXPECT_TRUE(topology.removeEdge(2, 0, 2));
+    EXPECT_EQ(begin, topology.outBegin(0));
+    EXPECT_EQ(4, topology.fanOut(0));
+    EXPECT_EQ(5, topology.edgeId(begin + 1));
+    EXPECT_EQ(5, topology.outNeighbor(begin + 1));
+    EXPECT_EQ(0, topology.fanIn(2));
+    EXPECT_TRUE(outEdgeIds(topology, 0) == std::vector<int64_t>({ 1, 3, 4, 5 }));
+
+    // the edge has to match its id and both end points
+    EXPECT_FALSE(topology.removeEdge(2, 0, 2));
+    EXPECT_FALSE(topology.removeEdge(3, 0, 4));
+    EXPECT_FALSE(topology.removeEdge(3, 1, 3));
+
+    // removing the last slot only shrinks the range
+    EXPECT_TRUE(topology.removeEdge(4, 0, 4));
+    EXPECT_TRUE(outEdgeIds(topology, 0) == std::vector<int64_t>({ 1, 3, 5 }));
+    EXPECT_EQ(3, topology.numOfEdges());
+
+    // the freed room is reused in place
+    topology.addEdge(edge(6, 0, 2));
+    EXPECT_EQ(begin, topology.outBegin(0));
+    EXPECT_TRUE(outEdgeIds(topology, 0) == std::vector<int64_t>({ 1, 3, 5, 6 }));
+    EXPECT_TRUE(inEdgeIds(topology, 2) == std::vector<int64_t>({ 6 }));
+
+    // undirected edges leave the slots of both ends
+    CSRTopology undirected;
+    buildDiamond(undirected, false);
+    EXPECT_TRUE(undirected.removeEdge(3, 2, 0));
+    EXPECT_TRUE(outEdgeIds(undirected, 0) == std::vector<int64_t>({ 1 }));
+    EXPECT_TRUE(outEdgeIds(undirected, 2) == std::vector<int64_t>({ 2, 4 }));
+    EXPECT_TRUE(inEdgeIds(undirected, 2) == std::vector<int64_t>({ 2, 4 }));
+    EXPECT_EQ(3, undirected.numOfEdges());
+}
+
+TEST_F(CSRTopologyTest, FreeLists)
+{
+    for (int pass = 0; pass < 2; pass++) {
+        bool isDirected = (pass == 0);
+        CSRTopology topology;
+        buildDiamond(topology, isDirected);
+
+        // a removed vertex takes its edges along, they come back with their end
+        // points given as vertex ids
+        std::vector<CSRTopology::EdgeEntry> detached;
+        topology.removeVertex(2, detached);
+        EXPECT_EQ(3, (int)detached.size());
+        for (size_t i = 0; i < detached.size(); i++) {
+            EXPECT_TRUE(detached[i].from == 12 || detached[i].to == 12);
+        }
+        EXPECT_EQ(3, topology.numOfVertexes());
+        EXPECT_EQ(1, topology.numOfEdges());
+        EXPECT_FALSE(topology.isVertexActive(2));
+        EXPECT_EQ(-1, topology.vertexIndex(12));
+        EXPECT_EQ(4, topology.vertexIndexLimit());
+        EXPECT_TRUE(outEdgeIds(topology, 0) == std::vector<int64_t>({ 1 }));
+        EXPECT_EQ(0, topology.fanIn(3));
+        EXPECT_EQ(isDirected ? 0 : 1, topology.fanOut(1));
+
+        // the next vertex gets the freed index, with empty ranges
+        EXPECT_EQ(2, topology.addVertex(99, NULL, 7));
+        EXPECT_TRUE(topology.isVertexActive(2));
+        EXPECT_EQ(2, topology.vertexIndex(99));
+        EXPECT_EQ(99, topology.vertexId(2));
+        EXPECT_EQ(7, topology.vProp(2));
+        EXPECT_EQ(0, topology.fanOut(2));
+        EXPECT_EQ(0, topology.fanIn(2));
+        EXPECT_EQ(4, topology.vertexIndexLimit());
+
+        // adding a known vertex only updates it
+        EXPECT_EQ(2, topology.addVertex(99, NULL, 8));
+        EXPECT_EQ(8, topology.vProp(2));
+        EXPECT_EQ(3 + 1, topology.numOfVertexes());
+
+        // the edge indexes freed along with the vertex are reused as well
+        int limit = topology.edgeIndexLimit();
+        topology.addEdge(edge(10, 2, 0));
+        topology.addEdge(edge(11, 3, 2));
+        topology.addEdge(edge(12, 1, 3));
+        EXPECT_EQ(limit, topology.edgeIndexLimit());
+        topology.addEdge(edge(13, 0, 3));
+        EXPECT_EQ(limit + 1, topology.edgeIndexLimit());
+        EXPECT_EQ(5, topology.numOfEdges());
+        EXPECT_TRUE(outEdgeIds(topology, 2) == (isDirected ? std::vector<int64_t>({ 10 })
+                                                           : std::vector<int64_t>({ 10, 11 })));
+        for (int slot = topology.outBegin(2); slot < topology.outEnd(2); slot++) {
+            EXPECT_EQ(topology.edgeId(slot), topology.edgeIdOfIndex(topology.edgeIndex(slot)));
+        }
+
+        // a removed edge frees its index for the next one
+        EXPECT_TRUE(topology.removeEdge(12, 1, 3));
+        topology.addEdge(edge(14, 3, 1));
+        EXPECT_EQ(limit + 1, topology.edgeIndexLimit());
+        EXPECT_TRUE(inEdgeIds(topology, 1) == (isDirected ? std::vector<int64_t>({ 1, 14 })
+                                                          : std::vector<int64_t>({ 1, 14 })));
+    }
+}
+
+TEST_F(CSRTopologyTest, Serialization)
+{
+    for (int pass = 0; pass < 2; pass++) {
+        bool isDirected = (pass == 0);
+        CSRTopology topology;
+        buildDiamond(topology, isDirected);
+        // leave free vertex and edge indexes and a relocated range behind
+        std::vector<CSRTopology::EdgeEntry> detached;
+        topology.removeVertex(3, detached);
+        for (int i = 0; i < 4; i++) {
+            topology.addEdge(edge(20 + i, 0, 1));
+        }
+        EXPECT_TRUE(topology.removeEdge(21, 0, 1));
+
+        CopySerializeOutput out;
+        topology.serialize(out);
+        EXPECT_EQ(topology.serializedSize(), out.position());
+
+        CSRTopology restored;
+        ReferenceSerializeInputBE in(out.data(), out.position());
+        EXPECT_TRUE(restored.deserialize(in));
+        EXPECT_EQ(isDirected, restored.isDirected());
+        EXPECT_EQ(topology.numOfVertexes(), restored.numOfVertexes());
+        EXPECT_EQ(topology.numOfEdges(), restored.numOfEdges());
+        EXPECT_EQ(topology.vertexIndexLimit(), restored.vertexIndexLimit());
+        EXPECT_EQ(topology.edgeIndexLimit(), restored.edgeIndexLimit());
+        for (int index = 0; index < topology.vertexIndexLimit(); index++) {
+            EXPECT_EQ(topology.isVertexActive(index), restored.isVertexActive(index));
+            if (!topology.isVertexActive(index)) {
+                continue;
+            }
+            EXPECT_EQ(index, restored.vertexIndex(topology.vertexId(index)));
+            EXPECT_TRUE(outEdgeIds(topology, index) == outEdgeIds(restored, index));
+            EXPECT_TRUE(inEdgeIds(topology, index) == inEdgeIds(restored, index));
+            // the rows are not part of the snapshot
+            EXPECT_TRUE(restored.vertexTuple(index) == NULL);
+        }
+
+        // every edge is found from its start vertex, the free edge indexes have no end points
+        std::vector<int> from, to;
+        restored.edgeEndPoints(from, to);
+        int numOfEdges = 0;
+        for (int e = 0; e < restored.edgeIndexLimit(); e++) {
+            if (from[e] < 0) {
+                continue;
+            }
+            numOfEdges++;
+            bool found = false;
+            for (int slot = restored.outBegin(from[e]); slot < restored.outEnd(from[e]); slot++) {
+                found = found || (restored.edgeIndex(slot) == e && restored.outNeighbor(slot) == to[e]);
+            }
+            EXPECT_TRUE(found);
+        }
+        EXPECT_EQ(topology.numOfEdges(), numOfEdges);
+
+        // the restored topology is maintained like the original one, reusing its free indexes
+        int limit = restored.edgeIndexLimit();
+        restored.addEdge(edge(30, 1, 2));
+        EXPECT_EQ(limit, restored.edgeIndexLimit());
+        EXPECT_EQ(3, restored.addVertex(77, NULL, 0));
+    }
+
+    // a slot that refers to a vertex out of range makes the whole topology invalid
+    CSRTopology topology;
+    buildDiamond(topology, true);
+    CopySerializeOutput out;
+    topology.serialize(out);
+    std::vector<char> bytes(out.data(), out.data() + out.position());
+    // the out neighbors follow the directed flag, the edge count, the vertex ids, vProps, active
+    // flags and free vertexes and the begin, end and capacity arrays of the out ranges, each
+    // array given by its length and its elements
+    size_t neighbors = 1 + 4 + (4 + 4 * 8) + (4 + 4 * 4) + (4 + 4) + 4 + 3 * (4 + 4 * 4) + 4;
+    int32_t badNeighbor = 1000;
+    memcpy(&bytes[neighbors], &badNeighbor, sizeof(badNeighbor));
+    CSRTopology restored;
+    ReferenceSerializeInputBE in(bytes.data(), bytes.size());
+    EXPECT_FALSE(restored.deserialize(in));
+    EXPECT_EQ(0, restored.numOfVertexes());
+    EXPECT_EQ(0, restored.vertexIndexLimit());
+}
+
+TEST_F(CSRTopologyTest, ParallelBuild)
+{
+    // the chunks of a parallel build place the edges into the same slots as a single thread
+    for (int directed = 0; directed < 2; directed++) {
+        std::vector<CSRTopology::EdgeEntry> edges;
+        unsigned int seed = 7;
+        for (int i = 0; i < 5000; i++) {
+            seed = seed * 1103515245 + 12345;
+            int from = (seed >> 8) % 300;
+            seed = seed * 1103515245 + 12345;
+            // some self loops as well
+            int to = (i % 50 == 0) ? from : (int)((seed >> 8) % 300);
+            edges.push_back(edge(100 + i, from, to));
+        }
+        CSRTopology single;
+        CSRTopology chunked;
+        for (int i = 0; i < 300; i++) {
+            single.addVertex(i, NULL, 0);
+            chunked.addVertex(i, NULL, 0);
+        }
+        single.build(edges, directed == 1, 1);
+        chunked.build(edges, directed == 1, 7);
+        EXPECT_EQ(single.numOfEdges(), chunked.numOfEdges());
+        for (int v = 0; v < 300; v++) {
+            ASSERT_EQ(single.outBegin(v), chunked.outBegin(v));
+            ASSERT_EQ(single.outEnd(v), chunked.outEnd(v));
+            ASSERT_EQ(single.inBegin(v), chunked.inBegin(v));
+            ASSERT_EQ(single.inEnd(v), chunked.inEnd(v));
+            for (int slot = single.outBegin(v); slot < single.outEnd(v); slot++) {
+                ASSERT_EQ(single.outNeighbor(slot), chunked.outNeighbor(slot));
+                ASSERT_EQ(single.edgeId(slot), chunked.edgeId(slot));
+            }
+            for (int slot = single.inBegin(v); slot < single.inEnd(v); slot++) {
+                ASSERT_EQ(single.inNeighbor(slot), chunked.inNeighbor(slot));
+                ASSERT_EQ(single.inEdgeId(slot), chunked.inEdgeId(slot));
+            }
+        }
+    }
+
+    // the first error of the chunks is rethrown on the calling thread, after all of them ran
+    std::vector<int> ran(8, 0);
+    int thrown = -1;
+    try {
+        BuildThreadPool::run(8, [&ran](size_t c) {
+            ran[c] = 1;
+            if (c % 3 == 2) {
+                throw (int)c;
+            }
+        });
+    }
+    catch (int c) {
+        thrown = c;
+    }
+    EXPECT_EQ(2, thrown);
+    EXPECT_EQ(8, std::count(ran.begin(), ran.end(), 1));
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
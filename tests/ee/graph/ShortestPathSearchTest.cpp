@@ -0,0 +1,348 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+#include "harness.h"
+
+#include <algorithm>
+#include <cmath>
+#include <limits>
+#include <map>
+#include <memory>
+#include <queue>
+#include <random>
+#include <vector>
+
+#include "graph/CSRTopology.h"
+#include "graph/ShortestPathSearch.h"
+
+using namespace voltdb;
+
+typedef std::shared_ptr<const std::vector<double> > Weights;
+
+static const double INFINITE_COST = std::numeric_limits<double>::infinity();
+
+class ShortestPathSearchTest : public Test
+{
+public:
+    // a graph of numOfVertexes vertexes with random edges of the costs 1 to 3, so that many
+    // paths tie, and cycles. The last vertex has no edges and the one before it only out edges.
+    // Returns the costs by dense edge index.
+    Weights buildRandomGraph(CSRTopology& topology, int numOfVertexes, int numOfEdges,
+            bool isDirected, unsigned seed)
+    {
+        std::mt19937 random(seed);
+        for (int i = 0; i < numOfVertexes; i++) {
+            topology.addVertex(100 + i, NULL, 0);
+        }
+        std::vector<CSRTopology::EdgeEntry> edges;
+        std::map<int64_t, double> costs;
+        for (int i = 0; i < numOfEdges; i++) {
+            int from = random() % (numOfVertexes - 1);
+            int to = random() % (numOfVertexes - 2);
+            edges.push_back(edge(i, from, to));
+            costs[i] = 1 + random() % 3;
+        }
+        topology.build(edges, isDirected);
+        return weightsOf(topology, costs);
+    }
+
+    static CSRTopology::EdgeEntry edge(int64_t id, int64_t from, int64_t to)
+    {
+        CSRTopology::EdgeEntry entry;
+        entry.id = id;
+        entry.from = from;
+        entry.to = to;
+        entry.tupleData = NULL;
+        entry.eProp = 0;
+        return entry;
+    }
+
+    // the costs of the edges by dense edge index, from the costs by edge id
+    static Weights weightsOf(const CSRTopology& topology, const std::map<int64_t, double>& costs)
+    {
+        std::shared_ptr<std::vector<double> > weights =
+                std::make_shared<std::vector<double> >(topology.edgeIndexLimit(), INFINITE_COST);
+        for (int e = 0; e < topology.edgeIndexLimit(); e++) {
+            std::map<int64_t, double>::const_iterator it = costs.find(topology.edgeIdOfIndex(e));
+            if (it != costs.end()) {
+                (*weights)[e] = it->second;
+            }
+        }
+        return weights;
+    }
+
+    // plain Dijkstra from source over the out slots
+    static std::vector<double> dijkstra(const CSRTopology& topology, const std::vector<double>& weights, int source)
+    {
+        std::vector<double> dist(topology.vertexIndexLimit(), INFINITE_COST);
+        std::priority_queue<std::pair<double, int>, std::vector<std::pair<double, int> >,
+                std::greater<std::pair<double, int> > > frontier;
+        dist[source] = 0;
+        frontier.push(std::make_pair(0.0, source));
+        while (!frontier.empty()) {
+            double d = frontier.top().first;
+            int u = frontier.top().second;
+            frontier.pop();
+            if (d > dist[u]) {
+                continue;
+            }
+            for (int slot = topology.outBegin(u); slot < topology.outEnd(u); slot++) {
+                int v = topology.outNeighbor(slot);
+                double next = d + weights[topology.edgeIndex(slot)];
+                if (next < dist[v]) {
+                    dist[v] = next;
+                    frontier.push(std::make_pair(next, v));
+                }
+            }
+        }
+        return dist;
+    }
+
+    // every vertex-simple path from u to dest, as its cost and vertexes
+    static void allSimplePaths(const CSRTopology& topology, const std::vector<double>& weights,
+            int u, int dest, double cost, std::vector<int>& vertexes, std::vector<int>& edges,
+            std::vector<ShortestPathSearch::Path>& paths)
+    {
+        if (u == dest) {
+            ShortestPathSearch::Path path;
+            path.vertexes = vertexes;
+            path.edges = edges;
+            path.costs.push_back(cost);
+            paths.push_back(path);
+            return;
+        }
+        for (int slot = topology.outBegin(u); slot < topology.outEnd(u); slot++) {
+            int v = topology.outNeighbor(slot);
+            if (std::find(vertexes.begin(), vertexes.end(), v) != vertexes.end()) {
+                continue;
+            }
+            vertexes.push_back(v);
+            edges.push_back(topology.edgeIndex(slot));
+            allSimplePaths(topology, weights, v, dest, cost + weights[topology.edgeIndex(slot)],
+                    vertexes, edges, paths);
+            vertexes.pop_back();
+            edges.pop_back();
+        }
+    }
+
+    // the path goes from src to dest over existing edges and its costs add up
+    void checkPath(const CSRTopology& topology, const std::vector<double>& weights,
+            const ShortestPathSearch::Path& path, int src, int dest)
+    {
+        ASSERT_EQ(path.vertexes.size(), path.edges.size() + 1);
+        ASSERT_EQ(path.vertexes.size(), path.costs.size());
+        EXPECT_EQ(src, path.vertexes.front());
+        EXPECT_EQ(dest, path.vertexes.back());
+        EXPECT_EQ(0, path.costs.front());
+        for (int i = 0; i < path.length(); i++) {
+            bool found = false;
+            for (int slot = topology.outBegin(path.vertexes[i]); slot < topology.outEnd(path.vertexes[i]); slot++) {
+                found |= topology.edgeIndex(slot) == path.edges[i] && topology.outNeighbor(slot) == path.vertexes[i + 1];
+            }
+            EXPECT_TRUE(found);
+            EXPECT_EQ(path.costs[i] + weights[path.edges[i]], path.costs[i + 1]);
+        }
+    }
+
+    // the search finds a path of the Dijkstra distance between every pair of vertexes,
+    // and no path to the vertexes Dijkstra does not reach
+    void checkAllPairs(const CSRTopology& topology, const std::vector<double>& weights,
+            ShortestPathSearch& search)
+    {
+        ShortestPathSearch::Path path;
+        for (int src = 0; src < topology.vertexIndexLimit(); src++) {
+            std::vector<double> dist = dijkstra(topology, weights, src);
+            for (int dest = 0; dest < topology.vertexIndexLimit(); dest++) {
+                bool found = search.shortestPath(src, dest, path);
+                ASSERT_EQ(!std::isinf(dist[dest]), found);
+                if (found) {
+                    checkPath(topology, weights, path, src, dest);
+                    EXPECT_EQ(dist[dest], path.cost());
+                }
+            }
+        }
+    }
+
+    GraphOperatorCounters m_counters;
+};
+
+TEST_F(ShortestPathSearchTest, Bidirectional)
+{
+    for (unsigned seed = 1; seed <= 4; seed++) {
+        for (int directed = 0; directed < 2; directed++) {
+            CSRTopology topology;
+            Weights weights = buildRandomGraph(topology, 20, 40, directed == 1, seed);
+            ShortestPathSearch search(topology, m_counters);
+            search.setEdgeWeights(weights, std::numeric_limits<int>::max());
+            checkAllPairs(topology, *weights, search);
+        }
+    }
+
+    // without weights every edge costs one
+    CSRTopology topology;
+    Weights weights = buildRandomGraph(topology, 12, 20, true, 7);
+    std::vector<double> unitWeights(topology.edgeIndexLimit(), 1);
+    ShortestPathSearch search(topology, m_counters);
+    checkAllPairs(topology, unitWeights, search);
+}
+
+TEST_F(ShortestPathSearchTest, Landmarks)
+{
+    for (unsigned seed = 1; seed <= 4; seed++) {
+        for (int directed = 0; directed < 2; directed++) {
+            CSRTopology topology;
+            Weights weights = buildRandomGraph(topology, 20, 40, directed == 1, seed);
+            ShortestPathSearch builder(topology, m_counters);
+            builder.setEdgeWeights(weights, std::numeric_limits<int>::max());
+            builder.buildLandmarks(3);
+            ASSERT_TRUE(builder.hasLandmarks());
+            EXPECT_EQ(3, builder.landmarks()->vertexes.size());
+
+            // the landmarks serve the searches of other traversals
+            ShortestPathSearch search(topology, m_counters);
+            search.setEdgeWeights(weights, std::numeric_limits<int>::max());
+            search.useLandmarks(builder.landmarks());
+            checkAllPairs(topology, *weights, search);
+        }
+    }
+}
+
+TEST_F(ShortestPathSearchTest, TopK)
+{
+    for (unsigned seed = 1; seed <= 4; seed++) {
+        for (int directed = 0; directed < 2; directed++) {
+            CSRTopology topology;
+            Weights weights = buildRandomGraph(topology, 8, 14, directed == 1, seed);
+            ShortestPathSearch search(topology, m_counters);
+            search.setEdgeWeights(weights, std::numeric_limits<int>::max());
+            if (seed % 2 == 0) {
+                search.buildLandmarks(2);
+            }
+            for (int src = 0; src < 3; src++) {
+                for (int dest = 0; dest < topology.vertexIndexLimit(); dest++) {
+                    if (src == dest) {
+                        continue;
+                    }
+                    std::vector<ShortestPathSearch::Path> expected;
+                    std::vector<int> vertexes(1, src);
+                    std::vector<int> edges;
+                    allSimplePaths(topology, *weights, src, dest, 0, vertexes, edges, expected);
+
+                    // Yen returns every loopless path once, in cost order
+                    std::vector<ShortestPathSearch::Path> found;
+                    ShortestPathSearch::Path path;
+                    search.resetTopK();
+                    while (found.size() <= expected.size() && search.nextShortestPath(src, dest, path)) {
+                        checkPath(topology, *weights, path, src, dest);
+                        if (!found.empty()) {
+                            EXPECT_TRUE(found.back().cost() <= path.cost());
+                        }
+                        found.push_back(path);
+                    }
+                    ASSERT_EQ(expected.size(), found.size());
+                    for (size_t i = 0; i < expected.size(); i++) {
+                        bool isFound = false;
+                        for (size_t j = 0; j < found.size(); j++) {
+                            if (found[j].vertexes == expected[i].vertexes && found[j].edges == expected[i].edges) {
+                                EXPECT_EQ(expected[i].cost(), found[j].cost());
+                                isFound = true;
+                            }
+                        }
+                        EXPECT_TRUE(isFound);
+                    }
+                }
+            }
+        }
+    }
+}
+
+TEST_F(ShortestPathSearchTest, LandmarkInvalidation)
+{
+    // 0 -> 1 -> 2 -> 3 -> 4 at a cost of 10 per edge
+    CSRTopology topology;
+    std::vector<CSRTopology::EdgeEntry> edges;
+    std::map<int64_t, double> costs;
+    for (int i = 0; i < 5; i++) {
+        topology.addVertex(i, NULL, 0);
+    }
+    for (int i = 0; i < 4; i++) {
+        edges.push_back(edge(i, i, i + 1));
+        costs[i] = 10;
+    }
+    topology.build(edges, true);
+    Weights weights = weightsOf(topology, costs);
+
+    // built on the third query of a topology version and weight column
+    LandmarkCache cache(topology, m_counters, 0, 2, 2);
+    EXPECT_FALSE(cache.countQuery(1, 0));
+    EXPECT_FALSE(cache.countQuery(1, 0));
+    EXPECT_TRUE(cache.countQuery(1, 0));
+    cache.build(weights);
+    std::shared_ptr<const ShortestPathSearch::Landmarks> landmarks = cache.landmarks();
+    ASSERT_TRUE(landmarks != NULL);
+    EXPECT_FALSE(cache.countQuery(1, 0));
+    EXPECT_TRUE(cache.landmarks() == landmarks);
+
+    // another weight column drops them
+    EXPECT_FALSE(cache.countQuery(1, 1));
+    EXPECT_TRUE(cache.landmarks() == NULL);
+    EXPECT_FALSE(cache.countQuery(1, 0));
+    EXPECT_FALSE(cache.countQuery(1, 0));
+    EXPECT_TRUE(cache.countQuery(1, 0));
+    cache.build(weights);
+    landmarks = cache.landmarks();
+    ASSERT_TRUE(landmarks != NULL);
+
+    // a shortcut 0 -> 4 makes the old distances overestimate, the new topology version
+    // drops the landmarks and the rebuilt ones give the exact distances again
+    topology.addEdge(edge(4, 0, 4));
+    costs[4] = 1;
+    weights = weightsOf(topology, costs);
+    EXPECT_FALSE(cache.countQuery(2, 0));
+    EXPECT_TRUE(cache.landmarks() == NULL);
+    EXPECT_FALSE(cache.countQuery(2, 0));
+    EXPECT_TRUE(cache.countQuery(2, 0));
+    cache.build(weights);
+    ASSERT_TRUE(cache.landmarks() != NULL);
+    EXPECT_TRUE(cache.landmarks() != landmarks);
+    ShortestPathSearch search(topology, m_counters);
+    search.setEdgeWeights(weights, std::numeric_limits<int>::max());
+    search.useLandmarks(cache.landmarks());
+    checkAllPairs(topology, *weights, search);
+
+    // landmarks of fewer vertexes than the topology are dropped by the search itself
+    topology.addVertex(5, NULL, 0);
+    topology.addEdge(edge(5, 4, 5));
+    costs[5] = 1;
+    weights = weightsOf(topology, costs);
+    search.setEdgeWeights(weights, std::numeric_limits<int>::max());
+    ShortestPathSearch::Path path;
+    ASSERT_TRUE(search.shortestPath(0, 5, path));
+    EXPECT_FALSE(search.hasLandmarks());
+    EXPECT_EQ(2, path.cost());
+    checkAllPairs(topology, *weights, search);
+}
+
+int main() {
+    return TestSuite::globalInstance()->runAll();
+}
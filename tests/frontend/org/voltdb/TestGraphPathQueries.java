@@ -0,0 +1,359 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.voltdb.VoltDB.Configuration;
+import org.voltdb.client.Client;
+import org.voltdb.client.ClientFactory;
+import org.voltdb.client.ProcCallException;
+import org.voltdb.compiler.VoltProjectBuilder;
+import org.voltdb.utils.MiscUtils;
+
+/**
+ * Path scans and path joins over small replicated graphs, the rows are
+ * compared as sorted strings since the graph queries take no ORDER BY.
+ */
+public class TestGraphPathQueries {
+
+    protected static ServerThread localServer;
+    protected static Client client;
+
+    @BeforeClass
+    public static void startDatabase() throws Exception
+    {
+        String pathToCatalog = Configuration.getPathToCatalogForTest("graphpaths.jar");
+        String pathToDeployment = Configuration.getPathToCatalogForTest("graphpaths.xml");
+        VoltProjectBuilder builder = new VoltProjectBuilder();
+
+        builder.addLiteralSchema(
+                "create table Nodes (id integer not null);"
+                + "create table Links (lId integer not null, src integer not null, dst integer not null);"
+                + "create directed graph view Chain "
+                + "vertexes (ID = id) from Nodes "
+                + "edges (ID = lId, FROM = src, TO = dst) from Links;"
+                + "create table Starts (x integer not null);"
+                + "create table Pairs (p integer not null, q integer not null);"
+                + "create table Cities (cName varchar(16) not null);"
+                + "create table Roads (rId varchar(16) not null, a varchar(16) not null, b varchar(16) not null);"
+                + "create undirected graph view Map "
+                + "vertexes (ID = cName) from Cities "
+                + "edges (ID = rId, FROM = a, TO = b) from Roads;"
+                + "create table Trips (origin varchar(16) not null, destination varchar(16) not null);"
+                + "create table Hubs (id integer not null);"
+                + "create table Hops (hId integer not null, src integer not null, dst integer not null, "
+                + "weight integer not null);"
+                + "create directed graph view Net "
+                + "vertexes (ID = id) from Hubs "
+                + "edges (ID = hId, FROM = src, TO = dst, weight = weight) from Hops;");
+        boolean success = builder.compile(pathToCatalog, 2, 1, 0);
+        assertTrue(success);
+        MiscUtils.copyFile(builder.getPathToDeployment(), pathToDeployment);
+        Configuration config = new Configuration();
+        config.m_pathToCatalog = pathToCatalog;
+        config.m_pathToDeployment = pathToDeployment;
+        localServer = new ServerThread(config);
+        localServer.start();
+        localServer.waitForInitialization();
+        client = ClientFactory.createClient();
+        client.createConnection("localhost");
+
+        //1 -> 2 -> 3 -> 4 and 1 -> 5, vertex 6 has no edges
+        for (int id = 1; id <= 6; id++) {
+            adHoc("insert into Nodes values (" + id + ");");
+        }
+        adHoc("insert into Links values (10, 1, 2);");
+        adHoc("insert into Links values (11, 2, 3);");
+        adHoc("insert into Links values (12, 3, 4);");
+        adHoc("insert into Links values (13, 1, 5);");
+
+        //Boston - Albany - Buffalo, ids of 8 bytes and more
+        adHoc("insert into Cities values ('Boston');");
+        adHoc("insert into Cities values ('Albany');");
+        adHoc("insert into Cities values ('Buffalo');");
+        adHoc("insert into Roads values ('I-90 east', 'Boston', 'Albany');");
+        adHoc("insert into Roads values ('I-90 west', 'Albany', 'Buffalo');");
+
+        //1 -> 2 -> 4 -> 6, 1 -> 3 -> 4, 3 -> 5 and 2 -> 6, the heavy edges weigh 9
+        for (int id = 1; id <= 6; id++) {
+            adHoc("insert into Hubs values (" + id + ");");
+        }
+        adHoc("insert into Hops values (20, 1, 2, 1);");
+        adHoc("insert into Hops values (21, 1, 3, 9);");
+        adHoc("insert into Hops values (22, 2, 4, 1);");
+        adHoc("insert into Hops values (23, 3, 4, 9);");
+        adHoc("insert into Hops values (24, 3, 5, 1);");
+        adHoc("insert into Hops values (25, 2, 6, 9);");
+        adHoc("insert into Hops values (26, 4, 6, 1);");
+    }
+
+    @AfterClass
+    public static void stopDatabase() throws Exception
+    {
+        if (client != null) {
+            client.close();
+        }
+        if (localServer != null) {
+            localServer.shutdown();
+            localServer.join();
+        }
+    }
+
+    private static VoltTable adHoc(String sql) throws Exception
+    {
+        return client.callProcedure("@AdHoc", sql).getResults()[0];
+    }
+
+    //the rows of the query as "v1,v2,...", sorted
+    private static List<String> rows(String sql) throws Exception
+    {
+        List<String> rows = rowsInOrder(sql);
+        Collections.sort(rows);
+        return rows;
+    }
+
+    //the rows of the query as "v1,v2,...", in the order of the result
+    private static List<String> rowsInOrder(String sql) throws Exception
+    {
+        VoltTable table = adHoc(sql);
+        List<String> rows = new ArrayList<>();
+        while (table.advanceRow()) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                Object value = table.get(i, table.getColumnType(i));
+                row.append(i == 0 ? "" : ",").append(table.wasNull() ? "null" : value);
+            }
+            rows.add(row.toString());
+        }
+        return rows;
+    }
+
+    private static List<String> sorted(String... rows)
+    {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, rows);
+        Collections.sort(list);
+        return list;
+    }
+
+    @Test
+    public void testPathScan() throws Exception
+    {
+        assertEquals(sorted("1,4,3,3,1,4,2,10,11,12,null"),
+                rows("select PS.StartVertexId, PS.EndVertexId, PS.Length, PATH_LENGTH(PS.Path), "
+                        + "PATH_FIRST(PS.Path), PATH_LAST(PS.Path), PATH_VERTEX(PS.Path, 1), "
+                        + "PATH_EDGE(PS.Path, 0), PATH_EDGE(PS.Path, 1), PATH_EDGE(PS.Path, 2), PATH_EDGE(PS.Path, 3) "
+                        + "from Chain.Paths PS where PS.StartVertexId = 1 and PS.EndVertexId = 4;"));
+    }
+
+    @Test
+    public void testPathScanPredicate() throws Exception
+    {
+        String select = "select PS.EndVertexId, PATH_EDGE(PS.Path, 0) from Chain.Paths PS "
+                + "where PS.StartVertexId = 1 and PS.Length = 1";
+        assertEquals(sorted("2,10", "5,13"), rows(select + ";"));
+        //the filters that are not traversal parameters apply to the paths
+        assertEquals(sorted("5,13"), rows(select + " and PS.EndVertexId <> 2;"));
+        assertEquals(sorted("2,10"), rows(select + " and PATH_EDGE(PS.Path, 0) = 10;"));
+        assertEquals(sorted(), rows(select + " and PS.Cost > 1;"));
+        try {
+            adHoc(select + " and PS.Prop1 > 2;");
+            fail("PROP1 is only a traversal parameter");
+        }
+        catch (ProcCallException e) {
+            assertTrue(e.getMessage().contains("Path property PROP1 can only be compared for equality with a constant"));
+        }
+    }
+
+    @Test
+    public void testPathJoinByDepth() throws Exception
+    {
+        adHoc("delete from Starts;");
+        //more outer rows than one batch of the multi-source BFS
+        for (int i = 0; i < 100; i++) {
+            adHoc("insert into Starts values (" + (i % 6 + 1) + ");");
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 17; i++) {
+            expected.add("1,3,2,2,1,3,2,10,11");
+            expected.add("2,4,2,2,2,4,3,11,12");
+        }
+        Collections.sort(expected);
+        assertEquals(expected,
+                rows("select S.x, PS.EndVertexId, PS.Length, PATH_LENGTH(PS.Path), PATH_FIRST(PS.Path), "
+                        + "PATH_LAST(PS.Path), PATH_VERTEX(PS.Path, 1), PATH_EDGE(PS.Path, 0), PATH_EDGE(PS.Path, 1) "
+                        + "from Starts S, Chain.Paths PS where PS.StartVertexId = S.x and PS.Length = 2;"));
+    }
+
+    @Test
+    public void testPathJoinByDestination() throws Exception
+    {
+        adHoc("delete from Pairs;");
+        adHoc("insert into Pairs values (1, 4);");
+        adHoc("insert into Pairs values (1, 5);");
+        adHoc("insert into Pairs values (2, 3);");
+        adHoc("insert into Pairs values (4, 1);");
+        adHoc("insert into Pairs values (1, 6);");
+        adHoc("insert into Pairs values (1, 7);");
+        //LENGTH reports the level of the destination plus one, PATH holds the path itself
+        assertEquals(sorted("1,4,4,3,10,11,12", "1,5,2,1,13,null,null", "2,3,2,1,11,null,null"),
+                rows("select P.p, P.q, PS.Length, PATH_LENGTH(PS.Path), PATH_EDGE(PS.Path, 0), "
+                        + "PATH_EDGE(PS.Path, 1), PATH_EDGE(PS.Path, 2) "
+                        + "from Pairs P, Chain.Paths PS where PS.StartVertexId = P.p and PS.EndVertexId = P.q;"));
+    }
+
+    @Test
+    public void testPathJoinFilters() throws Exception
+    {
+        adHoc("delete from Starts;");
+        for (int i = 0; i < 100; i++) {
+            adHoc("insert into Starts values (" + (i % 2 + 1) + ");");
+        }
+        String select = "select S.x, PS.EndVertexId, PATH_VERTEX(PS.Path, 1), PATH_EDGE(PS.Path, 1) "
+                + "from Starts S, Net.Paths PS where PS.StartVertexId = S.x and PS.Length = 2";
+        List<String> expected = new ArrayList<>();
+        //the edge condition only leaves 1 -> 3 -> 4, the traversals check it while they expand
+        for (int i = 0; i < 50; i++) {
+            expected.add("1,4,3,23");
+        }
+        assertEquals(expected, rows(select + " and PS.Edges[0..*].weight > 5;"));
+        //the residual predicate rejects the paths to 4 and 6, the next path of the traversal is the join match
+        expected.clear();
+        for (int i = 0; i < 50; i++) {
+            expected.add("1,5,3,24");
+        }
+        assertEquals(expected, rows(select + " and PS.EndVertexId <> 4 and PS.EndVertexId <> 6;"));
+        //positional conditions
+        assertEquals(expected, rows(select + " and PS.Edges[0].weight > 5 and PS.Edges[1].weight < 5;"));
+    }
+
+    @Test
+    public void testWeightedShortestPaths() throws Exception
+    {
+        String select = "select PS.Length, PS.Cost, PATH_VERTEX(PS.Path, 1), PATH_VERTEX(PS.Path, 2) from Net.Paths PS ";
+        String between = "where PS.StartVertexId = 1 and PS.EndVertexId = 6";
+        //without a cost column every edge costs one
+        assertEquals(sorted("2,2.0,2,6"), rows(select + between + ";"));
+        //the cheapest path takes one more edge
+        assertEquals(sorted("3,3.0,2,4"), rows(select + "HINT(SHORTESTPATH(weight)) " + between + ";"));
+        assertEquals(sorted("3,3.0,2,4", "2,10.0,2,6"),
+                rows(select + "HINT(SHORTESTPATH(weight)) " + between + " and PS.Prop3 = 2;"));
+    }
+
+    @Test
+    public void testVarcharPathIds() throws Exception
+    {
+        adHoc("delete from Trips;");
+        adHoc("insert into Trips values ('Boston', 'Buffalo');");
+        adHoc("insert into Trips values ('Buffalo', 'Albany');");
+        String select = "select T.origin, PS.EndVertexId, PATH_LENGTH(PS.Path), PATH_FIRST(PS.Path), PATH_LAST(PS.Path), "
+                + "PATH_VERTEX(PS.Path, 1), PATH_EDGE(PS.Path, 0), PATH_EDGE(PS.Path, 1), PATH_EDGE(PS.Path, 2) "
+                + "from Trips T, Map.Paths PS ";
+        VoltTable table = adHoc(select + "where PS.StartVertexId = T.origin and PS.Length = 2;");
+        for (int i = 3; i < table.getColumnCount(); i++) {
+            assertEquals(VoltType.STRING, table.getColumnType(i));
+        }
+        assertEquals(sorted("Boston,Buffalo,2,Boston,Buffalo,Albany,I-90 east,I-90 west,null",
+                "Buffalo,Boston,2,Buffalo,Boston,Albany,I-90 west,I-90 east,null"),
+                rows(select + "where PS.StartVertexId = T.origin and PS.Length = 2;"));
+        assertEquals(sorted("Boston,Buffalo,2,Boston,Buffalo,Albany,I-90 east,I-90 west,null",
+                "Buffalo,Albany,1,Buffalo,Albany,Albany,I-90 west,null,null"),
+                rows(select + "where PS.StartVertexId = T.origin and PS.EndVertexId = T.destination;"));
+    }
+
+    @Test
+    public void testChosenTraversal() throws Exception
+    {
+        //PROP1 names no traversal, the planner picks one for the pinned vertexes,
+        //a negative vertex id pins the vertex as well
+        adHoc("insert into Hubs values (-1);");
+        adHoc("insert into Hops values (27, -1, 1, 1);");
+        try {
+            assertEquals(sorted("3,1"), rows("select PS.Length, PATH_VERTEX(PS.Path, 1) from Net.Paths PS "
+                    + "where PS.StartVertexId = -1 and PS.EndVertexId = 6;"));
+            assertEquals(sorted("2,2", "2,3"), rows("select PS.Length, PS.EndVertexId from Net.Paths PS "
+                    + "where PS.StartVertexId = -1 and PS.Length = 2;"));
+        }
+        finally {
+            adHoc("delete from Hops where hId = 27;");
+            adHoc("delete from Hubs where id = -1;");
+        }
+    }
+
+    @Test
+    public void testBatchedPathJoin() throws Exception
+    {
+        //1 reaches 3 (1 -> 2 -> 3) and 4 (1 -> 5 -> 4) at depth 2, through 2 first on its own.
+        //6 reaches the same two through 5 first. In the frontier the sources of a batch share
+        //either 2 or 5 comes first, so one of them gets the other vertex of equal depth
+        adHoc("insert into Links values (14, 6, 5);");
+        adHoc("insert into Links values (15, 5, 4);");
+        adHoc("insert into Links values (16, 6, 2);");
+        adHoc("delete from Starts;");
+        adHoc("delete from Pairs;");
+        //more outer rows than one batch
+        for (int i = 0; i < 70; i++) {
+            adHoc("insert into Starts values (" + ((i % 2 == 0) ? 6 : 1) + ");");
+            adHoc("insert into Pairs values (" + ((i % 2 == 0) ? 6 : 1) + ", 4);");
+        }
+        try {
+            String select = "select S.x, PS.Length, PS.EndVertexId from Starts S, Chain.Paths PS ";
+            String where = "where PS.StartVertexId = S.x and PS.Length = 2;";
+            List<String> perRow = rowsInOrder(select + where);
+            List<String> batched = rowsInOrder(select + "HINT(BATCHED) " + where);
+            assertEquals(70, perRow.size());
+            assertEquals(perRow.size(), batched.size());
+            boolean sameEnds = true;
+            for (int i = 0; i < perRow.size(); i++) {
+                //row for row the same outer row and length, the end vertex is one of equal depth
+                String outer = perRow.get(i).startsWith("6,") ? "6" : "1";
+                assertEquals(outer.equals("6") ? "6,2,4" : "1,2,3", perRow.get(i));
+                assertTrue(batched.get(i), batched.get(i).equals(outer + ",2,3") || batched.get(i).equals(outer + ",2,4"));
+                sameEnds &= perRow.get(i).equals(batched.get(i));
+            }
+            assertFalse(sameEnds);
+
+            //by destination the lengths do not depend on the order the vertexes are found in
+            select = "select P.p, P.q, PS.Length, PATH_LENGTH(PS.Path) from Pairs P, Chain.Paths PS ";
+            where = "where PS.StartVertexId = P.p and PS.EndVertexId = P.q;";
+            perRow = rowsInOrder(select + where);
+            assertEquals(70, perRow.size());
+            assertEquals(perRow, rowsInOrder(select + "HINT(BATCHED) " + where));
+        }
+        finally {
+            adHoc("delete from Links where lId >= 14;");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.voltdb.VoltDB.Configuration;
+import org.voltdb.client.Client;
+import org.voltdb.client.ClientFactory;
+import org.voltdb.compiler.VoltProjectBuilder;
+import org.voltdb.utils.MiscUtils;
+
+/**
+ * A catalog update creates a table again when its schema changes, the graph
+ * views over it are built again over the new table.
+ */
+public class TestGraphViewCatalogUpdates {
+
+    private static final String GRAPH_VIEWS =
+            "create directed graph view Net "
+            + "vertexes (ID = id) from Hubs "
+            + "edges (ID = hId, FROM = src, TO = dst) from Hops;"
+            + "create directed graph view Followers "
+            + "vertexes (ID = uId, name = uName) from Users "
+            + "edges (ID = fId, FROM = src, TO = dst) from Follows;";
+
+    protected static ServerThread localServer;
+    protected static Client client;
+
+    @AfterClass
+    public static void stopDatabase() throws Exception
+    {
+        if (client != null) {
+            client.close();
+        }
+        if (localServer != null) {
+            localServer.shutdown();
+            localServer.join();
+        }
+    }
+
+    private static VoltTable adHoc(String sql) throws Exception
+    {
+        return client.callProcedure("@AdHoc", sql).getResults()[0];
+    }
+
+    //the rows of the query as "v1,v2,...", sorted
+    private static List<String> rows(String sql) throws Exception
+    {
+        VoltTable table = adHoc(sql);
+        List<String> rows = new ArrayList<>();
+        while (table.advanceRow()) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                Object value = table.get(i, table.getColumnType(i));
+                row.append(i == 0 ? "" : ",").append(table.wasNull() ? "null" : value);
+            }
+            rows.add(row.toString());
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+
+    //replicated and partitioned tables take different passes of the catalog update
+    private static String compile(String name, String extraVertexColumn, String extraEdgeColumn) throws Exception
+    {
+        String pathToCatalog = Configuration.getPathToCatalogForTest(name + ".jar");
+        VoltProjectBuilder builder = new VoltProjectBuilder();
+        builder.addLiteralSchema(
+                "create table Hubs (id integer not null" + extraVertexColumn + ");"
+                + "create table Hops (hId integer not null, src integer not null, dst integer not null"
+                + extraEdgeColumn + ");"
+                + "create table Users (uId integer not null, uName varchar(16) not null" + extraVertexColumn + ");"
+                + "partition table Users on column uId;"
+                + "create table Follows (fId integer not null, src integer not null, dst integer not null"
+                + extraEdgeColumn + ");"
+                + "partition table Follows on column src;"
+                + GRAPH_VIEWS);
+        assertTrue(builder.compile(pathToCatalog, 2, 1, 0));
+        MiscUtils.copyFile(builder.getPathToDeployment(), Configuration.getPathToCatalogForTest(name + ".xml"));
+        return pathToCatalog;
+    }
+
+    @Test
+    public void testRebuiltTables() throws Exception
+    {
+        Configuration config = new Configuration();
+        config.m_pathToCatalog = compile("graphupdates1", "", "");
+        config.m_pathToDeployment = Configuration.getPathToCatalogForTest("graphupdates1.xml");
+        localServer = new ServerThread(config);
+        localServer.start();
+        localServer.waitForInitialization();
+        client = ClientFactory.createClient();
+        client.createConnection("localhost");
+
+        //the vertex tables are empty and are created again, the edge tables keep their rows
+        adHoc("insert into Hops values (10, 1, 2);");
+        adHoc("insert into Follows values (101, 1, 2);");
+        String catalog = compile("graphupdates2", ", label varchar(8)", ", weight integer");
+        client.updateApplicationCatalog(new File(catalog), null);
+
+        adHoc("insert into Hubs values (1, 'a');");
+        adHoc("insert into Hubs values (2, 'b');");
+        adHoc("insert into Hubs values (3, 'c');");
+        adHoc("insert into Hops values (11, 2, 3, 5);");
+        assertEquals(Collections.singletonList("2,3"),
+                rows("select PS.Length, PS.EndVertexId from Net.Paths PS "
+                        + "where PS.StartVertexId = 1 and PS.EndVertexId = 3;"));
+        assertEquals(Arrays.asList("1,1", "2,1", "3,0"),
+                rows("select V.Id, V.FanOut from Net.Vertexes V;"));
+
+        for (int id = 1; id <= 3; id++) {
+            adHoc("insert into Users values (" + id + ", 'user" + id + "', 'l" + id + "');");
+        }
+        adHoc("insert into Follows values (102, 2, 3, 5);");
+        assertEquals(Arrays.asList("1,user1", "2,user2", "3,user3"),
+                rows("select V.Id, V.name from Followers.Vertexes V;"));
+        assertEquals(Arrays.asList("101", "102"),
+                rows("select E.Id from Followers.Edges E;"));
+    }
+}
@@ -0,0 +1,241 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.voltdb.VoltDB.Configuration;
+import org.voltdb.client.Client;
+import org.voltdb.client.ClientFactory;
+import org.voltdb.compiler.VoltProjectBuilder;
+import org.voltdb.sysprocs.saverestore.SnapshotUtil;
+import org.voltdb.utils.MiscUtils;
+import org.voltdb.utils.VoltFile;
+
+/**
+ * Native snapshots save the topologies of the graph views next to the tables,
+ * the restore remaps them to the restored rows instead of rebuilding them.
+ * Whether a view was rebuilt is told by its LAST_REBUILD_TIMESTAMP statistic.
+ */
+public class TestGraphViewSnapshots {
+
+    private static final String NONCE = "graphnonce";
+    private static final String PATHS = "select PS.Length, PATH_VERTEX(PS.Path, 1) from Net.Paths PS "
+            + "where PS.StartVertexId = 1 and PS.EndVertexId = 4;";
+    private static final String FOLLOWS = "select E.Id, E.since from Followers.Edges E;";
+
+    protected static ServerThread localServer;
+    protected static Client client;
+    protected static File snapshotDir;
+
+    @BeforeClass
+    public static void startDatabase() throws Exception
+    {
+        String pathToCatalog = Configuration.getPathToCatalogForTest("graphsnapshots.jar");
+        String pathToDeployment = Configuration.getPathToCatalogForTest("graphsnapshots.xml");
+        VoltProjectBuilder builder = new VoltProjectBuilder();
+
+        builder.addLiteralSchema(
+                "create table Hubs (id integer not null);"
+                + "create table Hops (hId integer not null, src integer not null, dst integer not null);"
+                + "create directed graph view Net "
+                + "vertexes (ID = id) from Hubs "
+                + "edges (ID = hId, FROM = src, TO = dst) from Hops;"
+                + "create table Users (uId integer not null, uName varchar(16) not null);"
+                + "partition table Users on column uId;"
+                + "create table Follows (fId integer not null, src integer not null, dst integer not null, "
+                + "since integer not null);"
+                + "partition table Follows on column src;"
+                + "create directed graph view Followers "
+                + "vertexes (ID = uId, name = uName) from Users "
+                + "edges (ID = fId, FROM = src, TO = dst, since = since) from Follows;");
+        boolean success = builder.compile(pathToCatalog, 2, 1, 0);
+        assertTrue(success);
+        MiscUtils.copyFile(builder.getPathToDeployment(), pathToDeployment);
+        Configuration config = new Configuration();
+        config.m_pathToCatalog = pathToCatalog;
+        config.m_pathToDeployment = pathToDeployment;
+        localServer = new ServerThread(config);
+        localServer.start();
+        localServer.waitForInitialization();
+        client = ClientFactory.createClient();
+        client.createConnection("localhost");
+
+        snapshotDir = new File(Configuration.getPathToCatalogForTest(""), "graphsnapshots");
+        VoltFile.recursivelyDelete(snapshotDir);
+        snapshotDir.mkdirs();
+    }
+
+    @AfterClass
+    public static void stopDatabase() throws Exception
+    {
+        if (client != null) {
+            client.close();
+        }
+        if (localServer != null) {
+            localServer.shutdown();
+            localServer.join();
+        }
+        VoltFile.recursivelyDelete(snapshotDir);
+    }
+
+    private static VoltTable adHoc(String sql) throws Exception
+    {
+        return client.callProcedure("@AdHoc", sql).getResults()[0];
+    }
+
+    //the rows of the query as "v1,v2,...", sorted
+    private static List<String> rows(String sql) throws Exception
+    {
+        VoltTable table = adHoc(sql);
+        List<String> rows = new ArrayList<>();
+        while (table.advanceRow()) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                Object value = table.get(i, table.getColumnType(i));
+                row.append(i == 0 ? "" : ",").append(table.wasNull() ? "null" : value);
+            }
+            rows.add(row.toString());
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+
+    //a statistic of every graph view summed over the sites, the sites cache
+    //their statistics once a second so wait for the next tick first
+    private static Map<String, Long> graphViewStats(String column) throws Exception
+    {
+        Thread.sleep(2500);
+        VoltTable stats = client.callProcedure("@Statistics", "GRAPHVIEW", 0).getResults()[0];
+        Map<String, Long> sums = new HashMap<>();
+        while (stats.advanceRow()) {
+            String view = stats.getString("GRAPH_VIEW_NAME").toUpperCase();
+            Long previous = sums.get(view);
+            sums.put(view, (previous == null ? 0 : previous) + stats.getLong(column));
+        }
+        return sums;
+    }
+
+    private static void truncateAll() throws Exception
+    {
+        for (String table : new String[] {"Hops", "Hubs", "Follows", "Users"}) {
+            adHoc("truncate table " + table + ";");
+        }
+    }
+
+    private static int graphFiles()
+    {
+        int count = 0;
+        for (File file : snapshotDir.listFiles()) {
+            if (file.getName().endsWith(SnapshotUtil.GRAPH_EXTENSION)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int deleteGraphFiles()
+    {
+        int deleted = 0;
+        for (File file : snapshotDir.listFiles()) {
+            if (file.getName().endsWith(SnapshotUtil.GRAPH_EXTENSION) && file.delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Test
+    public void testSaveAndRestore() throws Exception
+    {
+        //1 -> 2 -> 3 -> 4 and 1 -> 5 -> 4, hop 27 waits for vertex 9
+        for (int id = 1; id <= 6; id++) {
+            adHoc("insert into Hubs values (" + id + ");");
+        }
+        adHoc("insert into Hops values (20, 1, 2);");
+        adHoc("insert into Hops values (21, 2, 3);");
+        adHoc("insert into Hops values (22, 3, 4);");
+        adHoc("insert into Hops values (23, 1, 5);");
+        adHoc("insert into Hops values (24, 5, 4);");
+        adHoc("insert into Hops values (27, 6, 9);");
+        //a deleted vertex and edge leave free slots behind
+        adHoc("insert into Hubs values (7);");
+        adHoc("insert into Hops values (25, 6, 7);");
+        adHoc("delete from Hops where hId = 25;");
+        adHoc("delete from Hubs where id = 7;");
+        for (int id = 1; id <= 8; id++) {
+            adHoc("insert into Users values (" + id + ", 'user" + id + "');");
+        }
+        for (int id = 1; id < 8; id++) {
+            adHoc("insert into Follows values (" + (100 + id) + ", " + id + ", " + (id + 1) + ", " + (2000 + id) + ");");
+        }
+        List<String> paths = rows(PATHS);
+        List<String> follows = rows(FOLLOWS);
+        //the shortest path goes through 5
+        assertEquals(Collections.singletonList("2,5"), paths);
+        assertEquals(7, follows.size());
+
+        assertTrue(client.callProcedure("@SnapshotSave", snapshotDir.getPath(), NONCE, (byte) 1)
+                .getResults()[0].getRowCount() > 0);
+        assertTrue(graphFiles() > 0);
+
+        //the restored topologies are used as they are, the vertexes are there
+        //before any traversal and no view was rebuilt
+        Map<String, Long> rebuilds = graphViewStats("LAST_REBUILD_TIMESTAMP");
+        Map<String, Long> vertexes = graphViewStats("VERTEX_COUNT");
+        truncateAll();
+        client.callProcedure("@SnapshotRestore", snapshotDir.getPath(), NONCE);
+        assertEquals(vertexes, graphViewStats("VERTEX_COUNT"));
+        assertEquals(rebuilds, graphViewStats("LAST_REBUILD_TIMESTAMP"));
+        assertEquals(paths, rows(PATHS));
+        assertEquals(follows, rows(FOLLOWS));
+
+        //the dangling edge was restored as well
+        adHoc("insert into Hubs values (9);");
+        assertEquals(Collections.singletonList("1,9"),
+                rows("select PS.Length, PS.EndVertexId from Net.Paths PS "
+                        + "where PS.StartVertexId = 6 and PS.EndVertexId = 9;"));
+        adHoc("delete from Hubs where id = 9;");
+
+        //without the topology files the views are rebuilt from the restored rows
+        assertTrue(deleteGraphFiles() > 0);
+        truncateAll();
+        client.callProcedure("@SnapshotRestore", snapshotDir.getPath(), NONCE);
+        assertEquals(paths, rows(PATHS));
+        assertEquals(follows, rows(FOLLOWS));
+        assertTrue(graphViewStats("LAST_REBUILD_TIMESTAMP").get("NET") > rebuilds.get("NET"));
+    }
+
+}
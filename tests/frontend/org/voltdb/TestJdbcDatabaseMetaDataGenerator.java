@@ -541,4 +541,42 @@ public class TestJdbcDatabaseMetaDataGenerator extends TestCase
         assertEquals(0, classes.get("VOLT_PROCEDURE", VoltType.INTEGER));
         assertEquals(0, classes.get("ACTIVE_PROC", VoltType.INTEGER));
     }
+
+    public void testGetGraphViews() throws Exception
+    {
+        String schema =
+            "create table Users (uId integer not null, lName varchar(16), primary key (uId));" +
+            "create table Follows (fId integer not null, src integer not null, dst integer not null, " +
+            "weight float, primary key (fId));" +
+            "create table Roads (rId integer not null, a integer not null, b integer not null);" +
+            "create directed graph view Social " +
+            "vertexes (ID = uId, name = lName) from Users " +
+            "edges (ID = fId, FROM = src, TO = dst, weight = weight) from Follows;" +
+            "create undirected graph view Map " +
+            "vertexes (ID = uId) from Users " +
+            "edges (ID = rId, FROM = a, TO = b) from Roads;";
+        VoltCompiler c = compileForDDLTest2(schema);
+        JdbcDatabaseMetaDataGenerator dut =
+            new JdbcDatabaseMetaDataGenerator(c.getCatalog(), null, new InMemoryJarfile(testout_jar));
+        VoltTable graphs = dut.getMetaData("graphviews");
+        System.out.println(graphs);
+        assertEquals(8, graphs.getColumnCount());
+        assertEquals(2, graphs.getRowCount());
+        assertTrue(VoltTableTestHelpers.moveToMatchingRow(graphs, "GRAPH_NAME", "SOCIAL"));
+        assertEquals("USERS", graphs.get("VERTEX_TABLE", VoltType.STRING));
+        assertEquals("FOLLOWS", graphs.get("EDGE_TABLE", VoltType.STRING));
+        assertEquals("true", graphs.get("IS_DIRECTED", VoltType.STRING));
+        assertEquals("UID", graphs.get("VERTEX_ID_COLUMN", VoltType.STRING));
+        assertEquals("FID", graphs.get("EDGE_ID_COLUMN", VoltType.STRING));
+        assertEquals("SRC", graphs.get("EDGE_FROM_COLUMN", VoltType.STRING));
+        assertEquals("DST", graphs.get("EDGE_TO_COLUMN", VoltType.STRING));
+        assertTrue(VoltTableTestHelpers.moveToMatchingRow(graphs, "GRAPH_NAME", "MAP"));
+        assertEquals("USERS", graphs.get("VERTEX_TABLE", VoltType.STRING));
+        assertEquals("ROADS", graphs.get("EDGE_TABLE", VoltType.STRING));
+        assertEquals("false", graphs.get("IS_DIRECTED", VoltType.STRING));
+        assertEquals("RID", graphs.get("EDGE_ID_COLUMN", VoltType.STRING));
+        assertEquals("A", graphs.get("EDGE_FROM_COLUMN", VoltType.STRING));
+        assertEquals("B", graphs.get("EDGE_TO_COLUMN", VoltType.STRING));
+        assertFalse(VoltTableTestHelpers.moveToMatchingRow(graphs, "GRAPH_NAME", "NotAGraph"));
+    }
 }
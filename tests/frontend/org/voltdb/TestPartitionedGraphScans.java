@@ -0,0 +1,157 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.voltdb.VoltDB.Configuration;
+import org.voltdb.client.Client;
+import org.voltdb.client.ClientFactory;
+import org.voltdb.compiler.VoltProjectBuilder;
+import org.voltdb.utils.MiscUtils;
+
+/**
+ * VERTEXES and EDGES scans over a graph view whose vertex and edge tables are
+ * partitioned: every partition scans its own vertexes and edges and the
+ * coordinator gathers the rows.
+ */
+public class TestPartitionedGraphScans {
+
+    protected static ServerThread localServer;
+    protected static Client client;
+
+    @BeforeClass
+    public static void startDatabase() throws Exception
+    {
+        String pathToCatalog = Configuration.getPathToCatalogForTest("graphpartitions.jar");
+        String pathToDeployment = Configuration.getPathToCatalogForTest("graphpartitions.xml");
+        VoltProjectBuilder builder = new VoltProjectBuilder();
+
+        builder.addLiteralSchema(
+                "create table Users (uId integer not null, uName varchar(16) not null);"
+                + "partition table Users on column uId;"
+                + "create table Follows (fId integer not null, src integer not null, dst integer not null, "
+                + "since integer not null);"
+                + "partition table Follows on column src;"
+                + "create directed graph view Followers "
+                + "vertexes (ID = uId, name = uName) from Users "
+                + "edges (ID = fId, FROM = src, TO = dst, since = since) from Follows;");
+        //two sites, the rows spread over both partitions
+        boolean success = builder.compile(pathToCatalog, 2, 1, 0);
+        assertTrue(success);
+        MiscUtils.copyFile(builder.getPathToDeployment(), pathToDeployment);
+        Configuration config = new Configuration();
+        config.m_pathToCatalog = pathToCatalog;
+        config.m_pathToDeployment = pathToDeployment;
+        localServer = new ServerThread(config);
+        localServer.start();
+        localServer.waitForInitialization();
+        client = ClientFactory.createClient();
+        client.createConnection("localhost");
+
+        for (int id = 1; id <= 8; id++) {
+            adHoc("insert into Users values (" + id + ", 'user" + id + "');");
+        }
+        //every user follows the next one
+        for (int id = 1; id < 8; id++) {
+            adHoc("insert into Follows values (" + (100 + id) + ", " + id + ", " + (id + 1) + ", " + (2000 + id) + ");");
+        }
+    }
+
+    @AfterClass
+    public static void stopDatabase() throws Exception
+    {
+        if (client != null) {
+            client.close();
+        }
+        if (localServer != null) {
+            localServer.shutdown();
+            localServer.join();
+        }
+    }
+
+    private static VoltTable adHoc(String sql) throws Exception
+    {
+        return client.callProcedure("@AdHoc", sql).getResults()[0];
+    }
+
+    //the rows of the query as "v1,v2,...", sorted
+    private static List<String> rows(String sql) throws Exception
+    {
+        VoltTable table = adHoc(sql);
+        List<String> rows = new ArrayList<>();
+        while (table.advanceRow()) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                Object value = table.get(i, table.getColumnType(i));
+                row.append(i == 0 ? "" : ",").append(table.wasNull() ? "null" : value);
+            }
+            rows.add(row.toString());
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+
+    private static String explain(String sql) throws Exception
+    {
+        VoltTable table = client.callProcedure("@Explain", sql).getResults()[0];
+        table.advanceRow();
+        return table.getString(0);
+    }
+
+    @Test
+    public void testVertexScan() throws Exception
+    {
+        String select = "select V.Id, V.name from Followers.Vertexes V;";
+        assertTrue(explain(select).contains("RECEIVE FROM ALL PARTITIONS"));
+        List<String> expected = new ArrayList<>();
+        for (int id = 1; id <= 8; id++) {
+            expected.add(id + ",user" + id);
+        }
+        Collections.sort(expected);
+        assertEquals(expected, rows(select));
+        //the predicate is evaluated on every partition
+        assertEquals(Collections.singletonList("3,user3"),
+                rows("select V.Id, V.name from Followers.Vertexes V where V.name = 'user3';"));
+    }
+
+    @Test
+    public void testEdgeScan() throws Exception
+    {
+        String select = "select E.Id, E.since from Followers.Edges E where E.since > 2004;";
+        assertTrue(explain(select).contains("RECEIVE FROM ALL PARTITIONS"));
+        assertEquals(Arrays.asList("105,2005", "106,2006", "107,2007"), rows(select));
+        assertEquals(Collections.singletonList("7"),
+                rows("select count(*) from Followers.Edges E;"));
+    }
+}
@@ -59,6 +59,7 @@ import java.net.UnknownHostException;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import org.mockito.Mockito;
@@ -159,6 +160,17 @@ public class MockVoltClient implements Client {
         return false;
     }
 
+    @Override
+    public CompletableFuture<ClientResponse> callProcedureAsync(String procName, Object... parameters) {
+        CompletableFuture<ClientResponse> future = new CompletableFuture<>();
+        try {
+            future.complete(callProcedure(procName, parameters));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     @Override
     public void drain() {
         // TODO Auto-generated method stub
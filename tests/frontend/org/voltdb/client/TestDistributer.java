@@ -31,6 +31,7 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -890,6 +891,91 @@ public class TestDistributer extends TestCase {
        }
     }
 
+    @Test
+    public void testAsyncClientWithWriteCoalescing() throws Exception {
+       if (ClientConfig.ENABLE_SSL_FOR_TEST) return;
+       // TODO: write a mock server that can grock ssl
+       MockVolt volt = null;
+       Client clt = null;
+
+       try {
+           volt = new MockVolt(21212);
+           volt.start();
+
+           // hold the invocations for up to 1ms, batches of 1k are written right away
+           ClientConfig config = new ClientConfig();
+           config.setWriteCoalescing(1000, 1024);
+           clt = ClientFactory.createClient(config);
+           clt.createConnection("localhost");
+
+           // the blocking calls go through the coalesced writes too
+           assertEquals(ClientResponse.SUCCESS, clt.callProcedure("Foo", new Integer(1)).getStatus());
+
+           List<CompletableFuture<ClientResponse>> responses = new ArrayList<>();
+           for (int i = 0; i < 100; i++) {
+               responses.add(clt.callProcedureAsync("Bar", new Integer(i)));
+           }
+           for (CompletableFuture<ClientResponse> response : responses) {
+               ClientResponse r = response.get(10, TimeUnit.SECONDS);
+               assertEquals(ClientResponse.SUCCESS, r.getStatus());
+               assertEquals(1, r.getResults()[0].asScalarLong());
+           }
+       }
+       finally {
+           if (clt != null) {
+               clt.close();
+           }
+           if (volt != null) {
+               volt.shutdown();
+           }
+       }
+    }
+
+    @Test
+    public void testWriteCoalescingBatches() throws Exception {
+       if (ClientConfig.ENABLE_SSL_FOR_TEST) return;
+       // TODO: write a mock server that can grock ssl
+       MockVolt volt = null;
+       Distributer dist = null;
+       int handle = 0;
+
+       try {
+           volt = new MockVolt(21212);
+           volt.start();
+
+           // hold the invocations for up to 10ms, batches of 1k are written right away
+           dist = new Distributer(false,
+                   ClientConfig.DEFAULT_PROCEDURE_TIMOUT_NANOS,
+                   ClientConfig.DEFAULT_CONNECTION_TIMOUT_MS,
+                   false, false, null /* subject */, null);
+           dist.setWriteCoalescing(TimeUnit.MILLISECONDS.toNanos(10), 1024);
+           dist.createConnection("localhost", "", "", 21212, ClientAuthScheme.HASH_SHA1);
+
+           // a single invocation is written once its linger window closes
+           dist.queue(new ProcedureInvocation(++handle, "Foo", new Integer(1)), new ProcCallback(), true, System.nanoTime(), 0);
+           dist.drain();
+           assertEquals(1, volt.handler.roundTrips.get());
+           assertEquals(1, dist.m_coalescedBatches.get());
+
+           for (int i = 0; i < 100; i++) {
+               dist.queue(new ProcedureInvocation(++handle, "Bar", new Integer(i)), new ProcCallback(), true, System.nanoTime(), 0);
+           }
+           dist.drain();
+           assertEquals(101, volt.handler.roundTrips.get());
+           // the invocations shared the enqueues on the write stream
+           long batches = dist.m_coalescedBatches.get() - 1;
+           assertTrue("100 invocations were written in " + batches + " batches", batches > 0 && batches < 100);
+       }
+       finally {
+           if (dist != null) {
+               dist.shutdown();
+           }
+           if (volt != null) {
+               volt.shutdown();
+           }
+       }
+    }
+
     @Test
     public void testClientBlockedOnMaxOutstanding() throws Exception {
         // TODO: write a mock server that can grock ssl
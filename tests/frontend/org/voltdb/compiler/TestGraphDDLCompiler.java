@@ -110,5 +110,79 @@ public class TestGraphDDLCompiler extends TestCase {
         // cleanup after the test
         jarOut.delete();
     }
-	
+
+    private static final String PARTITIONED_GRAPH_DDL =
+            "CREATE TABLE Users ( uId integer NOT NULL, lName varchar(16) );\n" +
+            "CREATE TABLE Relationships ( relId integer NOT NULL, uId integer NOT NULL, uId2 integer NOT NULL );\n" +
+            "PARTITION TABLE Users ON COLUMN uId;\n" +
+            "PARTITION TABLE Relationships ON COLUMN uId;\n" +
+            "CREATE DIRECTED GRAPH VIEW SocialNetwork " +
+            "VERTEXES (ID = uId, lstName = lName) FROM Users " +
+            "EDGES (ID = relId, FROM = uId, TO = uId2) FROM Relationships;\n";
+
+    private VoltCompiler compileGraphDDL(String ddl, boolean expectSuccess) {
+        File jarOut = new File("graphddl.jar");
+        jarOut.deleteOnExit();
+
+        VoltCompiler compiler = new VoltCompiler(false);
+        File schemaFile = VoltProjectBuilder.writeStringToTempFile(ddl);
+        try {
+            assertEquals(expectSuccess, compiler.compileFromDDL(jarOut.getPath(), schemaFile.getPath()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+        jarOut.delete();
+        return compiler;
+    }
+
+    private static boolean isErrorPresent(VoltCompiler compiler, String expectedError) {
+        for (VoltCompiler.Feedback fb : compiler.m_errors) {
+            if (fb.getStandardFeedbackLine().contains(expectedError)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void testMixedPartitioningGraphDDL() {
+        VoltCompiler compiler = compileGraphDDL(
+                "CREATE TABLE Users ( uId integer NOT NULL, lName varchar(16) );\n" +
+                "CREATE TABLE Relationships ( relId integer NOT NULL, uId integer NOT NULL, uId2 integer NOT NULL );\n" +
+                "PARTITION TABLE Users ON COLUMN uId;\n" +
+                "CREATE DIRECTED GRAPH VIEW SocialNetwork " +
+                "VERTEXES (ID = uId, lstName = lName) FROM Users " +
+                "EDGES (ID = relId, FROM = uId, TO = uId2) FROM Relationships;\n",
+                false);
+        assertTrue(isErrorPresent(compiler,
+                "The vertex and edge tables of a graph view must be either both replicated or both partitioned."));
+    }
+
+    public void testPartitionedGraphDDL() {
+        compileGraphDDL(PARTITIONED_GRAPH_DDL, true);
+    }
+
+    public void testPartitionedGraphPathScan() {
+        VoltCompiler compiler = compileGraphDDL(PARTITIONED_GRAPH_DDL +
+                "CREATE PROCEDURE GetPaths AS SELECT PS.EndVertexId FROM SocialNetwork.PATHS PS " +
+                "WHERE PS.StartVertexId = 1 AND PS.Length = 2;\n",
+                false);
+        assertTrue(isErrorPresent(compiler,
+                "Path scans are not supported on graph view SOCIALNETWORK because its vertex and edge tables are partitioned."));
+    }
+
+    public void testPartitionedGraphFanOut() {
+        VoltCompiler compiler = compileGraphDDL(PARTITIONED_GRAPH_DDL +
+                "CREATE PROCEDURE GetFanOut AS SELECT V.ID, V.FANOUT FROM SocialNetwork.VERTEXES V;\n",
+                false);
+        assertTrue(isErrorPresent(compiler,
+                "Vertex property FANOUT is not supported on graph view SOCIALNETWORK because its vertex and edge tables are partitioned."));
+
+        compiler = compileGraphDDL(PARTITIONED_GRAPH_DDL +
+                "CREATE PROCEDURE GetFanIn AS SELECT V.ID FROM SocialNetwork.VERTEXES V WHERE V.FANIN > 2;\n",
+                false);
+        assertTrue(isErrorPresent(compiler,
+                "Vertex property FANIN is not supported on graph view SOCIALNETWORK because its vertex and edge tables are partitioned."));
+    }
+
 }
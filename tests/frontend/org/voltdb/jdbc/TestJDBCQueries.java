@@ -24,12 +24,14 @@
 package org.voltdb.jdbc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Date;
@@ -41,6 +43,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.Properties;
 
 import org.voltdb.BackendTarget;
 import org.voltdb.ServerThread;
@@ -712,6 +715,136 @@ public class TestJDBCQueries {
 
     }
 
+    @Test
+    public void testPipelinedQueryBatch() throws Exception
+    {
+        Properties props = new Properties();
+        props.setProperty(JDBC4Connection.BATCH_PIPELINING, "true");
+        String url = "jdbc:voltdb://localhost:21212";
+        if (ClientConfig.ENABLE_SSL_FOR_TEST) {
+            url += "?" + JDBCTestCommons.SSL_URL_SUFFIX;
+        }
+        Connection pipelined = DriverManager.getConnection(url, props);
+        try {
+            String q = String.format("insert into %s(id) values(?)", data[2].tablename);
+            PreparedStatement pStmt = pipelined.prepareStatement(q);
+            for (int i = 10000; i < 10200; i++) {
+                pStmt.setInt(1, i);
+                pStmt.addBatch();
+            }
+            int[] resultCodes = pStmt.executeBatch();
+            assertEquals(200, resultCodes.length);
+            for (int resultCode : resultCodes) {
+                assertEquals(1, resultCode);
+            }
+            assertEquals(200, pStmt.getUpdateCount());
+
+            // A failed statement leaves the others of the batch executed.
+            Statement batch = pipelined.createStatement();
+            batch.addBatch(String.format("insert into %s(id) values(10200)", data[2].tablename));
+            batch.addBatch("insert into no_such_table(id) values(10201)");
+            batch.addBatch(String.format("insert into %s(id) values(10202)", data[2].tablename));
+            try {
+                batch.executeBatch();
+                fail();
+            }
+            catch (BatchUpdateException e) {
+                int[] counts = e.getUpdateCounts();
+                assertEquals(3, counts.length);
+                assertEquals(1, counts[0]);
+                assertEquals(Statement.EXECUTE_FAILED, counts[1]);
+                assertEquals(1, counts[2]);
+            }
+            conn.createStatement().execute(String.format("delete from %s where id >= 10000", data[2].tablename));
+        }
+        finally {
+            pipelined.close();
+        }
+    }
+
+    @Test
+    public void testPagedResultSet() throws Exception
+    {
+        Properties props = new Properties();
+        props.setProperty(JDBC4Connection.STREAM_RESULTS, "true");
+        String url = "jdbc:voltdb://localhost:21212";
+        if (ClientConfig.ENABLE_SSL_FOR_TEST) {
+            url += "?" + JDBCTestCommons.SSL_URL_SUFFIX;
+        }
+        Connection paged = DriverManager.getConnection(url, props);
+        try {
+            String q = String.format("select id from %s where id >= ? order by id", data[2].tablename);
+            PreparedStatement pStmt = paged.prepareStatement(q);
+            pStmt.setFetchSize(2);
+            pStmt.setInt(1, 0);
+            ResultSet rs = pStmt.executeQuery();
+            assertEquals(ResultSet.TYPE_FORWARD_ONLY, rs.getType());
+            int rowCount = 0;
+            while (rs.next()) {
+                assertEquals(rowCount, rs.getInt(1));
+                assertEquals(++rowCount, rs.getRow());
+            }
+            assertEquals(data[2].good.length, rowCount);
+
+            // Pages of a query without a WHERE clause, ordered by several columns.
+            Statement stmt = paged.createStatement();
+            stmt.setFetchSize(1);
+            rs = stmt.executeQuery(String.format("select value, id from %s order by value desc, id", data[2].tablename));
+            assertEquals(ResultSet.TYPE_FORWARD_ONLY, rs.getType());
+            for (int i = data[2].good.length - 1; i >= 0; i--) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(2));
+            }
+            assertFalse(rs.next());
+
+            // Without the ORDER BY values in the result or with a null one the remaining rows
+            // come in one page.
+            stmt.setFetchSize(2);
+            rs = stmt.executeQuery(String.format("select value from %s order by id", data[2].tablename));
+            rowCount = 0;
+            while (rs.next()) {
+                assertEquals(String.format("VALUE:%s:%d", data[2].tablename, rowCount++), rs.getString(1));
+            }
+            assertEquals(data[2].good.length, rowCount);
+            stmt.execute(String.format("insert into %s values (null, 'null id')", data[2].tablename));
+            stmt.setFetchSize(1);
+            rs = stmt.executeQuery(String.format("select id from %s order by id", data[2].tablename));
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+            assertTrue(rs.wasNull());
+            rowCount = 0;
+            while (rs.next()) {
+                assertEquals(rowCount++, rs.getInt(1));
+            }
+            assertEquals(data[2].good.length, rowCount);
+
+            // Queries with a LIMIT of their own or ordered by an alias are not paged.
+            stmt.setFetchSize(2);
+            rs = stmt.executeQuery(String.format("select id from %s order by id limit 3", data[2].tablename));
+            assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, rs.getType());
+            rs = stmt.executeQuery(String.format("select id as value from %s order by value", data[2].tablename));
+            assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, rs.getType());
+            rs = stmt.executeQuery(String.format("select id value from %s order by value", data[2].tablename));
+            assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, rs.getType());
+
+            // A qualified ORDER BY column is paged only when it is selected as it is written.
+            rs = stmt.executeQuery(String.format("select b.id from %s a, %s b where a.id = b.id order by a.id",
+                    data[2].tablename, data[1].tablename));
+            assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, rs.getType());
+            rs = stmt.executeQuery(String.format("select a.id from %s a where a.id >= 0 order by a.id",
+                    data[2].tablename));
+            assertEquals(ResultSet.TYPE_FORWARD_ONLY, rs.getType());
+            rowCount = 0;
+            while (rs.next()) {
+                assertEquals(rowCount++, rs.getInt(1));
+            }
+            assertEquals(data[2].good.length, rowCount);
+        }
+        finally {
+            paged.close();
+        }
+    }
+
     @Test
     public void testParameterizedQueries() throws Exception
     {
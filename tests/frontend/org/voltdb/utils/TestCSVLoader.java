@@ -40,6 +40,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
@@ -379,6 +380,108 @@ public class TestCSVLoader {
         test_Interface(myOptions, myData, invalidLineCnt, validLineCnt);
     }
 
+    //Test parsing ranges of the file with several threads.
+    @Test
+    public void testParsersOption() throws Exception {
+        String[] myOptions = {
+            "-f" + path_csv,
+            "--reportdir=" + reportDir,
+            "--maxerrors=50",
+            "--user=",
+            "--password=",
+            "--port=",
+            "--separator=,",
+            "--quotechar=\"",
+            "--escape=\\",
+            "--skip=1",
+            "--batch=2",
+            "--parsers=3",
+            "BlAh"
+        };
+        String currentTime = new TimestampType().toString();
+        String[] myData = {
+            "1 ,1,1,11111111,first,1.10,1.11," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "2,2,2,222222,second,3.30,NULL," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "3,3,3,333333, third ,NULL, 3.33," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "4,4,4,444444, NULL ,4.40 ,4.44," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "5,5,5,5555555,  \"abcde\"g, 5.50, 5.55," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "6,6,NULL,666666, sixth, 6.60, 6.66," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "7,NULL,7,7777777, seventh, 7.70, 7.77," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "11, 1,1,\"1,000\",first,1.10,1.11," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            //empty line
+            "",
+            //invalid lines below
+            "8, 8",
+            "9, NLL,9,\"1,000\",nine,1.10,1.11," + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "10,10,10,10 101 010,second,2.20,2.22" + currentTime + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"",
+            "12,n ull,12,12121212,twelveth,12.12,12.12"
+        };
+        int invalidLineCnt = 4;
+        int validLineCnt = 7;
+        test_Interface(myOptions, myData, invalidLineCnt, validLineCnt);
+    }
+
+    //Test a file that is split into several ranges per parser, with invalid lines in many of them.
+    @Test
+    public void testParsersOptionManyRanges() throws Exception {
+        String[] myOptions = {
+            "-f" + path_csv,
+            "--reportdir=" + reportDir,
+            "--maxerrors=50",
+            "--user=",
+            "--password=",
+            "--port=",
+            "--separator=,",
+            "--quotechar=\"",
+            "--escape=\\",
+            "--skip=1",
+            "--batch=50",
+            "--parsers=3",
+            "BlAh"
+        };
+        String currentTime = new TimestampType().toString();
+        int rowCount = 3000;
+        String[] myData = new String[rowCount + 1];
+        myData[0] = "clm_integer,clm_tinyint,clm_smallint,clm_bigint,clm_string,clm_decimal,clm_float,clm_timestamp,clm_point,clm_geography";
+        List<Long> invalidLines = new ArrayList<Long>();
+        long sum = 0;
+        for (int i = 1; i <= rowCount; i++) {
+            if (i % 250 == 0) {
+                myData[i] = i + ", NLL," + i + ",\"1,000\",bad,1.10,1.11," + currentTime;
+                //the header is line 1
+                invalidLines.add((long) i + 1);
+            } else {
+                myData[i] = i + "," + (i % 100) + "," + i + "," + i + ",row" + i + ",1.10,1.11," + currentTime
+                        + ",POINT(1 1),\"POLYGON((0 0, 1 0, 0 1, 0 0))\"";
+                sum += i;
+            }
+        }
+        test_Interface(myOptions, myData, invalidLines.size(), rowCount - invalidLines.size());
+
+        //every valid row is loaded exactly once
+        VoltTable result = client.callProcedure("@AdHoc", "SELECT clm_integer FROM BLAH;").getResults()[0];
+        assertEquals(rowCount - invalidLines.size(), result.getRowCount());
+        long loadedSum = 0;
+        while (result.advanceRow()) {
+            loadedSum += result.getLong(0);
+        }
+        assertEquals(sum, loadedSum);
+
+        //the errors report their line numbers in the file, not in the range
+        List<Long> reportedLines = new ArrayList<Long>();
+        String promptMsg = "Invalid input on line ";
+        BufferedReader log = new BufferedReader(new FileReader(CSVLoader.pathLogfile));
+        String line;
+        while ((line = log.readLine()) != null) {
+            if (line.startsWith(promptMsg)) {
+                reportedLines.add(Long.parseLong(line.substring(promptMsg.length(), line.indexOf('.'))));
+            }
+        }
+        log.close();
+        Collections.sort(reportedLines);
+        assertEquals(invalidLines, reportedLines);
+    }
+
     //Test batch option that and gets constraint violations.
     //has a batch that fully fails and 2 batches that has 50% failure.
     @Test
@@ -0,0 +1,361 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2020 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.voltdb.ServerThread;
+import org.voltdb.VoltDB.Configuration;
+import org.voltdb.VoltTable;
+import org.voltdb.client.Client;
+import org.voltdb.client.ClientConfig;
+import org.voltdb.client.ClientFactory;
+import org.voltdb.client.ClientResponse;
+import org.voltdb.client.ProcCallException;
+import org.voltdb.compiler.VoltProjectBuilder;
+
+public class TestGraphLoader {
+
+    protected static ServerThread localServer;
+    protected static Client client;
+
+    protected static String userName = System.getProperty("user.name");
+    protected static String reportDir = String.format("/tmp/%s_graph", userName);
+    protected static String path_graph = String.format("%s/%s", reportDir, "test.graph");
+
+    @BeforeClass
+    public static void startDatabase() throws Exception
+    {
+        new File(reportDir).mkdirs();
+
+        String pathToCatalog = Configuration.getPathToCatalogForTest("graph.jar");
+        String pathToDeployment = Configuration.getPathToCatalogForTest("graph.xml");
+        VoltProjectBuilder builder = new VoltProjectBuilder();
+
+        builder.addLiteralSchema(
+                "create table Users ("
+                + "uId integer not null, "
+                + "name varchar(16) default null, "
+                + "PRIMARY KEY(uId) "
+                + ");"
+                + "create table Follows ("
+                + "fId bigint not null, "
+                + "src integer not null, "
+                + "dst integer not null, "
+                + "weight float default null, "
+                + "PRIMARY KEY(fId, src) "
+                + ");"
+                + "create directed graph view Social "
+                + "vertexes (ID = uId, name = name) from Users "
+                + "edges (ID = fId, FROM = src, TO = dst, weight = weight) from Follows;"
+                + "create table Cities ("
+                + "cName varchar(16) not null, "
+                + "PRIMARY KEY(cName) "
+                + ");"
+                + "create table Roads ("
+                + "rId bigint not null, "
+                + "a varchar(16) not null, "
+                + "b varchar(16) not null, "
+                + "PRIMARY KEY(rId, a) "
+                + ");"
+                + "create undirected graph view Map "
+                + "vertexes (ID = cName) from Cities "
+                + "edges (ID = rId, FROM = a, TO = b) from Roads;");
+        builder.addPartitionInfo("Users", "uId");
+        builder.addPartitionInfo("Follows", "src");
+        builder.addPartitionInfo("Cities", "cName");
+        builder.addPartitionInfo("Roads", "a");
+        boolean success = builder.compile(pathToCatalog, 2, 1, 0);
+        assertTrue(success);
+        MiscUtils.copyFile(builder.getPathToDeployment(), pathToDeployment);
+        Configuration config = new Configuration();
+        config.m_pathToCatalog = pathToCatalog;
+        config.m_pathToDeployment = pathToDeployment;
+        localServer = new ServerThread(config);
+        client = null;
+
+        localServer.start();
+        localServer.waitForInitialization();
+
+        client = ClientFactory.createClient(new ClientConfig());
+        client.createConnection("localhost");
+        GraphLoader.testMode = true;
+    }
+
+    @AfterClass
+    public static void stopDatabase() throws InterruptedException
+    {
+        if (client != null) {
+            client.close();
+        }
+        client = null;
+
+        if (localServer != null) {
+            localServer.shutdown();
+            localServer.join();
+        }
+        localServer = null;
+    }
+
+    @After
+    public void tearDown() throws IOException, ProcCallException
+    {
+        for (String table : new String[] { "Users", "Follows", "Cities", "Roads" }) {
+            final ClientResponse response = client.callProcedure("@AdHoc", "TRUNCATE TABLE " + table + ";");
+            assertEquals(ClientResponse.SUCCESS, response.getStatus());
+        }
+    }
+
+    @Test
+    public void testEdgeList() throws Exception
+    {
+        String []myOptions = {
+                "-f" + path_graph,
+                "--firstedgeid=100",
+                "--reportinterval=0",
+                "Social"
+        };
+        String []myData = {
+                "# follower followed weight",
+                "1 2 0.5",
+                "2 3 1.5",
+                "",
+                "1 2 0.5",
+                "3\t1",
+        };
+        String summary = test_Interface(myOptions, myData);
+        assertTrue(summary, summary.contains("Inserted 3 edges and 3 vertexes, skipped 1 repeated edges and "
+                + "0 existing vertexes, 0 errors"));
+
+        assertEquals(Arrays.asList("1", "2", "3"), select("SELECT uId FROM Users ORDER BY uId;"));
+        assertEquals(Arrays.asList("100,1,2,0.5", "101,2,3,1.5", "102,3,1,null"),
+                select("SELECT fId, src, dst, weight FROM Follows ORDER BY fId;"));
+    }
+
+    @Test
+    public void testAdjacencyList() throws Exception
+    {
+        String []myOptions = {
+                "-f" + path_graph,
+                "--format=adjacency",
+                "--separator=,",
+                "--reportinterval=0",
+                "Map"
+        };
+        String []myData = {
+                "% city, cities it has roads to",
+                "Boston,NewYork,Albany",
+                "NewYork,Boston",
+                "Albany",
+                "Portland, Boston",
+        };
+        String summary = test_Interface(myOptions, myData);
+        // the graph is undirected, NewYork to Boston is the road from Boston to NewYork
+        assertTrue(summary, summary.contains("Inserted 3 edges and 4 vertexes, skipped 1 repeated edges and "
+                + "0 existing vertexes, 0 errors"));
+
+        assertEquals(Arrays.asList("Albany", "Boston", "NewYork", "Portland"),
+                select("SELECT cName FROM Cities ORDER BY cName;"));
+        assertEquals(Arrays.asList("0,Boston,NewYork", "1,Boston,Albany", "2,Portland,Boston"),
+                select("SELECT rId, a, b FROM Roads ORDER BY rId;"));
+    }
+
+    @Test
+    public void testRepeatedEdges() throws Exception
+    {
+        String []myData = {
+                "1 2",
+                "2 1",
+                "1 2",
+        };
+        // a directed graph keeps both directions
+        String summary = test_Interface(new String[] { "-f" + path_graph, "--reportinterval=0", "Social" }, myData);
+        assertTrue(summary, summary.contains("Inserted 2 edges and 2 vertexes, skipped 1 repeated edges"));
+        assertEquals(Arrays.asList("0,1,2", "1,2,1"), select("SELECT fId, src, dst FROM Follows ORDER BY fId;"));
+
+        // without the check every line is an edge, the vertexes are still queued once
+        summary = test_Interface(new String[] { "-f" + path_graph, "--nodedup", "--firstedgeid=10",
+                "--reportinterval=0", "Social" }, myData);
+        assertTrue(summary, summary.contains("Inserted 3 edges and 0 vertexes, skipped 0 repeated edges and "
+                + "2 existing vertexes, 0 errors"));
+        assertEquals(Arrays.asList("0,1,2", "1,2,1", "10,1,2", "11,2,1", "12,1,2"),
+                select("SELECT fId, src, dst FROM Follows ORDER BY fId;"));
+
+        // without --firstedgeid the ids continue after the largest one of the table
+        summary = test_Interface(new String[] { "-f" + path_graph, "--reportinterval=0", "Social" },
+                new String[] { "2 3" });
+        assertTrue(summary, summary.contains("Inserted 1 edges and 1 vertexes"));
+        assertEquals(Arrays.asList("0,1,2", "1,2,1", "10,1,2", "11,2,1", "12,1,2", "13,2,3"),
+                select("SELECT fId, src, dst FROM Follows ORDER BY fId;"));
+    }
+
+    @Test
+    public void testExistingVertexes() throws Exception
+    {
+        client.callProcedure("@AdHoc", "INSERT INTO Users VALUES (1, 'ann');");
+        client.callProcedure("@AdHoc", "INSERT INTO Users VALUES (5, 'bob');");
+        String []myData = {
+                "1 2",
+                "2 5",
+                "5 7",
+        };
+        String summary = test_Interface(new String[] { "-f" + path_graph, "--reportinterval=0", "Social" }, myData);
+        assertTrue(summary, summary.contains("Inserted 3 edges and 2 vertexes, skipped 0 repeated edges and "
+                + "2 existing vertexes, 0 errors"));
+
+        // the rows of the existing vertexes are left alone
+        assertEquals(Arrays.asList("1,ann", "2,null", "5,bob", "7,null"),
+                select("SELECT uId, name FROM Users ORDER BY uId;"));
+        assertEquals(3, select("SELECT fId FROM Follows;").size());
+    }
+
+    @Test
+    public void testErrorLimit() throws Exception
+    {
+        String []myOptions = {
+                "-f" + path_graph,
+                "--maxerrors=1",
+                "--reportinterval=0",
+                "Social"
+        };
+        String []myData = {
+                "1 2",
+                "x 3",
+                "4",
+                "5 6",
+                "6 7",
+        };
+        String summary = test_Interface(myOptions, myData);
+        assertTrue(summary, summary.contains("The number of errors exceeds the configured maximum errors: 1"));
+        // the load stops at the second error, before the last lines
+        assertTrue(summary, summary.contains("Inserted 1 edges and 2 vertexes, skipped 0 repeated edges and "
+                + "0 existing vertexes, 2 errors"));
+        assertEquals(Arrays.asList("1", "2"), select("SELECT uId FROM Users ORDER BY uId;"));
+        assertEquals(Arrays.asList("0,1,2"), select("SELECT fId, src, dst FROM Follows ORDER BY fId;"));
+
+        // the values of an edge line have to fit the columns of the edge table
+        myData = new String[] {
+                "1 2 0.5 extra",
+                "8 9 abc",
+                "9 8",
+        };
+        summary = test_Interface(new String[] { "-f" + path_graph, "--firstedgeid=10", "--reportinterval=0",
+                "Social" }, myData);
+        assertTrue(summary, summary.contains("Inserted 1 edges and 2 vertexes, skipped 0 repeated edges and "
+                + "0 existing vertexes, 2 errors"));
+        assertEquals(Arrays.asList("0,1,2", "11,9,8"), select("SELECT fId, src, dst FROM Follows ORDER BY fId;"));
+    }
+
+    @Test
+    public void testLongPairSet() throws Exception
+    {
+        GraphLoader.LongPairSet set = new GraphLoader.LongPairSet();
+        assertTrue(set.add(1, 2));
+        assertTrue(set.add(2, 1));
+        assertFalse(set.add(1, 2));
+        assertTrue(set.add(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(set.add(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(3, set.size());
+
+        // grows past its initial capacity and keeps every pair
+        for (long i = 0; i < 100000; i++) {
+            assertTrue(set.add(i, -i));
+        }
+        for (long i = 0; i < 100000; i++) {
+            assertTrue(set.contains(i, -i));
+            assertFalse(set.add(i, -i));
+        }
+        assertFalse(set.contains(100000, -100000));
+        assertEquals(100003, set.size());
+
+        // holds up to three quarters of its maximum capacity
+        set = new GraphLoader.LongPairSet(1 << 4);
+        for (long i = 0; i < 12; i++) {
+            assertTrue(set.add(i, i));
+        }
+        assertFalse(set.add(5, 5));
+        try {
+            set.add(12, 12);
+            fail("expected the set to be full");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("More than 12 distinct ids"));
+        }
+        assertEquals(12, set.size());
+    }
+
+    private List<String> select(String query) throws Exception
+    {
+        VoltTable table = client.callProcedure("@AdHoc", query).getResults()[0];
+        List<String> rows = new ArrayList<String>();
+        while (table.advanceRow()) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                Object value = table.get(i, table.getColumnType(i));
+                row.append(i == 0 ? "" : ",").append(table.wasNull() ? "null" : value);
+            }
+            rows.add(row.toString());
+        }
+        return rows;
+    }
+
+    // runs the loader on the lines and returns what it printed
+    public String test_Interface(String[] my_options, String[] my_data) throws Exception
+    {
+        BufferedWriter out_graph = new BufferedWriter(new FileWriter(path_graph));
+        for (String line : my_data) {
+            out_graph.write(line + "\n");
+        }
+        out_graph.flush();
+        out_graph.close();
+
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+        try {
+            GraphLoader.main(my_options);
+        } finally {
+            System.setOut(stdout);
+        }
+        String summary = output.toString();
+        System.out.print(summary);
+        return summary;
+    }
+}